@@ -0,0 +1,81 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整的调用过程：js的request经过{@link BridgeCore#parseJsonFromJs(String)}分发到java接口，再把response发送给js；
+ * 以及通过{@link BridgeCore#createInvokJSCommand(Class)}生成的代理调用js。
+ * <p>使用{@link InMemoryTransport}代替WebView，所有任务都在调用线程中执行，每次操作后取出发送给js的代码。
+ * 每个基准测试分别使用{@link OrgJsonCodec}和{@link StreamingJsonCodec}运行，并对比设置{@link BridgeMetrics}前后的差别</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BridgeBenchmark {
+
+    private static final String FLAT_MESSAGE = Payloads.PROTOCOL + "://receive_msg?" + Payloads.FLAT_REQUEST;
+    private static final String NESTED_MESSAGE = Payloads.PROTOCOL + "://receive_msg?" + Payloads.NESTED_REQUEST;
+
+    @Param({Payloads.CODEC_ORG_JSON, Payloads.CODEC_STREAMING})
+    public String codec;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private InMemoryTransport mTransport;
+    private BridgeCore mBridgeCore;
+    private Payloads.IInvokeJS mInvokeJS;
+
+    private Payloads.User mUser;
+    private Payloads.Address mAddress;
+
+    @Setup
+    public void setUp() {
+        mTransport = new InMemoryTransport();
+        mBridgeCore = Payloads.newBridge(mTransport, codec, metrics ? new BridgeMetrics() : null);
+        mInvokeJS = mBridgeCore.createInvokJSCommand(Payloads.IInvokeJS.class);
+        mUser = Payloads.newUser();
+        mAddress = Payloads.newAddress();
+    }
+
+    @Benchmark
+    public String parseJsonFromJs_flat() {
+        mBridgeCore.parseJsonFromJs(FLAT_MESSAGE);
+        return mTransport.poll();
+    }
+
+    @Benchmark
+    public String parseJsonFromJs_nested() {
+        mBridgeCore.parseJsonFromJs(NESTED_MESSAGE);
+        return mTransport.poll();
+    }
+
+    @Benchmark
+    public String invokeJS_flat() {
+        mInvokeJS.flat("10086", "niuxiaowei", 30, 98.5, true);
+        return mTransport.poll();
+    }
+
+    @Benchmark
+    public String invokeJS_nested() {
+        mInvokeJS.nested(mUser, mAddress, 1);
+        return mTransport.poll();
+    }
+}
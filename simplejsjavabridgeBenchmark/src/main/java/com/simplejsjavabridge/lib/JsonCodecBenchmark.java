@@ -0,0 +1,82 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对比不同的{@link JsonCodec}：从js的字符串中读取request并绑定为方法的参数值，以及把参数值放入request并写成json，
+ * 不包含接口的分发和发送
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    @Param({Payloads.CODEC_ORG_JSON, Payloads.CODEC_STREAMING})
+    public String codec;
+
+    private BridgeContext mContext;
+
+    private Params mFlatJavaParams;
+    private Params mNestedJavaParams;
+    private Params mFlatJSParams;
+    private Params mNestedJSParams;
+
+    private Object[] mFlatValues;
+    private Object[] mNestedValues;
+
+    @Setup
+    public void setUp() {
+        mContext = new BridgeContext(null, Payloads.newCodec(codec), null, null, null, null, null, null);
+        mFlatJavaParams = Params.createParams(Payloads.findMethod(Payloads.JavaInterfaces.class, "flat"));
+        mNestedJavaParams = Params.createParams(Payloads.findMethod(Payloads.JavaInterfaces.class, "nested"));
+        mFlatJSParams = Params.createParams(Payloads.findMethod(Payloads.IInvokeJS.class, "flat"));
+        mNestedJSParams = Params.createParams(Payloads.findMethod(Payloads.IInvokeJS.class, "nested"));
+        mFlatValues = new Object[]{"10086", "niuxiaowei", 30, 98.5, true};
+        mNestedValues = new Object[]{Payloads.newUser(), Payloads.newAddress(), 1};
+    }
+
+    @Benchmark
+    public Object[] read_flat() throws JSONException {
+        return mFlatJavaParams.convertJson2ParamValues(RequestResponseBuilder.create(Payloads.FLAT_REQUEST, 0, mContext));
+    }
+
+    @Benchmark
+    public Object[] read_nested() throws JSONException {
+        return mNestedJavaParams.convertJson2ParamValues(RequestResponseBuilder.create(Payloads.NESTED_REQUEST, 0, mContext));
+    }
+
+    @Benchmark
+    public String write_flat() {
+        return write(mFlatJSParams, mFlatValues);
+    }
+
+    @Benchmark
+    public String write_nested() {
+        return write(mNestedJSParams, mNestedValues);
+    }
+
+    private String write(Params params, Object[] values) {
+        RequestResponseBuilder request = new RequestResponseBuilder(true);
+        request.setContext(mContext);
+        params.convertParamValues2Json(request, values);
+        MessageWriter writer = MessageWriter.obtain();
+        request.writeTo(writer);
+        return writer.toString();
+    }
+}
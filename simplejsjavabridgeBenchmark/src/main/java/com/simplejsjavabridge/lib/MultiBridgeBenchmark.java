@@ -0,0 +1,108 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.JavaCallback4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同一个进程中同时运行多个{@link BridgeCore}时的吞吐量，对应同时打开多个WebView的场景。
+ * <p>每个线程拥有自己的{@link BridgeCore}和{@link InMemoryTransport}，{@code roundTrips_N}在N个线程中同时运行，
+ * 即N个实例，JMH报告的是所有线程的总吞吐量。实例之间没有共享的锁，总吞吐量应该随实例数线性增加(不超过cpu核数时)。</p>
+ * <p>每次操作包含两次往返：js调用java并收到response，java调用js并收到js的回调，因此每秒往返次数是结果的2倍</p>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MultiBridgeBenchmark {
+
+    private static final String FLAT_MESSAGE = Payloads.PROTOCOL + "://receive_msg?" + Payloads.FLAT_REQUEST;
+
+    private static final String CALLBACK_ID_KEY = "\"callbackId\":\"";
+
+    public interface IPing {
+        @InvokeJSInterface(value = "ping", timeout = 0)
+        void ping(@Param("seq") int seq, @ParamCallback IJavaCallback2JS callback);
+    }
+
+    public static class PingCallback extends IJavaCallback2JS {
+        int count;
+
+        @JavaCallback4JS
+        public void callback(@Param("seq") int seq) {
+            count++;
+        }
+    }
+
+    private InMemoryTransport mTransport;
+    private BridgeCore mBridgeCore;
+    private IPing mPing;
+    private PingCallback mCallback;
+    private int mSeq;
+
+    @Setup
+    public void setUp() {
+        mTransport = new InMemoryTransport();
+        mBridgeCore = Payloads.newBridge(mTransport, Payloads.CODEC_ORG_JSON, null);
+        mPing = mBridgeCore.createInvokJSCommand(IPing.class);
+        mCallback = new PingCallback();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public int roundTrips_1() {
+        return roundTrip();
+    }
+
+    @Benchmark
+    @Threads(2)
+    public int roundTrips_2() {
+        return roundTrip();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public int roundTrips_4() {
+        return roundTrip();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public int roundTrips_8() {
+        return roundTrip();
+    }
+
+    private int roundTrip() {
+        /*js调用java，取出发送给js的response*/
+        mBridgeCore.parseJsonFromJs(FLAT_MESSAGE);
+        String response = mTransport.poll();
+
+        /*java调用js，"js"用request中的callbackId进行响应*/
+        int seq = mSeq++;
+        mPing.ping(seq, mCallback);
+        String request = mTransport.poll();
+        int begin = request.indexOf(CALLBACK_ID_KEY) + CALLBACK_ID_KEY.length();
+        String callbackId = request.substring(begin, request.indexOf('"', begin));
+        mBridgeCore.parseJsonFromJs(Payloads.PROTOCOL + "://receive_msg?{\"responseId\":\"" + callbackId
+                + "\",\"data\":{\"values\":{\"seq\":" + seq + "}}}");
+        return response.length() + mCallback.count;
+    }
+}
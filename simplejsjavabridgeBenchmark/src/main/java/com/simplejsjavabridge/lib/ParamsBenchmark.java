@@ -0,0 +1,77 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Params}在json与方法的参数值之间的转换，分为扁平的参数和嵌套了对象的参数
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParamsBenchmark {
+
+    private Params mFlatJavaParams;
+    private Params mNestedJavaParams;
+    private Params mFlatJSParams;
+    private Params mNestedJSParams;
+
+    private RequestResponseBuilder mFlatRequest;
+    private RequestResponseBuilder mNestedRequest;
+
+    private Object[] mFlatValues;
+    private Object[] mNestedValues;
+
+    @Setup
+    public void setUp() throws Exception {
+        mFlatJavaParams = Params.createParams(Payloads.findMethod(Payloads.JavaInterfaces.class, "flat"));
+        mNestedJavaParams = Params.createParams(Payloads.findMethod(Payloads.JavaInterfaces.class, "nested"));
+        mFlatJSParams = Params.createParams(Payloads.findMethod(Payloads.IInvokeJS.class, "flat"));
+        mNestedJSParams = Params.createParams(Payloads.findMethod(Payloads.IInvokeJS.class, "nested"));
+
+        /*request中的json已经解析好，只测试参数的转换*/
+        mFlatRequest = RequestResponseBuilder.create(new JSONObject(Payloads.FLAT_REQUEST));
+        mNestedRequest = RequestResponseBuilder.create(new JSONObject(Payloads.NESTED_REQUEST));
+
+        mFlatValues = new Object[]{"10086", "niuxiaowei", 30, 98.5, true};
+        mNestedValues = new Object[]{Payloads.newUser(), Payloads.newAddress(), 1};
+    }
+
+    @Benchmark
+    public Object[] json2ParamValues_flat() {
+        return mFlatJavaParams.convertJson2ParamValues(mFlatRequest);
+    }
+
+    @Benchmark
+    public Object[] json2ParamValues_nested() {
+        return mNestedJavaParams.convertJson2ParamValues(mNestedRequest);
+    }
+
+    @Benchmark
+    public RequestResponseBuilder paramValues2Json_flat() {
+        RequestResponseBuilder request = new RequestResponseBuilder(true);
+        mFlatJSParams.convertParamValues2Json(request, mFlatValues);
+        return request;
+    }
+
+    @Benchmark
+    public RequestResponseBuilder paramValues2Json_nested() {
+        RequestResponseBuilder request = new RequestResponseBuilder(true);
+        mNestedJSParams.convertParamValues2Json(request, mNestedValues);
+        return request;
+    }
+}
@@ -0,0 +1,146 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.annotation.ParamResponseStatus;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import java.lang.reflect.Method;
+
+/**
+ * 基准测试使用的数据，与页面中实际传递的数据的结构保持一致：扁平的对象和嵌套了对象、数组的对象
+ */
+class Payloads {
+
+    static final String FLAT_PARAMS = "{\"uid\":\"10086\",\"name\":\"niuxiaowei\",\"age\":30,\"score\":98.5,\"vip\":true}";
+
+    static final String NESTED_PARAMS = "{\"user\":" + FLAT_PARAMS + ",\"address\":{\"city\":\"北京\",\"street\":\"长安街1号\",\"zip\":100000},"
+            + "\"tags\":[\"a\",\"b\",\"c\"],\"page\":1}";
+
+    static final String FLAT_REQUEST = "{\"handlerName\":\"flat\",\"callbackId\":\"c_1\",\"params\":" + FLAT_PARAMS + "}";
+
+    static final String NESTED_REQUEST = "{\"handlerName\":\"nested\",\"callbackId\":\"c_2\",\"params\":" + NESTED_PARAMS + "}";
+
+    static final String PROTOCOL = "niu";
+
+    /*对比的json编解码器，基准测试的@Param中使用*/
+    static final String CODEC_ORG_JSON = "orgjson";
+    static final String CODEC_STREAMING = "streaming";
+
+    public static class User {
+        @Param("uid")
+        String uid;
+        @Param("name")
+        String name;
+        @Param("age")
+        int age;
+        @Param("score")
+        double score;
+        @Param("vip")
+        boolean vip;
+    }
+
+    public static class Address {
+        @Param("city")
+        String city;
+        @Param("street")
+        String street;
+        @Param("zip")
+        int zip;
+    }
+
+    public static class Result {
+        @ParamResponseStatus("status")
+        int status = 1;
+        @Param("name")
+        String name;
+    }
+
+    public interface IResultCallback {
+        void callback(@ParamResponseStatus("status") int status, @Param("name") String name);
+    }
+
+    /**
+     * java为js提供的接口
+     */
+    public static class JavaInterfaces {
+
+        @JavaInterface4JS("flat")
+        public Result flat(@Param("uid") String uid, @Param("name") String name, @Param("age") int age,
+                           @Param("score") double score, @Param("vip") boolean vip) {
+            Result result = new Result();
+            result.name = name;
+            return result;
+        }
+
+        @JavaInterface4JS("nested")
+        public void nested(@Param("user") User user, @Param("address") Address address, @Param("page") int page,
+                           @ParamCallback IResultCallback callback) {
+            callback.callback(1, user.name);
+        }
+    }
+
+    /**
+     * java调用js的接口
+     */
+    public interface IInvokeJS {
+
+        @InvokeJSInterface("flat")
+        void flat(@Param("uid") String uid, @Param("name") String name, @Param("age") int age,
+                  @Param("score") double score, @Param("vip") boolean vip);
+
+        @InvokeJSInterface("nested")
+        void nested(@Param("user") User user, @Param("address") Address address, @Param("page") int page);
+    }
+
+    static User newUser() {
+        User user = new User();
+        user.uid = "10086";
+        user.name = "niuxiaowei";
+        user.age = 30;
+        user.score = 98.5;
+        user.vip = true;
+        return user;
+    }
+
+    static Address newAddress() {
+        Address address = new Address();
+        address.city = "北京";
+        address.street = "长安街1号";
+        address.zip = 100000;
+        return address;
+    }
+
+    static Method findMethod(Class<?> type, String name) {
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(name)) {
+                return method;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+
+    static JsonCodec newCodec(String codec) {
+        return CODEC_STREAMING.equals(codec) ? new StreamingJsonCodec() : new OrgJsonCodec();
+    }
+
+    /**
+     * 创建一个不依赖WebView和主线程的{@link BridgeCore}，所有的任务都在调用线程中执行
+     *
+     * @param metricsListener 为null时不统计
+     */
+    static BridgeCore newBridge(InMemoryTransport transport, String codec, BridgeMetricsListener metricsListener) {
+        return new BridgeCore.Builder()
+                .setJsonCodec(newCodec(codec))
+                .setMetricsListener(metricsListener)
+                .addJavaInterface4JS(new JavaInterfaces())
+                .setTransport(transport)
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol(PROTOCOL, "receive_msg")
+                .create();
+    }
+}
@@ -0,0 +1,67 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RequestResponseBuilder}从js的字符串中读取request，以及把request写成调用js方法的代码
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestResponseBuilderBenchmark {
+
+    private RequestResponseBuilder mFlatRequest;
+    private RequestResponseBuilder mNestedRequest;
+
+    @Setup
+    public void setUp() throws JSONException {
+        mFlatRequest = RequestResponseBuilder.create(Payloads.FLAT_REQUEST, 0, BridgeContext.DEFAULT);
+        mNestedRequest = RequestResponseBuilder.create(Payloads.NESTED_REQUEST, 0, BridgeContext.DEFAULT);
+        /*提前解析params，toString()只测试生成json*/
+        mFlatRequest.getValues();
+        mNestedRequest.getValues();
+    }
+
+    /**
+     * 只读取信封，params在使用时才解析
+     */
+    @Benchmark
+    public RequestResponseBuilder create_envelope() throws JSONException {
+        return RequestResponseBuilder.create(Payloads.NESTED_REQUEST, 0, BridgeContext.DEFAULT);
+    }
+
+    @Benchmark
+    public Object create_flat() throws JSONException {
+        return RequestResponseBuilder.create(Payloads.FLAT_REQUEST, 0, BridgeContext.DEFAULT).getValues();
+    }
+
+    @Benchmark
+    public Object create_nested() throws JSONException {
+        return RequestResponseBuilder.create(Payloads.NESTED_REQUEST, 0, BridgeContext.DEFAULT).getValues();
+    }
+
+    @Benchmark
+    public String toString_flat() {
+        return mFlatRequest.toString();
+    }
+
+    @Benchmark
+    public String toString_nested() {
+        return mNestedRequest.toString();
+    }
+}
@@ -0,0 +1,545 @@
+package com.simplejsjavabridge.compiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+
+/**
+ * 编译期处理{@code @JavaInterface4JS}注解，为每个包含该注解方法的类生成一个{@code JavaInterfaceDispatcher}，
+ * 生成的类名是原类的名字加上"_JavaInterfaceDispatcher"。
+ * <p>生成的分发器按参数的类型调用{@code Params.convertInt}等静态方法解析参数，与反射调用时的转化相同，
+ * 基本类型的参数不需要装箱，最终直接调用被标注的方法，不需要反射。
+ * 参数值不能转化为参数的类型时交给{@code Params.onConvertParamsFailed}，不执行方法。</p>
+ * <p>接口的注册信息({@code @JavaInterface4JS}，{@code @Cacheable}，{@code @SingleFlight}的值以及返回值的种类)
+ * 由{@code getJavaInterfaces()}返回，运行时不需要扫描类中的方法和注解。</p>
+ * <p>方法有返回值时，返回值交给{@code Params.sendReturnValue}作为response发送给js，String，基本类型以及它们的包装类型的返回值被忽略，
+ * 方法抛出的异常(包括声明的受检异常)交给{@code Params.onInvokeFailed}，与反射调用时相同</p>
+ * <p>本模块不依赖android库，因此注解都是通过名字来识别的</p>
+ */
+public class JavaInterface4JSProcessor extends AbstractProcessor {
+
+    private static final String LIB_PACKAGE = "com.simplejsjavabridge.lib";
+    private static final String JAVA_INTERFACE_4_JS = LIB_PACKAGE + ".annotation.JavaInterface4JS";
+    private static final String PARAM = LIB_PACKAGE + ".annotation.Param";
+    private static final String PARAM_CALLBACK = LIB_PACKAGE + ".annotation.ParamCallback";
+    private static final String PARAM_RESPONSE_STATUS = LIB_PACKAGE + ".annotation.ParamResponseStatus";
+    private static final String CACHEABLE = LIB_PACKAGE + ".annotation.Cacheable";
+    private static final String SINGLE_FLIGHT = LIB_PACKAGE + ".annotation.SingleFlight";
+    private static final String THREAD_MODE = LIB_PACKAGE + ".annotation.ThreadMode";
+    private static final String PRIORITY = LIB_PACKAGE + ".annotation.Priority";
+
+    private static final String DISPATCHER = LIB_PACKAGE + ".JavaInterfaceDispatcher";
+    private static final String PARAMS = LIB_PACKAGE + ".Params";
+    private static final String REQUEST_RESPONSE_BUILDER = LIB_PACKAGE + ".RequestResponseBuilder";
+    private static final String JAVA_INTERFACE_INFO = LIB_PACKAGE + ".JavaInterfaceInfo";
+    private static final String BRIDGE_FUTURE = LIB_PACKAGE + ".BridgeFuture";
+    private static final String DISPATCHER_SUFFIX = "_JavaInterfaceDispatcher";
+
+    private static final String JSON_OBJECT = "org.json.JSONObject";
+    private static final String JSON_ARRAY = "org.json.JSONArray";
+    private static final String JSON_EXCEPTION = "org.json.JSONException";
+
+    /**
+     * 与{@code JavaInterfaceInfo}中返回值的种类一一对应
+     */
+    private static final int RETURN_VOID = 0;
+    private static final int RETURN_VALUE = 1;
+    private static final int RETURN_FUTURE = 2;
+    private static final int RETURN_IGNORED = 3;
+    private static final String[] RETURN_KIND_NAMES = {"RETURN_VOID", "RETURN_VALUE", "RETURN_FUTURE", "RETURN_IGNORED"};
+
+    private Elements mElements;
+    private Types mTypes;
+    private Messager mMessager;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment processingEnv) {
+        super.init(processingEnv);
+        mElements = processingEnv.getElementUtils();
+        mTypes = processingEnv.getTypeUtils();
+        mMessager = processingEnv.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(JAVA_INTERFACE_4_JS);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        TypeElement javaInterface4JS = mElements.getTypeElement(JAVA_INTERFACE_4_JS);
+        if (javaInterface4JS == null) {
+            return false;
+        }
+
+        /*按照所属的类对方法进行分组，保持声明的顺序*/
+        Map<TypeElement, List<ExecutableElement>> methodsOfClass = new LinkedHashMap<>();
+        for (Element element : roundEnv.getElementsAnnotatedWith(javaInterface4JS)) {
+            if (element.getKind() != ElementKind.METHOD) {
+                continue;
+            }
+            TypeElement enclosingClass = (TypeElement) element.getEnclosingElement();
+            List<ExecutableElement> methods = methodsOfClass.get(enclosingClass);
+            if (methods == null) {
+                methods = new ArrayList<>();
+                methodsOfClass.put(enclosingClass, methods);
+            }
+            methods.add((ExecutableElement) element);
+        }
+
+        for (Map.Entry<TypeElement, List<ExecutableElement>> entry : methodsOfClass.entrySet()) {
+            if (checkClass(entry.getKey(), entry.getValue())) {
+                writeDispatcher(entry.getKey(), entry.getValue());
+            }
+        }
+        /*@JavaInterface4JS只由本处理器处理*/
+        return true;
+    }
+
+    /**
+     * 生成的分发器与原类在同一个包中，因此原类和方法都不能是private的，原类不能是非static的内部类。
+     * 这些类不生成分发器，只给出警告，运行时仍然通过反射调用
+     *
+     * @param enclosingClass
+     * @param methods
+     * @return true 代表可以生成分发器
+     */
+    private boolean checkClass(TypeElement enclosingClass, List<ExecutableElement> methods) {
+        boolean valid = true;
+        if (enclosingClass.getKind() != ElementKind.CLASS) {
+            error(enclosingClass, "@JavaInterface4JS只能标注类中的方法");
+            return false;
+        }
+        Element element = enclosingClass;
+        while (element instanceof TypeElement) {
+            TypeElement typeElement = (TypeElement) element;
+            if (typeElement.getModifiers().contains(Modifier.PRIVATE)) {
+                warning(typeElement, typeElement.getQualifiedName() + "是private的，不生成分发器，将通过反射调用");
+                return false;
+            }
+            if (typeElement.getNestingKind() == NestingKind.MEMBER && !typeElement.getModifiers().contains(Modifier.STATIC)) {
+                warning(typeElement, typeElement.getQualifiedName() + "不是static的内部类，不生成分发器，将通过反射调用");
+                return false;
+            }
+            element = typeElement.getEnclosingElement();
+        }
+
+        Set<String> interfaceNames = new HashSet<>();
+        for (ExecutableElement method : methods) {
+            if (method.getModifiers().contains(Modifier.PRIVATE) || method.getModifiers().contains(Modifier.STATIC)) {
+                warning(method, "@JavaInterface4JS标注的方法是private或static的，" + enclosingClass.getQualifiedName() + "不生成分发器，将通过反射调用");
+                return false;
+            }
+            String interfaceName = getAnnotationStringValue(method, JAVA_INTERFACE_4_JS);
+            if (!interfaceNames.add(interfaceName)) {
+                error(method, "接口名字\"" + interfaceName + "\"重复了");
+                valid = false;
+            }
+            int returnKind = returnKind(method);
+            boolean hasReturnValue = returnKind == RETURN_VALUE || returnKind == RETURN_FUTURE;
+            if (returnKind == RETURN_IGNORED) {
+                warning(method, "返回值" + method.getReturnType() + "不能作为response，将被忽略，"
+                        + "@JavaInterface4JS标注的方法的返回值只能是void,JSONObject,BridgeFuture或者包含属性的类");
+            }
+            if (Boolean.TRUE.equals(getAnnotationValue(method, JAVA_INTERFACE_4_JS, "sync")) && returnKind != RETURN_VALUE) {
+                error(method, "同步接口" + interfaceName + "必须有返回值，并且不能是BridgeFuture");
+                valid = false;
+            }
+            for (VariableElement parameter : method.getParameters()) {
+                int count = 0;
+                for (AnnotationMirror annotationMirror : parameter.getAnnotationMirrors()) {
+                    String name = annotationName(annotationMirror);
+                    if (PARAM.equals(name) || PARAM_CALLBACK.equals(name) || PARAM_RESPONSE_STATUS.equals(name)) {
+                        count++;
+                    }
+                    if (hasReturnValue && PARAM_CALLBACK.equals(name)) {
+                        error(parameter, "方法有返回值时不能再用ParamCallback响应js");
+                        valid = false;
+                    }
+                }
+                if (count != 1) {
+                    error(parameter, "方法的所有参数必须都得用Param,ParamCallback,ParamResponseStatus 中的任意一个注解进行标注");
+                    valid = false;
+                }
+            }
+        }
+        return valid;
+    }
+
+    private void writeDispatcher(TypeElement enclosingClass, List<ExecutableElement> methods) {
+        PackageElement packageElement = mElements.getPackageOf(enclosingClass);
+        String packageName = packageElement.isUnnamed() ? "" : packageElement.getQualifiedName().toString();
+        String className = binaryName(enclosingClass, packageName) + DISPATCHER_SUFFIX;
+        String targetType = enclosingClass.getQualifiedName().toString();
+
+        StringBuilder code = new StringBuilder();
+        /*生成的代码只包含ascii字符，避免受编译时encoding的影响*/
+        code.append("// Generated by ").append(getClass().getSimpleName()).append(", do not modify.\n");
+        if (!packageName.isEmpty()) {
+            code.append("package ").append(packageName).append(";\n\n");
+        }
+        code.append("public final class ").append(className).append(" implements ").append(DISPATCHER).append(" {\n\n");
+        code.append("    private final ").append(targetType).append(" mTarget;\n\n");
+        code.append("    public ").append(className).append("(").append(targetType).append(" target) {\n");
+        code.append("        mTarget = target;\n");
+        code.append("    }\n\n");
+        code.append("    @Override\n");
+        if (needsUncheckedCast(methods)) {
+            code.append("    @SuppressWarnings(\"unchecked\")\n");
+        }
+        code.append("    public boolean dispatch(String interfaceName, ").append(REQUEST_RESPONSE_BUILDER).append(" request) {\n");
+        code.append("        if (interfaceName == null || request == null) {\n");
+        code.append("            return false;\n");
+        code.append("        }\n");
+        code.append("        switch (interfaceName) {\n");
+        for (ExecutableElement method : methods) {
+            code.append("            case ").append(mElements.getConstantExpression(getAnnotationStringValue(method, JAVA_INTERFACE_4_JS))).append(": {\n");
+            int returnKind = returnKind(method);
+            boolean hasReturnValue = returnKind == RETURN_VALUE || returnKind == RETURN_FUTURE;
+            List<? extends VariableElement> parameters = method.getParameters();
+            /*参数值先全部转化好，转化失败时与反射调用时一样交给Params.onConvertParamsFailed处理，不执行方法*/
+            if (hasParameterAnnotatedWith(method, PARAM)) {
+                code.append("                ").append(JSON_OBJECT).append(" values = request.getValues();\n");
+            }
+            if (hasParameterAnnotatedWith(method, PARAM_RESPONSE_STATUS)) {
+                code.append("                ").append(JSON_OBJECT).append(" responseStatus = request.getResponseStatus();\n");
+            }
+            boolean canFail = false;
+            for (int i = 0; i < parameters.size(); i++) {
+                code.append("                ").append(parameters.get(i).asType().toString()).append(" p").append(i).append(";\n");
+                /*除了回调，参数值都可能转化失败，与反射调用时相同*/
+                canFail |= !isParamCallback(parameters.get(i));
+            }
+            String indent = "                ";
+            if (canFail) {
+                code.append("                try {\n");
+                indent = "                    ";
+            }
+            for (int i = 0; i < parameters.size(); i++) {
+                code.append(indent).append("p").append(i).append(" = ").append(convertParameter(parameters.get(i))).append(";\n");
+            }
+            if (canFail) {
+                code.append("                } catch (").append(JSON_EXCEPTION).append(" e) {\n");
+                code.append("                    ").append(PARAMS).append(".onConvertParamsFailed(request, e);\n");
+                code.append("                    return true;\n");
+                code.append("                }\n");
+            }
+            /*方法声明的异常和执行时的异常都与反射调用时一样交给Params.onInvokeFailed处理*/
+            code.append("                try {\n");
+            code.append("                    ");
+            if (hasReturnValue) {
+                /*返回值作为response发送给js*/
+                code.append(PARAMS).append(".sendReturnValue(request, ");
+            }
+            code.append("mTarget.").append(method.getSimpleName()).append("(");
+            for (int i = 0; i < parameters.size(); i++) {
+                if (i > 0) {
+                    code.append(", ");
+                }
+                code.append("p").append(i);
+            }
+            code.append(hasReturnValue ? "));\n" : ");\n");
+            code.append("                } catch (Throwable e) {\n");
+            code.append("                    ").append(PARAMS).append(".onInvokeFailed(request, e);\n");
+            code.append("                }\n");
+            code.append("                return true;\n");
+            code.append("            }\n");
+        }
+        code.append("            default:\n");
+        code.append("                return false;\n");
+        code.append("        }\n");
+        code.append("    }\n\n");
+        writeJavaInterfaces(code, methods);
+        code.append("}\n");
+
+        String qualifiedName = packageName.isEmpty() ? className : packageName + "." + className;
+        Writer writer = null;
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(qualifiedName, enclosingClass);
+            writer = file.openWriter();
+            writer.write(code.toString());
+        } catch (IOException e) {
+            error(enclosingClass, "生成" + qualifiedName + "失败：" + e.getMessage());
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                }
+            }
+        }
+    }
+
+    /**
+     * 生成getJavaInterfaces()，把注解的值(包括默认值)写成{@code JavaInterfaceInfo}
+     *
+     * @param code
+     * @param methods
+     */
+    private void writeJavaInterfaces(StringBuilder code, List<ExecutableElement> methods) {
+        code.append("    @Override\n");
+        code.append("    public ").append(JAVA_INTERFACE_INFO).append("[] getJavaInterfaces() {\n");
+        code.append("        return new ").append(JAVA_INTERFACE_INFO).append("[]{\n");
+        for (ExecutableElement method : methods) {
+            code.append("                new ").append(JAVA_INTERFACE_INFO).append("(")
+                    .append(mElements.getConstantExpression(getAnnotationStringValue(method, JAVA_INTERFACE_4_JS))).append(", ")
+                    .append(THREAD_MODE).append(".").append(getAnnotationValue(method, JAVA_INTERFACE_4_JS, "thread")).append(", ")
+                    .append(mElements.getConstantExpression(getAnnotationValue(method, JAVA_INTERFACE_4_JS, "executor"))).append(", ")
+                    .append(getAnnotationValue(method, JAVA_INTERFACE_4_JS, "sync")).append(", ")
+                    .append(PRIORITY).append(".").append(getAnnotationValue(method, JAVA_INTERFACE_4_JS, "priority")).append(", ")
+                    .append(JAVA_INTERFACE_INFO).append(".").append(RETURN_KIND_NAMES[returnKind(method)]).append(")");
+            if (isAnnotatedWith(method, CACHEABLE)) {
+                code.append(".cacheable(").append(mElements.getConstantExpression(getAnnotationValue(method, CACHEABLE, "ttl"))).append(", ")
+                        .append(mElements.getConstantExpression(getAnnotationValue(method, CACHEABLE, "maxSize"))).append(")");
+            }
+            if (isAnnotatedWith(method, SINGLE_FLIGHT)) {
+                code.append(".singleFlight(").append(mElements.getConstantExpression(getAnnotationValue(method, SINGLE_FLIGHT, "timeout"))).append(")");
+            }
+            code.append(",\n");
+        }
+        code.append("        };\n");
+        code.append("    }\n");
+    }
+
+    private int returnKind(ExecutableElement method) {
+        TypeMirror returnType = method.getReturnType();
+        if (returnType.getKind() == TypeKind.VOID) {
+            return RETURN_VOID;
+        }
+        if (returnType.getKind() == TypeKind.DECLARED && BRIDGE_FUTURE.equals(mTypes.erasure(returnType).toString())) {
+            return RETURN_FUTURE;
+        }
+        if (returnType.getKind().isPrimitive() || (returnType.getKind() == TypeKind.DECLARED && isBoxedOrString(returnType))) {
+            return RETURN_IGNORED;
+        }
+        return RETURN_VALUE;
+    }
+
+    private static boolean isParamCallback(VariableElement parameter) {
+        return isAnnotatedWith(parameter, PARAM_CALLBACK);
+    }
+
+    private static boolean isAnnotatedWith(Element element, String annotationName) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (annotationName.equals(annotationName(annotationMirror))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean hasParameterAnnotatedWith(ExecutableElement method, String annotationName) {
+        for (VariableElement parameter : method.getParameters()) {
+            if (isAnnotatedWith(parameter, annotationName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只有泛型的参数需要强制转化，这时dispatch方法才需要忽略unchecked警告
+     */
+    private boolean needsUncheckedCast(List<ExecutableElement> methods) {
+        for (ExecutableElement method : methods) {
+            for (VariableElement parameter : method.getParameters()) {
+                if (isGeneric(parameter.asType())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 生成解析参数值的代码，{@code Param}和{@code ParamResponseStatus}标注的参数按类型调用{@code Params}中对应的方法，
+     * 分别从values和responseStatus中读取，基本类型的参数直接得到基本类型的值
+     *
+     * @param parameter
+     * @return
+     */
+    private String convertParameter(VariableElement parameter) {
+        TypeMirror type = parameter.asType();
+        String rawType = mTypes.erasure(type).toString();
+        String castPrefix = isGeneric(type) ? "(" + type.toString() + ") " : "";
+        for (AnnotationMirror annotationMirror : parameter.getAnnotationMirrors()) {
+            String name = annotationName(annotationMirror);
+            if (PARAM.equals(name) || PARAM_RESPONSE_STATUS.equals(name)) {
+                String json = PARAM.equals(name) ? "values" : "responseStatus";
+                String key = mElements.getConstantExpression(getAnnotationStringValue(annotationMirror));
+                String converter = directConverter(type);
+                if (converter != null) {
+                    return PARAMS + "." + converter + "(" + json + ", " + key + ")";
+                }
+                return castPrefix + PARAMS + ".convertObject(" + json + ", " + key + ", " + rawType + ".class)";
+            } else if (PARAM_CALLBACK.equals(name)) {
+                return castPrefix + PARAMS + ".createParamCallback(request, " + rawType + ".class)";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 可以直接放入json中的类型对应的{@code Params}中的方法，与{@code ObjectBinder.isObjectDirectPut2Json(Class)}一致
+     *
+     * @param type
+     * @return 其他类型返回null，由{@code Params.convertObject}转化
+     */
+    private String directConverter(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN:
+                return "convertBoolean";
+            case INT:
+                return "convertInt";
+            case LONG:
+                return "convertLong";
+            case DOUBLE:
+                return "convertDouble";
+            case FLOAT:
+                return "convertFloat";
+            case SHORT:
+                return "convertShort";
+            case BYTE:
+                return "convertByte";
+            case CHAR:
+                return "convertChar";
+            case DECLARED:
+                String typeName = mTypes.erasure(type).toString();
+                if (String.class.getName().equals(typeName)) {
+                    return "convertString";
+                } else if (JSON_OBJECT.equals(typeName)) {
+                    return "convertJSONObject";
+                } else if (JSON_ARRAY.equals(typeName)) {
+                    return "convertJSONArray";
+                }
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 包装类型和String没有属性，不能作为response
+     */
+    private boolean isBoxedOrString(TypeMirror type) {
+        try {
+            mTypes.unboxedType(type);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return mTypes.isSameType(type, mElements.getTypeElement(String.class.getName()).asType());
+        }
+    }
+
+    private boolean isGeneric(TypeMirror type) {
+        return type.getKind() == TypeKind.DECLARED && !mTypes.isSameType(type, mTypes.erasure(type));
+    }
+
+    /**
+     * 内部类的名字是 Outer$Inner 这种格式，与{@link Class#getName()}保持一致
+     *
+     * @param typeElement
+     * @param packageName
+     * @return
+     */
+    private static String binaryName(TypeElement typeElement, String packageName) {
+        String qualifiedName = typeElement.getQualifiedName().toString();
+        String simpleNames = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+        return simpleNames.replace('.', '$');
+    }
+
+    private static String annotationName(AnnotationMirror annotationMirror) {
+        return ((TypeElement) annotationMirror.getAnnotationType().asElement()).getQualifiedName().toString();
+    }
+
+    private static String getAnnotationStringValue(Element element, String annotationName) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (annotationName.equals(annotationName(annotationMirror))) {
+                return getAnnotationStringValue(annotationMirror);
+            }
+        }
+        return "";
+    }
+
+    /**
+     * 获取注解的value()值，包含默认值
+     *
+     * @param annotationMirror
+     * @return
+     */
+    private static String getAnnotationStringValue(AnnotationMirror annotationMirror) {
+        Object value = getAnnotationValue(annotationMirror, "value");
+        return value == null ? "" : String.valueOf(value);
+    }
+
+    private static Object getAnnotationValue(Element element, String annotationName, String name) {
+        for (AnnotationMirror annotationMirror : element.getAnnotationMirrors()) {
+            if (annotationName.equals(annotationName(annotationMirror))) {
+                return getAnnotationValue(annotationMirror, name);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 获取注解中名字为name的值，包含默认值
+     *
+     * @param annotationMirror
+     * @param name
+     * @return 基本类型是包装类型，枚举是{@link VariableElement}，它的toString()是枚举的名字
+     */
+    private static Object getAnnotationValue(AnnotationMirror annotationMirror, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotationMirror.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        for (Element element : annotationMirror.getAnnotationType().asElement().getEnclosedElements()) {
+            if (element instanceof ExecutableElement && element.getSimpleName().contentEquals(name)) {
+                AnnotationValue defaultValue = ((ExecutableElement) element).getDefaultValue();
+                return defaultValue == null ? null : defaultValue.getValue();
+            }
+        }
+        return null;
+    }
+
+    private void error(Element element, String message) {
+        mMessager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    private void warning(Element element, String message) {
+        mMessager.printMessage(Diagnostic.Kind.WARNING, message, element);
+    }
+}
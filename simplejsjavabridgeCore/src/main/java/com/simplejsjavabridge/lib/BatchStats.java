@@ -0,0 +1,60 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 批量发送给js的数据的统计，见{@link BridgeCore.Builder#setOutboundBatch(long)}
+ */
+public class BatchStats {
+    private long mBatchCount;
+    private long mMessageCount;
+    private int mMaxBatchSize;
+
+    synchronized void record(int batchSize) {
+        mBatchCount++;
+        mMessageCount += batchSize;
+        if (batchSize > mMaxBatchSize) {
+            mMaxBatchSize = batchSize;
+        }
+    }
+
+    synchronized BatchStats snapshot() {
+        BatchStats batchStats = new BatchStats();
+        batchStats.mBatchCount = mBatchCount;
+        batchStats.mMessageCount = mMessageCount;
+        batchStats.mMaxBatchSize = mMaxBatchSize;
+        return batchStats;
+    }
+
+    /**
+     * @return 调用js方法的次数
+     */
+    public long getBatchCount() {
+        return mBatchCount;
+    }
+
+    /**
+     * @return 发送的数据条数
+     */
+    public long getMessageCount() {
+        return mMessageCount;
+    }
+
+    /**
+     * @return 一次调用最多发送的数据条数
+     */
+    public int getMaxBatchSize() {
+        return mMaxBatchSize;
+    }
+
+    /**
+     * @return 平均每次调用发送的数据条数
+     */
+    public float getAverageBatchSize() {
+        return mBatchCount == 0 ? 0 : (float) mMessageCount / mBatchCount;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchStats{batchCount=" + mBatchCount + ", messageCount=" + mMessageCount + ", maxBatchSize=" + mMaxBatchSize
+                + ", averageBatchSize=" + getAverageBatchSize() + "}";
+    }
+}
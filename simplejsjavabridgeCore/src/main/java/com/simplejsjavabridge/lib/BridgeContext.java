@@ -0,0 +1,78 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 一个{@link BridgeCore}实例的上下文，包含request和response中key的名字，json的编解码器，以及负责发送数据的{@link BridgeCore}。
+ * <p>每个{@link BridgeCore}都有自己的上下文，从js收到的{@link RequestResponseBuilder}会持有收到它的上下文，
+ * 这样同一个进程中的多个{@link BridgeCore}可以使用不同的协议，回调也只会发送给对应的js</p>
+ */
+class BridgeContext {
+
+    /**
+     * 不属于任何{@link BridgeCore}时使用的默认上下文，比如使用者自己创建的{@link RequestResponseBuilder}
+     */
+    static final BridgeContext DEFAULT = new BridgeContext(null, null, null, null, null, null, null, null);
+
+    /**
+     * 设置了{@link BridgeSpanSink}时，request中的{@code "trace":{"sent":...}}以及js在response中带回的
+     * {@code "trace":{"received":...,"responded":...}}，见{@link BridgeSpan}
+     */
+    static final String TRACE_NAME = "trace";
+    static final String TRACE_SENT_NAME = "sent";
+    static final String TRACE_RECEIVED_NAME = "received";
+    static final String TRACE_RESPONDED_NAME = "responded";
+
+    /*request中key的名字*/
+    final String requestInterfaceName;
+    final String requestCallbackIdName;
+    final String requestValuesName;
+
+    /*response中key的名字*/
+    final String responseIdName;
+    final String responseName;
+    final String responseValuesName;
+
+    /**
+     * {@link RequestResponseBuilder#create(String, int, BridgeContext)}读取信封时需要识别的key，顺序不能改变
+     */
+    final String[] envelopeNames;
+
+    /**
+     * 读取和写入request、response的编解码器
+     */
+    final JsonCodec codec;
+
+    /**
+     * 为null代表默认上下文
+     */
+    final BridgeCore bridge;
+
+    BridgeContext(BridgeCore bridge, JsonCodec codec, String responseIdName, String responseName, String responseValuesName,
+                  String requestInterfaceName, String requestCallbackIdName, String requestValuesName) {
+        this.bridge = bridge;
+        this.codec = codec == null ? BridgeCore.AbstractBuilder.DEFAULT_JSON_CODEC : codec;
+        this.responseIdName = valueOrDefault(responseIdName, "responseId");
+        this.responseName = valueOrDefault(responseName, "data");
+        this.responseValuesName = valueOrDefault(responseValuesName, "values");
+        this.requestInterfaceName = valueOrDefault(requestInterfaceName, "handlerName");
+        this.requestCallbackIdName = valueOrDefault(requestCallbackIdName, "callbackId");
+        this.requestValuesName = valueOrDefault(requestValuesName, "params");
+        envelopeNames = new String[]{this.responseIdName, this.responseName, this.requestInterfaceName, this.requestCallbackIdName, this.requestValuesName, TRACE_NAME};
+    }
+
+    /**
+     * 把异常交给{@link #bridge}的日志，见{@link BridgeCore#log(int, String, Throwable)}，默认上下文不打印
+     *
+     * @param level     {@link BridgeCore#LOG_WARN}或{@link BridgeCore#LOG_ERROR}
+     * @param message
+     * @param throwable
+     */
+    void log(int level, String message, Throwable throwable) {
+        if (bridge != null) {
+            bridge.log(level, message, throwable);
+        }
+    }
+
+    private static String valueOrDefault(String value, String defaultValue) {
+        return value == null || value.length() == 0 ? defaultValue : value;
+    }
+}
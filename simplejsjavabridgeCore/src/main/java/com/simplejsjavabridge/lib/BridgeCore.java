@@ -0,0 +1,1782 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.Cacheable;
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.OverflowPolicy;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.annotation.Priority;
+import com.simplejsjavabridge.lib.annotation.SingleFlight;
+import com.simplejsjavabridge.lib.annotation.ThreadMode;
+import com.simplejsjavabridge.lib.exception.SimpleJSBridgeException;
+import com.simplejsjavabridge.lib.transport.JSTransport;
+
+import org.json.JSONObject;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 不依赖android的核心类，负责协议的解析，接口的分发，回调方法的管理以及参数的转换，可以直接在jvm中运行和进行压力测试。
+ * <p>android中使用的{@code SimpleJavaJsBridge}继承自该类，只负责提供{@code WebView}的通道和主线程，
+ * 在jvm中使用时需要通过{@link Builder#setTransport(JSTransport)}设置给js发送数据的通道：</p>
+ * <pre>
+ *     BridgeCore bridge = new BridgeCore.Builder().addJavaInterface4JS(javaInterfaces4JS)
+ *                                     .setTransport(new InMemoryTransport())
+ *                                     .setJSMethodName4Java("_JSBridge._handleMessageFromNative")
+ *                                     .setProtocol("niu", "receive_msg").create();
+ *
+ *     //模拟js调用java的接口
+ *     bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"test\",\"callbackId\":\"c_1\",\"params\":{}}");
+ * </pre>
+ */
+public class BridgeCore {
+
+    private static final String TAG = "SimpleJavaJsBridge";
+
+    private static final String JAVASCRIPT = "javascript:";
+
+    /**
+     * {@link JavaInterface4JS}方法返回的{@link BridgeFuture}失败或被取消，或者request的参数格式错误时，js收到的status
+     */
+    public static final String RESPONSE_STATUS_FAILED = "-1";
+    /**
+     * 等待js响应超时时，回调方法收到的status
+     */
+    public static final String RESPONSE_STATUS_TIMEOUT = "-2";
+    /**
+     * 等待js响应的回调方法达到上限，或者request在发送给js的队列中被丢弃时，回调方法收到的status
+     */
+    public static final String RESPONSE_STATUS_OVERFLOW = "-3";
+
+    static final String RESPONSE_STATUS_NAME = "status";
+    static final String RESPONSE_MSG_NAME = "msg";
+
+    /**
+     * {@link #log(int, String)}的级别，与{@code android.util.Log}的级别相同
+     */
+    static final int LOG_INFO = BridgeLogger.INFO;
+    static final int LOG_WARN = BridgeLogger.WARN;
+    static final int LOG_ERROR = BridgeLogger.ERROR;
+
+    /**
+     * 没有{@code Choreographer}时一帧的时长
+     */
+    private static final long FRAME_MILLIS = 16;
+
+    /**
+     * 执行{@link JSTransport#evaluate(String)}的线程，下面都称为主线程
+     */
+    private Executor mMainThreadExecutor;
+    /**
+     * 最近一次发送数据给js的线程，见{@link #isMainThread()}
+     */
+    private volatile Thread mMainThread;
+
+    /**
+     * 给js发送数据的通道
+     */
+    private JSTransport mTransport;
+
+    /**
+     * 解析js发送过来的数据并进行分发的线程，只有一个线程，保证数据按收到的顺序分发
+     */
+    private Executor mDispatchExecutor;
+
+    /**
+     * 执行{@link ThreadMode#BACKGROUND}和{@link ThreadMode#SERIAL}接口的线程池
+     */
+    private Executor mBackgroundExecutor;
+
+    /**
+     * 缓存java为js提供的接口
+     */
+    private HashMap<String, MethodHandler> mJavaInterfaces4JSCache = new HashMap<>();
+
+    /**
+     * 缓存java为js提供搞的回调方法，会在发送数据的线程和分发线程中访问，超时或数量达到上限时会被移除
+     */
+    private PendingCallbacks mJavaCallbackMethods4JSCache;
+
+    /**
+     * {@link BridgeFuture#cancel(boolean)}时移除等待的回调方法
+     */
+    private final BridgeFuture.Canceller mCallbackCanceller = new BridgeFuture.Canceller() {
+        @Override
+        public boolean cancel(long callbackId) {
+            PendingCallbacks.Entry entry = mJavaCallbackMethods4JSCache.remove(callbackId);
+            if (entry == null) {
+                return false;
+            }
+            if (entry.span != null) {
+                finishSpan(entry.span, BridgeSpan.STATUS_CANCELLED, null);
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isMainThread() {
+            return BridgeCore.this.isMainThread();
+        }
+    };
+
+    /**
+     * 没有设置{@link InvokeJSInterface#timeout()}时等待js响应的超时时间
+     */
+    private long mDefaultCallbackTimeout;
+
+    /**
+     * 同步接口的执行时间预算(纳秒)，超过时打印警告
+     */
+    private long mSyncTimeBudgetNanos;
+
+
+    /**
+     * 缓存{@link #createInvokJSCommand(Class)}生成的代理
+     */
+    private ConcurrentHashMap<Class<?>, Object> mInvokeJSCommandCache = new ConcurrentHashMap<>();
+
+    /**
+     * {@link #createInvokJSCommand(Class)}生成的所有代理共用的{@link InvocationHandler}，
+     * 方法的注解通过{@link InvokePlan}只解析一次
+     */
+    private final InvocationHandler mInvokeJSHandler = new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (method.getDeclaringClass() == Object.class) {
+                return InvokePlan.invokeObjectMethod(proxy, method, args);
+            }
+            InvokePlan invokePlan = InvokePlan.obtain(method);
+
+            RequestResponseBuilder requstBuild = new RequestResponseBuilder(true);
+            /*参数值按当前实例的编解码器放入values中*/
+            requstBuild.setContext(mContext);
+            requstBuild.setInterfaceName(invokePlan.getJSInterfaceName());
+            requstBuild.setCallbackTimeout(invokePlan.getTimeout());
+            requstBuild.setOverflowPolicy(invokePlan.getOverflowPolicy());
+            requstBuild.setPriority(invokePlan.getPriority());
+            invokePlan.getParams().convertParamValues2Json(requstBuild, args);
+
+            if (invokePlan.getFutureResultType() != null) {
+                if (requstBuild.getCallback() != null) {
+                    throw new SimpleJSBridgeException(method.getName() + "的返回值是BridgeFuture，不能再有回调参数");
+                }
+                /*js的响应直接完成future*/
+                BridgeFuture<Object> future = new BridgeFuture<>();
+                sendRequest2JS(requstBuild, new FutureMethodHandler(future, invokePlan.getFutureResultType()));
+                return future;
+            }
+            sendData2JS(requstBuild);
+            return new Object();
+        }
+    };
+
+
+    /*js为java敞开的唯一的一个可调用的方法，该方法接收一个字符串，字符串是json格式*/
+    private String mJSMethod4SendData2JS;
+    /**
+     * {@link #mJSMethod4SendData2JS}中"%s"前面和后面的部分，发送数据时直接拼接，不需要{@link String#format(String, Object...)}
+     */
+    private String mJSMethodPrefix;
+    private String mJSMethodSuffix;
+    /**
+     * 协议的格式是:scheme+"://"+host+"?"
+     */
+    private String mProtocol;
+
+    /**
+     * 当前实例的上下文，包含request和response中key的名字，每个实例互不影响
+     */
+    private BridgeContext mContext;
+
+    /**
+     * 是否是debug模式，debug模式可以把交互信息打出来
+     */
+    private boolean mIsDebug;
+
+    /**
+     * 批量发送数据给js，没有开启批量发送时为null
+     */
+    private OutboundBatcher mOutboundBatcher;
+
+    /**
+     * 等待发送给js的数据，有上限，暂停时只放入队列不发送
+     */
+    private OutboundQueue mOutboundQueue;
+
+    private final Runnable mImmediateDrainRunnable = new DrainRunnable(OutboundQueue.LANE_IMMEDIATE);
+    private final Runnable mNormalDrainRunnable = new DrainRunnable(OutboundQueue.LANE_NORMAL);
+    private final Runnable mIdleDrainRunnable = new DrainRunnable(OutboundQueue.LANE_IDLE);
+
+    /**
+     * {@code prompt()}通道的名字
+     */
+    private static final String PROMPT_CHANNEL_NAME = "prompt";
+
+    /**
+     * 每个通道的统计，第一个是{@code prompt()}通道
+     */
+    private ArrayList<InboundChannelStats> mInboundChannelStats = new ArrayList<>();
+    private InboundChannelStats mPromptChannelStats;
+
+    /**
+     * 按接口统计各个阶段的耗时，为null时不会计时
+     */
+    private final BridgeMetricsListener mMetricsListener;
+
+    /**
+     * 接收java调用js的往返，为null时只在统计或记录trace时生成{@link BridgeSpan}
+     */
+    private final BridgeSpanSink mSpanSink;
+
+    /**
+     * 接收日志，为null时不打印
+     */
+    private final BridgeLogger mLogger;
+
+
+    /**
+     * @param builder
+     * @param transport          给js发送数据的通道
+     * @param mainThreadExecutor 执行{@link JSTransport#evaluate(String)}的线程
+     */
+    BridgeCore(AbstractBuilder<?> builder, JSTransport transport, Executor mainThreadExecutor) {
+        mTransport = transport;
+        mMainThreadExecutor = mainThreadExecutor;
+        mMetricsListener = builder.mMetricsListener;
+        mSpanSink = builder.mSpanSink;
+        mLogger = builder.mLogger;
+        mIsDebug = builder.mIsDebug;
+        mDispatchExecutor = builder.mDispatchExecutor != null ? builder.mDispatchExecutor : BridgeExecutors.newDispatchExecutor();
+        mBackgroundExecutor = builder.mBackgroundExecutor != null ? builder.mBackgroundExecutor : BridgeExecutors.newBackgroundExecutor();
+        saveJavaMethods4JS(builder.mJavaMethod4JS, builder.mNamedExecutors);
+        mDefaultCallbackTimeout = builder.mDefaultCallbackTimeout;
+        mSyncTimeBudgetNanos = TimeUnit.MILLISECONDS.toNanos(builder.mSyncTimeBudget);
+        mJavaCallbackMethods4JSCache = new PendingCallbacks(builder.mMaxPendingCallbacks, builder.mPendingCallbackOverflowPolicy,
+                BridgeExecutors.sharedTimer(), new PendingCallbacks.OnEvictListener() {
+            @Override
+            public void onEvict(PendingCallbacks.Entry entry, int reason) {
+                onCallbackEvicted(entry.callbackId, entry.methodHandler, entry.interfaceName, entry.span, reason);
+            }
+        });
+        mContext = new BridgeContext(this, builder.mJsonCodec, builder.mResponseIdName, builder.mResponseName, builder.mResponseValuesName, builder.mRequestInterfaceName, builder.mRequestCallbackIdName, builder.mRequestValuesName);
+        mJSMethod4SendData2JS = builder.mJSMethodName4Java;
+        int placeholder = mJSMethod4SendData2JS.indexOf("%s");
+        /*"javascript:"前缀由通道自己决定是否需要*/
+        mJSMethodPrefix = mJSMethod4SendData2JS.substring(JAVASCRIPT.length(), placeholder);
+        mJSMethodSuffix = mJSMethod4SendData2JS.substring(placeholder + "%s".length());
+        mOutboundQueue = new OutboundQueue(builder.mOutboundQueueCapacity, OutboundQueue.DEFAULT_BLOCK_TIMEOUT_MILLIS, new OutboundQueue.OnDropListener() {
+            @Override
+            public void onDrop(long callbackId) {
+                /*被丢弃的request不会有响应，回调方法立即收到状态*/
+                PendingCallbacks.Entry entry = mJavaCallbackMethods4JSCache.remove(callbackId);
+                if (entry != null) {
+                    onCallbackEvicted(callbackId, entry.methodHandler, entry.interfaceName, entry.span, PendingCallbacks.REASON_DROPPED);
+                }
+            }
+        });
+        if (builder.mOutboundBatchWindow != AbstractBuilder.BATCH_DISABLED) {
+            mOutboundBatcher = new OutboundBatcher(this, mOutboundQueue, builder.mOutboundBatchWindow, mIsDebug);
+        }
+        mProtocol = builder.mProtocol;
+        mPromptChannelStats = addInboundChannelStats(PROMPT_CHANNEL_NAME);
+    }
+
+    /**
+     * 生成{@link BridgeCore}的实例，必须设置给js发送数据的通道
+     */
+    public static class Builder extends AbstractBuilder<Builder> {
+
+        /**
+         * 必须调用{@link #setTransport(JSTransport)}设置给js发送数据的通道，
+         * 没有设置{@link #setMainThreadExecutor(Executor)}时使用一个单独的线程调用{@link JSTransport#evaluate(String)}
+         *
+         * @return
+         */
+        public BridgeCore create() {
+            checkProtocol();
+            checkJSMethod();
+            if (mTransport == null) {
+                throw new IllegalArgumentException("必须调用 setTransport(JSTransport) 方法设置给js发送数据的通道");
+            }
+            return new BridgeCore(this, mTransport, mMainThreadExecutor != null ? mMainThreadExecutor : BridgeExecutors.newMainThreadExecutor());
+        }
+    }
+
+    /**
+     * {@link Builder}和{@code SimpleJavaJsBridge.Builder}共用的设置
+     *
+     * @param <B> 具体的Builder，链式调用时返回它
+     */
+    public static abstract class AbstractBuilder<B extends AbstractBuilder<B>> {
+
+        String mResponseName;
+        String mResponseValuesName;
+        String mResponseIdName;
+
+
+        String mRequestInterfaceName;
+        String mRequestCallbackIdName;
+        String mRequestValuesName;
+
+        /*js为java敞开的唯一的一个可调用的方法，该方法接收一个字符串，字符串是json格式*/
+        String mJSMethodName4Java;
+        String mProtocol;
+
+
+        ArrayList<Object> mJavaMethod4JS;
+
+        /**
+         * 是否是debug模式
+         */
+        boolean mIsDebug = true;
+
+        /**
+         * 不批量发送数据给js
+         */
+        public static final long BATCH_DISABLED = -1;
+        /**
+         * 把一帧内发送给js的数据合并后一次性发送
+         */
+        public static final long BATCH_PER_FRAME = 0;
+
+        long mOutboundBatchWindow = BATCH_DISABLED;
+
+        JSTransport mTransport;
+        Executor mMainThreadExecutor;
+        Executor mDispatchExecutor;
+        Executor mBackgroundExecutor;
+        HashMap<String, Executor> mNamedExecutors;
+
+        /**
+         * 默认等待js响应的超时时间
+         */
+        public static final long DEFAULT_CALLBACK_TIMEOUT = 30 * 1000;
+        /**
+         * 默认最多等待js响应的回调方法数量
+         */
+        public static final int DEFAULT_MAX_PENDING_CALLBACKS = 1000;
+        /**
+         * 默认的同步接口的执行时间预算，同步调用会阻塞js线程，因此不应超过一帧
+         */
+        public static final long DEFAULT_SYNC_TIME_BUDGET = 16;
+        /**
+         * 默认最多等待发送给js的数据条数
+         */
+        public static final int DEFAULT_OUTBOUND_QUEUE_CAPACITY = 1000;
+
+        long mDefaultCallbackTimeout = DEFAULT_CALLBACK_TIMEOUT;
+        long mSyncTimeBudget = DEFAULT_SYNC_TIME_BUDGET;
+        int mOutboundQueueCapacity = DEFAULT_OUTBOUND_QUEUE_CAPACITY;
+        int mMaxPendingCallbacks = DEFAULT_MAX_PENDING_CALLBACKS;
+        PendingCallbackOverflowPolicy mPendingCallbackOverflowPolicy = PendingCallbackOverflowPolicy.EVICT_OLDEST;
+
+        /**
+         * 默认的json编解码器
+         */
+        public static final JsonCodec DEFAULT_JSON_CODEC = new OrgJsonCodec();
+
+        JsonCodec mJsonCodec = DEFAULT_JSON_CODEC;
+
+        BridgeMetricsListener mMetricsListener;
+        BridgeSpanSink mSpanSink;
+        BridgeLogger mLogger;
+
+        AbstractBuilder() {
+
+        }
+
+        @SuppressWarnings("unchecked")
+        private B self() {
+            return (B) this;
+        }
+
+        /**
+         * 设置给js发送数据的通道，比如在jvm中使用{@link com.simplejsjavabridge.lib.transport.InMemoryTransport}进行测试
+         *
+         * @param transport
+         * @return
+         */
+        public B setTransport(JSTransport transport) {
+            mTransport = transport;
+            return self();
+        }
+
+        /**
+         * 设置调用{@link JSTransport#evaluate(String)}的线程，android中默认是主线程。
+         * 在jvm中进行测试时可以设置一个直接执行的{@link Executor}
+         *
+         * @param mainThreadExecutor
+         * @return
+         */
+        public B setMainThreadExecutor(Executor mainThreadExecutor) {
+            mMainThreadExecutor = mainThreadExecutor;
+            return self();
+        }
+
+        /**
+         * 设置等待js响应的默认超时时间，{@link InvokeJSInterface#timeout()}没有设置时使用，超时后回调方法会收到
+         * {@link BridgeCore#RESPONSE_STATUS_TIMEOUT}状态，这样页面跳转或丢失数据时回调方法(以及它引用的Activity等)不会一直被持有
+         *
+         * @param timeoutMillis 超时时间(毫秒)，0代表一直等待，默认是{@link #DEFAULT_CALLBACK_TIMEOUT}
+         * @return
+         */
+        public B setDefaultCallbackTimeout(long timeoutMillis) {
+            mDefaultCallbackTimeout = Math.max(timeoutMillis, 0);
+            return self();
+        }
+
+        /**
+         * 设置{@link JavaInterface4JS#sync()}接口的执行时间预算，同步调用会阻塞js线程(通过{@code prompt()}调用时还会阻塞主线程)，
+         * 执行时间超过预算时会打印警告，并记录在{@link InboundChannelStats#getSyncOverBudgetCount()}中
+         *
+         * @param budgetMillis 执行时间预算(毫秒)，默认是{@link #DEFAULT_SYNC_TIME_BUDGET}
+         * @return
+         */
+        public B setSyncTimeBudget(long budgetMillis) {
+            mSyncTimeBudget = Math.max(budgetMillis, 0);
+            return self();
+        }
+
+        /**
+         * 设置最多等待js响应的回调方法数量，以及达到上限时的处理策略
+         *
+         * @param maxPendingCallbacks 默认是{@link #DEFAULT_MAX_PENDING_CALLBACKS}
+         * @param overflowPolicy      默认是{@link PendingCallbackOverflowPolicy#EVICT_OLDEST}
+         * @return
+         */
+        public B setMaxPendingCallbacks(int maxPendingCallbacks, PendingCallbackOverflowPolicy overflowPolicy) {
+            if (maxPendingCallbacks > 0) {
+                mMaxPendingCallbacks = maxPendingCallbacks;
+            }
+            if (overflowPolicy != null) {
+                mPendingCallbackOverflowPolicy = overflowPolicy;
+            }
+            return self();
+        }
+
+        /**
+         * 设置解析js发送过来的数据并进行分发的线程，默认是一个单独的后台线程，设置的{@link Executor}必须按提交的顺序执行任务。
+         * 在jvm中进行测试时可以设置一个直接执行的{@link Executor}
+         *
+         * @param dispatchExecutor
+         * @return
+         */
+        public B setDispatchExecutor(Executor dispatchExecutor) {
+            mDispatchExecutor = dispatchExecutor;
+            return self();
+        }
+
+        /**
+         * 设置执行{@link ThreadMode#BACKGROUND}和{@link ThreadMode#SERIAL}接口的线程池，默认的线程池在空闲时会回收线程
+         *
+         * @param backgroundExecutor
+         * @return
+         */
+        public B setBackgroundExecutor(Executor backgroundExecutor) {
+            mBackgroundExecutor = backgroundExecutor;
+            return self();
+        }
+
+        /**
+         * 注册一个有名字的{@link Executor}，{@link JavaInterface4JS#executor()}为该名字的接口会在它里面执行
+         *
+         * @param name
+         * @param executor
+         * @return
+         */
+        public B addExecutor(String name, Executor executor) {
+            if (StringUtils.isEmpty(name) || executor == null) {
+                return self();
+            }
+            if (mNamedExecutors == null) {
+                mNamedExecutors = new HashMap<>();
+            }
+            mNamedExecutors.put(name, executor);
+            return self();
+        }
+
+        /**
+         * 设置最多等待发送给js的数据条数，页面暂停或者WebView繁忙时数据会在队列中等待，
+         * 满了时按{@link InvokeJSInterface#overflow()}或{@link RequestResponseBuilder#setOverflowPolicy(OverflowPolicy)}处理
+         *
+         * @param capacity 默认是{@link #DEFAULT_OUTBOUND_QUEUE_CAPACITY}
+         * @return
+         */
+        public B setOutboundQueueCapacity(int capacity) {
+            mOutboundQueueCapacity = Math.max(capacity, 1);
+            return self();
+        }
+
+        /**
+         * 开启批量发送数据给js，在时间窗口内发送的多条数据会合并为一个json数组，只调用一次js的方法，
+         * js会按顺序依次处理每条数据，批量发送的效果可以通过{@link BridgeCore#getBatchStats()}查看
+         *
+         * @param windowMillis 合并数据的时间窗口(毫秒)，{@link #BATCH_PER_FRAME}代表按帧合并，{@link #BATCH_DISABLED}代表不批量发送(默认)
+         * @return
+         */
+        public B setOutboundBatch(long windowMillis) {
+            mOutboundBatchWindow = windowMillis < 0 ? BATCH_DISABLED : windowMillis;
+            return self();
+        }
+
+        /**
+         * 设置读取和写入request、response的json编解码器，比如{@link StreamingJsonCodec}
+         *
+         * @param jsonCodec 为null时使用{@link #DEFAULT_JSON_CODEC}
+         * @return
+         */
+        public B setJsonCodec(JsonCodec jsonCodec) {
+            mJsonCodec = jsonCodec == null ? DEFAULT_JSON_CODEC : jsonCodec;
+            return self();
+        }
+
+        /**
+         * 设置按接口统计各个阶段的耗时、数据大小和计数的监听器，比如{@link BridgeMetrics}，没有设置时不会计时
+         *
+         * @param metricsListener
+         * @return
+         */
+        public B setMetricsListener(BridgeMetricsListener metricsListener) {
+            mMetricsListener = metricsListener;
+            return self();
+        }
+
+        /**
+         * 设置接收java调用js的往返的{@link BridgeSpanSink}，每个需要js响应的request从生成回调id开始，到收到js的response结束，
+         * 设置后request会请js记录收到request和发送response的时间
+         *
+         * @param spanSink
+         * @return
+         */
+        public B setSpanSink(BridgeSpanSink spanSink) {
+            mSpanSink = spanSink;
+            return self();
+        }
+
+        /**
+         * 设置接收日志的{@link BridgeLogger}，没有设置时核心模块不打印日志，android中使用{@code android.util.Log}
+         *
+         * @param logger
+         * @return
+         */
+        public B setLogger(BridgeLogger logger) {
+            mLogger = logger;
+            return self();
+        }
+
+        /**
+         * debug模式下，可以把交互信息打印出来
+         * @param debug
+         * @return
+         */
+        public B setDebug(boolean debug) {
+            mIsDebug = debug;
+            return self();
+        }
+
+        /**
+         *
+         * <pre>
+         *  response格式：
+         *  {
+         *      "responseId":"iii",
+         *      "data":{
+         *          "status":"1",
+         *          "msg":"ok",
+         *          "values":{
+         *              ......
+         *          }
+         *      }
+         *  }
+         *  responseId 代表request中的callbackId
+         *  data       代表响应的数据
+         *  status     代表响应状态
+         *  msg        代表响应状态对应的消息
+         *  values     代表响应数据包含的值
+         *  </pre>
+         *
+         *  <pre>
+         *      responseName的默认名字是"data"，可以对这个名字进行设置
+         *  </pre>
+         *
+         * @param responseName
+         * @return
+         */
+        public B setResponseName(String responseName) {
+            mResponseName = responseName;
+            return self();
+        }
+
+        /**
+         *   responseValuesName的默认名字是"values"，可以对这个名字进行设置
+         *
+         * @param responseValuesName
+         * @return
+         * @see #setResponseName(String)
+         */
+        public B setResponseValuesName(String responseValuesName) {
+            mResponseValuesName = responseValuesName;
+            return self();
+        }
+
+        /**
+         * response中responseIdName的默认名字是"responseId"，可以对起进行设置
+         * @param responseIdName
+         * @return
+         * @see #setResponseName(String)
+         */
+        public B setResponseIdName(String responseIdName) {
+            mResponseIdName = responseIdName;
+            return self();
+        }
+
+        /**
+         * <pre>
+         *    {
+         *      "handlerName":"test",
+         *      "callbackId":"c_111111",
+         *      "params":{
+         *          ....
+         *      }
+         *    }
+         *
+         *    hanlerName 代表java与js之间给对方暴漏的接口的名称，
+         *    callbackId 代表对方在发起请求时，会为回调方法生产一个唯一的id值，它就代表这个唯一的id值
+         *    params     代表传递的数据
+         *  </pre>
+         *  <pre>
+         *      requestInterfaceName的默认值是"handlerName",可以进行设置它
+         *  </pre>
+         *
+         * @param requestInterfaceName
+         * @return
+         */
+        public B setRequestInterfaceName(String requestInterfaceName) {
+            mRequestInterfaceName = requestInterfaceName;
+            return self();
+        }
+
+        /**
+         *
+         * 同理requestCallbackIdName的默认值是"callbackId",可以对它进行设置
+         *
+         * @param requestCallbackIdName
+         * @return
+         * @see #setRequestInterfaceName(String)
+         */
+        public B setRequestCallbackIdName(String requestCallbackIdName) {
+            mRequestCallbackIdName = requestCallbackIdName;
+            return self();
+        }
+
+        /**
+         * 同理requestValuesName的默认值是"params",可以对它进行设置
+         *
+         * @param requestValuesName
+         * @return
+         * @see #setRequestInterfaceName(String)
+
+         */
+        public B setRequestValuesName(String requestValuesName) {
+            mRequestValuesName = requestValuesName;
+            return self();
+        }
+
+        /**
+         * 设置js为java暴漏的方法的名字，只需要提供方法名字即可，具体的关于"()"和参数不需要提供，因为该方法接收的是一个json字符串
+         *
+         * @param JSMethodName 方法名字 比如：handleMsgFromJava
+         * @return
+         */
+        public B setJSMethodName4Java(String JSMethodName) {
+            mJSMethodName4Java = JSMethodName;
+            if (!StringUtils.isEmpty(mJSMethodName4Java)) {
+                if (!mJSMethodName4Java.startsWith(JAVASCRIPT)) {
+                    mJSMethodName4Java = JAVASCRIPT + mJSMethodName4Java;
+                }
+                if(!mJSMethodName4Java.contains("%s")){
+                    mJSMethodName4Java = mJSMethodName4Java + "(%s)";
+                }
+            }
+            return self();
+        }
+
+        /**
+         * 设置协议，协议格式：scheme://host?，协议是必须进行设置的，否则报错
+         *
+         * @param scheme 比如 file或http等
+         * @param host
+         * @return
+         */
+        public B setProtocol(String scheme,String host) {
+            if(StringUtils.isEmpty(scheme) || StringUtils.isEmpty(host)){
+                return self();
+            }
+            mProtocol = scheme+"://"+host+"?";
+            return self();
+        }
+
+        /**
+         * 添加java提供给js的接口
+         * @param javaMethod4JS
+         * @return
+         */
+        public B addJavaInterface4JS(Object javaMethod4JS) {
+            if (javaMethod4JS == null) {
+                return self();
+            }
+            if (mJavaMethod4JS == null) {
+                mJavaMethod4JS = new ArrayList<>();
+            }
+            mJavaMethod4JS.add(javaMethod4JS);
+            return self();
+        }
+
+        /**
+         * 检测协议是否符合要求
+         *
+         * @return
+         * @throws SimpleJSBridgeException
+         */
+        void checkProtocol()  {
+            if (StringUtils.isEmpty(mProtocol)) {
+                throw new SimpleJSBridgeException("必须调用setProtocol(String)设置协议");
+            }
+            /*scheme和host都不能为空*/
+            int separator = mProtocol.indexOf("://");
+            if (separator <= 0 || separator + "://".length() >= mProtocol.length() - 1 || !mProtocol.endsWith("?")) {
+                throw new IllegalArgumentException("协议的格式必须是 scheme://host? 这种格式");
+            }
+        }
+
+        void checkJSMethod()  {
+            if (StringUtils.isEmpty(mJSMethodName4Java)) {
+                throw new IllegalArgumentException("必须调用 setJSMethodName4Java(String) 方法对给js发送消息的方法进行设置");
+            }
+
+        }
+    }
+
+
+    /**
+     * 生成调用js的命令，在调用js之前必须得调用该方法，该模式是模仿retrofit的
+     * @param tClass 必须是一个interface
+     * @param <T>
+     * @return
+     */
+    public <T> T createInvokJSCommand(Class<T> tClass) {
+        /*代理是无状态的，同一个interface只生成一次*/
+        Object invokeJSCommand = mInvokeJSCommandCache.get(tClass);
+        if (invokeJSCommand == null) {
+            invokeJSCommand = Proxy.newProxyInstance(tClass.getClassLoader(), new Class<?>[]{tClass}, mInvokeJSHandler);
+            Object previous = mInvokeJSCommandCache.putIfAbsent(tClass, invokeJSCommand);
+            if (previous != null) {
+                invokeJSCommand = previous;
+            }
+        }
+        return tClass.cast(invokeJSCommand);
+    }
+
+    /**
+     * 存储java为js提供的接口们
+     *
+     * @param javaMethods4JSes
+     * @param namedExecutors
+     */
+    private void saveJavaMethods4JS(ArrayList<Object> javaMethods4JSes, HashMap<String, Executor> namedExecutors) {
+        if (javaMethods4JSes != null) {
+
+            for (int i = 0; i < javaMethods4JSes.size(); i++) {
+                Object instance = javaMethods4JSes.get(i);
+                if (instance != null) {
+
+                    /*存在编译期生成的分发器时，接口的注册信息也是生成的，调用接口和注册接口都不需要反射*/
+                    JavaInterfaceDispatcher dispatcher = findJavaInterfaceDispatcher(instance);
+                    if (dispatcher != null) {
+                        for (JavaInterfaceInfo info : dispatcher.getJavaInterfaces()) {
+                            saveJavaInterface4JS(MethodHandler.createMethodHandler(dispatcher, info.getName()), info, namedExecutors);
+                        }
+                        continue;
+                    }
+
+                    //把java提供给js调用的接口放到json中
+                    Class<?> bridgeClass = instance.getClass();
+                    Method[] allMethod = bridgeClass.getDeclaredMethods();
+                    for (Method method : allMethod) {
+
+                        //说明这是提供给js的接口
+                        if (method.getAnnotation(JavaInterface4JS.class) != null) {
+                            JavaInterfaceInfo info = JavaInterfaceInfo.create(method);
+                            checkParamCallback(method, info);
+                            saveJavaInterface4JS(MethodHandler.createMethodHandler(instance, method), info, namedExecutors);
+                        }
+                    }
+
+                }
+            }
+        }
+    }
+
+    /**
+     * 按照接口的注册信息设置{@link MethodHandler}并保存
+     *
+     * @param methodHandler
+     * @param info
+     * @param namedExecutors
+     * @throws SimpleJSBridgeException 同步接口没有返回值或者返回{@link BridgeFuture}，指定名字的{@link Executor}不存在
+     */
+    private void saveJavaInterface4JS(MethodHandler methodHandler, JavaInterfaceInfo info, HashMap<String, Executor> namedExecutors) {
+        if (info.isSync() && info.getReturnKind() != JavaInterfaceInfo.RETURN_VALUE) {
+            throw new SimpleJSBridgeException("同步接口" + info.getName() + "必须有返回值，并且不能是" + BridgeFuture.class.getSimpleName());
+        }
+        if (info.getReturnKind() == JavaInterfaceInfo.RETURN_IGNORED) {
+            log(LOG_WARN, "接口" + info.getName() + "的返回值不能作为response，将被忽略，返回值只能是void,JSONObject,BridgeFuture或者包含属性的类");
+        }
+        methodHandler.setExecutor(findExecutor(info, namedExecutors));
+        methodHandler.setSync(info.isSync());
+        methodHandler.setResponsePriority(info.getPriority());
+        if (info.isCacheable()) {
+            methodHandler.setResultCache(new ResultCache(info.getCacheTtl(), info.getCacheMaxSize()));
+        }
+        if (info.isSingleFlight()) {
+            methodHandler.setSingleFlightGroup(new SingleFlightGroup(info.getSingleFlightTimeout()));
+        }
+        mJavaInterfaces4JSCache.put(info.getName(), methodHandler);
+    }
+
+    /**
+     * 接口的返回值作为response发送给js时不能再用{@link ParamCallback}响应js，
+     * String，基本类型以及它们的包装类型的返回值会被忽略，不受限制
+     *
+     * @param method
+     * @param info
+     * @throws SimpleJSBridgeException 返回值作为response时又用{@link ParamCallback}响应js
+     */
+    private static void checkParamCallback(Method method, JavaInterfaceInfo info) {
+        if (info.getReturnKind() != JavaInterfaceInfo.RETURN_VALUE && info.getReturnKind() != JavaInterfaceInfo.RETURN_FUTURE) {
+            return;
+        }
+        for (Annotation[] annotations : method.getParameterAnnotations()) {
+            for (Annotation annotation : annotations) {
+                if (annotation instanceof ParamCallback) {
+                    throw new SimpleJSBridgeException("接口" + method.getName() + "有返回值时不能再用" + ParamCallback.class.getSimpleName() + "响应js");
+                }
+            }
+        }
+    }
+
+    /**
+     * 查找执行接口的线程，{@link ThreadMode#SERIAL}的每个接口都有自己的{@link SerialExecutor}
+     *
+     * @param info
+     * @param namedExecutors
+     * @return
+     * @throws SimpleJSBridgeException 指定名字的{@link Executor}不存在
+     */
+    private Executor findExecutor(JavaInterfaceInfo info, HashMap<String, Executor> namedExecutors) {
+        if (!StringUtils.isEmpty(info.getExecutor())) {
+            Executor executor = namedExecutors == null ? null : namedExecutors.get(info.getExecutor());
+            if (executor == null) {
+                throw new SimpleJSBridgeException("接口" + info.getName() + "的Executor不存在，必须调用Builder.addExecutor(\"" + info.getExecutor() + "\", Executor)进行注册");
+            }
+            return executor;
+        }
+        switch (info.getThread()) {
+            case BACKGROUND:
+                return mBackgroundExecutor;
+            case SERIAL:
+                return new SerialExecutor(mBackgroundExecutor);
+            default:
+                return mMainThreadExecutor;
+        }
+    }
+
+    /**
+     * 查找编译期为instance的类生成的{@link JavaInterfaceDispatcher}
+     *
+     * @param instance
+     * @return 不存在时返回null
+     */
+    private JavaInterfaceDispatcher findJavaInterfaceDispatcher(Object instance) {
+        Class<?> instanceClass = instance.getClass();
+        try {
+            Class<?> dispatcherClass = Class.forName(instanceClass.getName() + JavaInterfaceDispatcher.CLASS_SUFFIX, true, instanceClass.getClassLoader());
+            return (JavaInterfaceDispatcher) dispatcherClass.getConstructor(instanceClass).newInstance(instance);
+        } catch (ClassNotFoundException e) {
+            /*没有使用注解处理器，使用反射调用*/
+        } catch (Exception e) {
+            log(LOG_ERROR, "创建" + instanceClass.getName() + JavaInterfaceDispatcher.CLASS_SUFFIX + "失败，将通过反射调用", e);
+        }
+        return null;
+    }
+
+    private void sendRequest2JS(RequestResponseBuilder requst) {
+        if (requst != null) {
+            /*回调方法按类缓存，这里只需要查找缓存*/
+            sendRequest2JS(requst, requst.getCallback() == null ? null : MethodHandler.createCallbackMethodHandler(requst.getCallback()));
+        }
+    }
+
+    /**
+     * @param requst
+     * @param methodHandler 处理js响应的回调方法，为null代表不需要处理响应
+     */
+    private void sendRequest2JS(RequestResponseBuilder requst, MethodHandler methodHandler) {
+        if (requst != null) {
+            /*java调用js的功能时，java会为js提供回调函数，但是不可能把回调函数传递给js，所以为回调函数提供一个唯一的id*/
+            long callbackId = mJavaCallbackMethods4JSCache.nextId();
+            requst.setCallbackId(PendingCallbacks.encodeId(callbackId));
+
+        /*处理提供给js的回调方法*/
+            if (methodHandler != null) {
+                long timeout = requst.getCallbackTimeout() == InvokeJSInterface.DEFAULT_TIMEOUT ? mDefaultCallbackTimeout : requst.getCallbackTimeout();
+                String interfaceName = requst.getInterfaceName();
+                BridgeSpan span = null;
+                /*每个request只检查一次是否在记录trace，结束时按开始时的结果决定是否结束section*/
+                boolean traced = interfaceName != null && isTraceEnabled();
+                if (interfaceName != null && (mMetricsListener != null || mSpanSink != null || traced)) {
+                    /*往返从生成回调id开始，到收到对应的responseId结束*/
+                    span = new BridgeSpan(interfaceName, callbackId, mSpanSink != null, traced);
+                    requst.setSpan(span);
+                    if (traced) {
+                        beginAsyncTraceSection(traceSectionName(interfaceName), (int) callbackId);
+                    }
+                }
+                if (!mJavaCallbackMethods4JSCache.add(callbackId, methodHandler, interfaceName, span, timeout)) {
+                    /*达到上限，不再发送request*/
+                    onCallbackEvicted(callbackId, methodHandler, interfaceName, span, PendingCallbacks.REASON_OVERFLOW);
+                    return;
+                }
+                if (methodHandler instanceof FutureMethodHandler) {
+                    /*先加入等待队列再关联，关联之前的超时和取消都不会丢失*/
+                    ((FutureMethodHandler) methodHandler).getFuture().attach(mCallbackCanceller, callbackId);
+                }
+            }
+
+            startSendData2JS(requst, methodHandler == null ? 0 : callbackId);
+
+        }
+    }
+
+    private void sendResponse2JS(RequestResponseBuilder response) {
+        if (response != null) {
+            response.onSent();
+            RequestResponseBuilder.ResponseObserver responseObserver = response.getResponseObserver();
+            if (responseObserver != null) {
+                /*只通知第一次的response*/
+                response.setResponseObserver(null);
+                responseObserver.onResponse(response);
+            }
+            startSendData2JS(response, 0);
+        }
+    }
+
+    /**
+     * 发送数据给js
+     */
+    public void sendData2JS(final RequestResponseBuilder requestResponseBuilder) {
+        if (requestResponseBuilder == null) {
+            return;
+        }
+
+        if (requestResponseBuilder.isBuildRequest()) {
+            sendRequest2JS(requestResponseBuilder);
+        } else {
+            sendResponse2JS(requestResponseBuilder);
+        }
+    }
+
+
+    /**
+     * 开始发送数据给js，request或response会直接写成调用js方法的代码，放入{@link OutboundQueue}中等待在主线程中发送
+     *
+     * @param requestResponseBuilder
+     * @param callbackId 等待js响应的回调id，数据被丢弃时回调方法会立即收到状态，不需要响应时为0
+     */
+    private void startSendData2JS(RequestResponseBuilder requestResponseBuilder, long callbackId) {
+        long start = mMetricsListener == null ? 0 : System.nanoTime();
+        /*按当前实例的协议生成json*/
+        requestResponseBuilder.setContext(mContext);
+        String data;
+        int payloadLength;
+        if (mOutboundBatcher != null) {
+            /*批量发送时只生成json数据，发送时再拼接成调用js方法的代码*/
+            MessageWriter writer = MessageWriter.obtain();
+            requestResponseBuilder.writeTo(writer);
+            data = writer.toString();
+            payloadLength = data.length();
+        } else {
+            MessageWriter writer = MessageWriter.obtain().appendScript(mJSMethodPrefix).appendScript('\'');
+            requestResponseBuilder.writeTo(writer);
+            data = writer.appendScript('\'').appendScript(mJSMethodSuffix).toString();
+            payloadLength = data.length() - mJSMethodPrefix.length() - mJSMethodSuffix.length() - 2;
+        }
+        if(mIsDebug){
+
+            log(LOG_INFO, "发送给js的数据:" + data);
+        }
+        MetricsTag metrics = null;
+        BridgeSpan span = requestResponseBuilder.getSpan();
+        if (mMetricsListener != null || span != null) {
+            /*js的接口按request统计，js的request的response按java的接口统计*/
+            int type = requestResponseBuilder.isBuildRequest() ? BridgeMetricsListener.TYPE_JS_INTERFACE : BridgeMetricsListener.TYPE_JAVA_INTERFACE;
+            String name = requestResponseBuilder.isBuildRequest() ? requestResponseBuilder.getInterfaceName() : requestResponseBuilder.getHandlerName();
+            if (name != null) {
+                long now = System.nanoTime();
+                if (mMetricsListener != null) {
+                    mMetricsListener.onStage(type, name, BridgeMetricsListener.STAGE_SERIALIZE, now - start);
+                    mMetricsListener.onPayload(type, name, BridgeMetricsListener.DIRECTION_OUTBOUND, payloadLength);
+                }
+                metrics = new MetricsTag(type, name, now, span);
+            }
+        }
+        scheduleDrain(mOutboundQueue.offer(data, requestResponseBuilder.getPriority(), requestResponseBuilder.getOverflowPolicy(),
+                requestResponseBuilder.getInterfaceName(), callbackId, canBlockCurrentThread(), metrics));
+    }
+
+    /**
+     * 按优先级安排在主线程中发送队列中的数据
+     *
+     * @param lanes {@link OutboundQueue#offer}或{@link OutboundQueue#resume(int)}的返回值
+     */
+    private void scheduleDrain(int lanes) {
+        if ((lanes & OutboundQueue.LANE_IMMEDIATE) != 0) {
+            /*不等待批量发送的时间窗口*/
+            postAtFrontOfMainThread(mImmediateDrainRunnable);
+        }
+        if ((lanes & OutboundQueue.LANE_NORMAL) != 0) {
+            if (mOutboundBatcher != null) {
+                mOutboundBatcher.schedule();
+            } else {
+                mMainThreadExecutor.execute(mNormalDrainRunnable);
+            }
+        }
+        if ((lanes & OutboundQueue.LANE_IDLE) != 0) {
+            postOnMainThreadIdle(mIdleDrainRunnable);
+        }
+    }
+
+    /**
+     * 在主线程中取出对应优先级的数据并发送给js
+     */
+    private void drainAndSend(int lane) {
+        if (mMainThreadExecutor != BridgeExecutors.DIRECT) {
+            mMainThread = Thread.currentThread();
+        }
+        ArrayList<OutboundQueue.Entry> entries = mOutboundQueue.drain(lane);
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (mOutboundBatcher != null) {
+            mOutboundBatcher.send(entries);
+        } else {
+            for (int i = 0; i < entries.size(); i++) {
+                evaluate(entries.get(i).message, entries, i, i + 1);
+            }
+        }
+    }
+
+    /**
+     * 在主线程中调用js，设置了{@link BridgeMetricsListener}时统计数据在队列中等待的时间和调用js的时间，
+     * request有{@link BridgeSpan}时记录发送的时间
+     *
+     * @param script
+     * @param entries script中包含的数据是entries中从from到to(不包含)的部分
+     * @param from
+     * @param to
+     */
+    private void evaluate(String script, List<OutboundQueue.Entry> entries, int from, int to) {
+        long start = System.nanoTime();
+        for (int i = from; i < to; i++) {
+            MetricsTag metrics = entries.get(i).metrics;
+            if (metrics != null) {
+                if (mMetricsListener != null) {
+                    mMetricsListener.onStage(metrics.type, metrics.name, BridgeMetricsListener.STAGE_QUEUE_WAIT, start - metrics.enqueueNanos);
+                }
+                if (metrics.span != null) {
+                    metrics.span.onSent(start);
+                }
+            }
+        }
+        mTransport.evaluate(script);
+        if (mMetricsListener == null) {
+            return;
+        }
+        /*批量发送时平均分配给每条数据*/
+        long elapsed = (System.nanoTime() - start) / (to - from);
+        for (int i = from; i < to; i++) {
+            MetricsTag metrics = entries.get(i).metrics;
+            if (metrics != null) {
+                mMetricsListener.onStage(metrics.type, metrics.name, BridgeMetricsListener.STAGE_EVALUATE, elapsed);
+            }
+        }
+    }
+
+    private class DrainRunnable implements Runnable {
+        private final int mLane;
+
+        DrainRunnable(int lane) {
+            mLane = lane;
+        }
+
+        @Override
+        public void run() {
+            drainAndSend(mLane);
+        }
+    }
+
+    /**
+     * 在主线程中尽快执行，{@link Priority#IMMEDIATE}的数据使用，android中会放在主线程消息队列的最前面
+     *
+     * @param runnable
+     */
+    void postAtFrontOfMainThread(Runnable runnable) {
+        mMainThreadExecutor.execute(runnable);
+    }
+
+    /**
+     * 在主线程空闲时执行，{@link Priority#IDLE}的数据使用，不能判断主线程是否空闲时直接在主线程中执行
+     *
+     * @param runnable
+     */
+    void postOnMainThreadIdle(Runnable runnable) {
+        mMainThreadExecutor.execute(runnable);
+    }
+
+    /**
+     * 延迟一段时间后在主线程中执行，用于批量发送的时间窗口
+     *
+     * @param runnable
+     * @param delayMillis
+     */
+    void postDelayedOnMainThread(final Runnable runnable, long delayMillis) {
+        BridgeExecutors.sharedTimer().schedule(new Runnable() {
+            @Override
+            public void run() {
+                mMainThreadExecutor.execute(runnable);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 在主线程的下一帧执行，用于{@link Builder#BATCH_PER_FRAME}，没有帧的概念时按{@link #FRAME_MILLIS}延迟
+     *
+     * @param runnable
+     */
+    void postOnNextFrame(Runnable runnable) {
+        postDelayedOnMainThread(runnable, FRAME_MILLIS);
+    }
+
+    /**
+     * 发送给js的队列满了时，当前线程是否可以等待队列的空间。主线程负责发送，不能在主线程中等待，
+     * 核心模块只能通过{@link #isMainThread()}判断发送过数据的线程，第一次发送之前不知道哪个线程是主线程，因此从不等待
+     *
+     * @return
+     */
+    boolean canBlockCurrentThread() {
+        return false;
+    }
+
+    /**
+     * 当前线程是否是发送数据给js的主线程。核心模块把最近一次发送数据的线程当作主线程，
+     * 主线程executor是{@link BridgeExecutors#DIRECT}时在调用者的线程中发送，没有主线程
+     *
+     * @return
+     */
+    boolean isMainThread() {
+        return mMainThread == Thread.currentThread();
+    }
+
+    /**
+     * 是否正在记录trace，记录时即使没有设置{@link BridgeSpanSink}也会为java调用js的往返生成{@link BridgeSpan}。
+     * 每个需要响应的request调用一次，需要足够快。核心模块不记录trace，android中是{@code android.os.Trace#isEnabled()}
+     *
+     * @return
+     */
+    boolean isTraceEnabled() {
+        return false;
+    }
+
+    /**
+     * 开始一个可以在其他线程结束的trace section，android中使用{@code android.os.Trace#beginAsyncSection(String, int)}
+     *
+     * @param sectionName
+     * @param cookie      区分同名的section
+     */
+    void beginAsyncTraceSection(String sectionName, int cookie) {
+    }
+
+    /**
+     * 结束{@link #beginAsyncTraceSection(String, int)}开始的section
+     *
+     * @param sectionName
+     * @param cookie
+     */
+    void endAsyncTraceSection(String sectionName, int cookie) {
+    }
+
+    /**
+     * 打印日志，交给{@link AbstractBuilder#setLogger(BridgeLogger)}设置的{@link BridgeLogger}，没有设置时不打印，
+     * android中没有设置时使用{@code android.util.Log}
+     *
+     * @param level   {@link #LOG_INFO}，{@link #LOG_WARN}或{@link #LOG_ERROR}
+     * @param message
+     */
+    void log(int level, String message) {
+        if (mLogger != null) {
+            mLogger.log(level, TAG, message);
+        }
+    }
+
+    /**
+     * 打印异常，debug模式下包含调用栈，否则只打印异常的描述，避免接口频繁抛出异常时生成大量的日志
+     *
+     * @param level     {@link #LOG_WARN}或{@link #LOG_ERROR}
+     * @param message
+     * @param throwable
+     */
+    void log(int level, String message, Throwable throwable) {
+        if (mLogger == null) {
+            return;
+        }
+        if (mIsDebug) {
+            mLogger.log(level, TAG, message, throwable);
+        } else {
+            mLogger.log(level, TAG, message + ":" + throwable);
+        }
+    }
+
+    boolean hasLogger() {
+        return mLogger != null;
+    }
+
+    boolean isDebug() {
+        return mIsDebug;
+    }
+
+    /**
+     * 恢复被暂停的发送，队列中的数据会一次性发送
+     *
+     * @param reason {@link OutboundQueue#PAUSE_BY_USER}或{@link OutboundQueue#PAUSE_BY_DETACHED}
+     */
+    void resumeOutbound(int reason) {
+        scheduleDrain(mOutboundQueue.resume(reason));
+    }
+
+    /**
+     * 暂停发送，数据只放入队列
+     *
+     * @param reason {@link OutboundQueue#PAUSE_BY_USER}或{@link OutboundQueue#PAUSE_BY_DETACHED}
+     */
+    void pauseOutbound(int reason) {
+        mOutboundQueue.pause(reason);
+    }
+
+    /**
+     * 暂停给js发送数据，比如页面不可见时，数据会在队列中等待，满了时按{@link OverflowPolicy}处理，
+     * 一般在{@code Activity.onPause()}中与{@code WebView.onPause()}一起调用。WebView不在窗口中时会自动暂停
+     */
+    public void onPause() {
+        pauseOutbound(OutboundQueue.PAUSE_BY_USER);
+    }
+
+    /**
+     * 恢复给js发送数据，队列中的数据会一次性发送，一般在{@code Activity.onResume()}中调用
+     */
+    public void onResume() {
+        resumeOutbound(OutboundQueue.PAUSE_BY_USER);
+    }
+
+    /**
+     * 获取发送给js的队列的统计，包括当前的长度和丢弃的数据条数
+     *
+     * @return
+     */
+    public OutboundQueueStats getOutboundQueueStats() {
+        return mOutboundQueue.getStats();
+    }
+
+    /**
+     * 获取{@link Cacheable}接口的缓存的统计，包括命中和没有命中的次数
+     *
+     * @param interfaceName 接口的名字
+     * @return 接口不存在或者没有用{@link Cacheable}标注时返回null
+     */
+    public ResultCacheStats getResultCacheStats(String interfaceName) {
+        ResultCache resultCache = findResultCache(interfaceName);
+        return resultCache == null ? null : resultCache.getStats();
+    }
+
+    /**
+     * 清除{@link Cacheable}接口缓存的response，比如用户信息修改后清除{@code getUserInfo}的缓存
+     *
+     * @param interfaceName 接口的名字
+     */
+    public void invalidateResultCache(String interfaceName) {
+        ResultCache resultCache = findResultCache(interfaceName);
+        if (resultCache != null) {
+            resultCache.clear();
+        }
+    }
+
+    /**
+     * 清除所有{@link Cacheable}接口缓存的response，比如切换用户后调用
+     */
+    public void invalidateResultCache() {
+        for (MethodHandler methodHandler : mJavaInterfaces4JSCache.values()) {
+            if (methodHandler.getResultCache() != null) {
+                methodHandler.getResultCache().clear();
+            }
+        }
+    }
+
+    private ResultCache findResultCache(String interfaceName) {
+        MethodHandler methodHandler = interfaceName == null ? null : mJavaInterfaces4JSCache.get(interfaceName);
+        return methodHandler == null ? null : methodHandler.getResultCache();
+    }
+
+    /**
+     * 获取{@link SingleFlight}接口合并执行的统计，包括节省的执行次数
+     *
+     * @param interfaceName 接口的名字
+     * @return 接口不存在或者没有用{@link SingleFlight}标注时返回null
+     */
+    public SingleFlightStats getSingleFlightStats(String interfaceName) {
+        MethodHandler methodHandler = interfaceName == null ? null : mJavaInterfaces4JSCache.get(interfaceName);
+        SingleFlightGroup singleFlightGroup = methodHandler == null ? null : methodHandler.getSingleFlightGroup();
+        return singleFlightGroup == null ? null : singleFlightGroup.getStats();
+    }
+
+    /**
+     * 不执行接口，使用其他request的response：{@link Cacheable}的接口存在缓存的response时直接发送给js，
+     * {@link SingleFlight}的接口有参数相同的request正在执行时等待它的response。
+     * 都没有时，接口的response发送给js之前会被放入缓存，并且发送给等待的request
+     *
+     * @return 是否不需要执行接口
+     */
+    private boolean shareResponse(MethodHandler methodHandler, RequestResponseBuilder request) {
+        ResultCache resultCache = methodHandler.getResultCache();
+        SingleFlightGroup singleFlightGroup = methodHandler.getSingleFlightGroup();
+        if (resultCache == null && singleFlightGroup == null) {
+            return false;
+        }
+        String key = ResultCache.createKey(request.getValues());
+        if (request.getValuesError() != null) {
+            /*执行时会给js发送失败状态*/
+            return false;
+        }
+        if (resultCache != null) {
+            String responseJson = resultCache.get(key);
+            if (responseJson != null) {
+                if (!StringUtils.isEmpty(request.getCallbackId())) {
+                    sendResponse2JS(request.createResponse(responseJson));
+                }
+                return true;
+            }
+            request.setResponseObserver(resultCache.newFill(key));
+        }
+        /*不需要响应的request不会有response，不能让其他request等待它*/
+        return singleFlightGroup != null && !StringUtils.isEmpty(request.getCallbackId()) && singleFlightGroup.join(key, request);
+    }
+
+    /**
+     * 在主线程中把多条数据一次性发送给js，多条数据会合并为json数组，js会按顺序依次处理
+     *
+     * @param entries 数据是已经按js字符串的规则转义过的json
+     */
+    void loadMessages2JS(List<OutboundQueue.Entry> entries) {
+        MessageWriter writer = MessageWriter.obtain().appendScript(mJSMethodPrefix).appendScript('\'');
+        int size = entries.size();
+        if (size == 1) {
+            writer.appendScript(entries.get(0).message);
+        } else {
+            writer.appendScript('[');
+            for (int i = 0; i < size; i++) {
+                if (i > 0) {
+                    writer.appendScript(',');
+                }
+                writer.appendScript(entries.get(i).message);
+            }
+            writer.appendScript(']');
+        }
+        evaluate(writer.appendScript('\'').appendScript(mJSMethodSuffix).toString(), entries, 0, size);
+    }
+
+    /**
+     * 获取批量发送的统计数据
+     *
+     * @return 没有调用{@link Builder#setOutboundBatch(long)}开启批量发送时返回null
+     */
+    public BatchStats getBatchStats() {
+        return mOutboundBatcher == null ? null : mOutboundBatcher.getBatchStats();
+    }
+
+    /**
+     * 获取各个接收js数据的通道的统计，第一个是{@code prompt()}通道
+     *
+     * @return
+     */
+    public List<InboundChannelStats> getInboundChannelStats() {
+        ArrayList<InboundChannelStats> result = new ArrayList<>(mInboundChannelStats.size());
+        for (InboundChannelStats stats : mInboundChannelStats) {
+            result.add(stats.snapshot());
+        }
+        return result;
+    }
+
+    /**
+     * 添加一个接收js数据的通道的统计，只能在构造方法中调用
+     *
+     * @param channelName 通道的名字
+     * @return
+     */
+    InboundChannelStats addInboundChannelStats(String channelName) {
+        InboundChannelStats stats = new InboundChannelStats(channelName);
+        mInboundChannelStats.add(stats);
+        return stats;
+    }
+
+    /**
+     * 解析从js通过{@code prompt()}传递过来的json数据，在jvm中可以直接调用来模拟js发送数据
+     *
+     * @param json 以协议开头的数据
+     * @return true 代表可以解析当前数据，否则不可以解析
+     */
+    public boolean parseJsonFromJs(String json) {
+        boolean result = false;
+        if (!StringUtils.isEmpty(json)) {
+            if (json.startsWith(mProtocol)) {
+                result = true;
+                /*直接从协议后面开始读取*/
+                parseMessageFromJs(json, mProtocol.length(), mPromptChannelStats);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 解析js通过{@code prompt()}同步调用java接口的数据，在jvm中可以直接调用来模拟js同步调用
+     *
+     * @param json 以协议开头的数据
+     * @return 响应的json，不是当前协议的数据时返回null
+     */
+    public String parseSyncJsonFromJs(String json) {
+        if (StringUtils.isEmpty(json) || !json.startsWith(mProtocol)) {
+            return null;
+        }
+        return invokeSyncFromJs(json, mProtocol.length(), mPromptChannelStats);
+    }
+
+    /**
+     * 在调用线程中立即执行{@link JavaInterface4JS#sync()}接口，返回值直接生成响应的json，执行时间超过预算时打印警告
+     *
+     * @param json
+     * @param offset 数据在json中开始的位置
+     * @param stats  收到数据的通道的统计
+     * @return 响应的json，接口不存在、不是同步接口或执行时抛出异常时status为{@link #RESPONSE_STATUS_FAILED}，msg说明原因
+     */
+    String invokeSyncFromJs(String json, int offset, InboundChannelStats stats) {
+        long start = System.nanoTime();
+        String interfaceName = null;
+        /*设置了BridgeMetricsListener并且接口存在时才统计*/
+        BridgeMetricsListener metricsListener = null;
+        RequestResponseBuilder response = null;
+        String failedMsg = "所调用的同步接口不存在";
+        try {
+            RequestResponseBuilder request = RequestResponseBuilder.create(json, offset, mContext);
+            if (request != null && request.isBuildRequest()) {
+                interfaceName = request.getInterfaceName();
+                MethodHandler methodHandler = mJavaInterfaces4JSCache.get(interfaceName);
+                if (methodHandler != null && methodHandler.isSync()) {
+                    failedMsg = "同步接口执行失败";
+                    metricsListener = mMetricsListener;
+                    if (metricsListener != null) {
+                        recordInbound(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, -1, System.nanoTime() - start, json.length() - offset);
+                    }
+                    ResultCache resultCache = methodHandler.getResultCache();
+                    String cacheKey = resultCache == null ? null : ResultCache.createKey(request.getValues());
+                    String responseJson = resultCache == null || request.getValuesError() != null ? null : resultCache.get(cacheKey);
+                    if (responseJson != null) {
+                        response = request.createResponse(responseJson);
+                        if (metricsListener != null) {
+                            metricsListener.onEvent(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, BridgeMetricsListener.EVENT_SHARED);
+                        }
+                    } else {
+                        /*执行之前取得Fill，执行期间缓存被清除时response不会放入缓存*/
+                        ResultCache.Fill fill = resultCache == null ? null : resultCache.newFill(cacheKey);
+                        request.setSync(true);
+                        invokeMethodHandlerNow(methodHandler, request, BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName);
+                        response = request.getSyncResponse();
+                        if (fill != null) {
+                            fill.complete(response);
+                        }
+                    }
+                } else if (mMetricsListener != null && interfaceName != null) {
+                    mMetricsListener.onEvent(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, BridgeMetricsListener.EVENT_NOT_FOUND);
+                }
+            }
+        } catch (Exception e) {
+            log(LOG_ERROR, "同步调用失败", e);
+        }
+        if (response == null) {
+            response = new RequestResponseBuilder(false);
+            response.putResponseStatus(RESPONSE_STATUS_NAME, RESPONSE_STATUS_FAILED);
+            response.putResponseStatus(RESPONSE_MSG_NAME, failedMsg);
+        }
+        long serializeStart = metricsListener == null ? 0 : System.nanoTime();
+        response.setContext(mContext);
+        MessageWriter writer = MessageWriter.obtainJson();
+        response.writeTo(writer);
+        String result = writer.toString();
+        if (metricsListener != null) {
+            metricsListener.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, BridgeMetricsListener.STAGE_SERIALIZE, System.nanoTime() - serializeStart);
+            metricsListener.onPayload(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, BridgeMetricsListener.DIRECTION_OUTBOUND, result.length());
+        }
+
+        long elapsed = System.nanoTime() - start;
+        stats.record(json.length() - offset, elapsed);
+        if (elapsed > mSyncTimeBudgetNanos) {
+            stats.recordSyncOverBudget();
+            log(LOG_WARN, "同步接口" + interfaceName + "执行了" + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms，超过了预算"
+                    + TimeUnit.NANOSECONDS.toMillis(mSyncTimeBudgetNanos) + "ms，应改为异步接口");
+        }
+        if (mIsDebug) {
+            log(LOG_INFO, "同步返回给js的数据:" + result);
+        }
+        return result;
+    }
+
+    /**
+     * 所有通道收到的数据都交给分发线程解析并调用java的方法，不会阻塞主线程，数据在真正调用接口时才解析
+     *
+     * @param json
+     * @param offset 数据在json中开始的位置
+     * @param stats  收到数据的通道的统计
+     */
+    void parseMessageFromJs(final String json, final int offset, final InboundChannelStats stats) {
+        final long receivedNanos = mMetricsListener == null ? 0 : System.nanoTime();
+        mDispatchExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                long start = System.nanoTime();
+                if (mIsDebug) {
+                    log(LOG_INFO, "收到js发送过来的数据:" + json.substring(offset));
+                }
+                try {
+                    long parseStart = mMetricsListener == null ? 0 : System.nanoTime();
+                    RequestResponseBuilder requestResponseBuilder = RequestResponseBuilder.create(json, offset, mContext);
+                    long parseNanos = mMetricsListener == null ? 0 : System.nanoTime() - parseStart;
+                    invokeJavaMethod(requestResponseBuilder, start - receivedNanos, parseNanos, json.length() - offset);
+                } catch (Exception e) {
+                    log(LOG_ERROR, "处理js发送过来的数据失败", e);
+                }
+                stats.record(json.length() - offset, System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * 开始调用java的方法，在分发线程中执行，方法本身在{@link MethodHandler#getExecutor()}中执行，回调方法在主线程中执行
+     *
+     * @param requestResponseBuilder
+     * @param receiveNanos 数据在分发线程中等待的时间，只在设置了{@link BridgeMetricsListener}时有效，下同
+     * @param parseNanos   读取数据的时间
+     * @param length       数据的字符数
+     */
+    private void invokeJavaMethod(RequestResponseBuilder requestResponseBuilder, long receiveNanos, long parseNanos, int length) {
+        if (requestResponseBuilder == null) {
+            return;
+        }
+        /*说明这是响应数据*/
+        if (!requestResponseBuilder.isBuildRequest()) {
+            PendingCallbacks.Entry entry = mJavaCallbackMethods4JSCache.remove(PendingCallbacks.decodeId(requestResponseBuilder.getResponseId()));
+            if (entry == null) {
+                log(LOG_ERROR, "回调方法不存在");
+                return;
+            }
+            if (entry.span != null) {
+                finishSpan(entry.span, BridgeSpan.STATUS_COMPLETED, requestResponseBuilder);
+            }
+            if (mMetricsListener != null && entry.interfaceName != null) {
+                recordInbound(BridgeMetricsListener.TYPE_JS_INTERFACE, entry.interfaceName, receiveNanos, parseNanos, length);
+            }
+            invokeMethodHandler(entry.methodHandler, requestResponseBuilder, BridgeMetricsListener.TYPE_JS_INTERFACE, entry.interfaceName);
+        } else {
+            /*说明是js请求java的请求数据*/
+            String interfaceName = requestResponseBuilder.getInterfaceName();
+            MethodHandler methodHandler = mJavaInterfaces4JSCache.get(interfaceName);
+            if (methodHandler != null) {
+                if (mMetricsListener != null) {
+                    recordInbound(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, receiveNanos, parseNanos, length);
+                }
+                requestResponseBuilder.setPriority(methodHandler.getResponsePriority());
+                if (!shareResponse(methodHandler, requestResponseBuilder)) {
+                    invokeMethodHandler(methodHandler, requestResponseBuilder, BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName);
+                } else if (mMetricsListener != null) {
+                    mMetricsListener.onEvent(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, BridgeMetricsListener.EVENT_SHARED);
+                }
+            } else {
+                log(LOG_ERROR, "所调用的接口不存在");
+                if (mMetricsListener != null && interfaceName != null) {
+                    mMetricsListener.onEvent(BridgeMetricsListener.TYPE_JAVA_INTERFACE, interfaceName, BridgeMetricsListener.EVENT_NOT_FOUND);
+                }
+
+                RequestResponseBuilder errorResponse = new RequestResponseBuilder(false);
+                errorResponse.setResponseId(requestResponseBuilder.getCallbackId());
+                errorResponse.putResponseStatus("errmsg","所调用的接口不存在");
+                sendResponse2JS(errorResponse);
+            }
+
+        }
+
+    }
+
+    /**
+     * 结束java调用js的往返，统计往返的时间并交给{@link BridgeSpanSink}
+     *
+     * @param span
+     * @param status   {@link BridgeSpan#STATUS_COMPLETED}等
+     * @param response js的response，没有时为null
+     */
+    private void finishSpan(BridgeSpan span, int status, RequestResponseBuilder response) {
+        if (!span.finish(status)) {
+            return;
+        }
+        if (span.isTraced()) {
+            endAsyncTraceSection(traceSectionName(span.getInterfaceName()), (int) span.getId());
+        }
+        if (response != null && span.isStampedByJS()) {
+            response.readJSTimes(span);
+        }
+        if (mMetricsListener != null && status == BridgeSpan.STATUS_COMPLETED) {
+            mMetricsListener.onStage(BridgeMetricsListener.TYPE_JS_INTERFACE, span.getInterfaceName(), BridgeMetricsListener.STAGE_ROUND_TRIP, span.getDurationNanos());
+        }
+        if (mSpanSink != null) {
+            mSpanSink.onSpan(span);
+        }
+    }
+
+    private static String traceSectionName(String interfaceName) {
+        return TAG + "#" + interfaceName;
+    }
+
+    /**
+     * 统计收到的数据，只在设置了{@link BridgeMetricsListener}时调用
+     *
+     * @param type
+     * @param name
+     * @param receiveNanos 在分发线程中等待的时间，同步调用时小于0
+     * @param parseNanos
+     * @param length
+     */
+    private void recordInbound(int type, String name, long receiveNanos, long parseNanos, int length) {
+        if (receiveNanos >= 0) {
+            mMetricsListener.onStage(type, name, BridgeMetricsListener.STAGE_RECEIVE, receiveNanos);
+        }
+        mMetricsListener.onStage(type, name, BridgeMetricsListener.STAGE_PARSE, parseNanos);
+        mMetricsListener.onPayload(type, name, BridgeMetricsListener.DIRECTION_INBOUND, length);
+    }
+
+    /**
+     * 回调方法超时或数量达到上限被移除时，用对应的状态调用回调方法
+     *
+     * @param callbackId
+     * @param methodHandler
+     * @param interfaceName 调用的js接口的名字
+     * @param span          request的往返，没有时为null
+     * @param reason
+     */
+    private void onCallbackEvicted(long callbackId, MethodHandler methodHandler, String interfaceName, BridgeSpan span, int reason) {
+        if (mIsDebug) {
+            log(LOG_INFO, "回调方法被移除:" + callbackId + " reason=" + reason);
+        }
+        if (span != null) {
+            finishSpan(span, reason == PendingCallbacks.REASON_TIMEOUT ? BridgeSpan.STATUS_TIMEOUT : BridgeSpan.STATUS_DROPPED, null);
+        }
+        if (mMetricsListener != null && interfaceName != null) {
+            mMetricsListener.onEvent(BridgeMetricsListener.TYPE_JS_INTERFACE, interfaceName,
+                    reason == PendingCallbacks.REASON_TIMEOUT ? BridgeMetricsListener.EVENT_TIMEOUT : BridgeMetricsListener.EVENT_DROPPED);
+        }
+        RequestResponseBuilder response = new RequestResponseBuilder(false);
+        response.setResponseId(PendingCallbacks.encodeId(callbackId));
+        if (reason == PendingCallbacks.REASON_TIMEOUT) {
+            response.putResponseStatus(RESPONSE_STATUS_NAME, RESPONSE_STATUS_TIMEOUT);
+            response.putResponseStatus(RESPONSE_MSG_NAME, "等待js响应超时");
+        } else {
+            response.putResponseStatus(RESPONSE_STATUS_NAME, RESPONSE_STATUS_OVERFLOW);
+            response.putResponseStatus(RESPONSE_MSG_NAME, reason == PendingCallbacks.REASON_DROPPED ? "发送给js的队列已满，request被丢弃" : "等待js响应的回调方法太多");
+        }
+        invokeMethodHandler(methodHandler, response, BridgeMetricsListener.TYPE_JS_INTERFACE, interfaceName);
+    }
+
+    /**
+     * 在方法对应的线程中执行方法，在主线程中执行时，参数先在分发线程中解析好
+     *
+     * @param methodHandler
+     * @param requestResponseBuilder
+     * @param type                   {@link BridgeMetricsListener}统计时使用的接口类型
+     * @param name                   {@link BridgeMetricsListener}统计时使用的接口名字，为null时不统计
+     */
+    private void invokeMethodHandler(final MethodHandler methodHandler, final RequestResponseBuilder requestResponseBuilder, final int type, final String name) {
+        Executor executor = methodHandler.getExecutor() != null ? methodHandler.getExecutor() : mMainThreadExecutor;
+        if (executor == mMainThreadExecutor) {
+            final BridgeMetricsListener metricsListener = name == null ? null : mMetricsListener;
+            long start = metricsListener == null ? 0 : System.nanoTime();
+            final Object[] values = methodHandler.bindParams(requestResponseBuilder);
+            if (metricsListener != null) {
+                metricsListener.onStage(type, name, BridgeMetricsListener.STAGE_BIND, System.nanoTime() - start);
+            }
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (metricsListener == null) {
+                        methodHandler.invoke(requestResponseBuilder, values);
+                        return;
+                    }
+                    long executeStart = System.nanoTime();
+                    methodHandler.invoke(requestResponseBuilder, values);
+                    metricsListener.onStage(type, name, BridgeMetricsListener.STAGE_EXECUTE, System.nanoTime() - executeStart);
+                }
+            });
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    invokeMethodHandlerNow(methodHandler, requestResponseBuilder, type, name);
+                }
+            });
+        }
+    }
+
+    /**
+     * 在当前线程中解析参数并执行方法，设置了{@link BridgeMetricsListener}时分别统计两个阶段的耗时
+     *
+     * @param methodHandler
+     * @param requestResponseBuilder
+     * @param type
+     * @param name                   为null时不统计
+     */
+    private void invokeMethodHandlerNow(MethodHandler methodHandler, RequestResponseBuilder requestResponseBuilder, int type, String name) {
+        if (mMetricsListener == null || name == null) {
+            methodHandler.invoke(requestResponseBuilder);
+            return;
+        }
+        long start = System.nanoTime();
+        Object[] values = methodHandler.bindParams(requestResponseBuilder);
+        long bound = System.nanoTime();
+        mMetricsListener.onStage(type, name, BridgeMetricsListener.STAGE_BIND, bound - start);
+        methodHandler.invoke(requestResponseBuilder, values);
+        mMetricsListener.onStage(type, name, BridgeMetricsListener.STAGE_EXECUTE, System.nanoTime() - bound);
+    }
+
+
+}
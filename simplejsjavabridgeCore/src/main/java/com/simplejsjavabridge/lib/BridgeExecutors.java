@@ -0,0 +1,99 @@
+package com.simplejsjavabridge.lib;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 创建{@link BridgeCore}默认使用的线程池，线程空闲一段时间后会被回收，不会一直占用资源
+ */
+class BridgeExecutors {
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private static ScheduledExecutorService sTimer;
+
+    /**
+     * 在提交任务的线程中直接执行
+     */
+    static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    private BridgeExecutors() {
+    }
+
+    /**
+     * 解析js发送过来的数据的线程，只有一个线程，这样数据会按收到的顺序依次分发
+     *
+     * @return
+     */
+    static Executor newDispatchExecutor() {
+        return newExecutor(1, "SimpleJavaJsBridge-dispatch");
+    }
+
+    /**
+     * jvm中没有设置主线程时调用{@link com.simplejsjavabridge.lib.transport.JSTransport#evaluate(String)}的线程，
+     * 只有一个线程，这样数据会按发送的顺序交给js
+     *
+     * @return
+     */
+    static Executor newMainThreadExecutor() {
+        return newExecutor(1, "SimpleJavaJsBridge-main");
+    }
+
+    /**
+     * 执行{@link com.simplejsjavabridge.lib.annotation.ThreadMode#BACKGROUND}和
+     * {@link com.simplejsjavabridge.lib.annotation.ThreadMode#SERIAL}接口的线程池
+     *
+     * @return
+     */
+    static Executor newBackgroundExecutor() {
+        int poolSize = Math.max(2, Math.min(Runtime.getRuntime().availableProcessors() - 1, 4));
+        return newExecutor(poolSize, "SimpleJavaJsBridge-background");
+    }
+
+    /**
+     * 所有{@link BridgeCore}共用的定时器线程，用于检查回调方法是否超时以及批量发送的时间窗口
+     *
+     * @return
+     */
+    static synchronized ScheduledExecutorService sharedTimer() {
+        if (sTimer == null) {
+            ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, newThreadFactory("SimpleJavaJsBridge-timer"));
+            timer.setKeepAliveTime(KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+            timer.allowCoreThreadTimeOut(true);
+            timer.setRemoveOnCancelPolicy(true);
+            sTimer = timer;
+        }
+        return sTimer;
+    }
+
+    private static Executor newExecutor(int poolSize, String name) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), newThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ThreadFactory newThreadFactory(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger mCount = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + mCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+}
@@ -0,0 +1,268 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.exception.SimpleJSBridgeException;
+
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 调用js接口的结果，{@link com.simplejsjavabridge.lib.annotation.InvokeJSInterface}标注的方法可以把它作为返回值，
+ * 这样不需要再提供{@link IJavaCallback2JS}，可以同时调用多个js接口，再依次等待结果
+ * <pre>
+ *     :@InvokeJSInterface("getUser")
+ *     BridgeFuture&lt;User&gt; getUser(@Param("id") String id);
+ *
+ *     //在后台线程中
+ *     BridgeFuture&lt;User&gt; first = invokeJS.getUser("1");
+ *     BridgeFuture&lt;User&gt; second = invokeJS.getUser("2");
+ *     User user1 = first.get();
+ *     User user2 = second.get();
+ * </pre>
+ * <p>request在主线程中发送给js，js的响应也要等主线程空闲才能收到，因此不能在主线程中调用{@link #get()}，
+ * 否则会抛出{@link IllegalStateException}，主线程中使用{@link #addOnCompleteListener(OnCompleteListener)}</p>
+ * <p>js响应的values会转化为T，T可以是{@link JSONObject}，{@link Object}(得到values本身)，{@link Void}(不解析values)，
+ * 或者用{@link com.simplejsjavabridge.lib.annotation.Param}标注属性的类。响应的状态通过{@link #getResponseStatus()}获取</p>
+ * <p>等待js响应超时或者等待的回调方法太多时，{@link #get()}会抛出{@link ExecutionException}，
+ * {@link #cancel(boolean)}会把等待的回调方法移除，之后js的响应会被忽略</p>
+ * <p>{@link com.simplejsjavabridge.lib.annotation.JavaInterface4JS}标注的方法也可以把它作为返回值，异步地响应js：
+ * 自己创建的实例通过{@link #setResult(Object)}或{@link #setFailure(Throwable)}完成，也可以直接返回调用js接口得到的实例</p>
+ *
+ * @param <T>
+ */
+public class BridgeFuture<T> implements Future<T> {
+
+    /**
+     * 完成时的监听器，在完成的线程中调用，添加时已经完成则立即调用
+     *
+     * @param <T>
+     */
+    public interface OnCompleteListener<T> {
+        void onComplete(BridgeFuture<T> future);
+    }
+
+    /**
+     * 取消时移除等待的回调方法
+     */
+    interface Canceller {
+        boolean cancel(long callbackId);
+
+        /**
+         * 当前线程是否是发送数据给js的主线程，在主线程中等待js的响应会死锁
+         *
+         * @return
+         */
+        boolean isMainThread();
+    }
+
+    private static final int STATE_PENDING = 0;
+    private static final int STATE_SUCCESS = 1;
+    private static final int STATE_FAILED = 2;
+    private static final int STATE_CANCELLED = 3;
+
+    private int mState = STATE_PENDING;
+    private T mResult;
+    private JSONObject mResponseStatus;
+    private Throwable mFailure;
+    private ArrayList<OnCompleteListener<T>> mListeners;
+
+    private Canceller mCanceller;
+    private long mCallbackId;
+
+    public BridgeFuture() {
+    }
+
+    /**
+     * 回调方法加入等待队列之后设置，取消时通过它移除等待的回调方法。设置之前已经被取消时立即移除
+     */
+    void attach(Canceller canceller, long callbackId) {
+        synchronized (this) {
+            if (mState == STATE_PENDING) {
+                mCanceller = canceller;
+                mCallbackId = callbackId;
+                return;
+            }
+            if (mState != STATE_CANCELLED) {
+                return;
+            }
+        }
+        canceller.cancel(callbackId);
+    }
+
+    void complete(T result, JSONObject responseStatus) {
+        ArrayList<OnCompleteListener<T>> listeners;
+        synchronized (this) {
+            if (mState != STATE_PENDING) {
+                return;
+            }
+            mResult = result;
+            mResponseStatus = responseStatus;
+            mState = STATE_SUCCESS;
+            listeners = onDone();
+        }
+        notifyListeners(listeners);
+    }
+
+    void fail(Throwable failure, JSONObject responseStatus) {
+        ArrayList<OnCompleteListener<T>> listeners;
+        synchronized (this) {
+            if (mState != STATE_PENDING) {
+                return;
+            }
+            mFailure = failure;
+            mResponseStatus = responseStatus;
+            mState = STATE_FAILED;
+            listeners = onDone();
+        }
+        notifyListeners(listeners);
+    }
+
+    /**
+     * 以result完成，已经完成时没有作用
+     *
+     * @param result
+     */
+    public void setResult(T result) {
+        complete(result, null);
+    }
+
+    /**
+     * 以失败完成，已经完成时没有作用
+     *
+     * @param failure
+     */
+    public void setFailure(Throwable failure) {
+        fail(failure, null);
+    }
+
+    private ArrayList<OnCompleteListener<T>> onDone() {
+        notifyAll();
+        ArrayList<OnCompleteListener<T>> listeners = mListeners;
+        mListeners = null;
+        mCanceller = null;
+        return listeners;
+    }
+
+    private void notifyListeners(ArrayList<OnCompleteListener<T>> listeners) {
+        if (listeners != null) {
+            for (OnCompleteListener<T> listener : listeners) {
+                listener.onComplete(this);
+            }
+        }
+    }
+
+    /**
+     * 添加完成时的监听器
+     *
+     * @param listener
+     * @return
+     */
+    public BridgeFuture<T> addOnCompleteListener(OnCompleteListener<T> listener) {
+        synchronized (this) {
+            if (mState == STATE_PENDING) {
+                if (mListeners == null) {
+                    mListeners = new ArrayList<>(1);
+                }
+                mListeners.add(listener);
+                return this;
+            }
+        }
+        listener.onComplete(this);
+        return this;
+    }
+
+    /**
+     * 取消等待js的响应，等待的回调方法会被移除
+     *
+     * @param mayInterruptIfRunning 没有作用
+     * @return false 代表已经完成了
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        ArrayList<OnCompleteListener<T>> listeners;
+        Canceller canceller;
+        long callbackId;
+        synchronized (this) {
+            if (mState != STATE_PENDING) {
+                return false;
+            }
+            mState = STATE_CANCELLED;
+            canceller = mCanceller;
+            callbackId = mCallbackId;
+            listeners = onDone();
+        }
+        if (canceller != null) {
+            canceller.cancel(callbackId);
+        }
+        notifyListeners(listeners);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return mState == STATE_CANCELLED;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return mState != STATE_PENDING;
+    }
+
+    /**
+     * @return js响应的状态，比如{"status":"1","msg":"ok"}，没有完成时返回null
+     */
+    public synchronized JSONObject getResponseStatus() {
+        return mResponseStatus;
+    }
+
+    /**
+     * 等待js的响应，不能在主线程中调用
+     *
+     * @throws IllegalStateException 在主线程中等待
+     */
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        checkCanWait();
+        while (mState == STATE_PENDING) {
+            wait();
+        }
+        return getResult();
+    }
+
+    @Override
+    public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long remaining = unit.toNanos(timeout);
+        long deadline = System.nanoTime() + remaining;
+        checkCanWait();
+        while (mState == STATE_PENDING) {
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            remaining = deadline - System.nanoTime();
+        }
+        return getResult();
+    }
+
+    private void checkCanWait() {
+        if (mState == STATE_PENDING && mCanceller != null && mCanceller.isMainThread()) {
+            throw new IllegalStateException("不能在主线程中等待js的响应");
+        }
+    }
+
+    private T getResult() throws ExecutionException {
+        switch (mState) {
+            case STATE_SUCCESS:
+                return mResult;
+            case STATE_CANCELLED:
+                throw new CancellationException();
+            default:
+                throw new ExecutionException(mFailure != null ? mFailure : new SimpleJSBridgeException("调用js接口失败"));
+        }
+    }
+}
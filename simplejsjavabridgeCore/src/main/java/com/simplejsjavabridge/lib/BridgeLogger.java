@@ -0,0 +1,33 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 接收{@link BridgeCore}的日志，通过{@link BridgeCore.AbstractBuilder#setLogger(BridgeLogger)}设置。
+ * 没有设置时核心模块不打印日志，android中使用{@code android.util.Log}
+ * <p>可以在任意线程中调用，实现需要是线程安全的</p>
+ */
+public interface BridgeLogger {
+
+    /**
+     * 日志的级别，与{@code android.util.Log}的级别相同
+     */
+    int INFO = 4;
+    int WARN = 5;
+    int ERROR = 6;
+
+    /**
+     * @param level   {@link #INFO}，{@link #WARN}或{@link #ERROR}
+     * @param tag
+     * @param message
+     */
+    void log(int level, String tag, String message);
+
+    /**
+     * 打印异常，只在debug模式下调用，非debug模式下异常会作为message的一部分交给{@link #log(int, String, String)}，不打印调用栈
+     *
+     * @param level     {@link #WARN}或{@link #ERROR}
+     * @param tag
+     * @param message
+     * @param throwable
+     */
+    void log(int level, String tag, String message, Throwable throwable);
+}
@@ -0,0 +1,152 @@
+package com.simplejsjavabridge.lib;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 现成的{@link BridgeMetricsListener}，按接口把各个阶段的耗时和数据的大小汇总为{@link MetricsHistogram}，同时对事件计数：
+ * <pre>
+ *     BridgeMetrics metrics = new BridgeMetrics();
+ *     builder.setMetricsListener(metrics);
+ *     ......
+ *     for (InterfaceMetrics interfaceMetrics : metrics.getInterfaceMetrics()) {
+ *         interfaceMetrics.getStageHistogram(BridgeMetricsListener.STAGE_EXECUTE).getValueAtPercentile(99);
+ *     }
+ * </pre>
+ * <p>直方图在第一次记录时才创建，占用的内存只与接口和阶段的数量有关</p>
+ */
+public class BridgeMetrics implements BridgeMetricsListener {
+
+    /**
+     * 耗时直方图默认可以记录的最大值(纳秒)
+     */
+    public static final long DEFAULT_HIGHEST_NANOS = TimeUnit.MINUTES.toNanos(1);
+    /**
+     * 数据大小直方图默认可以记录的最大值(字符数)
+     */
+    public static final long DEFAULT_HIGHEST_PAYLOAD_CHARS = 16 * 1024 * 1024;
+
+    private final long mHighestNanos;
+    private final long mHighestPayloadChars;
+
+    /**
+     * 按{@link #TYPE_JAVA_INTERFACE}等索引，接口名字为key
+     */
+    private final ArrayList<ConcurrentHashMap<String, Recorder>> mRecorders = new ArrayList<>(2);
+
+    public BridgeMetrics() {
+        this(DEFAULT_HIGHEST_NANOS, DEFAULT_HIGHEST_PAYLOAD_CHARS);
+    }
+
+    /**
+     * @param highestNanos        耗时直方图可以记录的最大值(纳秒)
+     * @param highestPayloadChars 数据大小直方图可以记录的最大值(字符数)
+     */
+    public BridgeMetrics(long highestNanos, long highestPayloadChars) {
+        mHighestNanos = highestNanos;
+        mHighestPayloadChars = highestPayloadChars;
+        mRecorders.add(new ConcurrentHashMap<String, Recorder>());
+        mRecorders.add(new ConcurrentHashMap<String, Recorder>());
+    }
+
+    private Recorder obtainRecorder(int type, String name) {
+        ConcurrentHashMap<String, Recorder> recorders = mRecorders.get(type);
+        Recorder recorder = recorders.get(name);
+        if (recorder == null) {
+            recorder = new Recorder();
+            Recorder previous = recorders.putIfAbsent(name, recorder);
+            if (previous != null) {
+                recorder = previous;
+            }
+        }
+        return recorder;
+    }
+
+    @Override
+    public void onStage(int type, String name, int stage, long nanos) {
+        obtainRecorder(type, name).histogram(stage, mHighestNanos).recordValue(nanos);
+    }
+
+    @Override
+    public void onPayload(int type, String name, int direction, int chars) {
+        obtainRecorder(type, name).histogram(STAGE_COUNT + direction, mHighestPayloadChars).recordValue(chars);
+    }
+
+    @Override
+    public void onEvent(int type, String name, int event) {
+        obtainRecorder(type, name).mEventCounts.incrementAndGet(event);
+    }
+
+    /**
+     * @return 所有接口的统计数据
+     */
+    public List<InterfaceMetrics> getInterfaceMetrics() {
+        ArrayList<InterfaceMetrics> result = new ArrayList<>();
+        for (int type = 0; type < mRecorders.size(); type++) {
+            for (String name : mRecorders.get(type).keySet()) {
+                result.add(getInterfaceMetrics(type, name));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param type {@link #TYPE_JAVA_INTERFACE}或{@link #TYPE_JS_INTERFACE}
+     * @param name 接口的名字
+     * @return 接口还没有任何数据时返回null
+     */
+    public InterfaceMetrics getInterfaceMetrics(int type, String name) {
+        Recorder recorder = mRecorders.get(type).get(name);
+        if (recorder == null) {
+            return null;
+        }
+        MetricsHistogram[] stageHistograms = new MetricsHistogram[STAGE_COUNT];
+        for (int stage = 0; stage < STAGE_COUNT; stage++) {
+            stageHistograms[stage] = recorder.copy(stage);
+        }
+        MetricsHistogram[] payloadHistograms = {recorder.copy(STAGE_COUNT + DIRECTION_INBOUND), recorder.copy(STAGE_COUNT + DIRECTION_OUTBOUND)};
+        long[] eventCounts = new long[EVENT_COUNT];
+        for (int event = 0; event < EVENT_COUNT; event++) {
+            eventCounts[event] = recorder.mEventCounts.get(event);
+        }
+        return new InterfaceMetrics(type, name, stageHistograms, payloadHistograms, eventCounts);
+    }
+
+    /**
+     * 清空所有的统计数据
+     */
+    public void reset() {
+        for (ConcurrentHashMap<String, Recorder> recorders : mRecorders) {
+            recorders.clear();
+        }
+    }
+
+    /**
+     * 一个接口的所有直方图和计数
+     */
+    private static class Recorder {
+        /**
+         * 前{@link #STAGE_COUNT}个是各个阶段的耗时，后面是各个方向的数据大小
+         */
+        final AtomicReferenceArray<MetricsHistogram> mHistograms = new AtomicReferenceArray<>(STAGE_COUNT + 2);
+        final AtomicLongArray mEventCounts = new AtomicLongArray(EVENT_COUNT);
+
+        MetricsHistogram histogram(int index, long highestTrackableValue) {
+            MetricsHistogram histogram = mHistograms.get(index);
+            if (histogram == null) {
+                mHistograms.compareAndSet(index, null, new MetricsHistogram(highestTrackableValue));
+                histogram = mHistograms.get(index);
+            }
+            return histogram;
+        }
+
+        MetricsHistogram copy(int index) {
+            MetricsHistogram histogram = mHistograms.get(index);
+            return histogram == null ? null : histogram.copy();
+        }
+    }
+}
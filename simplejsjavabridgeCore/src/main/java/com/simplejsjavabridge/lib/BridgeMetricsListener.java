@@ -0,0 +1,100 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 按接口统计每次通信各个阶段的耗时、数据的大小和计数，通过{@link BridgeCore.AbstractBuilder#setMetricsListener(BridgeMetricsListener)}设置，
+ * 没有设置时不会计时。{@link BridgeMetrics}是现成的实现，会把数据汇总为直方图。
+ * <p>接口分为两种：{@link #TYPE_JAVA_INTERFACE}是java为js提供的接口，它的response也按这个接口统计；
+ * {@link #TYPE_JS_INTERFACE}是java调用的js接口，js的response以及回调方法也按这个接口统计</p>
+ * <p>会在分发线程、主线程和执行接口的线程中调用，实现需要是线程安全的，并且要尽快返回</p>
+ */
+public interface BridgeMetricsListener {
+
+    /*接口的类型*/
+    int TYPE_JAVA_INTERFACE = 0;
+    int TYPE_JS_INTERFACE = 1;
+
+    /*数据的方向*/
+    int DIRECTION_INBOUND = 0;
+    int DIRECTION_OUTBOUND = 1;
+
+    /**
+     * 通道收到js的数据后，在分发线程中等待处理的时间
+     */
+    int STAGE_RECEIVE = 0;
+    /**
+     * 读取request或response的信封
+     */
+    int STAGE_PARSE = 1;
+    /**
+     * 把values转化为方法的参数值
+     */
+    int STAGE_BIND = 2;
+    /**
+     * 执行接口或回调方法，接口直接返回的response在执行的线程中生成，因此也包含在内
+     */
+    int STAGE_EXECUTE = 3;
+    /**
+     * 把发送给js的request或response生成json
+     */
+    int STAGE_SERIALIZE = 4;
+    /**
+     * 发送给js的数据放入队列后，等待在主线程中发送的时间
+     */
+    int STAGE_QUEUE_WAIT = 5;
+    /**
+     * 调用{@link com.simplejsjavabridge.lib.transport.JSTransport#evaluate(String)}的时间，批量发送时平均分配给每条数据
+     */
+    int STAGE_EVALUATE = 6;
+    /**
+     * java调用js的接口从生成回调id到收到js的response的时间，只有{@link #TYPE_JS_INTERFACE}有，见{@link BridgeSpan}
+     */
+    int STAGE_ROUND_TRIP = 7;
+    int STAGE_COUNT = 8;
+
+    /**
+     * js调用的java接口不存在
+     */
+    int EVENT_NOT_FOUND = 0;
+    /**
+     * 使用了缓存的response或者正在执行的相同request的response，接口没有执行
+     */
+    int EVENT_SHARED = 1;
+    /**
+     * 等待js的response超时
+     */
+    int EVENT_TIMEOUT = 2;
+    /**
+     * 发送给js的队列满了或等待js响应的回调方法太多，request被丢弃
+     */
+    int EVENT_DROPPED = 3;
+    int EVENT_COUNT = 4;
+
+    /**
+     * 一个阶段执行完
+     *
+     * @param type  {@link #TYPE_JAVA_INTERFACE}或{@link #TYPE_JS_INTERFACE}
+     * @param name  接口的名字
+     * @param stage {@link #STAGE_RECEIVE}等
+     * @param nanos 耗时(纳秒)
+     */
+    void onStage(int type, String name, int stage, long nanos);
+
+    /**
+     * 收到或发送了一条数据
+     *
+     * @param type
+     * @param name
+     * @param direction {@link #DIRECTION_INBOUND}或{@link #DIRECTION_OUTBOUND}
+     * @param chars     数据的字符数
+     */
+    void onPayload(int type, String name, int direction, int chars);
+
+    /**
+     * 发生了一次需要计数的事件
+     *
+     * @param type
+     * @param name
+     * @param event {@link #EVENT_NOT_FOUND}等
+     */
+    void onEvent(int type, String name, int event);
+}
@@ -0,0 +1,176 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * java调用js的接口的一次往返：从生成回调id开始，到收到js的response(或者超时、被丢弃、被取消)结束，
+ * 结束后交给{@link BridgeSpanSink}，这时不会再改变。
+ * <p>js在response中带上收到request和发送response的时间(见{@link #getJSReceivedMillis()})时，可以把往返的时间分为
+ * 在java中排队、发送给js、js处理和response返回几个部分。js的时间是{@code Date.now()}，与{@link System#currentTimeMillis()}比较</p>
+ */
+public class BridgeSpan {
+
+    /**
+     * 收到了js的response
+     */
+    public static final int STATUS_COMPLETED = 0;
+    /**
+     * 等待js的response超时
+     */
+    public static final int STATUS_TIMEOUT = 1;
+    /**
+     * 发送给js的队列满了或等待js响应的回调方法太多，request被丢弃
+     */
+    public static final int STATUS_DROPPED = 2;
+    /**
+     * {@link BridgeFuture#cancel(boolean)}
+     */
+    public static final int STATUS_CANCELLED = 3;
+
+    private final String mInterfaceName;
+    private final long mCallbackId;
+    /**
+     * 是否在request中请js记录时间
+     */
+    private final boolean mStampedByJS;
+    /**
+     * 开始时是否在记录trace，只有开始了trace section才需要结束它
+     */
+    private final boolean mTraced;
+
+    private final long mStartNanos;
+    private final long mStartMillis;
+    /*下面的值在不同的线程中设置，结束前只由BridgeCore访问*/
+    private volatile long mSentNanos = -1;
+    private volatile long mEndNanos = -1;
+    private volatile long mEndMillis = -1;
+    private volatile long mJSReceivedMillis = -1;
+    private volatile long mJSRespondedMillis = -1;
+    private volatile int mStatus = -1;
+
+    BridgeSpan(String interfaceName, long callbackId, boolean stampedByJS, boolean traced) {
+        mInterfaceName = interfaceName;
+        mCallbackId = callbackId;
+        mStampedByJS = stampedByJS;
+        mTraced = traced;
+        mStartNanos = System.nanoTime();
+        mStartMillis = System.currentTimeMillis();
+    }
+
+    boolean isStampedByJS() {
+        return mStampedByJS;
+    }
+
+    boolean isTraced() {
+        return mTraced;
+    }
+
+    /**
+     * 在主线程中开始调用js时设置
+     */
+    void onSent(long nanos) {
+        mSentNanos = nanos;
+    }
+
+    void onJSTimes(long receivedMillis, long respondedMillis) {
+        mJSReceivedMillis = receivedMillis;
+        mJSRespondedMillis = respondedMillis;
+    }
+
+    /**
+     * @return false 代表已经结束了
+     */
+    synchronized boolean finish(int status) {
+        if (mStatus >= 0) {
+            return false;
+        }
+        mEndNanos = System.nanoTime();
+        mEndMillis = System.currentTimeMillis();
+        mStatus = status;
+        return true;
+    }
+
+    public String getInterfaceName() {
+        return mInterfaceName;
+    }
+
+    /**
+     * @return 发送给js的callbackId
+     */
+    public String getCallbackId() {
+        return PendingCallbacks.encodeId(mCallbackId);
+    }
+
+    /**
+     * 回调id，同时是{@code android.os.Trace}的异步section的cookie
+     */
+    long getId() {
+        return mCallbackId;
+    }
+
+    /**
+     * @return {@link #STATUS_COMPLETED}等
+     */
+    public int getStatus() {
+        return mStatus;
+    }
+
+    /**
+     * @return 开始时的{@link System#currentTimeMillis()}
+     */
+    public long getStartMillis() {
+        return mStartMillis;
+    }
+
+    /**
+     * @return 结束时的{@link System#currentTimeMillis()}
+     */
+    public long getEndMillis() {
+        return mEndMillis;
+    }
+
+    /**
+     * @return 往返的时间(纳秒)
+     */
+    public long getDurationNanos() {
+        return mEndNanos - mStartNanos;
+    }
+
+    /**
+     * @return 在发送给js的队列中等待的时间(纳秒)，没有发送时返回-1
+     */
+    public long getQueueNanos() {
+        return mSentNanos < 0 ? -1 : mSentNanos - mStartNanos;
+    }
+
+    /**
+     * @return js收到request时的{@code Date.now()}，js没有记录时返回-1
+     */
+    public long getJSReceivedMillis() {
+        return mJSReceivedMillis;
+    }
+
+    /**
+     * @return js发送response时的{@code Date.now()}，js没有记录时返回-1
+     */
+    public long getJSRespondedMillis() {
+        return mJSRespondedMillis;
+    }
+
+    /**
+     * @return js处理request的时间(毫秒)，js没有记录时返回-1
+     */
+    public long getJSHandleMillis() {
+        return mJSReceivedMillis < 0 || mJSRespondedMillis < 0 ? -1 : mJSRespondedMillis - mJSReceivedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "BridgeSpan{" +
+                "interfaceName=" + mInterfaceName +
+                ", callbackId=" + getCallbackId() +
+                ", status=" + mStatus +
+                ", durationNanos=" + getDurationNanos() +
+                ", queueNanos=" + getQueueNanos() +
+                ", jsHandleMillis=" + getJSHandleMillis() +
+                '}';
+    }
+}
@@ -0,0 +1,11 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 接收结束的{@link BridgeSpan}，通过{@link BridgeCore.AbstractBuilder#setSpanSink(BridgeSpanSink)}设置，比如上报到服务器。
+ * 设置后发送给js的request会带上{@code "trace"}，请js在response中记录收到request和发送response的时间
+ * <p>在分发线程(收到response)、定时线程(超时)或调用{@link BridgeFuture#cancel(boolean)}的线程中调用，实现需要是线程安全的，并且要尽快返回</p>
+ */
+public interface BridgeSpanSink {
+
+    void onSpan(BridgeSpan span);
+}
@@ -0,0 +1,59 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.exception.SimpleJSBridgeException;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * 用js的响应完成{@link BridgeFuture}，不需要反射调用回调方法
+ */
+class FutureMethodHandler extends MethodHandler {
+
+    private final BridgeFuture<Object> mFuture;
+    /**
+     * {@link BridgeFuture}的泛型参数
+     */
+    private final Class<?> mResultType;
+
+    FutureMethodHandler(BridgeFuture<Object> future, Class<?> resultType) {
+        mFuture = future;
+        mResultType = resultType;
+        /*在收到响应的线程中直接完成，不需要切换到主线程*/
+        setExecutor(BridgeExecutors.DIRECT);
+    }
+
+    BridgeFuture<Object> getFuture() {
+        return mFuture;
+    }
+
+    @Override
+    Object[] bindParams(RequestResponseBuilder requestResponseBuilder) {
+        return null;
+    }
+
+    @Override
+    void invoke(RequestResponseBuilder requestResponseBuilder, Object[] values) {
+        JSONObject status = requestResponseBuilder.getResponseStatus();
+        String statusCode = status == null ? null : status.optString(BridgeCore.RESPONSE_STATUS_NAME, null);
+        if (BridgeCore.RESPONSE_STATUS_TIMEOUT.equals(statusCode) || BridgeCore.RESPONSE_STATUS_OVERFLOW.equals(statusCode)) {
+            mFuture.fail(new SimpleJSBridgeException(status.optString(BridgeCore.RESPONSE_MSG_NAME)), status);
+            return;
+        }
+        try {
+            mFuture.complete(convertResult(requestResponseBuilder.getValues()), status);
+        } catch (JSONException | RuntimeException e) {
+            mFuture.fail(e, status);
+        }
+    }
+
+    private Object convertResult(JSONObject values) throws JSONException {
+        if (mResultType == Void.class) {
+            return null;
+        }
+        if (values == null || mResultType == Object.class || mResultType == JSONObject.class) {
+            return values;
+        }
+        return ObjectBinder.obtain(mResultType).convertJson2Object(values);
+    }
+}
@@ -0,0 +1,84 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 一个接收js数据的通道的统计，见{@link BridgeCore#getInboundChannelStats()}，
+ * 可以用来对比{@code prompt()}与其他通道的吞吐量
+ */
+public class InboundChannelStats {
+    private final String mChannelName;
+    private long mMessageCount;
+    private long mCharCount;
+    private long mHandleNanos;
+    private long mSyncOverBudgetCount;
+
+    InboundChannelStats(String channelName) {
+        mChannelName = channelName;
+    }
+
+    synchronized void record(int chars, long handleNanos) {
+        mMessageCount++;
+        mCharCount += chars;
+        mHandleNanos += handleNanos;
+    }
+
+    synchronized void recordSyncOverBudget() {
+        mSyncOverBudgetCount++;
+    }
+
+    synchronized InboundChannelStats snapshot() {
+        InboundChannelStats stats = new InboundChannelStats(mChannelName);
+        stats.mMessageCount = mMessageCount;
+        stats.mCharCount = mCharCount;
+        stats.mHandleNanos = mHandleNanos;
+        stats.mSyncOverBudgetCount = mSyncOverBudgetCount;
+        return stats;
+    }
+
+    /**
+     * @return 通道的名字
+     */
+    public String getChannelName() {
+        return mChannelName;
+    }
+
+    /**
+     * @return 收到的数据条数
+     */
+    public long getMessageCount() {
+        return mMessageCount;
+    }
+
+    /**
+     * @return 收到的字符数
+     */
+    public long getCharCount() {
+        return mCharCount;
+    }
+
+    /**
+     * @return 在分发线程中处理数据花费的总时间(纳秒)，包括解析和分发，不包括在其他线程中执行接口的时间
+     */
+    public long getHandleNanos() {
+        return mHandleNanos;
+    }
+
+    /**
+     * @return 同步调用的执行时间超过{@link BridgeCore.Builder#setSyncTimeBudget(long)}的次数
+     */
+    public long getSyncOverBudgetCount() {
+        return mSyncOverBudgetCount;
+    }
+
+    /**
+     * @return 平均每条数据的处理时间(纳秒)
+     */
+    public long getAverageHandleNanos() {
+        return mMessageCount == 0 ? 0 : mHandleNanos / mMessageCount;
+    }
+
+    @Override
+    public String toString() {
+        return "InboundChannelStats{channelName=" + mChannelName + ", messageCount=" + mMessageCount + ", charCount=" + mCharCount
+                + ", averageHandleNanos=" + getAverageHandleNanos() + "}";
+    }
+}
@@ -0,0 +1,91 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 一个接口的统计数据，见{@link BridgeMetrics#getInterfaceMetrics()}，创建后不会再改变
+ */
+public class InterfaceMetrics {
+
+    private final int mType;
+    private final String mName;
+    /**
+     * 按{@link BridgeMetricsListener#STAGE_RECEIVE}等索引，没有记录过的阶段为null
+     */
+    private final MetricsHistogram[] mStageHistograms;
+    /**
+     * 按{@link BridgeMetricsListener#DIRECTION_INBOUND}等索引，没有记录过的方向为null
+     */
+    private final MetricsHistogram[] mPayloadHistograms;
+    private final long[] mEventCounts;
+
+    InterfaceMetrics(int type, String name, MetricsHistogram[] stageHistograms, MetricsHistogram[] payloadHistograms, long[] eventCounts) {
+        mType = type;
+        mName = name;
+        mStageHistograms = stageHistograms;
+        mPayloadHistograms = payloadHistograms;
+        mEventCounts = eventCounts;
+    }
+
+    /**
+     * @return {@link BridgeMetricsListener#TYPE_JAVA_INTERFACE}或{@link BridgeMetricsListener#TYPE_JS_INTERFACE}
+     */
+    public int getType() {
+        return mType;
+    }
+
+    public String getName() {
+        return mName;
+    }
+
+    /**
+     * @param stage {@link BridgeMetricsListener#STAGE_RECEIVE}等
+     * @return 耗时(纳秒)的直方图，没有记录过时为null
+     */
+    public MetricsHistogram getStageHistogram(int stage) {
+        return mStageHistograms[stage];
+    }
+
+    /**
+     * @param direction {@link BridgeMetricsListener#DIRECTION_INBOUND}或{@link BridgeMetricsListener#DIRECTION_OUTBOUND}
+     * @return 数据字符数的直方图，没有记录过时为null
+     */
+    public MetricsHistogram getPayloadHistogram(int direction) {
+        return mPayloadHistograms[direction];
+    }
+
+    /**
+     * @param direction
+     * @return 收到或发送的数据条数
+     */
+    public long getMessageCount(int direction) {
+        return mPayloadHistograms[direction] == null ? 0 : mPayloadHistograms[direction].getTotalCount();
+    }
+
+    /**
+     * @param event {@link BridgeMetricsListener#EVENT_NOT_FOUND}等
+     * @return 事件发生的次数
+     */
+    public long getEventCount(int event) {
+        return mEventCounts[event];
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("InterfaceMetrics{")
+                .append(mType == BridgeMetricsListener.TYPE_JAVA_INTERFACE ? "java:" : "js:").append(mName)
+                .append(", inbound=").append(getMessageCount(BridgeMetricsListener.DIRECTION_INBOUND))
+                .append(", outbound=").append(getMessageCount(BridgeMetricsListener.DIRECTION_OUTBOUND));
+        for (int stage = 0; stage < mStageHistograms.length; stage++) {
+            MetricsHistogram histogram = mStageHistograms[stage];
+            if (histogram != null) {
+                builder.append(", stage").append(stage).append("(p50=").append(histogram.getValueAtPercentile(50))
+                        .append(",p99=").append(histogram.getValueAtPercentile(99)).append(')');
+            }
+        }
+        for (int event = 0; event < mEventCounts.length; event++) {
+            if (mEventCounts[event] != 0) {
+                builder.append(", event").append(event).append('=').append(mEventCounts[event]);
+            }
+        }
+        return builder.append('}').toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.OverflowPolicy;
+import com.simplejsjavabridge.lib.annotation.Priority;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 方法的调用计划，包含方法对应的js接口的名字和方法的{@link Params}。
+ * <p>{@link BridgeCore#createInvokJSCommand(Class)}生成的代理和{@link com.simplejsjavabridge.lib.annotation.ParamCallback}
+ * 生成的回调代理在每次调用时都需要这些数据，因此按{@link Method}缓存起来，保证每个方法的注解在整个进程中只解析一次</p>
+ */
+class InvokePlan {
+
+    private static final ConcurrentHashMap<Method, InvokePlan> sInvokePlans = new ConcurrentHashMap<>();
+
+    /**
+     * {@link InvokeJSInterface#value()}的值，方法没有用{@link InvokeJSInterface}标注时为null
+     */
+    private final String mJSInterfaceName;
+    private final Params mParams;
+    /**
+     * {@link InvokeJSInterface#timeout()}的值
+     */
+    private final long mTimeout;
+    /**
+     * 方法的返回值是{@link BridgeFuture}时，它的泛型参数，否则为null
+     */
+    private final Class<?> mFutureResultType;
+    /**
+     * {@link InvokeJSInterface#overflow()}的值
+     */
+    private final OverflowPolicy mOverflowPolicy;
+    /**
+     * {@link InvokeJSInterface#priority()}的值
+     */
+    private final Priority mPriority;
+
+    private InvokePlan(String jsInterfaceName, Params params, long timeout, Class<?> futureResultType, OverflowPolicy overflowPolicy,
+                       Priority priority) {
+        mJSInterfaceName = jsInterfaceName;
+        mParams = params;
+        mTimeout = timeout;
+        mFutureResultType = futureResultType;
+        mOverflowPolicy = overflowPolicy;
+        mPriority = priority;
+    }
+
+    /**
+     * 解析{@link BridgeFuture}的泛型参数，不是具体的类时使用{@link Object}
+     */
+    private static Class<?> findFutureResultType(Method method) {
+        if (method.getReturnType() != BridgeFuture.class) {
+            return null;
+        }
+        Type returnType = method.getGenericReturnType();
+        if (returnType instanceof ParameterizedType) {
+            Type resultType = ((ParameterizedType) returnType).getActualTypeArguments()[0];
+            if (resultType instanceof Class) {
+                return (Class<?>) resultType;
+            }
+        }
+        return Object.class;
+    }
+
+    /**
+     * 获取方法的调用计划，不存在时解析方法并缓存
+     *
+     * @param method
+     * @return
+     */
+    static InvokePlan obtain(Method method) {
+        InvokePlan invokePlan = sInvokePlans.get(method);
+        if (invokePlan == null) {
+            InvokeJSInterface invokeJSInterface = method.getAnnotation(InvokeJSInterface.class);
+            invokePlan = new InvokePlan(invokeJSInterface == null ? null : invokeJSInterface.value(), Params.createParams(method),
+                    invokeJSInterface == null ? InvokeJSInterface.DEFAULT_TIMEOUT : invokeJSInterface.timeout(), findFutureResultType(method),
+                    invokeJSInterface == null ? OverflowPolicy.DROP_OLDEST : invokeJSInterface.overflow(),
+                    invokeJSInterface == null ? Priority.NORMAL : invokeJSInterface.priority());
+            InvokePlan previous = sInvokePlans.putIfAbsent(method, invokePlan);
+            if (previous != null) {
+                invokePlan = previous;
+            }
+        }
+        return invokePlan;
+    }
+
+    /**
+     * 代理的{@link Object}方法按代理对象本身响应，不能交给{@link java.lang.reflect.InvocationHandler}，
+     * 否则代理放入集合中时相等性和hash值都不对
+     *
+     * @param proxy  代理对象
+     * @param method {@link Object}的equals、hashCode或toString
+     * @param args
+     * @return
+     */
+    static Object invokeObjectMethod(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                Class<?>[] interfaces = proxy.getClass().getInterfaces();
+                String name = interfaces.length > 0 ? interfaces[0].getName() : proxy.getClass().getName();
+                return name + "@" + Integer.toHexString(System.identityHashCode(proxy));
+            default:
+                throw new UnsupportedOperationException(method.toString());
+        }
+    }
+
+    String getJSInterfaceName() {
+        return mJSInterfaceName;
+    }
+
+    Params getParams() {
+        return mParams;
+    }
+
+    long getTimeout() {
+        return mTimeout;
+    }
+
+    Class<?> getFutureResultType() {
+        return mFutureResultType;
+    }
+
+    OverflowPolicy getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    Priority getPriority() {
+        return mPriority;
+    }
+}
@@ -0,0 +1,34 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+
+/**
+ * 编译期由注解处理器为每个包含{@link JavaInterface4JS}方法的类生成的分发器，生成的类名是
+ * 原类的名字加上{@link #CLASS_SUFFIX}，比如JavaInterfaces4JS对应JavaInterfaces4JS_JavaInterfaceDispatcher。
+ * <p>分发器通过{@link Params}的静态方法解析参数，与反射调用时的转化和失败处理相同，然后直接调用对应的方法，不需要反射，
+ * 接口的注册信息也在编译期生成，{@link BridgeCore}不需要扫描类中的方法。
+ * 不存在分发器时{@link BridgeCore}会扫描方法上的注解，使用{@link MethodHandler}通过反射来调用</p>
+ */
+public interface JavaInterfaceDispatcher {
+
+    /**
+     * 生成的分发器的类名后缀
+     */
+    String CLASS_SUFFIX = "_JavaInterfaceDispatcher";
+
+    /**
+     * 调用js请求的接口
+     *
+     * @param interfaceName          {@link JavaInterface4JS#value()}的值
+     * @param requestResponseBuilder js发送过来的request
+     * @return true 代表存在该接口并且已调用，否则不存在
+     */
+    boolean dispatch(String interfaceName, RequestResponseBuilder requestResponseBuilder);
+
+    /**
+     * 类中所有{@link JavaInterface4JS}接口的注册信息，顺序与方法声明的顺序相同
+     *
+     * @return 每次返回新的数组
+     */
+    JavaInterfaceInfo[] getJavaInterfaces();
+}
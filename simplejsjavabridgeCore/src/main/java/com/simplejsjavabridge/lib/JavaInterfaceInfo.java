@@ -0,0 +1,176 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.Cacheable;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Priority;
+import com.simplejsjavabridge.lib.annotation.SingleFlight;
+import com.simplejsjavabridge.lib.annotation.ThreadMode;
+
+import org.json.JSONObject;
+
+import java.lang.reflect.Method;
+
+/**
+ * 一个{@link JavaInterface4JS}接口的注册信息，包含{@link JavaInterface4JS}，{@link Cacheable}，{@link SingleFlight}的值以及返回值的种类。
+ * <p>存在{@link JavaInterfaceDispatcher}时由注解处理器在编译期生成，{@link BridgeCore}注册接口时不再需要扫描方法上的注解，
+ * 不存在时才通过{@link #create(Method)}从方法中读取</p>
+ */
+public final class JavaInterfaceInfo {
+
+    /**
+     * 方法没有返回值
+     */
+    public static final int RETURN_VOID = 0;
+    /**
+     * 返回值作为response发送给js，见{@link Params#sendReturnValue(RequestResponseBuilder, Object)}
+     */
+    public static final int RETURN_VALUE = 1;
+    /**
+     * 返回值是{@link BridgeFuture}，完成时再发送给js
+     */
+    public static final int RETURN_FUTURE = 2;
+    /**
+     * 返回值是String，基本类型或者它们的包装类型，没有属性不能作为response，与之前的版本一样忽略
+     */
+    public static final int RETURN_IGNORED = 3;
+
+    private final String mName;
+    private final ThreadMode mThread;
+    private final String mExecutor;
+    private final boolean mSync;
+    private final Priority mPriority;
+    private final int mReturnKind;
+
+    private boolean mCacheable;
+    private long mCacheTtl;
+    private int mCacheMaxSize;
+
+    private boolean mSingleFlight;
+    private long mSingleFlightTimeout;
+
+    /**
+     * @param name       {@link JavaInterface4JS#value()}
+     * @param thread     {@link JavaInterface4JS#thread()}
+     * @param executor   {@link JavaInterface4JS#executor()}
+     * @param sync       {@link JavaInterface4JS#sync()}
+     * @param priority   {@link JavaInterface4JS#priority()}
+     * @param returnKind {@link #RETURN_VOID}，{@link #RETURN_VALUE}，{@link #RETURN_FUTURE}或{@link #RETURN_IGNORED}
+     */
+    public JavaInterfaceInfo(String name, ThreadMode thread, String executor, boolean sync, Priority priority, int returnKind) {
+        mName = name;
+        mThread = thread;
+        mExecutor = executor;
+        mSync = sync;
+        mPriority = priority;
+        mReturnKind = returnKind;
+    }
+
+    /**
+     * 接口用{@link Cacheable}标注，只在创建时调用
+     *
+     * @param ttl     {@link Cacheable#ttl()}
+     * @param maxSize {@link Cacheable#maxSize()}
+     * @return
+     */
+    public JavaInterfaceInfo cacheable(long ttl, int maxSize) {
+        mCacheable = true;
+        mCacheTtl = ttl;
+        mCacheMaxSize = maxSize;
+        return this;
+    }
+
+    /**
+     * 接口用{@link SingleFlight}标注，只在创建时调用
+     *
+     * @param timeout {@link SingleFlight#timeout()}
+     * @return
+     */
+    public JavaInterfaceInfo singleFlight(long timeout) {
+        mSingleFlight = true;
+        mSingleFlightTimeout = timeout;
+        return this;
+    }
+
+    /**
+     * 没有{@link JavaInterfaceDispatcher}时从方法的注解中读取
+     *
+     * @param method 用{@link JavaInterface4JS}标注的方法
+     * @return
+     */
+    static JavaInterfaceInfo create(Method method) {
+        JavaInterface4JS jsKey = method.getAnnotation(JavaInterface4JS.class);
+        JavaInterfaceInfo info = new JavaInterfaceInfo(jsKey.value(), jsKey.thread(), jsKey.executor(), jsKey.sync(), jsKey.priority(),
+                returnKind(method.getReturnType()));
+        Cacheable cacheable = method.getAnnotation(Cacheable.class);
+        if (cacheable != null) {
+            info.cacheable(cacheable.ttl(), cacheable.maxSize());
+        }
+        SingleFlight singleFlight = method.getAnnotation(SingleFlight.class);
+        if (singleFlight != null) {
+            info.singleFlight(singleFlight.timeout());
+        }
+        return info;
+    }
+
+    /**
+     * @param returnType 方法的返回值类型
+     * @return 返回值的种类
+     */
+    static int returnKind(Class<?> returnType) {
+        if (returnType == void.class) {
+            return RETURN_VOID;
+        }
+        if (returnType == BridgeFuture.class) {
+            return RETURN_FUTURE;
+        }
+        if (returnType != JSONObject.class && (ObjectBinder.isObjectDirectPut2Json(returnType) || Number.class.isAssignableFrom(returnType)
+                || returnType == Boolean.class || returnType == Character.class)) {
+            return RETURN_IGNORED;
+        }
+        return RETURN_VALUE;
+    }
+
+    String getName() {
+        return mName;
+    }
+
+    ThreadMode getThread() {
+        return mThread;
+    }
+
+    String getExecutor() {
+        return mExecutor;
+    }
+
+    boolean isSync() {
+        return mSync;
+    }
+
+    Priority getPriority() {
+        return mPriority;
+    }
+
+    int getReturnKind() {
+        return mReturnKind;
+    }
+
+    boolean isCacheable() {
+        return mCacheable;
+    }
+
+    long getCacheTtl() {
+        return mCacheTtl;
+    }
+
+    int getCacheMaxSize() {
+        return mCacheMaxSize;
+    }
+
+    boolean isSingleFlight() {
+        return mSingleFlight;
+    }
+
+    long getSingleFlightTimeout() {
+        return mSingleFlightTimeout;
+    }
+}
@@ -0,0 +1,76 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+/**
+ * request和response的json编解码器，负责读取信封、解析values、把values绑定为参数以及把values写成json。
+ * <p>通过{@link BridgeCore.AbstractBuilder#setJsonCodec(JsonCodec)}设置，每个{@link BridgeCore}可以使用不同的编解码器，
+ * 默认是{@link OrgJsonCodec}，values会被解析为{@link JSONObject}；{@link StreamingJsonCodec}直接从js传递的字符串中
+ * 把values绑定为参数，不生成{@link JSONObject}</p>
+ * <p>{@link RequestResponseBuilder#getValues()}等对外的方法仍然返回{@link JSONObject}，这时会调用{@link #readObject(String, int)}解析。
+ * 编解码器会在多个线程中同时使用，实现类不能保存状态</p>
+ */
+public abstract class JsonCodec {
+
+    /**
+     * 从source的offset位置读取request或response的信封，只读取names中的key，其他key跳过
+     *
+     * @param source        js传递的字符串
+     * @param offset        信封在字符串中开始的位置
+     * @param names         需要读取的key
+     * @param values        names中的key对应的值不是json对象时，值的字符串形式放入相同的位置，与{@link JSONObject#optString(String)}保持一致
+     * @param objectOffsets names中的key对应的值是json对象时，不进行解析，只把对象在字符串中开始的位置放入相同的位置
+     * @throws JSONException json格式错误
+     */
+    public abstract void readEnvelope(String source, int offset, String[] names, String[] values, int[] objectOffsets) throws JSONException;
+
+    /**
+     * 把source中offset位置开始的json对象解析为{@link JSONObject}，第一次调用{@link RequestResponseBuilder#getValues()}
+     * 或{@link RequestResponseBuilder#getResponseStatus()}时使用
+     *
+     * @param source
+     * @param offset {@link #readEnvelope}得到的对象的位置
+     * @return
+     * @throws JSONException json格式错误
+     */
+    public abstract JSONObject readObject(String source, int offset) throws JSONException;
+
+    /**
+     * 直接从source中offset位置开始的json对象中把keys对应的值转化为types中的类型，放入values中，不需要先解析为{@link JSONObject}。
+     * 转化的结果需要与{@link Params}从{@link JSONObject}中转化的结果保持一致：
+     * {@link ObjectBinder#isObjectDirectPut2Json(Class)}的类型是json中的原始值，其他类型由{@link com.simplejsjavabridge.lib.annotation.Param}标注的属性转化而来
+     *
+     * @param source
+     * @param offset {@link #readEnvelope}得到的对象的位置
+     * @param keys   为null的位置不需要绑定，其他的key不为空，也不会重复
+     * @param types  与keys一一对应
+     * @param values 与keys一一对应，不存在的key对应的值保持为null
+     * @return 默认返回false，代表不支持，这时参数从{@link #readObject(String, int)}的结果中转化
+     * @throws JSONException json格式错误
+     */
+    public boolean bindValues(String source, int offset, String[] keys, Class<?>[] types, Object[] values) throws JSONException {
+        return false;
+    }
+
+    /**
+     * 把不能直接放入json的参数值转化为放入values中的值，默认把{@link com.simplejsjavabridge.lib.annotation.Param}标注的属性转化为{@link JSONObject}
+     *
+     * @param value 不为null
+     * @return 为null时不放入values中
+     */
+    public Object toJsonValue(Object value) {
+        return ObjectBinder.obtain(value.getClass()).convertObject2Json(value);
+    }
+
+    /**
+     * 把values中的值或状态数据写成json
+     *
+     * @param value {@link JSONObject}，{@link org.json.JSONArray}，字符串，数字，boolean，null以及{@link #toJsonValue(Object)}返回的值
+     * @param out   写入的json只需要按json的规则转义，发送给js时需要的转义由out负责
+     * @throws IOException
+     */
+    public abstract void writeValue(Object value, Appendable out) throws IOException;
+}
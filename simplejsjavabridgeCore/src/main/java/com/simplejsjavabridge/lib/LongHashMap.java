@@ -0,0 +1,150 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * key是long的哈希表，使用开放寻址(线性探测)，key不会被装箱，删除时把后面的元素往前移，不需要墓碑。
+ * <p>key必须大于0，0代表空位置；不是线程安全的，由调用者加锁</p>
+ *
+ * @param <V>
+ */
+class LongHashMap<V> {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] mKeys;
+    private Object[] mValues;
+    private int mMask;
+    private int mSize;
+
+    LongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    LongHashMap(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    private void allocate(int capacity) {
+        mKeys = new long[capacity];
+        mValues = new Object[capacity];
+        mMask = capacity - 1;
+    }
+
+    /**
+     * 把key打散，连续的key也能均匀分布
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    V get(long key) {
+        int index = hash(key) & mMask;
+        long current;
+        while ((current = mKeys[index]) != 0) {
+            if (current == key) {
+                return valueAt(index);
+            }
+            index = (index + 1) & mMask;
+        }
+        return null;
+    }
+
+    /**
+     * @param key   必须大于0
+     * @param value
+     * @return 之前的值
+     */
+    V put(long key, V value) {
+        if (key <= 0) {
+            throw new IllegalArgumentException("key必须大于0:" + key);
+        }
+        int index = hash(key) & mMask;
+        long current;
+        while ((current = mKeys[index]) != 0) {
+            if (current == key) {
+                V previous = valueAt(index);
+                mValues[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mMask;
+        }
+        mKeys[index] = key;
+        mValues[index] = value;
+        if (++mSize > (mMask + 1) * 3 / 4) {
+            rehash((mMask + 1) << 1);
+        }
+        return null;
+    }
+
+    V remove(long key) {
+        int index = hash(key) & mMask;
+        long current;
+        while ((current = mKeys[index]) != 0) {
+            if (current == key) {
+                V previous = valueAt(index);
+                shiftBack(index);
+                mSize--;
+                return previous;
+            }
+            index = (index + 1) & mMask;
+        }
+        return null;
+    }
+
+    /**
+     * 删除index位置的元素，把后面探测链上的元素往前移，保证查找时不会提前遇到空位置
+     */
+    private void shiftBack(int index) {
+        int gap = index;
+        int next = (gap + 1) & mMask;
+        long key;
+        while ((key = mKeys[next]) != 0) {
+            int ideal = hash(key) & mMask;
+            /*ideal不在(gap, next]之间时，可以移动到gap*/
+            if (((next - ideal) & mMask) >= ((next - gap) & mMask)) {
+                mKeys[gap] = key;
+                mValues[gap] = mValues[next];
+                gap = next;
+            }
+            next = (next + 1) & mMask;
+        }
+        mKeys[gap] = 0;
+        mValues[gap] = null;
+    }
+
+    /**
+     * mValues中只有{@link #put(long, Object)}放入的V，因此转换是安全的
+     */
+    @SuppressWarnings("unchecked")
+    private V valueAt(int index) {
+        return (V) mValues[index];
+    }
+
+    /**
+     * 扩容后重新放入所有元素，key不会重复，不需要比较
+     */
+    private void rehash(int capacity) {
+        long[] keys = mKeys;
+        Object[] values = mValues;
+        allocate(capacity);
+        for (int i = 0; i < keys.length; i++) {
+            long key = keys[i];
+            if (key != 0) {
+                int index = hash(key) & mMask;
+                while (mKeys[index] != 0) {
+                    index = (index + 1) & mMask;
+                }
+                mKeys[index] = key;
+                mValues[index] = values[i];
+            }
+        }
+    }
+}
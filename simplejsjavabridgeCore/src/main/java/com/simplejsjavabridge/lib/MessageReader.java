@@ -0,0 +1,392 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * 流式的json读取器，直接在js传递过来的字符串上从某个位置开始读取，不需要先截取字符串。
+ * <p>读取request或response时，先读取"handlerName","callbackId","responseId"这些信息，
+ * "params","data"这些数据只记录它们在字符串中的位置，不进行解析，等真正需要时再调用{@link #readObject(String, int)}解析，
+ * 这样接口不存在或回调不存在时，数据不会被解析</p>
+ */
+class MessageReader {
+
+    private final String mSource;
+    private final int mEnd;
+    private int mPos;
+
+    MessageReader(String source, int offset) {
+        mSource = source;
+        mEnd = source.length();
+        mPos = offset;
+    }
+
+    /**
+     * 从source的offset位置开始解析一个json对象
+     *
+     * @param source
+     * @param offset
+     * @return
+     * @throws JSONException
+     */
+    static JSONObject readObject(String source, int offset) throws JSONException {
+        MessageReader reader = new MessageReader(source, offset);
+        reader.skipWhitespace();
+        return reader.readObject();
+    }
+
+    int getPosition() {
+        return mPos;
+    }
+
+    /**
+     * 开始读取一个对象，也就是读取"{"
+     *
+     * @throws JSONException
+     */
+    void beginObject() throws JSONException {
+        expect('{');
+    }
+
+    /**
+     * 是否还有下一个key，若有则会跳过key前面的","
+     *
+     * @return false 代表对象已经读完了，"}"已经被读取
+     * @throws JSONException
+     */
+    boolean hasNextName() throws JSONException {
+        char c = nextClean();
+        if (c == '}') {
+            return false;
+        }
+        if (c == ',') {
+            c = nextClean();
+        }
+        if (c != '"') {
+            throw syntaxError("Expected a name");
+        }
+        mPos--;
+        return true;
+    }
+
+    /**
+     * 读取下一个key，并与names进行比较，names中的key不包含转义字符时不会生成新的字符串
+     *
+     * @param names
+     * @return key在names中的位置，不存在返回-1
+     * @throws JSONException
+     */
+    int nextName(String[] names) throws JSONException {
+        expect('"');
+        int start = mPos;
+        int index = -1;
+        int end = start;
+        char c = 0;
+        while (end < mEnd && (c = mSource.charAt(end)) != '"' && c != '\\') {
+            end++;
+        }
+        if (end >= mEnd) {
+            throw syntaxError("Unterminated string");
+        }
+        if (c == '"') {
+            int length = end - start;
+            for (int i = 0; i < names.length; i++) {
+                String name = names[i];
+                if (name != null && name.length() == length && mSource.regionMatches(start, name, 0, length)) {
+                    index = i;
+                    break;
+                }
+            }
+            mPos = end + 1;
+        } else {
+            mPos = start;
+            String name = readStringBody();
+            for (int i = 0; i < names.length; i++) {
+                if (name.equals(names[i])) {
+                    index = i;
+                    break;
+                }
+            }
+        }
+        expect(':');
+        return index;
+    }
+
+    /**
+     * 读取一个值，并转化为字符串，与{@link JSONObject#optString(String)}的结果保持一致
+     *
+     * @return
+     * @throws JSONException
+     */
+    String nextString() throws JSONException {
+        char c = nextClean();
+        if (c == '"') {
+            return readStringBody();
+        }
+        mPos--;
+        Object value = readValue();
+        return value == JSONObject.NULL ? "null" : value.toString();
+    }
+
+    /**
+     * 读取一个值，对象和数组会被解析为{@link JSONObject}和{@link JSONArray}，null为{@link JSONObject#NULL}
+     *
+     * @return
+     * @throws JSONException
+     */
+    Object nextValue() throws JSONException {
+        return readValue();
+    }
+
+    /**
+     * 跳过一个值，不进行解析
+     *
+     * @return 值开始的位置
+     * @throws JSONException
+     */
+    int skipValue() throws JSONException {
+        skipWhitespace();
+        int start = mPos;
+        int depth = 0;
+        do {
+            if (mPos >= mEnd) {
+                throw syntaxError("Unterminated value");
+            }
+            char c = mSource.charAt(mPos++);
+            switch (c) {
+                case '{':
+                case '[':
+                    depth++;
+                    break;
+                case '}':
+                case ']':
+                    depth--;
+                    break;
+                case '"':
+                    skipStringBody();
+                    break;
+                default:
+                    if (depth == 0) {
+                        /*字面量：数字、true、false、null*/
+                        while (mPos < mEnd && ",}] \t\r\n".indexOf(mSource.charAt(mPos)) < 0) {
+                            mPos++;
+                        }
+                    }
+                    break;
+            }
+        } while (depth > 0);
+        return start;
+    }
+
+    /**
+     * 当前位置的值是不是json对象
+     *
+     * @return
+     */
+    boolean peekObject() {
+        skipWhitespace();
+        return mPos < mEnd && mSource.charAt(mPos) == '{';
+    }
+
+    private Object readValue() throws JSONException {
+        char c = nextClean();
+        switch (c) {
+            case '{':
+                mPos--;
+                return readObject();
+            case '[':
+                mPos--;
+                return readArray();
+            case '"':
+                return readStringBody();
+            default:
+                mPos--;
+                return readLiteral();
+        }
+    }
+
+    private JSONObject readObject() throws JSONException {
+        expect('{');
+        JSONObject result = new JSONObject();
+        char c = nextClean();
+        if (c == '}') {
+            return result;
+        }
+        mPos--;
+        while (true) {
+            expect('"');
+            String name = readStringBody();
+            expect(':');
+            result.put(name, readValue());
+            c = nextClean();
+            if (c == '}') {
+                return result;
+            } else if (c != ',') {
+                throw syntaxError("Unterminated object");
+            }
+        }
+    }
+
+    private JSONArray readArray() throws JSONException {
+        expect('[');
+        JSONArray result = new JSONArray();
+        char c = nextClean();
+        if (c == ']') {
+            return result;
+        }
+        mPos--;
+        while (true) {
+            result.put(readValue());
+            c = nextClean();
+            if (c == ']') {
+                return result;
+            } else if (c != ',') {
+                throw syntaxError("Unterminated array");
+            }
+        }
+    }
+
+    /**
+     * 读取字面量，数字的类型与org.json保持一致：能用int表示的是Integer，其次是Long，否则是Double，
+     * 超出long范围的整数也是Double
+     *
+     * @return
+     * @throws JSONException
+     */
+    private Object readLiteral() throws JSONException {
+        int start = mPos;
+        while (mPos < mEnd && ",}] \t\r\n:".indexOf(mSource.charAt(mPos)) < 0) {
+            mPos++;
+        }
+        String literal = mSource.substring(start, mPos);
+        if (literal.isEmpty()) {
+            throw syntaxError("Expected literal value");
+        } else if ("null".equals(literal)) {
+            return JSONObject.NULL;
+        } else if ("true".equals(literal)) {
+            return Boolean.TRUE;
+        } else if ("false".equals(literal)) {
+            return Boolean.FALSE;
+        }
+        try {
+            if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+                try {
+                    long longValue = Long.parseLong(literal);
+                    if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                        return (int) longValue;
+                    }
+                    return longValue;
+                } catch (NumberFormatException e) {
+                    /*超出long的范围，与org.json一样使用Double*/
+                }
+            }
+            return Double.valueOf(literal);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid literal " + literal);
+        }
+    }
+
+    /**
+     * 读取字符串的内容，开始的'"'已经被读取了
+     *
+     * @return
+     * @throws JSONException
+     */
+    private String readStringBody() throws JSONException {
+        int start = mPos;
+        StringBuilder builder = null;
+        while (mPos < mEnd) {
+            char c = mSource.charAt(mPos++);
+            if (c == '"') {
+                if (builder == null) {
+                    return mSource.substring(start, mPos - 1);
+                }
+                builder.append(mSource, start, mPos - 1);
+                return builder.toString();
+            }
+            if (c == '\\') {
+                if (builder == null) {
+                    builder = new StringBuilder();
+                }
+                builder.append(mSource, start, mPos - 1);
+                builder.append(readEscapeCharacter());
+                start = mPos;
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private void skipStringBody() throws JSONException {
+        while (mPos < mEnd) {
+            char c = mSource.charAt(mPos++);
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                mPos++;
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    private char readEscapeCharacter() throws JSONException {
+        if (mPos >= mEnd) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char escaped = mSource.charAt(mPos++);
+        switch (escaped) {
+            case 'u':
+                if (mPos + 4 > mEnd) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                try {
+                    char c = (char) Integer.parseInt(mSource.substring(mPos, mPos + 4), 16);
+                    mPos += 4;
+                    return c;
+                } catch (NumberFormatException e) {
+                    throw syntaxError("Invalid escape sequence");
+                }
+            case 't':
+                return '\t';
+            case 'b':
+                return '\b';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            default:
+                return escaped;
+        }
+    }
+
+    private void skipWhitespace() {
+        while (mPos < mEnd) {
+            char c = mSource.charAt(mPos);
+            if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+                return;
+            }
+            mPos++;
+        }
+    }
+
+    private char nextClean() throws JSONException {
+        skipWhitespace();
+        if (mPos >= mEnd) {
+            throw syntaxError("Unexpected end of input");
+        }
+        return mSource.charAt(mPos++);
+    }
+
+    private void expect(char expected) throws JSONException {
+        if (nextClean() != expected) {
+            throw syntaxError("Expected " + expected);
+        }
+    }
+
+    private JSONException syntaxError(String message) {
+        return new JSONException(message + " at " + mPos);
+    }
+}
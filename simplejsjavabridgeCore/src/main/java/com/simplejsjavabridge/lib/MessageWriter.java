@@ -0,0 +1,309 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+
+/**
+ * 把发送给js的request或response直接写成js代码，比如{@code _JSNativeBridge._handleMessageFromNative('{"handlerName":"exam"}')}。
+ * <p>json数据会一次性的写入每个线程复用的缓冲区中，同时对js字符串中的特殊字符进行转义，不需要先生成{@link JSONObject}，
+ * 再转化为字符串，再用{@link String#format(String, Object...)}拼接</p>
+ * <p>json数据被放在js的单引号字符串中，因此除了json本身的转义外，还需要对"\"，"'"，换行，"\u2028"，"\u2029"进行转义，
+ * "%"也会被转义，因为{@code WebView.loadUrl("javascript:...")}会对"%"进行url解码</p>
+ * <p>{@link #obtainJson()}得到的writer只按json的规则转义，用于直接返回给js的数据，比如同步调用的返回值</p>
+ * <p>作为{@link Appendable}传给{@link JsonCodec#writeValue(Object, Appendable)}时，写入的json会按同样的规则转义</p>
+ */
+class MessageWriter implements Appendable {
+
+    /**
+     * 缓冲区超过该大小时，用完后不再复用，避免一直占用内存
+     */
+    private static final int MAX_REUSE_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<MessageWriter> sMessageWriters = new ThreadLocal<MessageWriter>() {
+        @Override
+        protected MessageWriter initialValue() {
+            return new MessageWriter();
+        }
+    };
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    private StringBuilder mBuffer = new StringBuilder(256);
+
+    /**
+     * 当前json对象中是否还没有写入任何key
+     */
+    private boolean mIsFirstName;
+
+    /**
+     * 是否需要按js字符串的规则转义
+     */
+    private boolean mEscapeJs = true;
+
+    private MessageWriter() {
+    }
+
+    /**
+     * 获取当前线程复用的{@link MessageWriter}，并清空缓冲区
+     *
+     * @return
+     */
+    static MessageWriter obtain() {
+        MessageWriter writer = sMessageWriters.get();
+        if (writer.mBuffer.capacity() > MAX_REUSE_CAPACITY) {
+            writer.mBuffer = new StringBuilder(256);
+        } else {
+            writer.mBuffer.setLength(0);
+        }
+        writer.mEscapeJs = true;
+        return writer;
+    }
+
+    /**
+     * 获取当前线程复用的{@link MessageWriter}，只生成json，不按js字符串的规则转义
+     *
+     * @return
+     */
+    static MessageWriter obtainJson() {
+        MessageWriter writer = obtain();
+        writer.mEscapeJs = false;
+        return writer;
+    }
+
+    /**
+     * 写入js代码，不进行转义
+     *
+     * @param js
+     * @return
+     */
+    MessageWriter appendScript(String js) {
+        mBuffer.append(js);
+        return this;
+    }
+
+    MessageWriter appendScript(char js) {
+        mBuffer.append(js);
+        return this;
+    }
+
+    MessageWriter beginObject() {
+        appendJs('{');
+        mIsFirstName = true;
+        return this;
+    }
+
+    MessageWriter endObject() {
+        appendJs('}');
+        mIsFirstName = false;
+        return this;
+    }
+
+    MessageWriter name(String name) {
+        if (!mIsFirstName) {
+            appendJs(',');
+        }
+        mIsFirstName = false;
+        writeString(name);
+        appendJs(':');
+        return this;
+    }
+
+    /**
+     * 写入key和value，value为null时不写入，与{@link JSONObject#put(String, Object)}保持一致
+     *
+     * @param name
+     * @param value
+     * @return
+     */
+    MessageWriter nameValue(String name, Object value) {
+        if (value != null) {
+            name(name);
+            value(value);
+        }
+        return this;
+    }
+
+    /**
+     * 写入已经生成好的json，比如缓存的response，只按js字符串的规则转义
+     *
+     * @param json {@link #obtainJson()}生成的json
+     * @return
+     */
+    MessageWriter rawJson(String json) {
+        appendJs(json);
+        mIsFirstName = false;
+        return this;
+    }
+
+    MessageWriter value(Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            appendJs("null");
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Boolean) {
+            appendJs(value.toString());
+        } else if (value instanceof Number) {
+            try {
+                appendJs(JSONObject.numberToString((Number) value));
+            } catch (JSONException e) {
+                /*NaN或无穷大不是合法的json数字*/
+                appendJs("null");
+            }
+        } else if (value instanceof JSONObject) {
+            writeObject((JSONObject) value);
+        } else if (value instanceof JSONArray) {
+            writeArray((JSONArray) value);
+        } else {
+            writeString(value.toString());
+        }
+        return this;
+    }
+
+    private void writeObject(JSONObject object) {
+        appendJs('{');
+        boolean first = true;
+        Iterator<?> keys = object.keys();
+        while (keys.hasNext()) {
+            String key = (String) keys.next();
+            if (!first) {
+                appendJs(',');
+            }
+            first = false;
+            writeString(key);
+            appendJs(':');
+            value(object.opt(key));
+        }
+        appendJs('}');
+    }
+
+    private void writeArray(JSONArray array) {
+        appendJs('[');
+        for (int i = 0, length = array.length(); i < length; i++) {
+            if (i > 0) {
+                appendJs(',');
+            }
+            value(array.opt(i));
+        }
+        appendJs(']');
+    }
+
+    /**
+     * 写入json字符串，先按json的规则转义，转义后的每个字符再按js字符串的规则转义
+     *
+     * @param value
+     */
+    private void writeString(String value) {
+        appendJs('"');
+        for (int i = 0, length = value.length(); i < length; i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                case '\\':
+                    appendJs('\\');
+                    appendJs(c);
+                    break;
+                case '\n':
+                    appendJs('\\');
+                    appendJs('n');
+                    break;
+                case '\r':
+                    appendJs('\\');
+                    appendJs('r');
+                    break;
+                case '\t':
+                    appendJs('\\');
+                    appendJs('t');
+                    break;
+                case '\b':
+                    appendJs('\\');
+                    appendJs('b');
+                    break;
+                case '\f':
+                    appendJs('\\');
+                    appendJs('f');
+                    break;
+                default:
+                    if (c < 0x20) {
+                        appendJs('\\');
+                        appendJs('u');
+                        appendHex(c);
+                    } else {
+                        appendJs(c);
+                    }
+                    break;
+            }
+        }
+        appendJs('"');
+    }
+
+    @Override
+    public MessageWriter append(CharSequence json) {
+        return append(json, 0, json.length());
+    }
+
+    @Override
+    public MessageWriter append(CharSequence json, int start, int end) {
+        for (int i = start; i < end; i++) {
+            appendJs(json.charAt(i));
+        }
+        return this;
+    }
+
+    @Override
+    public MessageWriter append(char json) {
+        appendJs(json);
+        return this;
+    }
+
+    private void appendJs(String text) {
+        for (int i = 0, length = text.length(); i < length; i++) {
+            appendJs(text.charAt(i));
+        }
+    }
+
+    /**
+     * 把json文本中的一个字符按js单引号字符串的规则写入缓冲区
+     *
+     * @param c
+     */
+    private void appendJs(char c) {
+        if (!mEscapeJs) {
+            mBuffer.append(c);
+            return;
+        }
+        switch (c) {
+            case '\\':
+                mBuffer.append('\\').append('\\');
+                break;
+            case '\'':
+                mBuffer.append('\\').append('\'');
+                break;
+            case '%':
+                mBuffer.append("\\x25");
+                break;
+            case '\u2028':
+            case '\u2029':
+                mBuffer.append('\\').append('u');
+                appendHex(c);
+                break;
+            default:
+                mBuffer.append(c);
+                break;
+        }
+    }
+
+    private void appendHex(char c) {
+        mBuffer.append(HEX_DIGITS[(c >> 12) & 0xF])
+                .append(HEX_DIGITS[(c >> 8) & 0xF])
+                .append(HEX_DIGITS[(c >> 4) & 0xF])
+                .append(HEX_DIGITS[c & 0xF]);
+    }
+
+    @Override
+    public String toString() {
+        return mBuffer.toString();
+    }
+}
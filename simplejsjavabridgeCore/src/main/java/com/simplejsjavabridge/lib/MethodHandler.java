@@ -0,0 +1,251 @@
+package com.simplejsjavabridge.lib;
+
+
+import com.simplejsjavabridge.lib.annotation.JavaCallback4JS;
+import com.simplejsjavabridge.lib.annotation.Priority;
+import com.simplejsjavabridge.lib.exception.SimpleJSBridgeException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * 该类的主要作用是通过反射来调用相应的方法，若存在编译期生成的{@link JavaInterfaceDispatcher}，则交给它直接调用
+ * Created by niuxiaowei on 16/7/18.
+ */
+public class MethodHandler {
+
+    /**
+     * 回调类中用{@link JavaCallback4JS}标注的方法，按类缓存，方法的{@link Params}由{@link InvokePlan}缓存
+     */
+    private static final ConcurrentHashMap<Class<?>, Method> sCallbackMethods = new ConcurrentHashMap<>();
+
+    /**
+     * 方法所对应的对象实例
+     */
+    private Object mInstance;
+    /**
+     * 要调用的方法
+     */
+    private Method mMethod;
+    /**
+     * 方法所对应的参数
+     */
+    private Params mParams;
+    /**
+     * 返回值是否作为response发送给js，见{@link JavaInterfaceInfo#RETURN_IGNORED}
+     */
+    private boolean mSendReturnValue;
+
+    /**
+     * 编译期生成的分发器，不为null时不再通过反射调用方法
+     */
+    private JavaInterfaceDispatcher mDispatcher;
+    /**
+     * 方法在分发器中对应的接口名字
+     */
+    private String mInterfaceName;
+
+    /**
+     * 执行方法的线程，见{@link com.simplejsjavabridge.lib.annotation.JavaInterface4JS#thread()}
+     */
+    private Executor mExecutor;
+
+    /**
+     * 是否可以被js同步调用，见{@link com.simplejsjavabridge.lib.annotation.JavaInterface4JS#sync()}
+     */
+    private boolean mSync;
+
+    /**
+     * response发送给js的优先级，见{@link com.simplejsjavabridge.lib.annotation.JavaInterface4JS#priority()}
+     */
+    private Priority mResponsePriority;
+
+    /**
+     * response的缓存，见{@link com.simplejsjavabridge.lib.annotation.Cacheable}，不需要缓存时为null
+     */
+    private ResultCache mResultCache;
+
+    /**
+     * 合并执行参数相同的request，见{@link com.simplejsjavabridge.lib.annotation.SingleFlight}，不需要合并时为null
+     */
+    private SingleFlightGroup mSingleFlightGroup;
+
+    /**
+     * 供不需要反射调用方法的子类使用
+     */
+    MethodHandler() {
+    }
+
+    public MethodHandler(Object instance, Method method, Params params) {
+        mInstance = instance;
+        mMethod = method;
+        mParams = params;
+        int returnKind = JavaInterfaceInfo.returnKind(method.getReturnType());
+        mSendReturnValue = returnKind == JavaInterfaceInfo.RETURN_VALUE || returnKind == JavaInterfaceInfo.RETURN_FUTURE;
+    }
+
+    MethodHandler(JavaInterfaceDispatcher dispatcher, String interfaceName) {
+        mDispatcher = dispatcher;
+        mInterfaceName = interfaceName;
+    }
+
+
+    /**
+     * 构造一个{@link MethodHandler}
+     * @param instance
+     * @param method
+     * @return
+     */
+    public static MethodHandler createMethodHandler(Object instance, Method method){
+        if(instance == null || method == null){
+            return null;
+        }
+        Params params = Params.createParams(method);
+        return new MethodHandler(instance,method,params);
+    }
+
+
+    /**
+     * 为java提供给js的回调构造一个{@link MethodHandler}，回调类中的{@link JavaCallback4JS}方法只解析一次
+     * @param callback
+     * @return
+     * @throws SimpleJSBridgeException 回调类中没有或者有多个{@link JavaCallback4JS}标注的方法
+     */
+    static MethodHandler createCallbackMethodHandler(IJavaCallback2JS callback) {
+        Method method = findCallbackMethod(callback.getClass());
+        return new MethodHandler(callback, method, InvokePlan.obtain(method).getParams());
+    }
+
+    private static Method findCallbackMethod(Class<?> callbackClass) {
+        Method callbackMethod = sCallbackMethods.get(callbackClass);
+        if (callbackMethod != null) {
+            return callbackMethod;
+        }
+        for (Method method : callbackClass.getDeclaredMethods()) {
+            if (method.getAnnotation(JavaCallback4JS.class) != null) {
+                if (callbackMethod != null) {
+                    throw new SimpleJSBridgeException(callbackClass.getName() + "中只能有一个方法用" + JavaCallback4JS.class.getSimpleName() + "标注");
+                }
+                callbackMethod = method;
+            }
+        }
+        if (callbackMethod == null) {
+            throw new SimpleJSBridgeException(callbackClass.getName() + "中必须有一个方法用" + JavaCallback4JS.class.getSimpleName() + "标注");
+        }
+        /*回调一般是匿名类，不是public的*/
+        callbackMethod.setAccessible(true);
+        Method previous = sCallbackMethods.putIfAbsent(callbackClass, callbackMethod);
+        return previous != null ? previous : callbackMethod;
+    }
+
+    /**
+     * 构造一个通过{@link JavaInterfaceDispatcher}调用方法的{@link MethodHandler}，不会解析{@link Params}，也不需要{@link Method}
+     * @param dispatcher
+     * @param interfaceName
+     * @return
+     */
+    static MethodHandler createMethodHandler(JavaInterfaceDispatcher dispatcher, String interfaceName) {
+        if (dispatcher == null || interfaceName == null) {
+            return null;
+        }
+        return new MethodHandler(dispatcher, interfaceName);
+    }
+
+
+    Executor getExecutor() {
+        return mExecutor;
+    }
+
+    void setExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    boolean isSync() {
+        return mSync;
+    }
+
+    void setSync(boolean sync) {
+        mSync = sync;
+    }
+
+    Priority getResponsePriority() {
+        return mResponsePriority;
+    }
+
+    void setResponsePriority(Priority responsePriority) {
+        mResponsePriority = responsePriority;
+    }
+
+    ResultCache getResultCache() {
+        return mResultCache;
+    }
+
+    void setResultCache(ResultCache resultCache) {
+        mResultCache = resultCache;
+    }
+
+    SingleFlightGroup getSingleFlightGroup() {
+        return mSingleFlightGroup;
+    }
+
+    void setSingleFlightGroup(SingleFlightGroup singleFlightGroup) {
+        mSingleFlightGroup = singleFlightGroup;
+    }
+
+    /**
+     * 开始执行方法
+     * @param requestResponseBuilder 包含了方法的参数所对应的参数值，会把参数值依次解析出来，供方法调用
+     */
+    public void invoke(RequestResponseBuilder requestResponseBuilder){
+       if(requestResponseBuilder != null){
+           invoke(requestResponseBuilder, bindParams(requestResponseBuilder));
+       }
+    }
+
+    /**
+     * 把参数值解析出来，可以在非主线程中调用，这样在主线程中执行方法时不需要再解析json
+     * @param requestResponseBuilder
+     * @return 方法的参数值，通过{@link JavaInterfaceDispatcher}调用时返回null，这时只会提前解析json数据
+     */
+    Object[] bindParams(RequestResponseBuilder requestResponseBuilder) {
+        if (mDispatcher != null) {
+            requestResponseBuilder.getValues();
+            requestResponseBuilder.getResponseStatus();
+            return null;
+        }
+        return mParams.convertJson2ParamValues(requestResponseBuilder);
+    }
+
+    /**
+     * 用{@link #bindParams(RequestResponseBuilder)}解析好的参数值执行方法
+     * @param requestResponseBuilder
+     * @param values
+     */
+    void invoke(RequestResponseBuilder requestResponseBuilder, Object[] values) {
+        if (requestResponseBuilder.getValuesError() != null) {
+            /*参数解析或转化失败，不执行方法，与生成的分发器的处理相同*/
+            Params.onConvertParamsFailed(requestResponseBuilder, requestResponseBuilder.getValuesError());
+            return;
+        }
+        if (mDispatcher != null) {
+            mDispatcher.dispatch(mInterfaceName, requestResponseBuilder);
+            return;
+        }
+        try {
+            Object returnValue = mMethod.invoke(mInstance, values);
+            if (mSendReturnValue) {
+                /*返回值作为response发送给js*/
+                Params.sendReturnValue(requestResponseBuilder, returnValue);
+            }
+        } catch (IllegalAccessException | IllegalArgumentException e) {
+            Params.onInvokeFailed(requestResponseBuilder, e);
+        } catch (InvocationTargetException e) {
+            Params.onInvokeFailed(requestResponseBuilder, e.getCause() != null ? e.getCause() : e);
+        }
+    }
+
+
+
+}
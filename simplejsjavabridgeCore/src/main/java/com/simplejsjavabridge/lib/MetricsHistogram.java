@@ -0,0 +1,150 @@
+package com.simplejsjavabridge.lib;
+
+import java.util.Arrays;
+
+/**
+ * 与HdrHistogram相同思路的直方图：小于{@link #SUB_BUCKET_COUNT}的值每个值一个格子，更大的值按2的幂次分为多个区间，
+ * 每个区间再分为{@link #SUB_BUCKET_HALF_COUNT}个格子，这样记录一个值只需要一次位运算和一次计数，
+ * 占用的内存与记录的次数无关，分位数的相对误差不超过1/{@link #SUB_BUCKET_HALF_COUNT}
+ */
+public final class MetricsHistogram {
+
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    private final long mHighestTrackableValue;
+    private final long[] mCounts;
+    private long mTotalCount;
+    private long mSum;
+    private long mMinValue = Long.MAX_VALUE;
+    private long mMaxValue;
+
+    /**
+     * @param highestTrackableValue 可以记录的最大值，更大的值按最大值记录
+     */
+    public MetricsHistogram(long highestTrackableValue) {
+        if (highestTrackableValue < SUB_BUCKET_COUNT) {
+            throw new IllegalArgumentException("highestTrackableValue不能小于" + SUB_BUCKET_COUNT);
+        }
+        mHighestTrackableValue = highestTrackableValue;
+        mCounts = new long[countsIndex(highestTrackableValue) + 1];
+    }
+
+    private MetricsHistogram(MetricsHistogram source) {
+        mHighestTrackableValue = source.mHighestTrackableValue;
+        mCounts = source.mCounts.clone();
+        mTotalCount = source.mTotalCount;
+        mSum = source.mSum;
+        mMinValue = source.mMinValue;
+        mMaxValue = source.mMaxValue;
+    }
+
+    private static int countsIndex(long value) {
+        /*小于SUB_BUCKET_COUNT的值在第0个区间*/
+        int bucket = 63 - Long.numberOfLeadingZeros(value | (SUB_BUCKET_COUNT - 1)) - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> bucket);
+        if (bucket == 0) {
+            return subBucket;
+        }
+        return SUB_BUCKET_COUNT + (bucket - 1) * SUB_BUCKET_HALF_COUNT + subBucket - SUB_BUCKET_HALF_COUNT;
+    }
+
+    /**
+     * @return 格子中最大的值
+     */
+    private static long highestValueAt(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int bucket = (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT + 1;
+        long subBucket = (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT + SUB_BUCKET_HALF_COUNT;
+        return ((subBucket + 1) << bucket) - 1;
+    }
+
+    /**
+     * 记录一个值，小于0的值按0记录
+     *
+     * @param value
+     */
+    public synchronized void recordValue(long value) {
+        if (value < 0) {
+            value = 0;
+        }
+        mCounts[countsIndex(Math.min(value, mHighestTrackableValue))]++;
+        mTotalCount++;
+        mSum += value;
+        if (value < mMinValue) {
+            mMinValue = value;
+        }
+        if (value > mMaxValue) {
+            mMaxValue = value;
+        }
+    }
+
+    public synchronized void reset() {
+        Arrays.fill(mCounts, 0);
+        mTotalCount = 0;
+        mSum = 0;
+        mMinValue = Long.MAX_VALUE;
+        mMaxValue = 0;
+    }
+
+    /**
+     * @return 当前数据的副本，不会再改变
+     */
+    public synchronized MetricsHistogram copy() {
+        return new MetricsHistogram(this);
+    }
+
+    public synchronized long getTotalCount() {
+        return mTotalCount;
+    }
+
+    /**
+     * @return 没有记录过时返回0
+     */
+    public synchronized long getMinValue() {
+        return mTotalCount == 0 ? 0 : mMinValue;
+    }
+
+    public synchronized long getMaxValue() {
+        return mMaxValue;
+    }
+
+    public synchronized double getMean() {
+        return mTotalCount == 0 ? 0 : (double) mSum / mTotalCount;
+    }
+
+    /**
+     * @param percentile 0到100之间，比如99代表p99
+     * @return 不小于percentile的值所在格子的最大值，不超过{@link #getMaxValue()}，没有记录过时返回0
+     */
+    public synchronized long getValueAtPercentile(double percentile) {
+        if (mTotalCount == 0) {
+            return 0;
+        }
+        double requested = Math.min(Math.max(percentile, 0), 100);
+        long countAtPercentile = Math.max(1, (long) Math.ceil(requested / 100 * mTotalCount));
+        long count = 0;
+        for (int i = 0; i < mCounts.length; i++) {
+            count += mCounts[i];
+            if (count >= countAtPercentile) {
+                return Math.min(highestValueAt(i), mMaxValue);
+            }
+        }
+        return mMaxValue;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MetricsHistogram{" +
+                "count=" + mTotalCount +
+                ", min=" + getMinValue() +
+                ", p50=" + getValueAtPercentile(50) +
+                ", p90=" + getValueAtPercentile(90) +
+                ", p99=" + getValueAtPercentile(99) +
+                ", max=" + mMaxValue +
+                '}';
+    }
+}
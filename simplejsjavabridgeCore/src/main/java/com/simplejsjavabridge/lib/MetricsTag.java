@@ -0,0 +1,24 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 发送给js的数据所属的接口以及放入{@link OutboundQueue}的时间，只在设置了{@link BridgeMetricsListener}或者request有{@link BridgeSpan}时创建
+ */
+class MetricsTag {
+    /**
+     * {@link BridgeMetricsListener#TYPE_JAVA_INTERFACE}或{@link BridgeMetricsListener#TYPE_JS_INTERFACE}
+     */
+    final int type;
+    final String name;
+    final long enqueueNanos;
+    /**
+     * request的往返，没有时为null
+     */
+    final BridgeSpan span;
+
+    MetricsTag(int type, String name, long enqueueNanos, BridgeSpan span) {
+        this.type = type;
+        this.name = name;
+        this.enqueueNanos = enqueueNanos;
+        this.span = span;
+    }
+}
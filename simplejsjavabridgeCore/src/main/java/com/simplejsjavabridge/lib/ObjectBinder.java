@@ -0,0 +1,481 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamResponseStatus;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 负责一个类的实例与json之间的互相转换。
+ * <p>类的属性列表、属性对应的json key、static/final属性的过滤、属性的类型以及嵌套对象对应的{@link ObjectBinder}
+ * 在第一次使用该类时就解析好并缓存起来，以后的每次转换只是对解析好的属性依次进行读写</p>
+ * <ul>
+ * <li>json转化为对象：只处理{@link Param}标注的属性，key是{@link Param#value()}</li>
+ * <li>对象转化为json：处理所有的非static、非final属性，用{@link Param}标注的属性key是{@link Param#value()}，否则是属性的名字</li>
+ * <li>对象转化为response：{@link ParamResponseStatus}标注的属性放入状态数据中，其他属性与转化为json时相同</li>
+ * </ul>
+ */
+class ObjectBinder {
+
+    private static final ConcurrentHashMap<Class<?>, ObjectBinder> sObjectBinders = new ConcurrentHashMap<>();
+
+    /*属性的类型，基本类型直接读写，避免装箱*/
+    private static final int TYPE_OBJECT = 0;
+    private static final int TYPE_INT = 1;
+    private static final int TYPE_LONG = 2;
+    private static final int TYPE_DOUBLE = 3;
+    private static final int TYPE_FLOAT = 4;
+    private static final int TYPE_BOOLEAN = 5;
+    private static final int TYPE_STRING = 6;
+    /*其他基本类型short,byte,char*/
+    private static final int TYPE_OTHER_PRIMITIVE = 7;
+
+    private final Class<?> mType;
+    /**
+     * 无参构造函数，不存在时不能从json转化为对象
+     */
+    private final Constructor<?> mConstructor;
+    /**
+     * json转化为对象时需要赋值的属性
+     */
+    private final FieldBinder[] mJson2ObjectFields;
+    /**
+     * {@link #mJson2ObjectFields}对应的json key，流式读取时使用
+     */
+    private final String[] mJson2ObjectNames;
+    /**
+     * 对象转化为json时需要读取的属性
+     */
+    private final FieldBinder[] mObject2JsonFields;
+    /**
+     * {@link ParamResponseStatus}标注的属性，只在转化为response时读取
+     */
+    private final FieldBinder[] mResponseStatusFields;
+
+    private ObjectBinder(Class<?> type) {
+        mType = type;
+        mConstructor = findConstructor(type);
+
+        ArrayList<FieldBinder> json2ObjectFields = new ArrayList<>();
+        ArrayList<FieldBinder> object2JsonFields = new ArrayList<>();
+        ArrayList<FieldBinder> responseStatusFields = new ArrayList<>();
+        for (Field field : type.getDeclaredFields()) {
+            /*final或static类型的属性或枚举类型中的枚举常量不解析*/
+            if (Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()) || field.isEnumConstant() || field.isSynthetic()) {
+                continue;
+            }
+            /*可以访问不可以访问的变量*/
+            field.setAccessible(true);
+            Param param = field.getAnnotation(Param.class);
+            ParamResponseStatus responseStatus = field.getAnnotation(ParamResponseStatus.class);
+            if (responseStatus != null) {
+                String jsonName = responseStatus.value().length() == 0 ? field.getName() : responseStatus.value();
+                responseStatusFields.add(new FieldBinder(field, jsonName));
+            } else if (param != null) {
+                FieldBinder fieldBinder = new FieldBinder(field, param.value());
+                json2ObjectFields.add(fieldBinder);
+                object2JsonFields.add(fieldBinder);
+            } else {
+                object2JsonFields.add(new FieldBinder(field, field.getName()));
+            }
+        }
+        mJson2ObjectFields = json2ObjectFields.toArray(new FieldBinder[json2ObjectFields.size()]);
+        mJson2ObjectNames = new String[mJson2ObjectFields.length];
+        for (int i = 0; i < mJson2ObjectFields.length; i++) {
+            mJson2ObjectNames[i] = mJson2ObjectFields[i].mJsonName;
+        }
+        mObject2JsonFields = object2JsonFields.toArray(new FieldBinder[object2JsonFields.size()]);
+        mResponseStatusFields = responseStatusFields.toArray(new FieldBinder[responseStatusFields.size()]);
+    }
+
+    private static Constructor<?> findConstructor(Class<?> type) {
+        if (type.isInterface() || type.isEnum() || Modifier.isAbstract(type.getModifiers())) {
+            return null;
+        }
+        try {
+            Constructor<?> constructor = type.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return constructor;
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 获取类对应的{@link ObjectBinder}，不存在时解析该类并缓存
+     *
+     * @param type
+     * @return
+     */
+    static ObjectBinder obtain(Class<?> type) {
+        ObjectBinder objectBinder = sObjectBinders.get(type);
+        if (objectBinder == null) {
+            objectBinder = new ObjectBinder(type);
+            ObjectBinder previous = sObjectBinders.putIfAbsent(type, objectBinder);
+            if (previous != null) {
+                objectBinder = previous;
+            }
+        }
+        return objectBinder;
+    }
+
+    /**
+     * 把json转化为对象
+     *
+     * @param json
+     * @return 没有无参构造函数时返回null
+     * @throws JSONException 创建对象失败或者值不能赋给属性，与参数值不能转化为参数的类型一样处理
+     */
+    Object convertJson2Object(JSONObject json) throws JSONException {
+        if (json == null || mConstructor == null) {
+            return null;
+        }
+        try {
+            Object instance = mConstructor.newInstance();
+            for (FieldBinder fieldBinder : mJson2ObjectFields) {
+                fieldBinder.json2Field(json, instance);
+            }
+            return instance;
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | RuntimeException e) {
+            throw convertFailed(e);
+        }
+    }
+
+    /**
+     * 从reader的当前位置读取一个json对象并转化为对象，不生成{@link JSONObject}，供{@link StreamingJsonCodec}使用
+     *
+     * @param reader 当前位置是一个json对象，读取后位于对象的后面
+     * @return 没有无参构造函数时返回null
+     * @throws JSONException json格式错误，或者与{@link #convertJson2Object(JSONObject)}一样转化失败，这时不再继续读取
+     */
+    Object readObject(MessageReader reader) throws JSONException {
+        if (mConstructor == null) {
+            reader.skipValue();
+            return null;
+        }
+        try {
+            Object instance = mConstructor.newInstance();
+            reader.beginObject();
+            while (reader.hasNextName()) {
+                int index = reader.nextName(mJson2ObjectNames);
+                if (index < 0) {
+                    reader.skipValue();
+                } else {
+                    mJson2ObjectFields[index].readField(reader, instance);
+                }
+            }
+            return instance;
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | RuntimeException e) {
+            throw convertFailed(e);
+        }
+    }
+
+    private JSONException convertFailed(Exception e) {
+        JSONException exception = new JSONException(mType.getName() + "转化失败:" + e);
+        exception.initCause(e);
+        return exception;
+    }
+
+    /**
+     * 把对象的属性直接写成json，值为null的属性不写入，供{@link StreamingJsonCodec}使用
+     *
+     * @param obj
+     * @param codec 写入属性的值
+     * @param out
+     * @throws IOException
+     */
+    void writeObject(Object obj, JsonCodec codec, Appendable out) throws IOException {
+        out.append('{');
+        boolean first = true;
+        for (FieldBinder fieldBinder : mObject2JsonFields) {
+            Object value;
+            try {
+                value = fieldBinder.mField.get(obj);
+            } catch (IllegalAccessException e) {
+                /*属性都已经setAccessible*/
+                throw new IllegalStateException(e);
+            }
+            if (value == null) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            codec.writeValue(fieldBinder.mJsonName, out);
+            out.append(':');
+            codec.writeValue(value, out);
+        }
+        out.append('}');
+    }
+
+    /**
+     * 是否有需要转化为json的属性，没有时{@link #convertObject2Json(Object)}总是返回null
+     *
+     * @return
+     */
+    boolean hasJsonFields() {
+        return mObject2JsonFields.length > 0;
+    }
+
+    /**
+     * 把对象的属性转化为json
+     *
+     * @param obj
+     * @return 对象不包含任何不为null的属性时返回null
+     */
+    JSONObject convertObject2Json(Object obj) {
+        if (obj == null || mObject2JsonFields.length == 0) {
+            return null;
+        }
+        JSONObject objectJson = null;
+        for (FieldBinder fieldBinder : mObject2JsonFields) {
+            try {
+                Object value = fieldBinder.field2Json(obj);
+                if (value != null) {
+                    if (objectJson == null) {
+                        objectJson = new JSONObject();
+                    }
+                    objectJson.put(fieldBinder.mJsonName, value);
+                }
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (JSONException e) {
+                /*值是NaN或者无穷大，与MessageWriter一样当作null，值为null的属性不写入*/
+            }
+        }
+        return objectJson;
+    }
+
+    /**
+     * 把对象转化为response，{@link ParamResponseStatus}标注的属性放入状态数据中，其他属性放入values中
+     *
+     * @param obj
+     * @param response
+     */
+    void convertObject2Response(Object obj, RequestResponseBuilder response) {
+        if (obj == null || response == null) {
+            return;
+        }
+        for (FieldBinder fieldBinder : mObject2JsonFields) {
+            try {
+                response.putValue(fieldBinder.mJsonName, fieldBinder.field2Json(obj));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        for (FieldBinder fieldBinder : mResponseStatusFields) {
+            try {
+                response.putResponseStatus(fieldBinder.mJsonName, fieldBinder.field2Json(obj));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+
+    /**
+     * 该类型的对象是否可以直接往json中放
+     *
+     * @param type
+     * @return
+     */
+    static boolean isObjectDirectPut2Json(Class<?> type) {
+        return (type == String.class || type.isPrimitive() || type == JSONArray.class || type == JSONObject.class);
+    }
+
+    /**
+     * 该对象是否可以直接往json中放
+     *
+     * @param object
+     * @return
+     */
+    static boolean isObjectDirectPut2Json(Object object) {
+        return object instanceof String || object instanceof Integer || object instanceof Double || object instanceof Long ||
+                object instanceof Boolean || object instanceof JSONArray || object instanceof JSONObject;
+    }
+
+    @Override
+    public String toString() {
+        return "ObjectBinder{" + mType.getName() + "}";
+    }
+
+    /**
+     * 一个属性的读写器
+     */
+    private static class FieldBinder {
+        private final Field mField;
+        private final String mJsonName;
+        private final int mFieldType;
+        /**
+         * 属性声明的类型不能直接放入json时，该类型对应的{@link ObjectBinder}，第一次使用时才解析，
+         * 这样可以避免类之间互相引用时无限的解析下去
+         */
+        private ObjectBinder mNestedBinder;
+
+        FieldBinder(Field field, String jsonName) {
+            mField = field;
+            mJsonName = jsonName;
+            mFieldType = fieldType(field.getType());
+        }
+
+        private static int fieldType(Class<?> type) {
+            if (type == int.class) {
+                return TYPE_INT;
+            } else if (type == long.class) {
+                return TYPE_LONG;
+            } else if (type == double.class) {
+                return TYPE_DOUBLE;
+            } else if (type == float.class) {
+                return TYPE_FLOAT;
+            } else if (type == boolean.class) {
+                return TYPE_BOOLEAN;
+            } else if (type == String.class) {
+                return TYPE_STRING;
+            } else if (type.isPrimitive()) {
+                return TYPE_OTHER_PRIMITIVE;
+            }
+            return TYPE_OBJECT;
+        }
+
+        private ObjectBinder nestedBinder() {
+            if (mNestedBinder == null) {
+                mNestedBinder = obtain(mField.getType());
+            }
+            return mNestedBinder;
+        }
+
+        /**
+         * 把json中对应的值赋给属性，json中不存在该值时不赋值
+         */
+        void json2Field(JSONObject json, Object instance) throws JSONException, IllegalAccessException {
+            if (!json.has(mJsonName)) {
+                return;
+            }
+            switch (mFieldType) {
+                case TYPE_INT:
+                    mField.setInt(instance, json.optInt(mJsonName));
+                    break;
+                case TYPE_LONG:
+                    mField.setLong(instance, json.optLong(mJsonName));
+                    break;
+                case TYPE_DOUBLE:
+                    mField.setDouble(instance, json.optDouble(mJsonName, 0D));
+                    break;
+                case TYPE_FLOAT:
+                    mField.setFloat(instance, (float) json.optDouble(mJsonName, 0D));
+                    break;
+                case TYPE_BOOLEAN:
+                    mField.setBoolean(instance, json.optBoolean(mJsonName));
+                    break;
+                case TYPE_STRING:
+                    mField.set(instance, json.isNull(mJsonName) ? null : json.optString(mJsonName));
+                    break;
+                case TYPE_OTHER_PRIMITIVE:
+                    Object primitive = json.opt(mJsonName);
+                    if (primitive != null && primitive != JSONObject.NULL) {
+                        mField.set(instance, primitive);
+                    }
+                    break;
+                default:
+                    Object value = json.opt(mJsonName);
+                    if (value == JSONObject.NULL) {
+                        value = null;
+                    }
+                    if (value instanceof JSONObject && !mField.getType().isInstance(value)) {
+                        /*嵌套的对象*/
+                        value = nestedBinder().convertJson2Object((JSONObject) value);
+                    }
+                    if (value == null || mField.getType().isInstance(value)) {
+                        mField.set(instance, value);
+                    }
+                    break;
+            }
+        }
+
+        /**
+         * 从reader中读取一个值赋给属性，转化的规则与{@link #json2Field(JSONObject, Object)}保持一致
+         */
+        void readField(MessageReader reader, Object instance) throws JSONException, IllegalAccessException {
+            if (mFieldType == TYPE_OBJECT && reader.peekObject() && !mField.getType().isAssignableFrom(JSONObject.class)) {
+                /*嵌套的对象，边读取边赋值*/
+                mField.set(instance, nestedBinder().readObject(reader));
+                return;
+            }
+            Object value = reader.nextValue();
+            switch (mFieldType) {
+                case TYPE_INT:
+                    mField.setInt(instance, value instanceof Number ? ((Number) value).intValue() : (int) toDouble(value));
+                    break;
+                case TYPE_LONG:
+                    mField.setLong(instance, value instanceof Number ? ((Number) value).longValue() : (long) toDouble(value));
+                    break;
+                case TYPE_DOUBLE:
+                    mField.setDouble(instance, toDouble(value));
+                    break;
+                case TYPE_FLOAT:
+                    mField.setFloat(instance, (float) toDouble(value));
+                    break;
+                case TYPE_BOOLEAN:
+                    mField.setBoolean(instance, value instanceof Boolean ? (Boolean) value
+                            : value instanceof String && "true".equalsIgnoreCase((String) value));
+                    break;
+                case TYPE_STRING:
+                    mField.set(instance, value == JSONObject.NULL ? null : String.valueOf(value));
+                    break;
+                case TYPE_OTHER_PRIMITIVE:
+                    if (value != JSONObject.NULL) {
+                        mField.set(instance, value);
+                    }
+                    break;
+                default:
+                    if (value == JSONObject.NULL) {
+                        value = null;
+                    }
+                    if (value == null || mField.getType().isInstance(value)) {
+                        mField.set(instance, value);
+                    }
+                    break;
+            }
+        }
+
+        /**
+         * 与{@link JSONObject#optDouble(String, double)}保持一致，不能转化为数字时为0
+         */
+        private static double toDouble(Object value) {
+            if (value instanceof Number) {
+                return ((Number) value).doubleValue();
+            }
+            if (value instanceof String) {
+                try {
+                    return Double.parseDouble((String) value);
+                } catch (NumberFormatException e) {
+                    return 0D;
+                }
+            }
+            return 0D;
+        }
+
+        /**
+         * 读取属性的值，不能直接放入json的值会转化为json
+         */
+        Object field2Json(Object instance) throws IllegalAccessException {
+            Object value = mField.get(instance);
+            if (value == null || mFieldType != TYPE_OBJECT || isObjectDirectPut2Json(value)) {
+                return value;
+            }
+            /*检查当前的属性是否还包含着属性*/
+            ObjectBinder binder = value.getClass() == mField.getType() ? nestedBinder() : obtain(value.getClass());
+            return binder.convertObject2Json(value);
+        }
+    }
+}
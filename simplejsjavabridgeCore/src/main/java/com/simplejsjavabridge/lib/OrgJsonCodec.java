@@ -0,0 +1,58 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+/**
+ * 默认的{@link JsonCodec}：信封由{@link MessageReader}直接在js传递的字符串上读取，values在第一次使用时解析为{@link JSONObject}，
+ * 参数再从{@link JSONObject}中转化，{@link com.simplejsjavabridge.lib.annotation.Param}标注的参数值也会先转化为{@link JSONObject}再写成json
+ */
+public class OrgJsonCodec extends JsonCodec {
+
+    @Override
+    public void readEnvelope(String source, int offset, String[] names, String[] values, int[] objectOffsets) throws JSONException {
+        MessageReader reader = new MessageReader(source, offset);
+        reader.beginObject();
+        while (reader.hasNextName()) {
+            int index = reader.nextName(names);
+            if (index < 0) {
+                reader.skipValue();
+            } else if (reader.peekObject()) {
+                objectOffsets[index] = reader.getPosition();
+                reader.skipValue();
+            } else {
+                values[index] = reader.nextString();
+            }
+        }
+    }
+
+    @Override
+    public JSONObject readObject(String source, int offset) throws JSONException {
+        return MessageReader.readObject(source, offset);
+    }
+
+    @Override
+    public void writeValue(Object value, Appendable out) throws IOException {
+        if (out instanceof MessageWriter) {
+            /*直接写入发送给js的缓冲区*/
+            ((MessageWriter) out).value(value);
+            return;
+        }
+        if (value == null || value == JSONObject.NULL) {
+            out.append("null");
+        } else if (value instanceof Number) {
+            try {
+                out.append(JSONObject.numberToString((Number) value));
+            } catch (JSONException e) {
+                out.append("null");
+            }
+        } else if (value instanceof Boolean || value instanceof JSONObject || value instanceof JSONArray) {
+            out.append(value.toString());
+        } else {
+            out.append(JSONObject.quote(value.toString()));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.simplejsjavabridge.lib;
+
+import java.util.ArrayList;
+
+/**
+ * 把一帧内或者一个时间窗口内发送给js的数据合并为一个数组，只调用一次js的方法，
+ * js收到数组后会按顺序依次分发，比如{@code _JSNativeBridge._handleMessageFromNative('[{...},{...}]')}
+ * <p>只有一条数据时不会合并为数组，等待发送的数据保存在{@link OutboundQueue}中，
+ * 怎样等待一帧或者一个时间窗口由{@link BridgeCore}决定</p>
+ */
+class OutboundBatcher {
+
+    private final BridgeCore mBridgeCore;
+    private final OutboundQueue mOutboundQueue;
+    /**
+     * 合并数据的时间窗口，小于等于0时按帧合并
+     */
+    private final long mWindowMillis;
+    private final boolean mIsDebug;
+
+    private final BatchStats mBatchStats = new BatchStats();
+
+    private final Runnable mFlushRunnable = new Runnable() {
+        @Override
+        public void run() {
+            flush();
+        }
+    };
+
+    OutboundBatcher(BridgeCore bridgeCore, OutboundQueue outboundQueue, long windowMillis, boolean isDebug) {
+        mBridgeCore = bridgeCore;
+        mOutboundQueue = outboundQueue;
+        mWindowMillis = windowMillis;
+        mIsDebug = isDebug;
+    }
+
+    /**
+     * 安排一次发送，{@link OutboundQueue#offer}返回{@link OutboundQueue#LANE_NORMAL}时调用，可以在任意线程调用
+     */
+    void schedule() {
+        if (mWindowMillis > 0) {
+            mBridgeCore.postDelayedOnMainThread(mFlushRunnable, mWindowMillis);
+        } else {
+            mBridgeCore.postOnNextFrame(mFlushRunnable);
+        }
+    }
+
+    /**
+     * 在主线程中把等待的数据一次性发送给js
+     */
+    private void flush() {
+        send(mOutboundQueue.drain(OutboundQueue.LANE_NORMAL));
+    }
+
+    /**
+     * 在主线程中把数据合并后发送给js，{@link com.simplejsjavabridge.lib.annotation.Priority#IMMEDIATE}和
+     * {@link com.simplejsjavabridge.lib.annotation.Priority#IDLE}的数据不等待时间窗口，直接调用该方法
+     *
+     * @param entries 数据是已经按js字符串的规则转义过的json
+     */
+    void send(ArrayList<OutboundQueue.Entry> entries) {
+        int size = entries.size();
+        if (size == 0) {
+            return;
+        }
+        mBatchStats.record(size);
+        if (mIsDebug) {
+            mBridgeCore.log(BridgeCore.LOG_INFO, "批量发送给js的数据条数:" + size);
+        }
+        mBridgeCore.loadMessages2JS(entries);
+    }
+
+    BatchStats getBatchStats() {
+        return mBatchStats.snapshot();
+    }
+}
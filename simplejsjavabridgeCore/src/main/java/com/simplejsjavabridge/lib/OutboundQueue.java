@@ -0,0 +1,295 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.OverflowPolicy;
+import com.simplejsjavabridge.lib.annotation.Priority;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * 等待在主线程中发送给js的数据，可以在任意线程中访问。
+ * <p>队列有上限，满了时按每条数据的{@link OverflowPolicy}处理；暂停时数据只会放入队列，恢复后再一次性发送。
+ * 队列不为空时只需要安排一次发送，不会为每条数据都往主线程的消息队列中放一个{@link Runnable}</p>
+ * <p>每个{@link Priority}有自己的队列，每次发送时先取{@link Priority#IMMEDIATE}，再取{@link Priority#NORMAL}，
+ * {@link Priority#IDLE}只在{@link #drain(int)}的参数是{@link #LANE_IDLE}时取出</p>
+ */
+class OutboundQueue {
+
+    /**
+     * 数据被丢弃时的监听器，在持有锁之外调用
+     */
+    interface OnDropListener {
+        /**
+         * @param callbackId 被丢弃的request的回调id，不需要js响应时为0
+         */
+        void onDrop(long callbackId);
+    }
+
+    /**
+     * 暂停的原因
+     */
+    static final int PAUSE_BY_USER = 1;
+    static final int PAUSE_BY_DETACHED = 1 << 1;
+
+    /**
+     * 需要安排发送的优先级，第{@link Priority#ordinal()}位
+     */
+    static final int LANE_IMMEDIATE = 1;
+    static final int LANE_NORMAL = 1 << 1;
+    static final int LANE_IDLE = 1 << 2;
+
+    /**
+     * {@link OverflowPolicy#BLOCK}默认最多等待的时间(毫秒)
+     */
+    static final long DEFAULT_BLOCK_TIMEOUT_MILLIS = 1000;
+
+    private final int mCapacity;
+    private final long mBlockTimeoutMillis;
+    private final OnDropListener mOnDropListener;
+
+    /**
+     * 按{@link Priority#ordinal()}索引
+     */
+    private final ArrayList<ArrayDeque<Entry>> mLanes = new ArrayList<>(Priority.values().length);
+    private int mSize;
+    /**
+     * {@link OverflowPolicy#LATEST_WINS}的数据，按接口名字索引
+     */
+    private final HashMap<String, Entry> mLatestEntries = new HashMap<>();
+
+    /**
+     * 所有暂停原因的组合，为0时没有暂停
+     */
+    private int mPauseReasons;
+    /**
+     * 已经安排了发送的优先级
+     */
+    private int mScheduledLanes;
+
+    private final OutboundQueueStats mStats = new OutboundQueueStats();
+
+    /**
+     * @param capacity           最多等待发送的数据条数
+     * @param blockTimeoutMillis {@link OverflowPolicy#BLOCK}最多等待的时间(毫秒)，超时后丢弃新的数据
+     * @param onDropListener
+     */
+    OutboundQueue(int capacity, long blockTimeoutMillis, OnDropListener onDropListener) {
+        mCapacity = capacity;
+        mBlockTimeoutMillis = blockTimeoutMillis;
+        mOnDropListener = onDropListener;
+        for (int i = 0; i < Priority.values().length; i++) {
+            mLanes.add(new ArrayDeque<Entry>());
+        }
+    }
+
+    /**
+     * 放入一条数据
+     *
+     * @param message     发送给js的数据
+     * @param priority    优先级
+     * @param policy      队列满了时的处理策略
+     * @param key         {@link OverflowPolicy#LATEST_WINS}合并数据时使用的key，为null时按{@link OverflowPolicy#DROP_OLDEST}处理
+     * @param callbackId  request的回调id，不需要js响应时为0
+     * @param canBlock    {@link OverflowPolicy#BLOCK}时当前线程是否可以等待，不能等待时丢弃新的数据
+     * @param metrics     统计等待时间使用，没有设置{@link BridgeMetricsListener}时为null
+     * @return 需要安排发送的优先级({@link #LANE_IMMEDIATE}等的组合)，0代表不需要
+     */
+    int offer(String message, Priority priority, OverflowPolicy policy, String key, long callbackId, boolean canBlock, MetricsTag metrics) {
+        long droppedId = 0;
+        boolean dropped = false;
+        int scheduleLanes = 0;
+        synchronized (this) {
+            Entry latest = policy == OverflowPolicy.LATEST_WINS && key != null ? mLatestEntries.get(key) : null;
+            if (latest != null) {
+                /*替换还没有发送的数据，位置不变*/
+                droppedId = latest.callbackId;
+                latest.message = message;
+                latest.callbackId = callbackId;
+                latest.metrics = metrics;
+                mStats.mEnqueuedCount++;
+                mStats.mCoalescedCount++;
+            } else {
+                if (mSize >= mCapacity) {
+                    switch (policy) {
+                        case BLOCK:
+                            if (canBlock && mPauseReasons == 0) {
+                                mStats.mBlockedCount++;
+                                awaitSpace();
+                            }
+                            if (mSize >= mCapacity) {
+                                /*不能等待、暂停中或者等待超时*/
+                                mStats.mDroppedNewestCount++;
+                                droppedId = callbackId;
+                                dropped = true;
+                            }
+                            break;
+                        case DROP_NEWEST:
+                            mStats.mDroppedNewestCount++;
+                            droppedId = callbackId;
+                            dropped = true;
+                            break;
+                        default:
+                            Entry oldest = pollOldest(priority);
+                            if (oldest != null) {
+                                mStats.mDroppedOldestCount++;
+                                droppedId = oldest.callbackId;
+                            } else {
+                                /*队列中都是优先级更高的数据，不能丢弃它们*/
+                                mStats.mDroppedNewestCount++;
+                                droppedId = callbackId;
+                                dropped = true;
+                            }
+                            break;
+                    }
+                }
+                if (!dropped) {
+                    Entry entry = new Entry(message, policy == OverflowPolicy.LATEST_WINS ? key : null, callbackId, metrics);
+                    mLanes.get(priority.ordinal()).addLast(entry);
+                    mSize++;
+                    if (entry.key != null) {
+                        mLatestEntries.put(entry.key, entry);
+                    }
+                    mStats.mEnqueuedCount++;
+                    mStats.onDepthChanged(mSize);
+                    if (mPauseReasons == 0) {
+                        int lane = 1 << priority.ordinal();
+                        if ((mScheduledLanes & lane) == 0) {
+                            mScheduledLanes |= lane;
+                            scheduleLanes = lane;
+                        }
+                    }
+                }
+            }
+        }
+        notifyDrop(droppedId);
+        return scheduleLanes;
+    }
+
+    /**
+     * 等待队列有空间，最多等待{@link #mBlockTimeoutMillis}。暂停期间队列不会被取出，暂停时不再等待
+     */
+    private void awaitSpace() {
+        long remaining = mBlockTimeoutMillis;
+        long deadline = System.currentTimeMillis() + remaining;
+        while (mSize >= mCapacity && mPauseReasons == 0 && remaining > 0) {
+            try {
+                wait(remaining);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            remaining = deadline - System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * 从优先级最低的队列开始，丢弃优先级不高于priority的最早的数据
+     */
+    private Entry pollOldest(Priority priority) {
+        for (int i = mLanes.size() - 1; i >= priority.ordinal(); i--) {
+            Entry oldest = mLanes.get(i).pollFirst();
+            if (oldest != null) {
+                mSize--;
+                if (oldest.key != null) {
+                    mLatestEntries.remove(oldest.key);
+                }
+                return oldest;
+            }
+        }
+        return null;
+    }
+
+    private void notifyDrop(long callbackId) {
+        if (callbackId > 0 && mOnDropListener != null) {
+            mOnDropListener.onDrop(callbackId);
+        }
+    }
+
+    /**
+     * 取出等待发送的数据，在主线程中调用。总是取出{@link Priority#IMMEDIATE}和{@link Priority#NORMAL}的数据，
+     * 这样优先级低的数据不会被优先级高的数据一直推迟
+     *
+     * @param lane 执行的是哪个优先级安排的发送，{@link #LANE_IDLE}时同时取出{@link Priority#IDLE}的数据
+     * @return 按优先级排好序的数据，暂停时返回空的列表
+     */
+    synchronized ArrayList<Entry> drain(int lane) {
+        mScheduledLanes &= ~lane;
+        int lanes = lane == LANE_IDLE ? mLanes.size() : Priority.IDLE.ordinal();
+        int count = 0;
+        for (int i = 0; i < lanes; i++) {
+            count += mLanes.get(i).size();
+        }
+        if (mPauseReasons != 0 || count == 0) {
+            return new ArrayList<>(0);
+        }
+        ArrayList<Entry> entries = new ArrayList<>(count);
+        for (int i = 0; i < lanes; i++) {
+            for (Entry entry : mLanes.get(i)) {
+                entries.add(entry);
+                if (entry.key != null) {
+                    mLatestEntries.remove(entry.key);
+                }
+            }
+            mLanes.get(i).clear();
+        }
+        mSize -= count;
+        mStats.mSentCount += count;
+        /*唤醒等待的线程*/
+        notifyAll();
+        return entries;
+    }
+
+    synchronized void pause(int reason) {
+        mPauseReasons |= reason;
+        /*等待队列空间的线程不再等待*/
+        notifyAll();
+    }
+
+    /**
+     * 移除一个暂停的原因，所有原因都移除后才恢复发送
+     *
+     * @param reason
+     * @return 需要安排发送的优先级，0代表不需要
+     */
+    synchronized int resume(int reason) {
+        mPauseReasons &= ~reason;
+        if (mPauseReasons != 0) {
+            return 0;
+        }
+        int scheduleLanes = 0;
+        for (int i = 0; i < mLanes.size(); i++) {
+            int lane = 1 << i;
+            if (!mLanes.get(i).isEmpty() && (mScheduledLanes & lane) == 0) {
+                scheduleLanes |= lane;
+            }
+        }
+        mScheduledLanes |= scheduleLanes;
+        return scheduleLanes;
+    }
+
+    synchronized boolean isPaused() {
+        return mPauseReasons != 0;
+    }
+
+    synchronized OutboundQueueStats getStats() {
+        return mStats.snapshot(mSize, mCapacity);
+    }
+
+    /**
+     * 一条等待发送的数据，取出后只读
+     */
+    static class Entry {
+        String message;
+        final String key;
+        long callbackId;
+        MetricsTag metrics;
+
+        Entry(String message, String key, long callbackId, MetricsTag metrics) {
+            this.message = message;
+            this.key = key;
+            this.callbackId = callbackId;
+            this.metrics = metrics;
+        }
+    }
+}
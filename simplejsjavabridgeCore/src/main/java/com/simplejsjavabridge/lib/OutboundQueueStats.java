@@ -0,0 +1,106 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 发送给js的队列的统计，见{@link BridgeCore#getOutboundQueueStats()}
+ */
+public class OutboundQueueStats {
+    long mEnqueuedCount;
+    long mSentCount;
+    long mDroppedOldestCount;
+    long mDroppedNewestCount;
+    long mCoalescedCount;
+    long mBlockedCount;
+    private int mMaxDepth;
+    private int mDepth;
+    private int mCapacity;
+
+    void onDepthChanged(int depth) {
+        if (depth > mMaxDepth) {
+            mMaxDepth = depth;
+        }
+    }
+
+    OutboundQueueStats snapshot(int depth, int capacity) {
+        OutboundQueueStats stats = new OutboundQueueStats();
+        stats.mEnqueuedCount = mEnqueuedCount;
+        stats.mSentCount = mSentCount;
+        stats.mDroppedOldestCount = mDroppedOldestCount;
+        stats.mDroppedNewestCount = mDroppedNewestCount;
+        stats.mCoalescedCount = mCoalescedCount;
+        stats.mBlockedCount = mBlockedCount;
+        stats.mMaxDepth = mMaxDepth;
+        stats.mDepth = depth;
+        stats.mCapacity = capacity;
+        return stats;
+    }
+
+    /**
+     * @return 放入队列的数据条数，包括被合并的
+     */
+    public long getEnqueuedCount() {
+        return mEnqueuedCount;
+    }
+
+    /**
+     * @return 发送给js的数据条数
+     */
+    public long getSentCount() {
+        return mSentCount;
+    }
+
+    /**
+     * @return 按{@link com.simplejsjavabridge.lib.annotation.OverflowPolicy#DROP_OLDEST}丢弃的数据条数
+     */
+    public long getDroppedOldestCount() {
+        return mDroppedOldestCount;
+    }
+
+    /**
+     * @return 按{@link com.simplejsjavabridge.lib.annotation.OverflowPolicy#DROP_NEWEST}丢弃的数据条数
+     */
+    public long getDroppedNewestCount() {
+        return mDroppedNewestCount;
+    }
+
+    /**
+     * @return 按{@link com.simplejsjavabridge.lib.annotation.OverflowPolicy#LATEST_WINS}被新数据替换的数据条数
+     */
+    public long getCoalescedCount() {
+        return mCoalescedCount;
+    }
+
+    /**
+     * @return 按{@link com.simplejsjavabridge.lib.annotation.OverflowPolicy#BLOCK}等待队列空间的次数
+     */
+    public long getBlockedCount() {
+        return mBlockedCount;
+    }
+
+    /**
+     * @return 当前等待发送的数据条数
+     */
+    public int getDepth() {
+        return mDepth;
+    }
+
+    /**
+     * @return 等待发送的数据最多时的条数
+     */
+    public int getMaxDepth() {
+        return mMaxDepth;
+    }
+
+    /**
+     * @return 队列的上限
+     */
+    public int getCapacity() {
+        return mCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "OutboundQueueStats{depth=" + mDepth + ", maxDepth=" + mMaxDepth + ", capacity=" + mCapacity + ", enqueued=" + mEnqueuedCount
+                + ", sent=" + mSentCount + ", droppedOldest=" + mDroppedOldestCount + ", droppedNewest=" + mDroppedNewestCount
+                + ", coalesced=" + mCoalescedCount + ", blocked=" + mBlockedCount + "}";
+    }
+}
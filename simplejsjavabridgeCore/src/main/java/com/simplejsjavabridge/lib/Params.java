@@ -0,0 +1,783 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.annotation.ParamResponseStatus;
+import com.simplejsjavabridge.lib.exception.SimpleJSBridgeException;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 该类会把{@link Method}的用{@link Param},{@link ParamCallback},{@link ParamResponseStatus}这几个注解标注的param解析出来，
+ * {@link Param}解析为{@link ParamItem},{@link ParamCallback}解析为{@link ParamCallbackItem},{@link ParamResponseStatus}
+ * 解析为{@link ParamResponseStatusItem}。
+ * <p>同时该类还有把一个json转化为参数值的功能，和把参数值转化为json的功能</p>
+ * <p>
+ * Created by niuxiaowei on 16/7/14.
+ */
+public class Params {
+
+    /**
+     * 解析出来的所有注解item
+     */
+    private BaseParamItem[] mParamItems;
+
+    /**
+     * {@link Param}标注的参数的key，其他参数的位置为null，供{@link JsonCodec#bindValues}直接绑定参数值，
+     * 有key为空或重复的参数时为null，这时只能从{@link RequestResponseBuilder#getValues()}中转化
+     */
+    private String[] mBindKeys;
+    private Class<?>[] mBindTypes;
+
+    /**
+     * 进程中创建过的{@link Params}的个数，供测试检查{@link InvokePlan}的缓存是否生效，只在解析方法时增加
+     */
+    static final AtomicLong sCreatedCount = new AtomicLong();
+
+    Params() {
+        sCreatedCount.incrementAndGet();
+    }
+
+    /**
+     * 把json转化为参数值
+     * @param requestResponseBuilder 包含了一系列的json数据，json数据是request或者response
+     * @return 值不能转化为参数的类型时返回null，异常记录在{@link RequestResponseBuilder#getValuesError()}中
+     */
+    public Object[] convertJson2ParamValues(RequestResponseBuilder requestResponseBuilder) {
+        if (requestResponseBuilder == null || mParamItems == null) {
+            return null;
+        }
+        Object[] result = new Object[mParamItems.length];
+        boolean isBound = mBindKeys != null && requestResponseBuilder.bindValues(mBindKeys, mBindTypes, result);
+        BaseParamItem paramItem = null;
+        try {
+            for (int i = 0; i < mParamItems.length; i++) {
+                paramItem = mParamItems[i];
+                if (paramItem == null) {
+                    continue;
+                }
+                if (isBound && mBindKeys[i] != null) {
+                    /*编解码器绑定的是json中的原始值，与从JSONObject中转化时一样转化为参数的类型*/
+                    if (ObjectBinder.isObjectDirectPut2Json(mBindTypes[i])) {
+                        result[i] = convertDirectValue(result[i], mBindTypes[i], mBindKeys[i]);
+                    }
+                } else {
+                    result[i] = paramItem.convertJson2ParamValue(requestResponseBuilder);
+                }
+            }
+        } catch (JSONException e) {
+            requestResponseBuilder.setValuesError(e);
+            return null;
+        }
+        return result;
+
+    }
+
+    /**
+     * 把json中的原始值转化为{@link ObjectBinder#isObjectDirectPut2Json(Class)}的参数类型，反射调用时使用，
+     * 与生成的{@link JavaInterfaceDispatcher}使用的{@link #convertInt(JSONObject, String)}等方法的转化相同，
+     * 保证同一个接口无论怎样调用都得到相同的参数值：
+     * <ul>
+     * <li>值不存在或者为null：基本类型是0或false，其他类型是null</li>
+     * <li>数字类型：数字或者数字格式的字符串，与{@link JSONObject#getDouble(String)}等方法一致</li>
+     * <li>boolean：boolean或者"true"、"false"字符串</li>
+     * <li>String：字符串、数字或boolean</li>
+     * <li>{@link JSONObject}、{@link JSONArray}：只能是相同类型</li>
+     * </ul>
+     *
+     * @param value    json中的值
+     * @param type     参数的类型
+     * @param paramKey 参数的key，用于异常信息
+     * @return 基本类型返回对应的包装类型
+     * @throws JSONException 值不能转化为参数的类型
+     */
+    static Object convertDirectValue(Object value, Class<?> type, String paramKey) throws JSONException {
+        if (type == String.class) {
+            return toStringValue(value, paramKey);
+        } else if (type == JSONObject.class) {
+            return toJSONObject(value, paramKey);
+        } else if (type == JSONArray.class) {
+            return toJSONArray(value, paramKey);
+        } else if (type == boolean.class) {
+            return toBoolean(value, paramKey);
+        } else if (type == int.class) {
+            return toInt(value, paramKey);
+        } else if (type == long.class) {
+            return toLong(value, paramKey);
+        } else if (type == double.class) {
+            return toDouble(value, paramKey);
+        } else if (type == float.class) {
+            return (float) toDouble(value, paramKey, float.class);
+        } else if (type == short.class) {
+            return (short) toInt(value, paramKey, short.class);
+        } else if (type == byte.class) {
+            return (byte) toInt(value, paramKey, byte.class);
+        } else if (type == char.class) {
+            return (char) toInt(value, paramKey, char.class);
+        }
+        throw convertFailed(value, type, paramKey);
+    }
+
+    /*
+     * 以下方法供生成的JavaInterfaceDispatcher使用，按参数的类型从values或状态数据中读取参数值，
+     * 与convertDirectValue(Object, Class, String)的转化相同，基本类型的参数不需要装箱
+     */
+
+    /**
+     * @param json     request的values或者状态数据，可以为null
+     * @param paramKey {@link Param#value()}或{@link ParamResponseStatus#value()}
+     * @return
+     * @throws JSONException 值不能转化为参数的类型，这时需要调用{@link #onConvertParamsFailed(RequestResponseBuilder, JSONException)}
+     */
+    public static int convertInt(JSONObject json, String paramKey) throws JSONException {
+        return toInt(opt(json, paramKey), paramKey);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static long convertLong(JSONObject json, String paramKey) throws JSONException {
+        return toLong(opt(json, paramKey), paramKey);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static double convertDouble(JSONObject json, String paramKey) throws JSONException {
+        return toDouble(opt(json, paramKey), paramKey);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static float convertFloat(JSONObject json, String paramKey) throws JSONException {
+        return (float) toDouble(opt(json, paramKey), paramKey, float.class);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static short convertShort(JSONObject json, String paramKey) throws JSONException {
+        return (short) toInt(opt(json, paramKey), paramKey, short.class);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static byte convertByte(JSONObject json, String paramKey) throws JSONException {
+        return (byte) toInt(opt(json, paramKey), paramKey, byte.class);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static char convertChar(JSONObject json, String paramKey) throws JSONException {
+        return (char) toInt(opt(json, paramKey), paramKey, char.class);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static boolean convertBoolean(JSONObject json, String paramKey) throws JSONException {
+        return toBoolean(opt(json, paramKey), paramKey);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static String convertString(JSONObject json, String paramKey) throws JSONException {
+        return toStringValue(opt(json, paramKey), paramKey);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static JSONObject convertJSONObject(JSONObject json, String paramKey) throws JSONException {
+        return toJSONObject(opt(json, paramKey), paramKey);
+    }
+
+    /**
+     * 见{@link #convertInt(JSONObject, String)}
+     */
+    public static JSONArray convertJSONArray(JSONObject json, String paramKey) throws JSONException {
+        return toJSONArray(opt(json, paramKey), paramKey);
+    }
+
+    /**
+     * 其他类型的参数由{@link ObjectBinder}从{@link Param}标注的属性转化而来，与反射调用时相同
+     *
+     * @param json      request的values或者状态数据，可以为null
+     * @param paramKey  为空时整个json转化为参数值
+     * @param paramType 参数的类型
+     * @param <T>
+     * @return 值不是json对象时为null
+     * @throws JSONException 创建对象失败或者值不能赋给属性
+     */
+    public static <T> T convertObject(JSONObject json, String paramKey, Class<T> paramType) throws JSONException {
+        if (json == null) {
+            return null;
+        }
+        JSONObject value = !StringUtils.isEmpty(paramKey) ? json.optJSONObject(paramKey) : json;
+        if (value == null) {
+            return null;
+        }
+        return paramType.cast(ObjectBinder.obtain(paramType).convertJson2Object(value));
+    }
+
+    private static Object opt(JSONObject json, String paramKey) {
+        return json == null || paramKey == null ? null : json.opt(paramKey);
+    }
+
+    private static boolean isNull(Object value) {
+        return value == null || value == JSONObject.NULL;
+    }
+
+    private static String toStringValue(Object value, String paramKey) throws JSONException {
+        if (isNull(value)) {
+            return null;
+        }
+        if (value instanceof String || value instanceof Number || value instanceof Boolean) {
+            return value.toString();
+        }
+        throw convertFailed(value, String.class, paramKey);
+    }
+
+    private static JSONObject toJSONObject(Object value, String paramKey) throws JSONException {
+        if (isNull(value)) {
+            return null;
+        }
+        if (value instanceof JSONObject) {
+            return (JSONObject) value;
+        }
+        throw convertFailed(value, JSONObject.class, paramKey);
+    }
+
+    private static JSONArray toJSONArray(Object value, String paramKey) throws JSONException {
+        if (isNull(value)) {
+            return null;
+        }
+        if (value instanceof JSONArray) {
+            return (JSONArray) value;
+        }
+        throw convertFailed(value, JSONArray.class, paramKey);
+    }
+
+    private static boolean toBoolean(Object value, String paramKey) throws JSONException {
+        if (isNull(value)) {
+            return false;
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value;
+        }
+        if ("true".equalsIgnoreCase(value.toString())) {
+            return true;
+        }
+        if ("false".equalsIgnoreCase(value.toString())) {
+            return false;
+        }
+        throw convertFailed(value, boolean.class, paramKey);
+    }
+
+    private static int toInt(Object value, String paramKey) throws JSONException {
+        return toInt(value, paramKey, int.class);
+    }
+
+    /**
+     * short，byte，char与int的转化相同，再由调用者强制转化
+     */
+    private static int toInt(Object value, String paramKey, Class<?> type) throws JSONException {
+        return value instanceof Number ? ((Number) value).intValue() : (int) parseNumber(value, paramKey, type);
+    }
+
+    private static long toLong(Object value, String paramKey) throws JSONException {
+        return value instanceof Number ? ((Number) value).longValue() : (long) parseNumber(value, paramKey, long.class);
+    }
+
+    private static double toDouble(Object value, String paramKey) throws JSONException {
+        return toDouble(value, paramKey, double.class);
+    }
+
+    private static double toDouble(Object value, String paramKey, Class<?> type) throws JSONException {
+        return value instanceof Number ? ((Number) value).doubleValue() : parseNumber(value, paramKey, type);
+    }
+
+    /**
+     * 不是{@link Number}的值：不存在或者为null时是0，数字格式的字符串按double解析
+     */
+    private static double parseNumber(Object value, String paramKey, Class<?> type) throws JSONException {
+        if (isNull(value)) {
+            return 0;
+        }
+        if (value instanceof String) {
+            try {
+                return Double.parseDouble((String) value);
+            } catch (NumberFormatException e) {
+                /*下面抛出异常*/
+            }
+        }
+        throw convertFailed(value, type, paramKey);
+    }
+
+    private static JSONException convertFailed(Object value, Class<?> type, String paramKey) {
+        return new JSONException("参数" + paramKey + "的值" + value + "不能转化为" + type.getSimpleName());
+    }
+
+    /**
+     * 把参数值转化为json
+     * @param requestResponseBuilder
+     * @param paramValues 参数值
+     */
+    public void convertParamValues2Json(RequestResponseBuilder requestResponseBuilder, Object[] paramValues) {
+        if (requestResponseBuilder == null || paramValues == null) {
+            return;
+        }
+        BaseParamItem paramItem = null;
+        for (int i = 0; i < mParamItems.length; i++) {
+            paramItem = mParamItems[i];
+            if (paramItem != null) {
+                paramItem.convertParamValue2Json(requestResponseBuilder, paramValues[i]);
+            }
+        }
+    }
+
+
+    /**
+     * 基础类，定义了一些基础的数据
+     */
+    private static abstract class BaseParamItem {
+        /**
+         * 参数所对应的类型{@link Class}
+         */
+        protected Class<?> paramType;
+        /**
+         * 因为参数是由{@link Param},{@link ParamCallback},{@link ParamResponseStatus}其中的一个注解标注的，
+         * 注解标注的参数，会以{key:value}的格式存入json中，key值就是注解的value()值，因此{@link #paramKey}来代表key值
+         */
+        protected String paramKey;
+
+        public BaseParamItem(Class<?> paramType, String paramKey) {
+            this.paramType = paramType;
+            this.paramKey = paramKey;
+        }
+
+        /**
+         * json的格式{key:value}，该方法会从json中把value给解析出来，作为参数值
+         * @param requestResponseBuilder
+         * @return
+         * @throws JSONException 值不能转化为参数的类型
+         */
+        public abstract Object convertJson2ParamValue(RequestResponseBuilder requestResponseBuilder) throws JSONException;
+
+        /**
+         * 该方法会把参数值以{key:value}的格式存入json中
+         * @param requestResponseBuilder
+         * @param obj
+         */
+        public abstract void convertParamValue2Json(RequestResponseBuilder requestResponseBuilder, Object obj);
+    }
+
+    /**
+     * 对应{@link Param}注解标注的参数
+     */
+    private static class ParamItem extends BaseParamItem {
+
+
+        public ParamItem(String paramKey, Class<?> paramClass) {
+            super(paramClass, paramKey);
+        }
+
+        protected void onReceiveKeyValue(RequestResponseBuilder requestResponseBuilder, String key, Object value) {
+            requestResponseBuilder.putValue(key, value);
+        }
+
+        protected JSONObject getJson(RequestResponseBuilder requestResponseBuilder) {
+            return requestResponseBuilder.getValues();
+        }
+
+        @Override
+        public Object convertJson2ParamValue(RequestResponseBuilder requestResponseBuilder) throws JSONException {
+            if (requestResponseBuilder == null) {
+                return null;
+            }
+            /*response可以只有状态没有values，比如超时的状态，这时基本类型的参数是默认值*/
+            JSONObject jsonObject = getJson(requestResponseBuilder);
+            if (ObjectBinder.isObjectDirectPut2Json(paramType)) {
+                return convertDirectValue(jsonObject == null ? null : jsonObject.opt(paramKey), paramType, paramKey);
+            }
+            if (jsonObject != null) {
+                JSONObject value = !StringUtils.isEmpty(paramKey) ? jsonObject.optJSONObject(paramKey) : jsonObject;
+                if (value == null) {
+                    return null;
+                }
+                return ObjectBinder.obtain(paramType).convertJson2Object(value);
+            }
+            return null;
+        }
+
+        @Override
+        public void convertParamValue2Json(RequestResponseBuilder requestResponseBuilder, Object obj) {
+
+            if (requestResponseBuilder == null || obj == null) {
+                return;
+            }
+            if (!ObjectBinder.isObjectDirectPut2Json(obj)) {
+                if (!StringUtils.isEmpty(paramKey)) {
+                    /*由编解码器决定放入values中的值*/
+                    Object value = requestResponseBuilder.getContext().codec.toJsonValue(obj);
+                    if (value != null) {
+                        onReceiveKeyValue(requestResponseBuilder, paramKey, value);
+                    }
+                } else {
+                    JSONObject json = ObjectBinder.obtain(obj.getClass()).convertObject2Json(obj);
+                    if (json == null) {
+                        return;
+                    }
+                    Iterator<?> iterator = json.keys();
+                    String key = null;
+                    while (iterator.hasNext()) {
+                        key = (String) iterator.next();
+                        onReceiveKeyValue(requestResponseBuilder, key, json.opt(key));
+                    }
+                }
+
+            } else {
+                onReceiveKeyValue(requestResponseBuilder, paramKey, obj);
+
+            }
+        }
+    }
+
+
+    /**
+     * 对应{@link ParamResponseStatus}注解标注的参数
+     */
+    private static class ParamResponseStatusItem extends ParamItem {
+
+        public ParamResponseStatusItem(Class<?> paramClass, String paramKey) {
+            super(paramKey, paramClass);
+        }
+
+        @Override
+        protected JSONObject getJson(RequestResponseBuilder requestResponseBuilder) {
+            return requestResponseBuilder.getResponseStatus();
+        }
+
+        @Override
+        protected void onReceiveKeyValue(RequestResponseBuilder requestResponseBuilder, String key, Object value) {
+            requestResponseBuilder.putResponseStatus(key, value);
+        }
+
+
+    }
+
+    /**
+     * 对应{@link ParamCallback}注解标注的参数
+     */
+    private static class ParamCallbackItem extends BaseParamItem {
+
+
+        public ParamCallbackItem(Class<?> callbackClass, String paramKey) {
+            super(callbackClass, paramKey);
+        }
+
+        @Override
+        public Object convertJson2ParamValue(RequestResponseBuilder requestResponseBuilder) {
+            return newCallbackProxy(requestResponseBuilder, paramType);
+        }
+
+        @Override
+        public void convertParamValue2Json(RequestResponseBuilder requestResponseBuilder, Object obj) {
+
+            if (requestResponseBuilder == null || obj == null || !(obj instanceof IJavaCallback2JS)) {
+                return;
+            }
+            requestResponseBuilder.setRequestCallback((IJavaCallback2JS) obj);
+
+        }
+    }
+
+
+    /**
+     * 为{@link ParamCallback}标注的参数生成回调的代理，代理被调用时把参数值作为response发送给js
+     *
+     * @param requestResponseBuilder js的request
+     * @param callbackType           回调的类型
+     * @return request没有callbackId时返回null
+     */
+    private static Object newCallbackProxy(final RequestResponseBuilder requestResponseBuilder, Class<?> callbackType) {
+        if (requestResponseBuilder == null || requestResponseBuilder.getCallbackId() == null) {
+            return null;
+        }
+        /*回调只发送给收到request的BridgeCore*/
+        final BridgeCore bridgeCore = requestResponseBuilder.getContext().bridge;
+        return Proxy.newProxyInstance(callbackType.getClassLoader(), new Class<?>[]{callbackType},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+
+                        if (method.getDeclaringClass() == Object.class) {
+                            return InvokePlan.invokeObjectMethod(proxy, method, args);
+                        }
+                        RequestResponseBuilder response = requestResponseBuilder.createResponse();
+                        Params params = InvokePlan.obtain(method).getParams();
+                        params.convertParamValues2Json(response, args);
+                        if (bridgeCore != null) {
+
+                            bridgeCore.sendData2JS(response);
+                        } else {
+                            throw new SimpleJSBridgeException(BridgeCore.class.getName() + "必须得进行初始化");
+                        }
+                        return new Object();
+                    }
+                }
+
+        );
+    }
+
+    /**
+     * 供生成的{@link JavaInterfaceDispatcher}使用，为{@link ParamCallback}标注的参数生成回调的实例
+     *
+     * @param requestResponseBuilder
+     * @param callbackType 回调的类型，必须是interface
+     * @param <T>
+     * @return request没有callbackId时返回null
+     */
+    public static <T> T createParamCallback(RequestResponseBuilder requestResponseBuilder, Class<T> callbackType) {
+        return callbackType.cast(newCallbackProxy(requestResponseBuilder, callbackType));
+    }
+
+    /**
+     * 把{@link JavaInterface4JS}标注的方法的返回值作为response发送给js，response的id是request的callbackId，
+     * 这样只响应一次的接口不需要{@link ParamCallback}，也不会为每个request生成回调的代理。
+     * <ul>
+     * <li>{@link JSONObject}：直接作为response的values</li>
+     * <li>{@link BridgeFuture}：完成时再发送它的结果，失败或取消时发送{@link BridgeCore#RESPONSE_STATUS_FAILED}状态</li>
+     * <li>其他对象：属性放入values中，{@link ParamResponseStatus}标注的属性放入状态数据中</li>
+     * </ul>
+     * <p>供生成的{@link JavaInterfaceDispatcher}和{@link MethodHandler}使用</p>
+     *
+     * @param request     js的request
+     * @param returnValue 方法的返回值
+     */
+    public static void sendReturnValue(final RequestResponseBuilder request, Object returnValue) {
+        if (request == null) {
+            return;
+        }
+        if (request.isSync()) {
+            /*同步调用，response直接返回给js*/
+            RequestResponseBuilder response = new RequestResponseBuilder(false);
+            response.setContext(request.getContext());
+            putReturnValue(response, returnValue);
+            request.setSyncResponse(response);
+            return;
+        }
+        if (StringUtils.isEmpty(request.getCallbackId())) {
+            /*js不需要响应*/
+            return;
+        }
+        final BridgeCore bridgeCore = request.getContext().bridge;
+        if (bridgeCore == null) {
+            throw new SimpleJSBridgeException(BridgeCore.class.getName() + "必须得进行初始化");
+        }
+        if (returnValue instanceof BridgeFuture) {
+            @SuppressWarnings("unchecked")
+            BridgeFuture<Object> future = (BridgeFuture<Object>) returnValue;
+            future.addOnCompleteListener(new BridgeFuture.OnCompleteListener<Object>() {
+                @Override
+                public void onComplete(BridgeFuture<Object> future) {
+                    RequestResponseBuilder response = request.createResponse();
+                    try {
+                        /*已经完成，不会阻塞*/
+                        Object result = future.get();
+                        putResponseStatus(response, future.getResponseStatus());
+                        putReturnValue(response, result);
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause() != null ? e.getCause() : e;
+                        response.putResponseStatus(BridgeCore.RESPONSE_STATUS_NAME, BridgeCore.RESPONSE_STATUS_FAILED);
+                        response.putResponseStatus(BridgeCore.RESPONSE_MSG_NAME, String.valueOf(cause.getMessage()));
+                    } catch (CancellationException | InterruptedException e) {
+                        response.putResponseStatus(BridgeCore.RESPONSE_STATUS_NAME, BridgeCore.RESPONSE_STATUS_FAILED);
+                        response.putResponseStatus(BridgeCore.RESPONSE_MSG_NAME, "已取消");
+                    }
+                    bridgeCore.sendData2JS(response);
+                }
+            });
+            return;
+        }
+        RequestResponseBuilder response = request.createResponse();
+        putReturnValue(response, returnValue);
+        bridgeCore.sendData2JS(response);
+    }
+
+    /**
+     * request的values中的值不能转化为参数的类型，不执行方法，给js的request发送{@link BridgeCore#RESPONSE_STATUS_FAILED}状态。
+     * <p>供生成的{@link JavaInterfaceDispatcher}和{@link MethodHandler}使用，两种调用方式的参数错误按同样的方式处理</p>
+     *
+     * @param request js的request
+     * @param e       转化参数值时的异常
+     */
+    public static void onConvertParamsFailed(RequestResponseBuilder request, JSONException e) {
+        request.getContext().log(BridgeCore.LOG_WARN, "接口" + request.getInterfaceName() + "的参数格式错误", e);
+        sendFailedResponse(request, "参数格式错误:" + e.getMessage());
+    }
+
+    /**
+     * {@link JavaInterface4JS}标注的方法执行时抛出了异常，包括方法声明的受检异常。
+     * <p>供生成的{@link JavaInterfaceDispatcher}和{@link MethodHandler}使用，两种调用方式的异常按同样的方式处理</p>
+     *
+     * <p>还没有响应过的request会收到{@link BridgeCore#RESPONSE_STATUS_FAILED}状态，同步调用时与接口不存在区分开，
+     * {@link com.simplejsjavabridge.lib.annotation.SingleFlight}接口等待的request也会收到这个状态</p>
+     *
+     * @param request js的request
+     * @param e       方法抛出的异常
+     */
+    public static void onInvokeFailed(RequestResponseBuilder request, Throwable e) {
+        request.getContext().log(BridgeCore.LOG_ERROR, "接口" + request.getInterfaceName() + "执行失败", e);
+        if (request.isBuildRequest() && !request.isResponded()) {
+            sendFailedResponse(request, "接口执行失败:" + e);
+        }
+    }
+
+    /**
+     * 给js的request发送{@link BridgeCore#RESPONSE_STATUS_FAILED}状态，同步调用时作为{@link RequestResponseBuilder#getSyncResponse()}
+     *
+     * @param request js的request
+     * @param msg     失败的原因
+     */
+    static void sendFailedResponse(RequestResponseBuilder request, String msg) {
+        if (request.isSync()) {
+            RequestResponseBuilder response = new RequestResponseBuilder(false);
+            response.setContext(request.getContext());
+            response.putResponseStatus(BridgeCore.RESPONSE_STATUS_NAME, BridgeCore.RESPONSE_STATUS_FAILED);
+            response.putResponseStatus(BridgeCore.RESPONSE_MSG_NAME, msg);
+            request.setSyncResponse(response);
+            return;
+        }
+        BridgeCore bridgeCore = request.getContext().bridge;
+        if (StringUtils.isEmpty(request.getCallbackId()) || bridgeCore == null) {
+            return;
+        }
+        RequestResponseBuilder response = request.createResponse();
+        response.putResponseStatus(BridgeCore.RESPONSE_STATUS_NAME, BridgeCore.RESPONSE_STATUS_FAILED);
+        response.putResponseStatus(BridgeCore.RESPONSE_MSG_NAME, msg);
+        bridgeCore.sendData2JS(response);
+    }
+
+    private static void putReturnValue(RequestResponseBuilder response, Object returnValue) {
+        if (returnValue == null) {
+            return;
+        }
+        if (returnValue instanceof JSONObject) {
+            JSONObject json = (JSONObject) returnValue;
+            Iterator<?> iterator = json.keys();
+            while (iterator.hasNext()) {
+                String key = (String) iterator.next();
+                response.putValue(key, json.opt(key));
+            }
+        } else if (!ObjectBinder.isObjectDirectPut2Json(returnValue)) {
+            ObjectBinder.obtain(returnValue.getClass()).convertObject2Response(returnValue, response);
+        }
+    }
+
+    /**
+     * 返回的{@link BridgeFuture}是调用js接口得到的时，把js响应的状态转发给调用方
+     */
+    private static void putResponseStatus(RequestResponseBuilder response, JSONObject responseStatus) {
+        if (responseStatus == null) {
+            return;
+        }
+        Iterator<?> iterator = responseStatus.keys();
+        while (iterator.hasNext()) {
+            String key = (String) iterator.next();
+            response.putResponseStatus(key, responseStatus.opt(key));
+        }
+    }
+
+    /**
+     * 收集{@link Param}标注的参数的key和类型，供{@link JsonCodec#bindValues}使用
+     */
+    private void initBindKeys() {
+        String[] bindKeys = new String[mParamItems.length];
+        Class<?>[] bindTypes = new Class<?>[mParamItems.length];
+        boolean hasParam = false;
+        for (int i = 0; i < mParamItems.length; i++) {
+            BaseParamItem paramItem = mParamItems[i];
+            if (paramItem == null || paramItem.getClass() != ParamItem.class) {
+                continue;
+            }
+            if (StringUtils.isEmpty(paramItem.paramKey)) {
+                return;
+            }
+            for (int j = 0; j < i; j++) {
+                if (paramItem.paramKey.equals(bindKeys[j])) {
+                    return;
+                }
+            }
+            bindKeys[i] = paramItem.paramKey;
+            bindTypes[i] = paramItem.paramType;
+            hasParam = true;
+        }
+        if (hasParam) {
+            mBindKeys = bindKeys;
+            mBindTypes = bindTypes;
+        }
+    }
+
+    /**
+     * 从{@link Method}中解析它所包含的参数
+     *
+     * @param method
+     * @return
+     */
+    public static Params createParams(Method method) {
+        if (method != null) {
+            Annotation[][] annotations = method.getParameterAnnotations();
+            Class<?>[] parameters = method.getParameterTypes();
+            if (annotations != null) {
+                Params params = new Params();
+                params.mParamItems = new BaseParamItem[annotations.length];
+                BaseParamItem paramItem = null;
+                for (int i = 0; i < annotations.length; i++) {
+                    Annotation annotation = null;
+                    if (annotations[i].length == 0) {
+                        throw new IllegalArgumentException("方法的所有参数必须都得用" + Param.class.getSimpleName() + "," + ParamCallback.class.getSimpleName() + "," + ParamResponseStatus.class.getSimpleName() + " 中的任意一个注解进行标注");
+
+                    }
+                    for (int j = 0; j < annotations[i].length; j++) {
+                        annotation = annotations[i][j];
+                        if (annotation != null && annotation instanceof Param) {
+                            Param paramKey = (Param) annotation;
+                            paramItem = new ParamItem(paramKey.value(), parameters[i]);
+                            params.mParamItems[i] = paramItem;
+                        } else if (annotation instanceof ParamCallback) {
+                            paramItem = new ParamCallbackItem(parameters[i], null);
+                            params.mParamItems[i] = paramItem;
+                        } else if (annotation instanceof ParamResponseStatus) {
+                            ParamResponseStatus paramResponseStatus = (ParamResponseStatus) annotation;
+                            paramItem = new ParamResponseStatusItem(parameters[i], paramResponseStatus.value());
+                            params.mParamItems[i] = paramItem;
+                        }
+                    }
+                }
+                params.initBindKeys();
+                return params;
+            }
+
+        }
+        return null;
+    }
+
+
+}
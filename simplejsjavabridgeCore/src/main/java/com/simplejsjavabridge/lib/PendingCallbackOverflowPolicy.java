@@ -0,0 +1,15 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 等待js响应的回调方法达到上限时的处理策略，见{@link BridgeCore.Builder#setMaxPendingCallbacks(int, PendingCallbackOverflowPolicy)}
+ */
+public enum PendingCallbackOverflowPolicy {
+    /**
+     * 不发送新的request，新的回调方法直接收到{@link BridgeCore#RESPONSE_STATUS_OVERFLOW}状态
+     */
+    REJECT_NEW,
+    /**
+     * 移除等待时间最长的回调方法，它会收到{@link BridgeCore#RESPONSE_STATUS_OVERFLOW}状态
+     */
+    EVICT_OLDEST
+}
@@ -0,0 +1,384 @@
+package com.simplejsjavabridge.lib;
+
+import java.util.ArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 等待js响应的回调方法，可以在任意线程中访问。
+ * <p>回调id是原子递增的long，发送给js时使用36进制的字符串({@link #encodeId(long)})。回调方法按id分散到{@link #STRIPE_COUNT}个分段中，
+ * 每个分段有自己的锁和{@link LongHashMap}，注册和查找回调方法时key不会被装箱，也不会生成字符串</p>
+ * <p>超时使用时间轮实现：时间被分成{@link #TICK_MILLIS}长的格子，每个回调方法按到期的格子放入{@link #WHEEL_SIZE}个桶中的一个，
+ * 只有一个定时任务每隔一格检查一个桶，不需要为每个request创建定时器，没有等待超时的回调方法时定时任务会停止</p>
+ * <p>回调方法的数量有上限，达到上限时按{@link PendingCallbackOverflowPolicy}处理</p>
+ */
+class PendingCallbacks {
+
+    /**
+     * 回调方法被移除的原因
+     */
+    static final int REASON_TIMEOUT = 1;
+    static final int REASON_OVERFLOW = 2;
+    /**
+     * request在发送给js的队列中被丢弃，见{@link OutboundQueue}
+     */
+    static final int REASON_DROPPED = 3;
+
+    /**
+     * 回调方法因超时或数量达到上限被移除时的监听器，在持有锁之外调用
+     */
+    interface OnEvictListener {
+        void onEvict(Entry entry, int reason);
+    }
+
+    static final long TICK_MILLIS = 100;
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+
+    private static final int STRIPE_COUNT = 8;
+    private static final int STRIPE_MASK = STRIPE_COUNT - 1;
+
+    private static final int RADIX = 36;
+
+    private final Stripe[] mStripes = new Stripe[STRIPE_COUNT];
+    private final AtomicLong mIdSequence = new AtomicLong();
+    private final AtomicInteger mSize = new AtomicInteger();
+    /**
+     * 在时间轮中的回调方法的数量，为0时停止定时任务
+     */
+    private final AtomicInteger mTimeoutCount = new AtomicInteger();
+    private final long mStartNanos = System.nanoTime();
+
+    private final int mMaxSize;
+    private final PendingCallbackOverflowPolicy mOverflowPolicy;
+    private final ScheduledExecutorService mTimer;
+    private final OnEvictListener mOnEvictListener;
+    /**
+     * 由this加锁
+     */
+    private ScheduledFuture<?> mTickFuture;
+
+    private final Runnable mTickRunnable = new Runnable() {
+        @Override
+        public void run() {
+            tick(nowMillis());
+        }
+    };
+
+    PendingCallbacks(int maxSize, PendingCallbackOverflowPolicy overflowPolicy, ScheduledExecutorService timer, OnEvictListener onEvictListener) {
+        mMaxSize = maxSize;
+        mOverflowPolicy = overflowPolicy;
+        mTimer = timer;
+        mOnEvictListener = onEvictListener;
+        for (int i = 0; i < STRIPE_COUNT; i++) {
+            mStripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * 生成一个新的回调id，总是大于0
+     *
+     * @return
+     */
+    long nextId() {
+        return mIdSequence.incrementAndGet();
+    }
+
+    /**
+     * 把回调id转化为发送给js的字符串
+     *
+     * @param callbackId
+     * @return
+     */
+    static String encodeId(long callbackId) {
+        return Long.toString(callbackId, RADIX);
+    }
+
+    /**
+     * 把js返回的responseId转化为回调id，不会生成新的对象
+     *
+     * @param responseId
+     * @return 不是{@link #encodeId(long)}生成的id时返回-1
+     */
+    static long decodeId(String responseId) {
+        if (responseId == null) {
+            return -1;
+        }
+        int length = responseId.length();
+        if (length == 0 || length > 12) {
+            return -1;
+        }
+        long result = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = Character.digit(responseId.charAt(i), RADIX);
+            if (digit < 0) {
+                return -1;
+            }
+            result = result * RADIX + digit;
+        }
+        return result;
+    }
+
+    private Stripe stripe(long callbackId) {
+        return mStripes[(int) (callbackId & STRIPE_MASK)];
+    }
+
+    /**
+     * 添加一个回调方法
+     *
+     * @param callbackId    {@link #nextId()}生成的id
+     * @param methodHandler
+     * @param interfaceName 调用的js接口的名字
+     * @param span          request的往返，不需要时为null
+     * @param timeoutMillis 超时时间，小于等于0代表一直等待
+     * @return false 代表达到上限并且策略是{@link PendingCallbackOverflowPolicy#REJECT_NEW}，回调方法没有被添加
+     */
+    boolean add(long callbackId, MethodHandler methodHandler, String interfaceName, BridgeSpan span, long timeoutMillis) {
+        if (mSize.incrementAndGet() > mMaxSize) {
+            if (mOverflowPolicy == PendingCallbackOverflowPolicy.REJECT_NEW) {
+                mSize.decrementAndGet();
+                return false;
+            }
+            evictOldest();
+        }
+        Entry entry = new Entry(callbackId, methodHandler, interfaceName, span);
+        Stripe stripe = stripe(callbackId);
+        boolean hasTimeout = timeoutMillis > 0;
+        synchronized (stripe) {
+            stripe.add(entry);
+            if (hasTimeout) {
+                long deadlineTick = (nowMillis() + timeoutMillis + TICK_MILLIS - 1) / TICK_MILLIS;
+                entry.deadlineTick = Math.max(deadlineTick, stripe.currentTick + 1);
+                stripe.link(entry);
+                mTimeoutCount.incrementAndGet();
+            }
+        }
+        if (hasTimeout) {
+            synchronized (this) {
+                if (mTickFuture == null) {
+                    mTickFuture = mTimer.scheduleAtFixedRate(mTickRunnable, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * id是递增的，所有分段中最早加入的回调方法里id最小的就是等待时间最长的
+     */
+    private void evictOldest() {
+        Entry oldest = null;
+        while (oldest == null && mSize.get() > mMaxSize) {
+            Stripe oldestStripe = null;
+            long oldestId = Long.MAX_VALUE;
+            for (Stripe stripe : mStripes) {
+                synchronized (stripe) {
+                    if (stripe.head != null && stripe.head.callbackId < oldestId) {
+                        oldestId = stripe.head.callbackId;
+                        oldestStripe = stripe;
+                    }
+                }
+            }
+            if (oldestStripe == null) {
+                return;
+            }
+            oldest = removeEntry(oldestStripe, oldestId);
+        }
+        if (oldest != null) {
+            mOnEvictListener.onEvict(oldest, REASON_OVERFLOW);
+        }
+    }
+
+    /**
+     * 移除回调方法
+     *
+     * @param callbackId
+     * @return 不存在时返回null
+     */
+    Entry remove(long callbackId) {
+        if (callbackId <= 0) {
+            return null;
+        }
+        return removeEntry(stripe(callbackId), callbackId);
+    }
+
+    private Entry removeEntry(Stripe stripe, long callbackId) {
+        Entry entry;
+        synchronized (stripe) {
+            entry = stripe.remove(callbackId);
+            if (entry == null) {
+                return null;
+            }
+            if (stripe.unlink(entry)) {
+                mTimeoutCount.decrementAndGet();
+            }
+        }
+        mSize.decrementAndGet();
+        return entry;
+    }
+
+    int size() {
+        return mSize.get();
+    }
+
+    /**
+     * 检查到nowMillis为止的所有格子，移除超时的回调方法
+     *
+     * @param nowMillis 从创建开始经过的时间
+     */
+    void tick(long nowMillis) {
+        ArrayList<Entry> expired = null;
+        long targetTick = nowMillis / TICK_MILLIS;
+        for (Stripe stripe : mStripes) {
+            synchronized (stripe) {
+                /*落后超过一圈时每个桶只需要检查一次*/
+                long fromTick = Math.max(stripe.currentTick + 1, targetTick - WHEEL_SIZE + 1);
+                for (long tick = fromTick; tick <= targetTick; tick++) {
+                    Entry entry = stripe.wheel[(int) (tick & WHEEL_MASK)];
+                    while (entry != null) {
+                        Entry next = entry.next;
+                        if (entry.deadlineTick <= targetTick) {
+                            stripe.unlink(entry);
+                            stripe.remove(entry.callbackId);
+                            mTimeoutCount.decrementAndGet();
+                            mSize.decrementAndGet();
+                            if (expired == null) {
+                                expired = new ArrayList<>();
+                            }
+                            expired.add(entry);
+                        }
+                        entry = next;
+                    }
+                }
+                if (targetTick > stripe.currentTick) {
+                    stripe.currentTick = targetTick;
+                }
+            }
+        }
+        synchronized (this) {
+            if (mTickFuture != null && mTimeoutCount.get() == 0) {
+                mTickFuture.cancel(false);
+                mTickFuture = null;
+            }
+        }
+        if (expired != null) {
+            for (Entry entry : expired) {
+                mOnEvictListener.onEvict(entry, REASON_TIMEOUT);
+            }
+        }
+    }
+
+    long nowMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - mStartNanos);
+    }
+
+    /**
+     * 一个分段，所有的操作都需要对分段加锁
+     */
+    private static class Stripe {
+        final LongHashMap<Entry> entries = new LongHashMap<>();
+        /**
+         * 按加入的顺序组成的双向链表，head是等待时间最长的
+         */
+        Entry head;
+        Entry tail;
+        /**
+         * 每个桶是一个双向链表的头
+         */
+        final Entry[] wheel = new Entry[WHEEL_SIZE];
+        /**
+         * 已经检查过的最后一格
+         */
+        long currentTick;
+
+        void add(Entry entry) {
+            entries.put(entry.callbackId, entry);
+            entry.before = tail;
+            if (tail != null) {
+                tail.after = entry;
+            } else {
+                head = entry;
+            }
+            tail = entry;
+        }
+
+        Entry remove(long callbackId) {
+            Entry entry = entries.remove(callbackId);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.before != null) {
+                entry.before.after = entry.after;
+            } else {
+                head = entry.after;
+            }
+            if (entry.after != null) {
+                entry.after.before = entry.before;
+            } else {
+                tail = entry.before;
+            }
+            entry.before = null;
+            entry.after = null;
+            return entry;
+        }
+
+        void link(Entry entry) {
+            int bucket = (int) (entry.deadlineTick & WHEEL_MASK);
+            Entry bucketHead = wheel[bucket];
+            entry.next = bucketHead;
+            if (bucketHead != null) {
+                bucketHead.prev = entry;
+            }
+            wheel[bucket] = entry;
+        }
+
+        /**
+         * @return false 代表不在时间轮中
+         */
+        boolean unlink(Entry entry) {
+            if (entry.deadlineTick < 0) {
+                return false;
+            }
+            int bucket = (int) (entry.deadlineTick & WHEEL_MASK);
+            if (entry.prev != null) {
+                entry.prev.next = entry.next;
+            } else if (wheel[bucket] == entry) {
+                wheel[bucket] = entry.next;
+            }
+            if (entry.next != null) {
+                entry.next.prev = entry.prev;
+            }
+            entry.prev = null;
+            entry.next = null;
+            entry.deadlineTick = -1;
+            return true;
+        }
+    }
+
+    static class Entry {
+        final long callbackId;
+        final MethodHandler methodHandler;
+        final String interfaceName;
+        final BridgeSpan span;
+        /**
+         * 到期的格子，-1代表没有超时时间
+         */
+        long deadlineTick = -1;
+        /*时间轮的桶中的前后节点*/
+        Entry prev;
+        Entry next;
+        /*加入顺序中的前后节点*/
+        Entry before;
+        Entry after;
+
+        Entry(long callbackId, MethodHandler methodHandler, String interfaceName, BridgeSpan span) {
+            this.callbackId = callbackId;
+            this.methodHandler = methodHandler;
+            this.interfaceName = interfaceName;
+            this.span = span;
+        }
+    }
+}
@@ -0,0 +1,789 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.OverflowPolicy;
+import com.simplejsjavabridge.lib.annotation.Priority;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * java与js之间可以进行互相通信，主动发起通信时，传输的数据我们称作request(请求数据)对应{@link Request},当把处理结果进行返回时的数据我们称作response(响应数据)
+ * 对应{@link Response},因此该类的主要作用就是用来构建request或者response数据的。每次只能构建request或者response其中一种数据，
+ * {@link RequestResponseBuilder}可以从json中解析出相应的数据，也可以转化为json
+ *
+ * Created by niuxiaowei on 16/9/14.
+ */
+public class RequestResponseBuilder {
+
+    /**
+     * js发送过来的request的response发送给js之前的监听器，通过{@link #createResponse()}从request传递给response
+     */
+    interface ResponseObserver {
+        /**
+         * 在{@link BridgeCore#sendData2JS(RequestResponseBuilder)}的线程中调用
+         *
+         * @param response
+         */
+        void onResponse(RequestResponseBuilder response);
+    }
+
+    /**
+     * 是否是构建request请求
+     */
+    private boolean mIsBuildRequest;
+
+    /**
+     * 请求数据
+     */
+    private Request mRequest;
+    /**
+     * 响应数据
+     */
+    private Response mResponse;
+
+    /**
+     * 所属的{@link BridgeCore}的上下文
+     */
+    private BridgeContext mContext = BridgeContext.DEFAULT;
+
+    /**
+     * 解析values或者把values转化为参数值失败时的异常
+     */
+    private JSONException mValuesError;
+
+    /**
+     * 是否是js同步调用的request
+     */
+    private boolean mIsSync;
+    private RequestResponseBuilder mSyncResponse;
+
+    /**
+     * 发送给js的队列满了时的处理策略
+     */
+    private OverflowPolicy mOverflowPolicy = OverflowPolicy.DROP_OLDEST;
+    /**
+     * 为null时使用默认的优先级，见{@link #getPriority()}
+     */
+    private Priority mPriority;
+
+    private ResponseObserver mResponseObserver;
+
+    /**
+     * response所响应的java接口的名字，通过{@link #createResponse()}从request传递给response，用于{@link BridgeMetricsListener}的统计
+     */
+    private String mHandlerName;
+    /**
+     * 通过{@link #createResponse()}创建的response对应的request
+     */
+    private RequestResponseBuilder mOrigin;
+    /**
+     * request是否已经有response发送给js了
+     */
+    private volatile boolean mResponded;
+
+    /**
+     * 发送给js的request的往返，js的response中记录的时间在{@link #mTraceSource}的{@link #mTraceOffset}位置
+     */
+    private BridgeSpan mSpan;
+    private String mTraceSource;
+    private int mTraceOffset = -1;
+
+    public RequestResponseBuilder(boolean isBuildRequest){
+        this(isBuildRequest,null);
+    }
+
+    /**
+     * @param isBuildRequest 是否是构造请求数据
+     * @param data json数据
+     */
+    public RequestResponseBuilder(boolean isBuildRequest, JSONObject data) {
+        mIsBuildRequest = isBuildRequest;
+        if (mIsBuildRequest) {
+            mRequest = new Request();
+            if(data != null){
+
+                mRequest.parseRequest(data);
+            }
+        } else {
+            mResponse = new Response();
+            if(data != null){
+
+                mResponse.parseResponse(data);
+            }
+        }
+    }
+
+
+    /**
+     *
+     * 请求数据格式：
+     *
+     * <pre>
+     *    {
+     *      "handlerName":"test",
+     *      "callbackId":"c_111111",
+     *      "params":{
+     *          ....
+     *      }
+     *    }
+     *
+     *    hanlerName 代表java与js之间给对方暴漏的接口的名称，
+     *    callbackId 代表对方在发起请求时，会为回调方法生产一个唯一的id值，它就代表这个唯一的id值
+     *    params     代表传递的数据
+     * </pre>
+     * }
+     */
+    private class Request {
+
+        /*request相关的属性*/
+        private String interfaceName;
+        private String callbackId;
+        private JSONObject requestValues;
+        private IJavaCallback2JS iJavaCallback2JS;
+        private long callbackTimeout = InvokeJSInterface.DEFAULT_TIMEOUT;
+
+        /**
+         * 从js传递的字符串中读取request时，requestValues在字符串中的位置，真正使用时才进行解析
+         */
+        private String source;
+        private int requestValuesOffset = -1;
+
+        private JSONObject getRequestValues() {
+            if (requestValuesOffset >= 0) {
+                try {
+                    requestValues = mContext.codec.readObject(source, requestValuesOffset);
+                } catch (JSONException e) {
+                    /*执行接口时由Params.onConvertParamsFailed打印并响应js*/
+                    mValuesError = e;
+                }
+                source = null;
+                requestValuesOffset = -1;
+            }
+            return requestValues;
+        }
+
+        private void parseRequest(JSONObject json) {
+            if (json != null) {
+                callbackId = json.optString(mContext.requestCallbackIdName);
+                interfaceName = json.optString(mContext.requestInterfaceName);
+                requestValues = json.optJSONObject(mContext.requestValuesName);
+            }
+        }
+
+        private void writeTo(MessageWriter writer) {
+            writer.beginObject()
+                    .nameValue(mContext.requestCallbackIdName, callbackId)
+                    .nameValue(mContext.requestInterfaceName, interfaceName);
+            writeNameValue(writer, mContext.requestValuesName, getRequestValues());
+            if (mSpan != null && mSpan.isStampedByJS()) {
+                writer.name(BridgeContext.TRACE_NAME).beginObject()
+                        .nameValue(BridgeContext.TRACE_SENT_NAME, mSpan.getStartMillis())
+                        .endObject();
+            }
+            writer.endObject();
+        }
+    }
+
+    /**
+     *
+     * response数据格式：
+     * <pre>
+     *  {
+     *      "responseId":"iii",
+     *      "data":{
+     *          "status":"1",
+     *          "msg":"ok",
+     *          "values":{
+     *              ......
+     *          }
+     *      }
+     *  }
+     *
+     *  responseId 代表request中的callbackId
+     *  data       代表响应的数据
+     *  status     代表响应状态
+     *  msg        代表响应状态对应的消息
+     *  values     代表响应数据包含的值
+     * </pre>
+     */
+    private class Response {
+
+        private String responseId;
+        private JSONObject response = new JSONObject();
+        private JSONObject responseValues;
+
+        /**
+         * 从js传递的字符串中读取response时，response在字符串中的位置，真正使用时才进行解析
+         */
+        private String source;
+        private int responseOffset = -1;
+
+        /**
+         * 缓存的response中{@code data}部分的json，没有修改时直接写入，见{@link ResultCache}
+         */
+        private String responseJson;
+
+        private void parseLazyResponse() {
+            if (responseJson != null) {
+                try {
+                    response = mContext.codec.readObject(responseJson, 0);
+                    responseValues = response.optJSONObject(mContext.responseValuesName);
+                } catch (JSONException e) {
+                    mContext.log(BridgeCore.LOG_ERROR, "解析缓存的response失败", e);
+                }
+                responseJson = null;
+            }
+            if (responseOffset >= 0) {
+                try {
+                    response = mContext.codec.readObject(source, responseOffset);
+                    responseValues = response.optJSONObject(mContext.responseValuesName);
+                } catch (JSONException e) {
+                    mContext.log(BridgeCore.LOG_ERROR, "解析js的response失败", e);
+                }
+                source = null;
+                responseOffset = -1;
+            }
+        }
+
+        private void parseResponse(JSONObject json) {
+            if (json != null) {
+                responseId = json.optString(mContext.responseIdName);
+                response = json.optJSONObject(mContext.responseName);
+                if (response != null) {
+                    responseValues = response.optJSONObject(mContext.responseValuesName);
+                }
+            }
+        }
+
+        private void writeTo(MessageWriter writer) {
+            writer.beginObject().nameValue(mContext.responseIdName, responseId);
+            if (responseJson != null) {
+                writer.name(mContext.responseName).rawJson(responseJson);
+            } else {
+                parseLazyResponse();
+                if (response != null || responseValues != null) {
+                    writer.name(mContext.responseName);
+                    writeData(writer);
+                }
+            }
+            writer.endObject();
+        }
+
+        /**
+         * 写入{@code data}部分，包括状态数据和values
+         */
+        private void writeData(MessageWriter writer) {
+            writer.beginObject();
+            if (response != null) {
+                Iterator<?> keys = response.keys();
+                while (keys.hasNext()) {
+                    String key = (String) keys.next();
+                    if (responseValues == null || !key.equals(mContext.responseValuesName)) {
+                        writeNameValue(writer, key, response.opt(key));
+                    }
+                }
+            }
+            writeNameValue(writer, mContext.responseValuesName, responseValues);
+            writer.endObject();
+        }
+    }
+
+    /**
+     * 用所属上下文的{@link JsonCodec}写入key和value，value为null时不写入
+     */
+    private void writeNameValue(MessageWriter writer, String name, Object value) {
+        if (value == null) {
+            return;
+        }
+        writer.name(name);
+        try {
+            mContext.codec.writeValue(value, writer);
+        } catch (IOException e) {
+            mContext.log(BridgeCore.LOG_ERROR, "写入" + name + "失败", e);
+        }
+    }
+
+    /**
+     * 获取请求时为回调函数生成的 callbackId
+     * @return
+     */
+    public String getCallbackId(){
+        return mRequest == null?null: mRequest.callbackId;
+    }
+
+    /**
+     * 获取请求的接口的名字
+     * @return
+     */
+    public String getInterfaceName() {
+        return mRequest == null ? null : mRequest.interfaceName;
+    }
+
+    /**
+     * 设置等待js响应的超时时间，只对request有效
+     * @param timeoutMillis 超时时间(毫秒)，0代表一直等待，{@link com.simplejsjavabridge.lib.annotation.InvokeJSInterface#DEFAULT_TIMEOUT}代表使用默认的超时时间
+     */
+    public void setCallbackTimeout(long timeoutMillis) {
+        initRequest();
+        this.mRequest.callbackTimeout = timeoutMillis;
+    }
+
+    /**
+     * @return 等待js响应的超时时间
+     */
+    public long getCallbackTimeout() {
+        return mRequest == null ? InvokeJSInterface.DEFAULT_TIMEOUT : mRequest.callbackTimeout;
+    }
+
+    /**
+     * 设置发送给js的队列满了时的处理策略，默认是{@link OverflowPolicy#DROP_OLDEST}，
+     * {@link OverflowPolicy#LATEST_WINS}按request的接口名字合并，response没有接口名字，按{@link OverflowPolicy#DROP_OLDEST}处理
+     * @param overflowPolicy
+     */
+    public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+        mOverflowPolicy = overflowPolicy == null ? OverflowPolicy.DROP_OLDEST : overflowPolicy;
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return mOverflowPolicy;
+    }
+
+    /**
+     * 设置发送给js的优先级，js发送过来的request的优先级代表它的response的优先级
+     * @param priority 为null时使用默认的优先级
+     */
+    public void setPriority(Priority priority) {
+        mPriority = priority;
+    }
+
+    /**
+     * @return 发送给js的优先级，没有设置时request是{@link Priority#NORMAL}，response是{@link Priority#IMMEDIATE}
+     */
+    public Priority getPriority() {
+        if (mPriority != null) {
+            return mPriority;
+        }
+        return isBuildRequest() ? Priority.NORMAL : Priority.IMMEDIATE;
+    }
+
+    public void setRequestCallback(IJavaCallback2JS callback) {
+        initRequest();
+        this.mRequest.iJavaCallback2JS = callback;
+    }
+
+    private void initRequest() {
+        if (mRequest == null) {
+            mRequest = new Request();
+        }
+    }
+
+    /**
+     * 设置请求的接口的名字
+     * @param interfaceName
+     */
+    public void setInterfaceName(String interfaceName) {
+        initRequest();
+        this.mRequest.interfaceName = interfaceName;
+    }
+
+    /**
+     * 为回调方法设置回调id
+     * @param callbackId
+     */
+    public void setCallbackId(String callbackId) {
+        initRequest();
+        this.mRequest.callbackId = callbackId;
+    }
+
+
+    /**
+     * 获取request或者response的 values值
+     * @return
+     */
+    public JSONObject getValues() {
+        if (mIsBuildRequest) {
+            return mRequest == null ? null : mRequest.getRequestValues();
+        } else {
+            if (mResponse == null) {
+                return null;
+            }
+            mResponse.parseLazyResponse();
+            return mResponse.responseValues;
+        }
+    }
+
+    /**
+     * 往request或者response中存放 数据
+     * @param key
+     * @param value
+     */
+    public void putValue(String key, Object value) {
+        if(StringUtils.isEmpty(key) || value == null){
+            return;
+        }
+        JSONObject values = null;
+        if (mIsBuildRequest) {
+            initRequest();
+            if (mRequest.getRequestValues() == null) {
+                mRequest.requestValues = new JSONObject();
+            }
+            values = mRequest.requestValues;
+        } else {
+            initResponse();
+            mResponse.parseLazyResponse();
+            if (mResponse.responseValues == null) {
+                mResponse.responseValues = new JSONObject();
+            }
+            values = mResponse.responseValues;
+        }
+
+        try {
+            values.put(key, value);
+        } catch (JSONException e) {
+            mContext.log(BridgeCore.LOG_WARN, "放入" + key + "失败", e);
+        }
+
+    }
+
+    /**
+     * 用所属上下文的{@link JsonCodec}把request的values直接绑定为参数值，只对还没有被解析的values有效
+     *
+     * @param keys   见{@link JsonCodec#bindValues(String, int, String[], Class[], Object[])}
+     * @param types
+     * @param values
+     * @return false 代表需要从{@link #getValues()}中转化参数值
+     */
+    boolean bindValues(String[] keys, Class<?>[] types, Object[] values) {
+        if (!mIsBuildRequest || mRequest == null || mRequest.requestValuesOffset < 0) {
+            return false;
+        }
+        try {
+            return mContext.codec.bindValues(mRequest.source, mRequest.requestValuesOffset, keys, types, values);
+        } catch (JSONException e) {
+            /*不再从getValues()中重复解析*/
+            mValuesError = e;
+            /*执行接口时由Params.onConvertParamsFailed打印并响应js*/
+            mRequest.source = null;
+            mRequest.requestValuesOffset = -1;
+            return false;
+        }
+    }
+
+    /**
+     * js发送过来的request的values格式错误或者值不能转化为参数的类型时，不能用错误的参数值调用接口，而是给js发送{@link BridgeCore#RESPONSE_STATUS_FAILED}状态
+     *
+     * @return 解析values或者转化参数值失败时的异常，values还没有解析或者解析成功时返回null
+     */
+    JSONException getValuesError() {
+        return mValuesError;
+    }
+
+    /**
+     * 记录参数值转化失败的异常，见{@link Params#convertJson2ParamValues(RequestResponseBuilder)}
+     *
+     * @param valuesError
+     */
+    void setValuesError(JSONException valuesError) {
+        mValuesError = valuesError;
+    }
+
+    /**
+     * 标记为js同步调用的request，这时方法的返回值不会发送给js，而是保存在{@link #getSyncResponse()}中
+     */
+    void setSync(boolean sync) {
+        mIsSync = sync;
+    }
+
+    boolean isSync() {
+        return mIsSync;
+    }
+
+    void setSyncResponse(RequestResponseBuilder syncResponse) {
+        mSyncResponse = syncResponse;
+    }
+
+    /**
+     * @return 同步调用时方法的返回值生成的response
+     */
+    RequestResponseBuilder getSyncResponse() {
+        return mSyncResponse;
+    }
+
+    void setResponseObserver(ResponseObserver responseObserver) {
+        mResponseObserver = responseObserver;
+    }
+
+    ResponseObserver getResponseObserver() {
+        return mResponseObserver;
+    }
+
+    /**
+     * @return 不是通过{@link #createResponse()}创建的response返回null
+     */
+    String getHandlerName() {
+        return mHandlerName;
+    }
+
+    void setSpan(BridgeSpan span) {
+        mSpan = span;
+    }
+
+    BridgeSpan getSpan() {
+        return mSpan;
+    }
+
+    /**
+     * 把js在response中记录的收到request和发送response的时间设置给span，js没有记录时不做任何事
+     *
+     * @param span
+     */
+    void readJSTimes(BridgeSpan span) {
+        if (mTraceOffset < 0) {
+            return;
+        }
+        try {
+            JSONObject trace = mContext.codec.readObject(mTraceSource, mTraceOffset);
+            span.onJSTimes(trace.optLong(BridgeContext.TRACE_RECEIVED_NAME, -1), trace.optLong(BridgeContext.TRACE_RESPONDED_NAME, -1));
+        } catch (JSONException e) {
+            mContext.log(BridgeCore.LOG_WARN, "解析js记录的时间失败", e);
+        }
+        mTraceSource = null;
+        mTraceOffset = -1;
+    }
+
+    /**
+     * 为js发送过来的request创建response，response的id是request的callbackId，同时继承request的优先级、{@link ResponseObserver}和接口的名字
+     *
+     * @return
+     */
+    RequestResponseBuilder createResponse() {
+        RequestResponseBuilder response = new RequestResponseBuilder(false);
+        if (!StringUtils.isEmpty(getCallbackId())) {
+            response.setResponseId(getCallbackId());
+        }
+        response.mContext = mContext;
+        response.mPriority = mPriority;
+        response.mResponseObserver = mResponseObserver;
+        response.mHandlerName = getInterfaceName();
+        response.mOrigin = this;
+        return response;
+    }
+
+    /**
+     * response发送给js时调用，记录对应的request已经响应过了
+     */
+    void onSent() {
+        if (mOrigin != null) {
+            mOrigin.mResponded = true;
+        }
+    }
+
+    /**
+     * @return js的request是否已经有response发送给js了
+     */
+    boolean isResponded() {
+        return mResponded;
+    }
+
+    /**
+     * 使用缓存的json为request创建response
+     *
+     * @param responseJson {@link #toResponseJson()}的返回值
+     * @return
+     */
+    RequestResponseBuilder createResponse(String responseJson) {
+        RequestResponseBuilder response = createResponse();
+        response.mResponseObserver = null;
+        response.mResponse.response = null;
+        response.mResponse.responseJson = responseJson;
+        return response;
+    }
+
+    /**
+     * 把response中{@code data}部分生成json，只按json的规则转义，供{@link ResultCache}缓存
+     *
+     * @return
+     */
+    String toResponseJson() {
+        initResponse();
+        if (mResponse.responseJson != null) {
+            return mResponse.responseJson;
+        }
+        mResponse.parseLazyResponse();
+        MessageWriter writer = MessageWriter.obtainJson();
+        mResponse.writeData(writer);
+        return writer.toString();
+    }
+
+    public IJavaCallback2JS getCallback() {
+        return mRequest == null ? null : mRequest.iJavaCallback2JS;
+    }
+
+    /**
+     * 设置所属的{@link BridgeCore}的上下文，决定了request和response中key的名字
+     * @param context
+     */
+    void setContext(BridgeContext context) {
+        mContext = context == null ? BridgeContext.DEFAULT : context;
+    }
+
+    BridgeContext getContext() {
+        return mContext;
+    }
+
+
+    private void initResponse() {
+        if (mResponse == null) {
+            mResponse = new Response();
+        }
+    }
+
+    public String getResponseId() {
+        return mResponse == null ? null : mResponse.responseId;
+    }
+
+    public void setResponseId(String responseId) {
+        initResponse();
+        this.mResponse.responseId = responseId;
+    }
+
+    /**
+     * 获取response的 状态数据
+     * @return
+     */
+    public JSONObject getResponseStatus() {
+        if (mResponse == null) {
+            return null;
+        }
+        mResponse.parseLazyResponse();
+        return mResponse.response;
+    }
+
+    /**
+     * 往response中存放 数据
+     * @param key
+     * @param value
+     */
+    public void putResponseStatus(String key, Object value) {
+        if(StringUtils.isEmpty(key) || value == null){
+            return;
+        }
+        initResponse();
+        mResponse.parseLazyResponse();
+        try {
+            mResponse.response.put(key, value);
+        } catch (JSONException e) {
+            mContext.log(BridgeCore.LOG_WARN, "放入" + key + "失败", e);
+        }
+    }
+
+
+    /**
+     * 从json中创建一个{@link RequestResponseBuilder}对象，其实最终创建的是一个 request或者response
+     * @param json
+     * @return
+     */
+     static RequestResponseBuilder create(JSONObject json) {
+        if (json == null) {
+            return null;
+        }
+        RequestResponseBuilder requestResponseBuilder = null;
+        /*响应数据*/
+        if (json.has(BridgeContext.DEFAULT.responseIdName)) {
+            requestResponseBuilder = new RequestResponseBuilder(false, json);
+        } else {
+            requestResponseBuilder = new RequestResponseBuilder(true, json);
+        }
+
+        return requestResponseBuilder;
+    }
+
+    /**
+     * 从js传递的字符串的offset位置开始创建一个{@link RequestResponseBuilder}对象，不会截取字符串。
+     * 只读取"handlerName","callbackId","responseId"这些信息，"params","data","trace"这些数据在第一次使用时才解析，
+     * 这样js请求的接口或回调不存在时，数据不会被解析。信封由上下文的{@link JsonCodec#readEnvelope}读取
+     *
+     * @param json
+     * @param offset json数据在字符串中开始的位置
+     * @param context 收到数据的{@link BridgeCore}的上下文
+     * @return
+     * @throws JSONException json格式错误
+     */
+    static RequestResponseBuilder create(String json, int offset, BridgeContext context) throws JSONException {
+        if (json == null || offset >= json.length()) {
+            return null;
+        }
+        String[] names = context.envelopeNames;
+        String[] values = new String[names.length];
+        int[] objectOffsets = {-1, -1, -1, -1, -1, -1};
+        context.codec.readEnvelope(json, offset, names, values, objectOffsets);
+        String responseId = values[0];
+        int responseOffset = objectOffsets[1];
+        String interfaceName = values[2] == null ? "" : values[2];
+        String callbackId = values[3] == null ? "" : values[3];
+        int requestValuesOffset = objectOffsets[4];
+
+        RequestResponseBuilder requestResponseBuilder = null;
+        /*响应数据*/
+        if (responseId != null) {
+            requestResponseBuilder = new RequestResponseBuilder(false);
+            requestResponseBuilder.mContext = context;
+            requestResponseBuilder.mResponse.responseId = responseId;
+            if (responseOffset >= 0) {
+                requestResponseBuilder.mResponse.source = json;
+                requestResponseBuilder.mResponse.responseOffset = responseOffset;
+            } else {
+                requestResponseBuilder.mResponse.response = null;
+            }
+            if (objectOffsets[5] >= 0) {
+                requestResponseBuilder.mTraceSource = json;
+                requestResponseBuilder.mTraceOffset = objectOffsets[5];
+            }
+        } else {
+            requestResponseBuilder = new RequestResponseBuilder(true);
+            requestResponseBuilder.mContext = context;
+            requestResponseBuilder.mRequest.interfaceName = interfaceName;
+            requestResponseBuilder.mRequest.callbackId = callbackId;
+            if (requestValuesOffset >= 0) {
+                requestResponseBuilder.mRequest.source = json;
+                requestResponseBuilder.mRequest.requestValuesOffset = requestValuesOffset;
+            }
+        }
+        return requestResponseBuilder;
+    }
+
+    /**
+     * 是否构建的时request数据
+     * @return
+     */
+    public boolean isBuildRequest() {
+        return mIsBuildRequest;
+    }
+
+    /**
+     * 把request或者response以json的格式写入writer中
+     *
+     * @param writer
+     */
+    void writeTo(MessageWriter writer) {
+        if (mIsBuildRequest) {
+            initRequest();
+            mRequest.writeTo(writer);
+        } else {
+            initResponse();
+            mResponse.writeTo(writer);
+        }
+    }
+
+    @Override
+    public String toString() {
+        MessageWriter writer = MessageWriter.obtain();
+        writer.appendScript('\'');
+        writeTo(writer);
+        return writer.appendScript('\'').toString();
+    }
+}
@@ -0,0 +1,223 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link com.simplejsjavabridge.lib.annotation.Cacheable}接口的response缓存，每个接口一个，可以在任意线程中访问。
+ * <p>key是参数按key排序后生成的json，value是response中{@code data}部分已经生成好的json，
+ * 命中时只需要换成新的responseId就可以发送给js，不需要再生成json</p>
+ */
+class ResultCache {
+
+    private final long mTtlNanos;
+    private final int mMaxSize;
+
+    private final LinkedHashMap<String, CachedResponse> mEntries;
+
+    /**
+     * 每次清除缓存时加1，清除之前开始执行的接口的response不再放入缓存
+     */
+    private int mGeneration;
+
+    private long mHitCount;
+    private long mMissCount;
+    private long mEvictionCount;
+    private long mExpiredCount;
+
+    /**
+     * @param ttlMillis 缓存的有效时间，小于等于0代表一直有效
+     * @param maxSize   最多缓存的条数
+     */
+    ResultCache(long ttlMillis, int maxSize) {
+        mTtlNanos = ttlMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(ttlMillis) : 0;
+        mMaxSize = Math.max(maxSize, 1);
+        mEntries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() > mMaxSize) {
+                    mEvictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 获取缓存的response，不存在或过期时返回null
+     *
+     * @param key {@link #createKey(JSONObject)}生成的key
+     * @return response中{@code data}部分的json
+     */
+    synchronized String get(String key) {
+        CachedResponse entry = mEntries.get(key);
+        if (entry != null && mTtlNanos > 0 && System.nanoTime() - entry.createNanos > mTtlNanos) {
+            mEntries.remove(key);
+            mExpiredCount++;
+            entry = null;
+        }
+        if (entry == null) {
+            mMissCount++;
+            return null;
+        }
+        mHitCount++;
+        return entry.responseJson;
+    }
+
+    /**
+     * 缓存没有命中时调用，request执行完后接口的response会通过返回的{@link Fill}放入缓存
+     *
+     * @param key
+     * @return
+     */
+    synchronized Fill newFill(String key) {
+        return new Fill(key, mGeneration);
+    }
+
+    private synchronized void put(String key, int generation, String responseJson) {
+        if (generation != mGeneration) {
+            /*执行期间缓存被清除了，response可能是旧的数据*/
+            return;
+        }
+        mEntries.put(key, new CachedResponse(responseJson, System.nanoTime()));
+    }
+
+    /**
+     * 清除所有缓存，正在执行的接口的response也不会被缓存
+     */
+    synchronized void clear() {
+        mEntries.clear();
+        mGeneration++;
+    }
+
+    synchronized ResultCacheStats getStats() {
+        ResultCacheStats stats = new ResultCacheStats();
+        stats.mHitCount = mHitCount;
+        stats.mMissCount = mMissCount;
+        stats.mEvictionCount = mEvictionCount;
+        stats.mExpiredCount = mExpiredCount;
+        stats.mSize = mEntries.size();
+        stats.mMaxSize = mMaxSize;
+        return stats;
+    }
+
+    /**
+     * 把参数生成缓存的key，{@link JSONObject}的key按字母排序，这样顺序不同的相同参数会生成相同的key
+     *
+     * @param params request的参数，可以为null
+     * @return
+     */
+    static String createKey(JSONObject params) {
+        StringBuilder builder = new StringBuilder();
+        appendCanonical(builder, params);
+        return builder.toString();
+    }
+
+    private static void appendCanonical(StringBuilder builder, Object value) {
+        if (value == null || value == JSONObject.NULL) {
+            builder.append("null");
+        } else if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            ArrayList<String> keys = new ArrayList<>(object.length());
+            Iterator<?> iterator = object.keys();
+            while (iterator.hasNext()) {
+                keys.add((String) iterator.next());
+            }
+            Collections.sort(keys);
+            builder.append('{');
+            for (int i = 0; i < keys.size(); i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                String key = keys.get(i);
+                builder.append(JSONObject.quote(key)).append(':');
+                appendCanonical(builder, object.opt(key));
+            }
+            builder.append('}');
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            builder.append('[');
+            for (int i = 0, length = array.length(); i < length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendCanonical(builder, array.opt(i));
+            }
+            builder.append(']');
+        } else if (value instanceof Number) {
+            try {
+                builder.append(JSONObject.numberToString((Number) value));
+            } catch (JSONException e) {
+                builder.append("null");
+            }
+        } else if (value instanceof Boolean) {
+            builder.append(value);
+        } else {
+            builder.append(JSONObject.quote(value.toString()));
+        }
+    }
+
+    /**
+     * 把缓存没有命中的request的response放入缓存，通过{@link RequestResponseBuilder#setResponseObserver(RequestResponseBuilder.ResponseObserver)}
+     * 传递给response
+     */
+    class Fill implements RequestResponseBuilder.ResponseObserver {
+        private final String mKey;
+        private final int mGeneration;
+
+        private Fill(String key, int generation) {
+            mKey = key;
+            mGeneration = generation;
+        }
+
+        @Override
+        public void onResponse(RequestResponseBuilder response) {
+            if (!isFailed(response)) {
+                put(mKey, mGeneration, response.toResponseJson());
+            }
+        }
+
+        /**
+         * 为同步调用的response放入缓存
+         *
+         * @param response 为null时不缓存
+         */
+        void complete(RequestResponseBuilder response) {
+            if (response != null) {
+                onResponse(response);
+            }
+        }
+    }
+
+    /**
+     * response的status是否是{@link BridgeCore}定义的失败状态
+     */
+    private static boolean isFailed(RequestResponseBuilder response) {
+        JSONObject responseStatus = response.getResponseStatus();
+        if (responseStatus == null) {
+            return false;
+        }
+        String status = responseStatus.optString(BridgeCore.RESPONSE_STATUS_NAME);
+        return BridgeCore.RESPONSE_STATUS_FAILED.equals(status) || BridgeCore.RESPONSE_STATUS_TIMEOUT.equals(status)
+                || BridgeCore.RESPONSE_STATUS_OVERFLOW.equals(status);
+    }
+
+    private static class CachedResponse {
+        final String responseJson;
+        final long createNanos;
+
+        CachedResponse(String responseJson, long createNanos) {
+            this.responseJson = responseJson;
+            this.createNanos = createNanos;
+        }
+    }
+}
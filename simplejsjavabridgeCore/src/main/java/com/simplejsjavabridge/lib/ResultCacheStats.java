@@ -0,0 +1,69 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * {@link com.simplejsjavabridge.lib.annotation.Cacheable}接口的缓存的统计，见{@link BridgeCore#getResultCacheStats(String)}
+ */
+public class ResultCacheStats {
+    long mHitCount;
+    long mMissCount;
+    long mEvictionCount;
+    long mExpiredCount;
+    int mSize;
+    int mMaxSize;
+
+    /**
+     * @return 直接使用缓存的response的次数
+     */
+    public long getHitCount() {
+        return mHitCount;
+    }
+
+    /**
+     * @return 缓存中没有可用的response，需要执行接口的次数
+     */
+    public long getMissCount() {
+        return mMissCount;
+    }
+
+    /**
+     * @return 缓存满了时被移除的response的条数
+     */
+    public long getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * @return 过期被移除的response的条数
+     */
+    public long getExpiredCount() {
+        return mExpiredCount;
+    }
+
+    /**
+     * @return 命中率，还没有request时为0
+     */
+    public double getHitRate() {
+        long total = mHitCount + mMissCount;
+        return total == 0 ? 0 : (double) mHitCount / total;
+    }
+
+    /**
+     * @return 当前缓存的response的条数
+     */
+    public int getSize() {
+        return mSize;
+    }
+
+    /**
+     * @return 最多缓存的条数
+     */
+    public int getMaxSize() {
+        return mMaxSize;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultCacheStats{size=" + mSize + ", maxSize=" + mMaxSize + ", hit=" + mHitCount + ", miss=" + mMissCount
+                + ", evicted=" + mEvictionCount + ", expired=" + mExpiredCount + "}";
+    }
+}
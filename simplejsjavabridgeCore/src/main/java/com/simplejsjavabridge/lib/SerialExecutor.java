@@ -0,0 +1,43 @@
+package com.simplejsjavabridge.lib;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * 把任务按提交的顺序依次交给另一个{@link Executor}执行，前一个任务执行完后才会提交下一个任务，
+ * 用于{@link com.simplejsjavabridge.lib.annotation.ThreadMode#SERIAL}
+ */
+class SerialExecutor implements Executor {
+
+    private final ArrayDeque<Runnable> mTasks = new ArrayDeque<>();
+    private final Executor mExecutor;
+    private Runnable mActive;
+
+    SerialExecutor(Executor executor) {
+        mExecutor = executor;
+    }
+
+    @Override
+    public synchronized void execute(final Runnable command) {
+        mTasks.offer(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    command.run();
+                } finally {
+                    scheduleNext();
+                }
+            }
+        });
+        if (mActive == null) {
+            scheduleNext();
+        }
+    }
+
+    private synchronized void scheduleNext() {
+        mActive = mTasks.poll();
+        if (mActive != null) {
+            mExecutor.execute(mActive);
+        }
+    }
+}
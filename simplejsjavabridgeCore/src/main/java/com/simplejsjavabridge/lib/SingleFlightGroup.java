@@ -0,0 +1,159 @@
+package com.simplejsjavabridge.lib;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link com.simplejsjavabridge.lib.annotation.SingleFlight}接口正在执行的request，每个接口一个，可以在任意线程中访问。
+ * <p>参数相同的request在接口执行期间只记录下来，接口的response发送给js时，再为每个request生成response，
+ * response中{@code data}部分的json只生成一次</p>
+ * <p>执行接口的request抛出异常时，{@link Params#onInvokeFailed(RequestResponseBuilder, Throwable)}发送的失败状态同样会发送给等待的request；
+ * 超过等待时间还没有response时，等待的request会收到{@link BridgeCore#RESPONSE_STATUS_TIMEOUT}状态。
+ * 没有等待的request时同样在超时后移除，接口一直不响应js(比如没有{@link com.simplejsjavabridge.lib.annotation.ParamCallback}的void接口)也不会一直占着位置</p>
+ */
+class SingleFlightGroup {
+
+    private final long mTimeoutNanos;
+
+    /**
+     * key是{@link ResultCache#createKey(org.json.JSONObject)}生成的key
+     */
+    private final HashMap<String, Flight> mFlights = new HashMap<>();
+
+    private long mExecutionCount;
+    private long mSharedCount;
+
+    /**
+     * @param timeoutMillis 最多等待正在执行的接口的时间
+     */
+    SingleFlightGroup(long timeoutMillis) {
+        mTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(timeoutMillis, 0));
+    }
+
+    /**
+     * 参数相同的接口正在执行时，等待它的response，否则request需要执行接口
+     *
+     * @param key     {@link ResultCache#createKey(org.json.JSONObject)}生成的key
+     * @param request js的request，需要执行接口时会设置{@link RequestResponseBuilder.ResponseObserver}
+     * @return 是否加入了正在执行的接口，为false时需要执行接口
+     */
+    boolean join(String key, RequestResponseBuilder request) {
+        ArrayList<RequestResponseBuilder> expired = null;
+        synchronized (this) {
+            Flight flight = mFlights.get(key);
+            if (flight != null) {
+                if (System.nanoTime() - flight.mStartNanos <= mTimeoutNanos) {
+                    flight.addFollower(request);
+                    mSharedCount++;
+                    return true;
+                }
+                /*已经超时，超时的仍然会响应它自己的request*/
+                expired = takeFollowers(flight);
+            }
+            flight = new Flight(key, request.getResponseObserver());
+            mFlights.put(key, flight);
+            flight.mTimeoutFuture = BridgeExecutors.sharedTimer().schedule(flight, mTimeoutNanos, TimeUnit.NANOSECONDS);
+            request.setResponseObserver(flight);
+            mExecutionCount++;
+        }
+        failTimeout(expired);
+        return false;
+    }
+
+    /**
+     * 移除正在执行的接口并取出等待它的request，只有第一次调用会取出
+     */
+    private synchronized ArrayList<RequestResponseBuilder> takeFollowers(Flight flight) {
+        if (mFlights.get(flight.mKey) == flight) {
+            mFlights.remove(flight.mKey);
+        }
+        ArrayList<RequestResponseBuilder> followers = flight.mFollowers;
+        flight.mFollowers = new ArrayList<>(0);
+        if (flight.mTimeoutFuture != null) {
+            flight.mTimeoutFuture.cancel(false);
+            flight.mTimeoutFuture = null;
+        }
+        return followers;
+    }
+
+    /**
+     * 等待超时的request收到{@link BridgeCore#RESPONSE_STATUS_TIMEOUT}状态
+     */
+    private static void failTimeout(ArrayList<RequestResponseBuilder> followers) {
+        if (followers == null) {
+            return;
+        }
+        for (RequestResponseBuilder follower : followers) {
+            BridgeCore bridgeCore = follower.getContext().bridge;
+            if (bridgeCore != null) {
+                RequestResponseBuilder response = follower.createResponse();
+                response.putResponseStatus(BridgeCore.RESPONSE_STATUS_NAME, BridgeCore.RESPONSE_STATUS_TIMEOUT);
+                response.putResponseStatus(BridgeCore.RESPONSE_MSG_NAME, "等待合并执行的接口超时");
+                bridgeCore.sendData2JS(response);
+            }
+        }
+    }
+
+    synchronized SingleFlightStats getStats() {
+        SingleFlightStats stats = new SingleFlightStats();
+        stats.mExecutionCount = mExecutionCount;
+        stats.mSharedCount = mSharedCount;
+        stats.mInFlightCount = mFlights.size();
+        return stats;
+    }
+
+    private class Flight implements RequestResponseBuilder.ResponseObserver, Runnable {
+        private final String mKey;
+        private final long mStartNanos = System.nanoTime();
+        /**
+         * 执行接口的request原来的{@link RequestResponseBuilder.ResponseObserver}，比如{@link ResultCache}的
+         */
+        private final RequestResponseBuilder.ResponseObserver mNext;
+        private ArrayList<RequestResponseBuilder> mFollowers = new ArrayList<>(2);
+        /**
+         * 超时后移除，收到response时取消
+         */
+        private ScheduledFuture<?> mTimeoutFuture;
+
+        Flight(String key, RequestResponseBuilder.ResponseObserver next) {
+            mKey = key;
+            mNext = next;
+        }
+
+        /**
+         * 在持有{@link SingleFlightGroup}的锁时调用
+         */
+        void addFollower(RequestResponseBuilder request) {
+            mFollowers.add(request);
+        }
+
+        /**
+         * 超过等待时间还没有response，之后参数相同的request重新执行接口
+         */
+        @Override
+        public void run() {
+            failTimeout(takeFollowers(this));
+        }
+
+        @Override
+        public void onResponse(RequestResponseBuilder response) {
+            /*先移除，通知其他监听器时出现异常也不会一直占着位置*/
+            ArrayList<RequestResponseBuilder> followers = takeFollowers(this);
+            try {
+                if (mNext != null) {
+                    mNext.onResponse(response);
+                }
+            } finally {
+                BridgeCore bridgeCore = response.getContext().bridge;
+                if (!followers.isEmpty() && bridgeCore != null) {
+                    String responseJson = response.toResponseJson();
+                    for (RequestResponseBuilder follower : followers) {
+                        bridgeCore.sendData2JS(follower.createResponse(responseJson));
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * {@link com.simplejsjavabridge.lib.annotation.SingleFlight}接口合并执行的统计，见{@link BridgeCore#getSingleFlightStats(String)}
+ */
+public class SingleFlightStats {
+    long mExecutionCount;
+    long mSharedCount;
+    int mInFlightCount;
+
+    /**
+     * @return 真正执行接口的次数
+     */
+    public long getExecutionCount() {
+        return mExecutionCount;
+    }
+
+    /**
+     * @return 等待正在执行的接口的response，没有执行接口的request的个数，也就是节省的执行次数
+     */
+    public long getSharedCount() {
+        return mSharedCount;
+    }
+
+    /**
+     * @return 当前正在执行的参数不同的request的个数
+     */
+    public int getInFlightCount() {
+        return mInFlightCount;
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlightStats{executed=" + mExecutionCount + ", shared=" + mSharedCount + ", inFlight=" + mInFlightCount + "}";
+    }
+}
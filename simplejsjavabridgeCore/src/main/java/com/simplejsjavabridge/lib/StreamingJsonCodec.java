@@ -0,0 +1,84 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * 流式的{@link JsonCodec}，不为{@link com.simplejsjavabridge.lib.annotation.Param}标注的对象生成中间的{@link JSONObject}：
+ * <ul>
+ * <li>绑定参数：直接在js传递的字符串上按参数的key读取，对象类型的参数由{@link ObjectBinder}边读取边给属性赋值</li>
+ * <li>写成json：参数值原样放入values中，发送时由{@link ObjectBinder}直接把属性写入缓冲区</li>
+ * </ul>
+ * <p>与{@link OrgJsonCodec}的区别：属性都为null的对象会写成"{}"，而不是被忽略；发送给js的request或response中，
+ * {@link RequestResponseBuilder#getValues()}可能包含还没有转化为json的对象。
+ * 接口用{@link JavaInterfaceDispatcher}分发，或者调用了{@link RequestResponseBuilder#getValues()}时，values仍会被解析为{@link JSONObject}</p>
+ */
+public class StreamingJsonCodec extends OrgJsonCodec {
+
+    @Override
+    public boolean bindValues(String source, int offset, String[] keys, Class<?>[] types, Object[] values) throws JSONException {
+        MessageReader reader = new MessageReader(source, offset);
+        reader.beginObject();
+        while (reader.hasNextName()) {
+            int index = reader.nextName(keys);
+            if (index < 0) {
+                reader.skipValue();
+            } else if (ObjectBinder.isObjectDirectPut2Json(types[index])) {
+                values[index] = reader.nextValue();
+            } else if (reader.peekObject()) {
+                values[index] = ObjectBinder.obtain(types[index]).readObject(reader);
+            } else {
+                /*与JSONObject#optJSONObject(String)保持一致，不是对象时为null*/
+                reader.skipValue();
+                values[index] = null;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Object toJsonValue(Object value) {
+        return ObjectBinder.obtain(value.getClass()).hasJsonFields() ? value : null;
+    }
+
+    @Override
+    public void writeValue(Object value, Appendable out) throws IOException {
+        if (value instanceof JSONObject) {
+            /*JSONObject中可能放入了还没有转化为json的对象*/
+            JSONObject object = (JSONObject) value;
+            out.append('{');
+            boolean first = true;
+            Iterator<?> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = (String) keys.next();
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                super.writeValue(key, out);
+                out.append(':');
+                writeValue(object.opt(key), out);
+            }
+            out.append('}');
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            out.append('[');
+            for (int i = 0, length = array.length(); i < length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                writeValue(array.opt(i), out);
+            }
+            out.append(']');
+        } else if (value == null || value == JSONObject.NULL || value instanceof String || value instanceof Number
+                || value instanceof Boolean || !ObjectBinder.obtain(value.getClass()).hasJsonFields()) {
+            super.writeValue(value, out);
+        } else {
+            ObjectBinder.obtain(value.getClass()).writeObject(value, this, out);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.simplejsjavabridge.lib;
+
+/**
+ * 字符串的工具方法，核心模块不依赖android，不能使用{@code TextUtils}
+ */
+final class StringUtils {
+
+    private StringUtils() {
+    }
+
+    /**
+     * @param str
+     * @return str为null或长度为0时返回true
+     */
+    static boolean isEmpty(CharSequence str) {
+        return str == null || str.length() == 0;
+    }
+}
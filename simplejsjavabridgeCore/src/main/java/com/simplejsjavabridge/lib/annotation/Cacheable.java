@@ -0,0 +1,45 @@
+package com.simplejsjavabridge.lib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注结果可以缓存的{@link JavaInterface4JS}接口，比如获取用户信息、配置、设备信息这些只读的接口。
+ * <p>接口的response按参数缓存，参数相同的request在{@link #ttl()}内直接把缓存的response发送给js，不会再执行接口。
+ * 缓存的条数超过{@link #maxSize()}时移除最久没有使用的，也可以通过{@code BridgeCore#invalidateResultCache(String)}主动清除</p>
+ * <p>例子：</p>
+ * <pre>
+ *
+ *      :@Cacheable(ttl = 60000)
+ *      :@JavaInterface4JS("getUserInfo")
+ *      public JSONObject getUserInfo(@Param("uid") String uid);
+ *
+ *      上面的例子，相同uid的request在一分钟内直接使用缓存的response
+ * </pre>
+ * <p>只缓存第一次成功的response，status是{@code BridgeCore#RESPONSE_STATUS_FAILED}这些失败状态时不缓存，
+ * 因此只适合只响应一次并且没有副作用的接口</p>
+ *
+ * @see JavaInterface4JS
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface Cacheable {
+
+    /**
+     * 缓存的有效时间(毫秒)，0代表一直有效，直到被移除或清除
+     * @return
+     */
+    long ttl() default 60000;
+
+    /**
+     * 最多缓存的response的条数
+     * @return
+     */
+    int maxSize() default 16;
+}
@@ -0,0 +1,67 @@
+package com.simplejsjavabridge.lib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Created by niuxiaowei on 2015/10/27.
+ *
+ * java会主动调用js提供的接口，该注解就是用来标注这些接口的,{@link #value()}js提供的接口的名字
+ * <p>例子：</p>
+ * <pre>
+ *     :@InvokeJSInterface("exam")
+ *     public void exam():
+ *
+ *     该例子表明java会调用js提供的{@code exam}这样的接口
+ *
+ *     :@InvokeJSInterface(value = "exam", timeout = 5000)
+ *     public void exam(@ParamCallback IJavaCallback2JS callback):
+ *
+ *     js在5秒内没有响应时，callback会收到超时的状态
+ *
+ *     :@InvokeJSInterface(value = "onLocationChanged", overflow = OverflowPolicy.LATEST_WINS)
+ *     public void onLocationChanged(@Param("lat") double lat, @Param("lng") double lng):
+ *
+ *     页面暂停或者WebView繁忙时，只保留最新的位置
+ *
+ *     :@InvokeJSInterface(value = "report", priority = Priority.IDLE)
+ *     public void report(@Param("event") String event):
+ *
+ *     在主线程空闲时才发送给js
+ * </pre>
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface InvokeJSInterface {
+
+    /**
+     * 使用{@code BridgeCore.Builder#setDefaultCallbackTimeout(long)}设置的超时时间
+     */
+    long DEFAULT_TIMEOUT = -1;
+
+    String value();
+
+    /**
+     * 等待js响应的超时时间(毫秒)，超时后回调方法会收到超时的状态，0代表一直等待
+     * @return
+     */
+    long timeout() default DEFAULT_TIMEOUT;
+
+    /**
+     * 发送给js的队列满了时的处理策略
+     * @return
+     */
+    OverflowPolicy overflow() default OverflowPolicy.DROP_OLDEST;
+
+    /**
+     * 发送给js的优先级
+     * @return
+     */
+    Priority priority() default Priority.NORMAL;
+}
@@ -0,0 +1,72 @@
+package com.simplejsjavabridge.lib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 该注解是用来标注java为js提供的接口，{@link #value()}的值是代表java与js之间约定好的接口名字。
+ * <p>例子：</p>
+ * <pre>
+ *
+ *      :@JavaInterface4JS("test")
+ *      public void test(@Param("msg") String msg);
+ *
+ *      上面的例子，表明java为js提供一个名字为{@code test}的接口
+ *
+ *      :@JavaInterface4JS(value = "readFile", thread = ThreadMode.SERIAL)
+ *      public void readFile(@Param("path") String path, @ParamCallback IReadCallback callback);
+ *
+ *      上面的例子，{@code readFile}接口在后台线程中按顺序执行，不会阻塞主线程
+ *
+ *      :@JavaInterface4JS(value = "getVersion", sync = true)
+ *      public JSONObject getVersion();
+ *
+ *      上面的例子，js通过{@code _JSNativeBridge._doSendRequestSync("getVersion", {})}直接得到返回值
+ * </pre>
+ * Created by niuxiaowei on 2015/10/27.
+ * @see Param
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface JavaInterface4JS {
+    /**
+     * 代表java与js之间约定好的接口名字
+     * @return
+     */
+    String value();
+
+    /**
+     * 接口在哪个线程中执行，默认在主线程中执行
+     * @return
+     */
+    ThreadMode thread() default ThreadMode.MAIN;
+
+    /**
+     * 执行接口的{@link java.util.concurrent.Executor}的名字，通过{@code BridgeCore.Builder#addExecutor(String, Executor)}注册，
+     * 不为空时忽略{@link #thread()}
+     * @return
+     */
+    String executor() default "";
+
+    /**
+     * 是否可以被js同步调用。同步调用时接口在js调用的线程中立即执行({@code prompt()}对应主线程，
+     * {@code @JavascriptInterface}对应JavaBridge线程)，返回值直接作为{@code prompt()}或{@code postMessageSync()}的返回值，
+     * 不需要再通过回调发送给js，因此只适合获取版本号、网络类型这些耗时很短的接口。
+     * <p>同步接口必须有返回值，并且不能是{@code BridgeFuture}，执行时间超过
+     * {@code BridgeCore.Builder#setSyncTimeBudget(long)}时会打印警告</p>
+     * @return
+     */
+    boolean sync() default false;
+
+    /**
+     * 接口的response发送给js的优先级，默认立即发送。同步调用时没有作用
+     * @return
+     */
+    Priority priority() default Priority.IMMEDIATE;
+}
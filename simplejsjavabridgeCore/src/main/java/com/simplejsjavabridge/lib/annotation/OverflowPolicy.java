@@ -0,0 +1,27 @@
+package com.simplejsjavabridge.lib.annotation;
+
+/**
+ * 发送给js的队列满了时的处理策略，见{@link InvokeJSInterface#overflow()}和
+ * {@code BridgeCore.Builder#setOutboundQueueCapacity(int)}
+ * <p>被丢弃的request如果在等待js的响应，回调方法会立即收到{@code BridgeCore#RESPONSE_STATUS_OVERFLOW}状态</p>
+ */
+public enum OverflowPolicy {
+    /**
+     * 发送的线程等待队列有空间，最多等待一秒，超时后丢弃新的数据。
+     * 在主线程中发送(队列是在主线程中发送的)或者发送已经暂停时不会等待，直接丢弃新的数据
+     */
+    BLOCK,
+    /**
+     * 丢弃队列中最早的数据，默认的策略
+     */
+    DROP_OLDEST,
+    /**
+     * 丢弃新的数据
+     */
+    DROP_NEWEST,
+    /**
+     * 同一个接口只保留最新的数据：队列中已经有该接口还没有发送的数据时用新的数据替换它，
+     * 适合位置、传感器、下载进度这些只关心最新值的数据。队列满了并且没有可以替换的数据时丢弃最早的数据
+     */
+    LATEST_WINS
+}
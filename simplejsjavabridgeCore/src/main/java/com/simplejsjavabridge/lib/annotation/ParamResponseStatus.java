@@ -48,10 +48,25 @@ import java.lang.annotation.Target;
  *     }
  *
  * </pre>
+ * <p>也可以标注{@link com.simplejsjavabridge.lib.annotation.JavaInterface4JS}方法返回值中的属性，这些属性会放入response的状态数据中，
+ * 而不是values中，{@link #value()}为空时key是属性的名字</p>
+ * <pre>
+ *     public class UserResult{
+ *         :@ParamResponseStatus("status")
+ *         int status;
+ *         :@Param("name")
+ *         String name;
+ *     }
+ *
+ *     :@JavaInterface4JS("getUser")
+ *     public UserResult getUser(@Param("id") String id){
+ *
+ *     }
+ * </pre>
  *
  * Created by niuxiaowei on 2015/10/27.
  */
-@Target(ElementType.PARAMETER)
+@Target({ElementType.PARAMETER, ElementType.FIELD})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 @Inherited
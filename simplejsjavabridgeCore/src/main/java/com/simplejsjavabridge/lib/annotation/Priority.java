@@ -0,0 +1,21 @@
+package com.simplejsjavabridge.lib.annotation;
+
+/**
+ * 发送给js的数据的优先级，见{@link InvokeJSInterface#priority()}和{@code RequestResponseBuilder#setPriority(Priority)}。
+ * <p>每次发送时先发送{@link #IMMEDIATE}，再发送{@link #NORMAL}，{@link #IDLE}只在主线程空闲时发送，
+ * 主线程一直不空闲时最多延迟{@code SimpleJavaJsBridge#IDLE_MAX_DELAY}毫秒，因此任何优先级都不会一直得不到发送</p>
+ */
+public enum Priority {
+    /**
+     * 放在主线程消息队列的最前面立即发送，不等待批量发送的时间窗口，js请求java的response默认是该优先级
+     */
+    IMMEDIATE,
+    /**
+     * 按顺序发送，java主动调用js的request默认是该优先级
+     */
+    NORMAL,
+    /**
+     * 在主线程空闲时通过{@code MessageQueue.IdleHandler}发送，适合统计数据这些不影响用户的数据
+     */
+    IDLE
+}
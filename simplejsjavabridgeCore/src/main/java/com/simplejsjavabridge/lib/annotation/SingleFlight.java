@@ -0,0 +1,39 @@
+package com.simplejsjavabridge.lib.annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 标注可以合并执行的{@link JavaInterface4JS}接口，比如定位、刷新token这些耗时并且结果可以共享的接口。
+ * <p>接口正在执行时，参数相同的request不会再执行接口，而是等待正在执行的那一次的response，
+ * response会按每个request的callbackId分别发送给js</p>
+ * <p>例子：</p>
+ * <pre>
+ *
+ *      :@SingleFlight
+ *      :@JavaInterface4JS(value = "refreshToken", thread = ThreadMode.BACKGROUND)
+ *      public void refreshToken(@ParamCallback ITokenCallback callback);
+ *
+ *      上面的例子，页面中多个组件同时刷新token时只会请求一次
+ * </pre>
+ * <p>只合并第一次的response，因此只适合只响应一次的接口。可以和{@link Cacheable}一起使用，先查找缓存，没有命中时再合并</p>
+ *
+ * @see JavaInterface4JS
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Inherited
+public @interface SingleFlight {
+
+    /**
+     * 最多等待正在执行的接口的时间(毫秒)，接口执行的时间超过它后，参数相同的request会重新执行接口，
+     * 避免接口一直没有响应时后面的request都得不到响应
+     * @return
+     */
+    long timeout() default 10000;
+}
@@ -0,0 +1,19 @@
+package com.simplejsjavabridge.lib.annotation;
+
+/**
+ * java为js提供的接口在哪个线程中执行，见{@link JavaInterface4JS#thread()}
+ */
+public enum ThreadMode {
+    /**
+     * 在主线程中执行，参数在分发线程中解析好后再切换到主线程
+     */
+    MAIN,
+    /**
+     * 在后台线程池中执行，多次调用之间不保证顺序
+     */
+    BACKGROUND,
+    /**
+     * 在后台线程池中执行，同一个接口的多次调用按js发送的顺序依次执行
+     */
+    SERIAL
+}
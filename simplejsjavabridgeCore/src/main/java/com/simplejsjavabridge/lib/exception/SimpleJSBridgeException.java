@@ -5,6 +5,8 @@ package com.simplejsjavabridge.lib.exception;
  */
 public class SimpleJSBridgeException extends RuntimeException {
 
+    private static final long serialVersionUID = 1L;
+
     public SimpleJSBridgeException() {
     }
 
@@ -0,0 +1,73 @@
+package com.simplejsjavabridge.lib.transport;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * 把js代码保存在内存中，不需要{@code WebView}，主要用于在jvm中进行测试或者基准测试。
+ * <p>可以通过{@link #poll()}或{@link #drain()}取出发送给js的代码，也可以设置{@link OnEvaluateListener}在发送时直接处理</p>
+ */
+public class InMemoryTransport implements JSTransport {
+
+    /**
+     * 监听发送给js的代码
+     */
+    public interface OnEvaluateListener {
+        void onEvaluate(String script);
+    }
+
+    private final ConcurrentLinkedQueue<String> mScripts = new ConcurrentLinkedQueue<>();
+    private volatile OnEvaluateListener mOnEvaluateListener;
+
+    public InMemoryTransport() {
+    }
+
+    /**
+     * @param onEvaluateListener 不为null时，js代码直接交给它处理，不再保存
+     */
+    public InMemoryTransport(OnEvaluateListener onEvaluateListener) {
+        mOnEvaluateListener = onEvaluateListener;
+    }
+
+    public void setOnEvaluateListener(OnEvaluateListener onEvaluateListener) {
+        mOnEvaluateListener = onEvaluateListener;
+    }
+
+    @Override
+    public void evaluate(String script) {
+        OnEvaluateListener onEvaluateListener = mOnEvaluateListener;
+        if (onEvaluateListener != null) {
+            onEvaluateListener.onEvaluate(script);
+        } else {
+            mScripts.offer(script);
+        }
+    }
+
+    /**
+     * 取出最早发送的js代码
+     *
+     * @return 不存在时返回null
+     */
+    public String poll() {
+        return mScripts.poll();
+    }
+
+    /**
+     * 取出所有的js代码
+     *
+     * @return
+     */
+    public List<String> drain() {
+        List<String> scripts = new ArrayList<>();
+        String script;
+        while ((script = mScripts.poll()) != null) {
+            scripts.add(script);
+        }
+        return scripts;
+    }
+
+    public int size() {
+        return mScripts.size();
+    }
+}
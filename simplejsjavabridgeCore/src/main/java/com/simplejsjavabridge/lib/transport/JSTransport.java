@@ -0,0 +1,21 @@
+package com.simplejsjavabridge.lib.transport;
+
+/**
+ * java给js发送数据的通道，{@link com.simplejsjavabridge.lib.BridgeCore}会把发送给js的数据
+ * 拼接成调用js方法的代码，比如{@code _JSNativeBridge._handleMessageFromNative('{...}')}，然后交给通道执行。
+ * <p>{@link #evaluate(String)}总是在{@link com.simplejsjavabridge.lib.BridgeCore.Builder#setMainThreadExecutor(java.util.concurrent.Executor)}
+ * 设置的线程中被调用，默认是主线程</p>
+ *
+ * @see LoadUrlTransport
+ * @see EvaluateJavascriptTransport
+ * @see InMemoryTransport
+ */
+public interface JSTransport {
+
+    /**
+     * 执行js代码
+     *
+     * @param script js代码，不包含"javascript:"前缀
+     */
+    void evaluate(String script);
+}
@@ -0,0 +1,215 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+/**
+ * 通过{@link BridgeFuture}调用js接口：完成、取消、超时、监听器的调用顺序，以及不能在主线程中等待
+ */
+public class BridgeFutureTest {
+
+    private static final Pattern CALLBACK_ID = Pattern.compile("\"callbackId\":\"([^\"]+)\"");
+
+    public static class User {
+        @Param("name")
+        String name;
+    }
+
+    interface IInvokeJS {
+        @InvokeJSInterface("getUser")
+        BridgeFuture<User> getUser(@Param("id") int id);
+
+        @InvokeJSInterface(value = "slow", timeout = 100)
+        BridgeFuture<JSONObject> slow();
+    }
+
+    private final InMemoryTransport mTransport = new InMemoryTransport();
+
+    private BridgeCore newBridge() {
+        return new BridgeCore.Builder()
+                .setTransport(mTransport)
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg")
+                .create();
+    }
+
+    private String pollCallbackId() {
+        String script = mTransport.poll();
+        assertNotNull(script);
+        Matcher matcher = CALLBACK_ID.matcher(script);
+        assertTrue(script, matcher.find());
+        return matcher.group(1);
+    }
+
+    @Test
+    public void complete_convertsValuesAndKeepsStatus() throws Exception {
+        BridgeCore bridge = newBridge();
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+        BridgeFuture<User> first = invokeJS.getUser(1);
+        BridgeFuture<User> second = invokeJS.getUser(2);
+        String firstId = pollCallbackId();
+        String secondId = pollCallbackId();
+        assertFalse(first.isDone());
+
+        bridge.parseJsonFromJs("niu://receive_msg?{\"responseId\":\"" + secondId + "\",\"data\":{\"status\":\"1\",\"msg\":\"ok\",\"values\":{\"name\":\"two\"}}}");
+        bridge.parseJsonFromJs("niu://receive_msg?{\"responseId\":\"" + firstId + "\",\"data\":{\"values\":{\"name\":\"one\"}}}");
+
+        assertEquals("one", first.get().name);
+        assertEquals("two", second.get(1, TimeUnit.SECONDS).name);
+        assertEquals("1", second.getResponseStatus().getString("status"));
+        assertEquals("ok", second.getResponseStatus().getString("msg"));
+        assertTrue(first.isDone());
+        assertFalse(first.isCancelled());
+        assertFalse(first.cancel(true));
+    }
+
+    @Test
+    public void cancel_removesCallbackAndIgnoresResponse() throws Exception {
+        BridgeCore bridge = newBridge();
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+        BridgeFuture<User> future = invokeJS.getUser(1);
+        String callbackId = pollCallbackId();
+
+        assertTrue(future.cancel(true));
+        assertFalse(future.cancel(true));
+        assertTrue(future.isCancelled());
+        assertTrue(future.isDone());
+
+        bridge.parseJsonFromJs("niu://receive_msg?{\"responseId\":\"" + callbackId + "\",\"data\":{\"values\":{\"name\":\"late\"}}}");
+        assertTrue(future.isCancelled());
+        try {
+            future.get();
+            fail("expected CancellationException");
+        } catch (CancellationException e) {
+            /*expected*/
+        }
+    }
+
+    @Test
+    public void cancelBeforeAttach_removesCallback() {
+        final List<Long> cancelled = new ArrayList<>();
+        BridgeFuture<Object> future = new BridgeFuture<>();
+        future.cancel(true);
+        future.attach(new BridgeFuture.Canceller() {
+            @Override
+            public boolean cancel(long callbackId) {
+                cancelled.add(callbackId);
+                return true;
+            }
+
+            @Override
+            public boolean isMainThread() {
+                return false;
+            }
+        }, 7);
+        assertEquals(1, cancelled.size());
+        assertEquals(7L, (long) cancelled.get(0));
+    }
+
+    @Test
+    public void timeout_failsWithTimeoutStatus() throws Exception {
+        BridgeCore bridge = newBridge();
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+        BridgeFuture<JSONObject> future = invokeJS.slow();
+        String callbackId = pollCallbackId();
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail("expected ExecutionException");
+        } catch (ExecutionException e) {
+            /*expected*/
+        }
+        assertEquals(BridgeCore.RESPONSE_STATUS_TIMEOUT, future.getResponseStatus().getString(BridgeCore.RESPONSE_STATUS_NAME));
+
+        /*超时之后的响应被忽略*/
+        bridge.parseJsonFromJs("niu://receive_msg?{\"responseId\":\"" + callbackId + "\",\"data\":{\"values\":{}}}");
+        assertEquals(BridgeCore.RESPONSE_STATUS_TIMEOUT, future.getResponseStatus().getString(BridgeCore.RESPONSE_STATUS_NAME));
+    }
+
+    @Test
+    public void listeners_calledInOrderOnce() {
+        final List<String> calls = new ArrayList<>();
+        BridgeFuture<String> future = new BridgeFuture<>();
+        for (final String name : new String[]{"a", "b", "c"}) {
+            future.addOnCompleteListener(new BridgeFuture.OnCompleteListener<String>() {
+                @Override
+                public void onComplete(BridgeFuture<String> future) {
+                    assertTrue(future.isDone());
+                    calls.add(name);
+                }
+            });
+        }
+        assertTrue(calls.isEmpty());
+
+        future.setResult("done");
+        future.setResult("again");
+        future.setFailure(new RuntimeException());
+        assertEquals("[a, b, c]", calls.toString());
+
+        /*完成之后添加的监听器立即调用*/
+        future.addOnCompleteListener(new BridgeFuture.OnCompleteListener<String>() {
+            @Override
+            public void onComplete(BridgeFuture<String> future) {
+                calls.add("d");
+            }
+        });
+        assertEquals("[a, b, c, d]", calls.toString());
+    }
+
+    @Test
+    public void get_onMainThreadThrows() throws Exception {
+        ExecutorService mainThread = Executors.newSingleThreadExecutor();
+        try {
+            final CountDownLatch sent = new CountDownLatch(1);
+            mTransport.setOnEvaluateListener(new InMemoryTransport.OnEvaluateListener() {
+                @Override
+                public void onEvaluate(String script) {
+                    sent.countDown();
+                }
+            });
+            BridgeCore bridge = new BridgeCore.Builder()
+                    .setTransport(mTransport)
+                    .setMainThreadExecutor(mainThread)
+                    .setDispatchExecutor(BridgeExecutors.DIRECT)
+                    .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                    .setProtocol("niu", "receive_msg")
+                    .create();
+            final BridgeFuture<User> future = bridge.createInvokJSCommand(IInvokeJS.class).getUser(1);
+            assertTrue(sent.await(5, TimeUnit.SECONDS));
+
+            try {
+                mainThread.submit(new Callable<User>() {
+                    @Override
+                    public User call() throws Exception {
+                        return future.get();
+                    }
+                }).get(5, TimeUnit.SECONDS);
+                fail("expected IllegalStateException");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            assertFalse(future.isDone());
+        } finally {
+            mainThread.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link BridgeCore}的日志只交给设置的{@link BridgeLogger}，没有设置时不打印
+ */
+public class BridgeLoggerTest {
+
+    private static final String BATCH_SIZE_MESSAGE = "批量发送给js的数据条数:";
+
+    interface IInvokeJS {
+        @InvokeJSInterface("exam")
+        void exam();
+    }
+
+    public static class FailingInterface {
+        @JavaInterface4JS("fail")
+        public void fail() {
+            throw new IllegalStateException("broken");
+        }
+    }
+
+    /**
+     * 记录收到的日志，带调用栈的日志记录异常
+     */
+    private static class RecordingLogger implements BridgeLogger {
+        final List<String> messages = new ArrayList<>();
+        final List<Throwable> throwables = new ArrayList<>();
+
+        @Override
+        public void log(int level, String tag, String message) {
+            messages.add(level + " " + message);
+        }
+
+        @Override
+        public void log(int level, String tag, String message, Throwable throwable) {
+            messages.add(level + " " + message);
+            throwables.add(throwable);
+        }
+    }
+
+    private static BridgeCore.Builder newBuilder(InMemoryTransport transport, boolean debug, BridgeLogger logger) {
+        return new BridgeCore.Builder()
+                .setTransport(transport)
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .setDebug(debug)
+                .setLogger(logger)
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg");
+    }
+
+    private static BridgeCore newBridge(boolean debug, BridgeLogger logger) {
+        return newBuilder(new InMemoryTransport(), debug, logger).create();
+    }
+
+    @Test
+    public void logger_receivesMessages() {
+        final List<String> messages = new ArrayList<>();
+        BridgeCore bridge = newBridge(false, new BridgeLogger() {
+            @Override
+            public void log(int level, String tag, String message) {
+                messages.add(level + " " + tag + " " + message);
+            }
+
+            @Override
+            public void log(int level, String tag, String message, Throwable throwable) {
+                fail("非debug模式不打印调用栈");
+            }
+        });
+        bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"missing\",\"callbackId\":\"c_1\"}");
+
+        assertEquals(1, messages.size());
+        assertEquals(BridgeLogger.ERROR + " SimpleJavaJsBridge 所调用的接口不存在", messages.get(0));
+    }
+
+    @Test
+    public void debug_logsBatchSizes() throws Exception {
+        final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        final CountDownLatch sent = new CountDownLatch(3);
+        InMemoryTransport transport = new InMemoryTransport(new InMemoryTransport.OnEvaluateListener() {
+            @Override
+            public void onEvaluate(String script) {
+                for (int i = script.indexOf("exam"); i >= 0; i = script.indexOf("exam", i + 1)) {
+                    sent.countDown();
+                }
+            }
+        });
+        BridgeCore bridge = newBuilder(transport, true, new BridgeLogger() {
+            @Override
+            public void log(int level, String tag, String message) {
+                messages.add(message);
+            }
+
+            @Override
+            public void log(int level, String tag, String message, Throwable throwable) {
+                messages.add(message);
+            }
+        }).setOutboundBatch(50).create();
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+        for (int i = 0; i < 3; i++) {
+            invokeJS.exam();
+        }
+        assertTrue(sent.await(5, TimeUnit.SECONDS));
+
+        int batched = 0;
+        synchronized (messages) {
+            for (String message : messages) {
+                if (message.startsWith(BATCH_SIZE_MESSAGE)) {
+                    batched += Integer.parseInt(message.substring(BATCH_SIZE_MESSAGE.length()));
+                }
+            }
+        }
+        assertEquals(3, batched);
+    }
+
+    private static RecordingLogger invokeFailing(boolean debug) {
+        RecordingLogger logger = new RecordingLogger();
+        BridgeCore bridge = newBuilder(new InMemoryTransport(), debug, logger)
+                .addJavaInterface4JS(new FailingInterface())
+                .create();
+        bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"fail\",\"callbackId\":\"c_1\"}");
+        return logger;
+    }
+
+    @Test
+    public void invokeFailed_debugLogsStackTrace() {
+        RecordingLogger logger = invokeFailing(true);
+        assertEquals(1, logger.throwables.size());
+        assertEquals("broken", logger.throwables.get(0).getMessage());
+        assertTrue(logger.messages.contains(BridgeLogger.ERROR + " 接口fail执行失败"));
+    }
+
+    @Test
+    public void invokeFailed_releaseLogsMessageOnly() {
+        RecordingLogger logger = invokeFailing(false);
+        assertTrue(logger.throwables.isEmpty());
+        assertTrue(logger.messages.toString(),
+                logger.messages.contains(BridgeLogger.ERROR + " 接口fail执行失败:java.lang.IllegalStateException: broken"));
+    }
+
+    @Test
+    public void noLogger_printsNothing() {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(printed));
+        System.setErr(new PrintStream(printed));
+        try {
+            BridgeCore bridge = newBridge(true, null);
+            bridge.createInvokJSCommand(IInvokeJS.class).exam();
+            bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"missing\",\"callbackId\":\"c_1\"}");
+            newBuilder(new InMemoryTransport(), true, null)
+                    .addJavaInterface4JS(new FailingInterface())
+                    .create()
+                    .parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"fail\",\"callbackId\":\"c_1\"}");
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+        assertEquals("", printed.toString());
+    }
+}
@@ -0,0 +1,111 @@
+package com.simplejsjavabridge.lib;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link BridgeMetrics}按接口的类型和名字分别统计，取出的{@link InterfaceMetrics}是副本
+ */
+public class BridgeMetricsTest {
+
+    @Test
+    public void records_perInterfaceAndType() {
+        BridgeMetrics metrics = new BridgeMetrics();
+        metrics.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.STAGE_EXECUTE, 10);
+        metrics.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.STAGE_EXECUTE, 30);
+        metrics.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "b", BridgeMetricsListener.STAGE_EXECUTE, 20);
+        metrics.onStage(BridgeMetricsListener.TYPE_JS_INTERFACE, "a", BridgeMetricsListener.STAGE_ROUND_TRIP, 40);
+        metrics.onPayload(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.DIRECTION_INBOUND, 100);
+        metrics.onPayload(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.DIRECTION_OUTBOUND, 7);
+        metrics.onPayload(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.DIRECTION_OUTBOUND, 9);
+        metrics.onEvent(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.EVENT_SHARED);
+        metrics.onEvent(BridgeMetricsListener.TYPE_JS_INTERFACE, "a", BridgeMetricsListener.EVENT_TIMEOUT);
+
+        InterfaceMetrics javaA = metrics.getInterfaceMetrics(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a");
+        assertEquals("a", javaA.getName());
+        assertEquals(BridgeMetricsListener.TYPE_JAVA_INTERFACE, javaA.getType());
+        MetricsHistogram execute = javaA.getStageHistogram(BridgeMetricsListener.STAGE_EXECUTE);
+        assertEquals(2, execute.getTotalCount());
+        assertEquals(10, execute.getMinValue());
+        assertEquals(30, execute.getMaxValue());
+        assertNull(javaA.getStageHistogram(BridgeMetricsListener.STAGE_ROUND_TRIP));
+        assertEquals(1, javaA.getMessageCount(BridgeMetricsListener.DIRECTION_INBOUND));
+        assertEquals(2, javaA.getMessageCount(BridgeMetricsListener.DIRECTION_OUTBOUND));
+        assertEquals(9, javaA.getPayloadHistogram(BridgeMetricsListener.DIRECTION_OUTBOUND).getMaxValue());
+        assertEquals(1, javaA.getEventCount(BridgeMetricsListener.EVENT_SHARED));
+        assertEquals(0, javaA.getEventCount(BridgeMetricsListener.EVENT_TIMEOUT));
+
+        InterfaceMetrics jsA = metrics.getInterfaceMetrics(BridgeMetricsListener.TYPE_JS_INTERFACE, "a");
+        assertNull(jsA.getStageHistogram(BridgeMetricsListener.STAGE_EXECUTE));
+        assertEquals(40, jsA.getStageHistogram(BridgeMetricsListener.STAGE_ROUND_TRIP).getMaxValue());
+        assertEquals(1, jsA.getEventCount(BridgeMetricsListener.EVENT_TIMEOUT));
+        assertEquals(0, jsA.getMessageCount(BridgeMetricsListener.DIRECTION_INBOUND));
+
+        assertEquals(20, metrics.getInterfaceMetrics(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "b")
+                .getStageHistogram(BridgeMetricsListener.STAGE_EXECUTE).getMaxValue());
+        assertNull(metrics.getInterfaceMetrics(BridgeMetricsListener.TYPE_JS_INTERFACE, "b"));
+
+        Set<String> all = new HashSet<>();
+        for (InterfaceMetrics interfaceMetrics : metrics.getInterfaceMetrics()) {
+            all.add(interfaceMetrics.getType() + interfaceMetrics.getName());
+        }
+        assertEquals(3, all.size());
+        assertTrue(all.contains(BridgeMetricsListener.TYPE_JS_INTERFACE + "a"));
+    }
+
+    @Test
+    public void snapshot_doesNotChange() {
+        BridgeMetrics metrics = new BridgeMetrics();
+        metrics.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.STAGE_PARSE, 5);
+        InterfaceMetrics snapshot = metrics.getInterfaceMetrics(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a");
+        metrics.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.STAGE_PARSE, 50);
+        assertEquals(1, snapshot.getStageHistogram(BridgeMetricsListener.STAGE_PARSE).getTotalCount());
+
+        metrics.reset();
+        assertNull(metrics.getInterfaceMetrics(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a"));
+        assertTrue(metrics.getInterfaceMetrics().isEmpty());
+    }
+
+    @Test
+    public void values_areClampedToHighest() {
+        BridgeMetrics metrics = new BridgeMetrics(1000, 100);
+        metrics.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.STAGE_EXECUTE, 1000000);
+        metrics.onPayload(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a", BridgeMetricsListener.DIRECTION_INBOUND, 1000000);
+        InterfaceMetrics interfaceMetrics = metrics.getInterfaceMetrics(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "a");
+        assertTrue(interfaceMetrics.getStageHistogram(BridgeMetricsListener.STAGE_EXECUTE).getValueAtPercentile(50) <= 1000 + 1000 / 32);
+        assertTrue(interfaceMetrics.getPayloadHistogram(BridgeMetricsListener.DIRECTION_INBOUND).getValueAtPercentile(50) <= 100 + 100 / 32);
+    }
+
+    @Test
+    public void concurrentRecording_countsEveryValue() throws Exception {
+        final BridgeMetrics metrics = new BridgeMetrics();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        metrics.onStage(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "i" + (i % 8), BridgeMetricsListener.STAGE_BIND, i);
+                        metrics.onEvent(BridgeMetricsListener.TYPE_JAVA_INTERFACE, "i" + (i % 8), BridgeMetricsListener.EVENT_DROPPED);
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long count = 0;
+        long dropped = 0;
+        for (InterfaceMetrics interfaceMetrics : metrics.getInterfaceMetrics()) {
+            count += interfaceMetrics.getStageHistogram(BridgeMetricsListener.STAGE_BIND).getTotalCount();
+            dropped += interfaceMetrics.getEventCount(BridgeMetricsListener.EVENT_DROPPED);
+        }
+        assertEquals(40000, count);
+        assertEquals(40000, dropped);
+    }
+}
@@ -0,0 +1,201 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 回调id与发送给js的字符串互相转换，以及{@link BridgeSpan}在收到response、超时、被丢弃和被取消时的记录
+ */
+public class BridgeSpanTest {
+
+    interface IInvokeJS {
+        @InvokeJSInterface("ask")
+        BridgeFuture<JSONObject> ask(@Param("q") String q);
+
+        @InvokeJSInterface(value = "slow", timeout = 100)
+        BridgeFuture<JSONObject> slow();
+    }
+
+    private final InMemoryTransport mTransport = new InMemoryTransport();
+    private final List<BridgeSpan> mSpans = Collections.synchronizedList(new ArrayList<BridgeSpan>());
+
+    private BridgeCore.Builder newBuilder() {
+        return new BridgeCore.Builder()
+                .setTransport(mTransport)
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg");
+    }
+
+    /**
+     * 取出发送给js的request
+     */
+    private List<JSONObject> pollRequests() throws Exception {
+        List<JSONObject> requests = new ArrayList<>();
+        String script;
+        while ((script = mTransport.poll()) != null) {
+            String json = script.substring(script.indexOf('\'') + 1, script.lastIndexOf('\''));
+            requests.add(new JSONObject(json.replace("\\'", "'").replace("\\\\", "\\")));
+        }
+        return requests;
+    }
+
+    private Map<String, BridgeSpan> spansByCallbackId() {
+        Map<String, BridgeSpan> spans = new HashMap<>();
+        synchronized (mSpans) {
+            for (BridgeSpan span : mSpans) {
+                assertNull("重复的span", spans.put(span.getCallbackId(), span));
+            }
+        }
+        return spans;
+    }
+
+    @Test
+    public void callbackId_roundTrips() {
+        Random random = new Random(1);
+        List<Long> ids = new ArrayList<>();
+        for (long id : new long[]{0, 1, 35, 36, 1295, 1296, Integer.MAX_VALUE, 4738381338321616895L}) {
+            ids.add(id);
+        }
+        for (int i = 0; i < 1000; i++) {
+            ids.add(random.nextLong() & 0xFFFFFFFFFFFFL);
+        }
+        for (long id : ids) {
+            String encoded = PendingCallbacks.encodeId(id);
+            assertEquals(encoded, id, PendingCallbacks.decodeId(encoded));
+        }
+        /*36进制的12位是最大长度*/
+        assertEquals("zzzzzzzzzzzz", PendingCallbacks.encodeId(4738381338321616895L));
+
+        for (String invalid : new String[]{null, "", "c_1", "-1", "zzzzzzzzzzzzz"}) {
+            assertEquals(String.valueOf(invalid), -1, PendingCallbacks.decodeId(invalid));
+        }
+    }
+
+    @Test
+    public void span_recordsEachOutcome() throws Exception {
+        BridgeCore bridge = newBuilder()
+                .setMaxPendingCallbacks(3, PendingCallbackOverflowPolicy.REJECT_NEW)
+                .setSpanSink(new BridgeSpanSink() {
+                    @Override
+                    public void onSpan(BridgeSpan span) {
+                        mSpans.add(span);
+                    }
+                })
+                .create();
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+        BridgeFuture<JSONObject> answered = invokeJS.ask("x");
+        BridgeFuture<JSONObject> cancelled = invokeJS.ask("y");
+        invokeJS.slow();
+        BridgeFuture<JSONObject> dropped = invokeJS.ask("overflow");
+        assertTrue(dropped.isDone());
+
+        List<JSONObject> requests = pollRequests();
+        assertEquals(3, requests.size());
+        for (JSONObject request : requests) {
+            /*设置了BridgeSpanSink时请js记录时间*/
+            assertTrue(request.toString(), request.getJSONObject("trace").has("sent"));
+        }
+        String answeredId = requests.get(0).getString("callbackId");
+        String cancelledId = requests.get(1).getString("callbackId");
+        String slowId = requests.get(2).getString("callbackId");
+
+        long received = System.currentTimeMillis();
+        bridge.parseJsonFromJs("niu://receive_msg?{\"responseId\":\"" + answeredId + "\",\"data\":{\"values\":{\"a\":1}},"
+                + "\"trace\":{\"received\":" + received + ",\"responded\":" + (received + 7) + "}}");
+        assertEquals(1, answered.get().getInt("a"));
+        cancelled.cancel(true);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mSpans.size() < 4 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Map<String, BridgeSpan> spans = spansByCallbackId();
+        assertEquals(4, spans.size());
+
+        BridgeSpan span = spans.get(answeredId);
+        assertEquals(BridgeSpan.STATUS_COMPLETED, span.getStatus());
+        assertEquals("ask", span.getInterfaceName());
+        assertTrue(span.getDurationNanos() > 0);
+        assertTrue(span.getQueueNanos() >= 0);
+        assertTrue(span.getEndMillis() >= span.getStartMillis());
+        assertEquals(received, span.getJSReceivedMillis());
+        assertEquals(7, span.getJSHandleMillis());
+
+        assertEquals(BridgeSpan.STATUS_CANCELLED, spans.get(cancelledId).getStatus());
+        assertEquals(-1, spans.get(cancelledId).getJSHandleMillis());
+        assertEquals(BridgeSpan.STATUS_TIMEOUT, spans.get(slowId).getStatus());
+        assertEquals("slow", spans.get(slowId).getInterfaceName());
+
+        /*被丢弃的request没有发送*/
+        spans.keySet().removeAll(Arrays.asList(answeredId, cancelledId, slowId));
+        BridgeSpan droppedSpan = spans.values().iterator().next();
+        assertEquals(BridgeSpan.STATUS_DROPPED, droppedSpan.getStatus());
+        assertEquals(-1, droppedSpan.getQueueNanos());
+
+        /*结束之后再收到response不改变span*/
+        bridge.parseJsonFromJs("niu://receive_msg?{\"responseId\":\"" + cancelledId + "\",\"data\":{}}");
+        assertEquals(4, mSpans.size());
+    }
+
+    @Test
+    public void noSink_doesNotAskJSForTimes() throws Exception {
+        BridgeCore bridge = newBuilder().create();
+        bridge.createInvokJSCommand(IInvokeJS.class).ask("x");
+        List<JSONObject> requests = pollRequests();
+        assertEquals(1, requests.size());
+        assertFalse(requests.get(0).has("trace"));
+    }
+
+    @Test
+    public void trace_checkedOncePerRequest() throws Exception {
+        final List<String> events = new ArrayList<>();
+        final boolean[] enabled = {true};
+        BridgeCore bridge = new BridgeCore(newBuilder(), mTransport, BridgeExecutors.DIRECT) {
+            @Override
+            boolean isTraceEnabled() {
+                events.add("check");
+                return enabled[0];
+            }
+
+            @Override
+            void beginAsyncTraceSection(String sectionName, int cookie) {
+                events.add("begin " + sectionName + " " + cookie);
+            }
+
+            @Override
+            void endAsyncTraceSection(String sectionName, int cookie) {
+                events.add("end " + sectionName + " " + cookie);
+            }
+        };
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+        invokeJS.ask("traced");
+        /*开始时没有记录trace的request结束时不结束section*/
+        enabled[0] = false;
+        invokeJS.ask("untraced");
+        enabled[0] = true;
+
+        List<JSONObject> requests = pollRequests();
+        for (int i = requests.size() - 1; i >= 0; i--) {
+            bridge.parseJsonFromJs("niu://receive_msg?{\"responseId\":\"" + requests.get(i).getString("callbackId") + "\",\"data\":{}}");
+        }
+        long tracedId = PendingCallbacks.decodeId(requests.get(0).getString("callbackId"));
+        assertEquals("[check, begin SimpleJavaJsBridge#ask " + tracedId + ", check, end SimpleJavaJsBridge#ask " + tracedId + "]",
+                events.toString());
+    }
+}
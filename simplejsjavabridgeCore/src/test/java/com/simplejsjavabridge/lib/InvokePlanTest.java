@@ -0,0 +1,162 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.annotation.ParamResponseStatus;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link InvokePlan}的缓存测试，同一个方法重复调用时不能再生成新的{@link Params}，
+ * 以及通过代理调用时使用缓存的{@link InvokePlan}，代理的{@link Object}方法按代理本身响应
+ */
+public class InvokePlanTest {
+
+    interface IInvokeJS {
+        @InvokeJSInterface("exam")
+        void exam(@Param("msg") String msg, @ParamCallback IJavaCallback2JS callback);
+    }
+
+    interface ICallback {
+        void callback(@ParamResponseStatus("status") String status, @Param("content") String content);
+    }
+
+    public static class CallbackInterface {
+        final List<ICallback> callbacks = new ArrayList<>();
+
+        @JavaInterface4JS("hold")
+        public void hold(@ParamCallback ICallback callback) {
+            callbacks.add(callback);
+        }
+    }
+
+    private static BridgeCore newBridge(InMemoryTransport transport, Object javaInterface4JS) {
+        BridgeCore.Builder builder = new BridgeCore.Builder()
+                .setTransport(transport)
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg");
+        if (javaInterface4JS != null) {
+            builder.addJavaInterface4JS(javaInterface4JS);
+        }
+        return builder.create();
+    }
+
+    @Test
+    public void invokeJSMethod_isParsedOnce() throws Exception {
+        Method method = IInvokeJS.class.getDeclaredMethod("exam", String.class, IJavaCallback2JS.class);
+        InvokePlan invokePlan = InvokePlan.obtain(method);
+
+        assertEquals("exam", invokePlan.getJSInterfaceName());
+        assertNotNull(invokePlan.getParams());
+        for (int i = 0; i < 100; i++) {
+            assertSame(invokePlan, InvokePlan.obtain(method));
+            assertSame(invokePlan.getParams(), InvokePlan.obtain(method).getParams());
+        }
+    }
+
+    @Test
+    public void callbackMethod_isParsedOnce() throws Exception {
+        Method method = ICallback.class.getDeclaredMethod("callback", String.class, String.class);
+        Params params = InvokePlan.obtain(method).getParams();
+
+        assertNull(InvokePlan.obtain(method).getJSInterfaceName());
+        for (int i = 0; i < 100; i++) {
+            assertSame(params, InvokePlan.obtain(method).getParams());
+        }
+    }
+
+    @Test
+    public void invokeJSProxy_dispatchesThroughCachedPlan() throws Exception {
+        InMemoryTransport transport = new InMemoryTransport();
+        IInvokeJS invokeJS = newBridge(transport, null).createInvokJSCommand(IInvokeJS.class);
+        Method method = IInvokeJS.class.getDeclaredMethod("exam", String.class, IJavaCallback2JS.class);
+        InvokePlan invokePlan = InvokePlan.obtain(method);
+
+        for (int i = 0; i < 3; i++) {
+            invokeJS.exam("msg" + i, null);
+            String script = transport.poll();
+            assertNotNull(script);
+            assertTrue(script, script.contains("\"handlerName\":\"exam\""));
+            assertTrue(script, script.contains("\"msg\":\"msg" + i + "\""));
+            assertSame(invokePlan, InvokePlan.obtain(method));
+        }
+    }
+
+    @Test
+    public void repeatedProxyCalls_createNoNewParams() {
+        InMemoryTransport transport = new InMemoryTransport();
+        CallbackInterface callbackInterface = new CallbackInterface();
+        BridgeCore bridge = newBridge(transport, callbackInterface);
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+
+        /*第一次调用时解析方法*/
+        invokeJS.exam("msg", null);
+        bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"hold\",\"callbackId\":\"c_0\",\"params\":{}}");
+        callbackInterface.callbacks.get(0).callback("1", "ok");
+        assertEquals(2, transport.size());
+        transport.drain();
+        long createdCount = Params.sCreatedCount.get();
+
+        for (int i = 1; i <= 100; i++) {
+            invokeJS.exam("msg" + i, null);
+            bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"hold\",\"callbackId\":\"c_" + i + "\",\"params\":{}}");
+            callbackInterface.callbacks.get(i).callback("1", "ok" + i);
+            assertEquals(2, transport.size());
+            transport.drain();
+        }
+        assertEquals(createdCount, Params.sCreatedCount.get());
+    }
+
+    @Test
+    public void invokeJSProxy_objectMethodsUseProxyIdentity() {
+        BridgeCore bridge = newBridge(new InMemoryTransport(), null);
+        IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+
+        assertSame(invokeJS, bridge.createInvokJSCommand(IInvokeJS.class));
+        assertTrue(invokeJS.equals(invokeJS));
+        assertFalse(invokeJS.equals(null));
+        assertFalse(invokeJS.equals(newBridge(new InMemoryTransport(), null).createInvokJSCommand(IInvokeJS.class)));
+        assertEquals(System.identityHashCode(invokeJS), invokeJS.hashCode());
+        assertTrue(invokeJS.toString(), invokeJS.toString().startsWith(IInvokeJS.class.getName() + "@"));
+    }
+
+    @Test
+    public void callbackProxy_objectMethodsUseProxyIdentity() {
+        InMemoryTransport transport = new InMemoryTransport();
+        CallbackInterface callbackInterface = new CallbackInterface();
+        BridgeCore bridge = newBridge(transport, callbackInterface);
+        bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"hold\",\"callbackId\":\"c_1\",\"params\":{}}");
+        bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"hold\",\"callbackId\":\"c_2\",\"params\":{}}");
+        assertEquals(2, callbackInterface.callbacks.size());
+        ICallback first = callbackInterface.callbacks.get(0);
+        ICallback second = callbackInterface.callbacks.get(1);
+
+        assertTrue(first.equals(first));
+        assertFalse(first.equals(second));
+        assertEquals(System.identityHashCode(first), first.hashCode());
+        HashSet<ICallback> set = new HashSet<>(callbackInterface.callbacks);
+        assertEquals(2, set.size());
+        assertTrue(set.contains(first));
+        assertTrue(set.remove(second));
+        /*Object方法不能发送数据给js*/
+        assertEquals(0, transport.size());
+
+        first.callback("1", "ok");
+        String script = transport.poll();
+        assertNotNull(script);
+        assertTrue(script, script.contains("\"responseId\":\"c_1\""));
+        assertTrue(script, script.contains("\"content\":\"ok\""));
+    }
+}
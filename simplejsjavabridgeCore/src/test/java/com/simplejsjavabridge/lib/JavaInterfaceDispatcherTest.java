@@ -0,0 +1,340 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.Cacheable;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.annotation.Priority;
+import com.simplejsjavabridge.lib.annotation.SingleFlight;
+import com.simplejsjavabridge.lib.annotation.ThreadMode;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 注解处理器生成的{@link JavaInterfaceDispatcher}和{@link MethodHandler}的反射调用，对相同的参数需要得到相同的参数值，
+ * 参数值不能转化为参数的类型时都不执行方法，给js发送相同的失败状态
+ */
+public class JavaInterfaceDispatcherTest {
+
+    interface IValuesCallback {
+        void callback(@Param("count") int count, @Param("name") String name);
+    }
+
+    /**
+     * 记录方法收到的参数值
+     */
+    public static class RecordingInterface {
+        final List<String> calls = new ArrayList<>();
+    }
+
+    public static class ValuesInterface extends RecordingInterface {
+
+        @JavaInterface4JS("values")
+        public void values(@Param("count") int count, @Param("ratio") double ratio, @Param("vip") boolean vip, @Param("name") String name,
+                           @Param("extra") JSONObject extra, @Param("tags") JSONArray tags, @ParamCallback IValuesCallback callback) {
+            calls.add(count + "," + ratio + "," + vip + "," + name + "," + extra + "," + tags);
+            callback.callback(count, name);
+        }
+    }
+
+    public static class Point {
+        @Param("x")
+        public int x;
+
+        @Override
+        public String toString() {
+            return "Point{" + x + "}";
+        }
+    }
+
+    /**
+     * 其他基本类型以及由{@link ObjectBinder}转化的参数
+     */
+    public static class NumbersInterface extends RecordingInterface {
+
+        @JavaInterface4JS("numbers")
+        public void numbers(@Param("l") long l, @Param("f") float f, @Param("s") short s, @Param("b") byte b, @Param("c") char c,
+                            @Param("point") Point point) {
+            calls.add(l + "," + f + "," + s + "," + b + "," + (int) c + "," + point);
+        }
+    }
+
+    /**
+     * 返回值不能作为response，与没有返回值一样处理
+     */
+    public static class ScalarInterface extends RecordingInterface {
+
+        @JavaInterface4JS("name")
+        public String name(@Param("name") String name) {
+            calls.add(name);
+            return name;
+        }
+
+        @JavaInterface4JS("count")
+        public int count(@Param("count") int count) {
+            calls.add(String.valueOf(count));
+            return count;
+        }
+    }
+
+    /**
+     * 注册信息各不相同的接口
+     */
+    public static class RegistrationInterface {
+
+        @Cacheable(ttl = 5, maxSize = 3)
+        @JavaInterface4JS(value = "cached", thread = ThreadMode.BACKGROUND)
+        public JSONObject cached(@Param("id") String id) {
+            return new JSONObject();
+        }
+
+        @SingleFlight(timeout = 7)
+        @JavaInterface4JS(value = "shared", thread = ThreadMode.SERIAL, priority = Priority.IDLE)
+        public void shared(@ParamCallback IValuesCallback callback) {
+        }
+
+        @JavaInterface4JS(value = "version", sync = true)
+        public JSONObject version() {
+            return new JSONObject();
+        }
+
+        @JavaInterface4JS(value = "later", executor = "io")
+        public BridgeFuture<JSONObject> later() {
+            return null;
+        }
+    }
+
+    /**
+     * 一种调用方式的结果：方法收到的参数值和发送给js的数据
+     */
+    private static class Result {
+        List<String> calls;
+        List<String> scripts;
+    }
+
+    private static Result invoke(JsonCodec codec, boolean generated, String params) throws Exception {
+        return invoke(codec, generated, new ValuesInterface(), "values", params);
+    }
+
+    private static Result invoke(JsonCodec codec, boolean generated, RecordingInterface target, String interfaceName, String params) throws Exception {
+        InMemoryTransport transport = new InMemoryTransport();
+        BridgeCore bridge = new BridgeCore.Builder()
+                .setJsonCodec(codec)
+                .setTransport(transport)
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg")
+                .create();
+        Field contextField = BridgeCore.class.getDeclaredField("mContext");
+        contextField.setAccessible(true);
+        BridgeContext context = (BridgeContext) contextField.get(bridge);
+
+        Method method = null;
+        for (Method declared : target.getClass().getDeclaredMethods()) {
+            if (declared.getName().equals(interfaceName)) {
+                method = declared;
+            }
+        }
+        MethodHandler methodHandler;
+        if (generated) {
+            Class<?> dispatcherClass = Class.forName(target.getClass().getName() + JavaInterfaceDispatcher.CLASS_SUFFIX);
+            JavaInterfaceDispatcher dispatcher = (JavaInterfaceDispatcher) dispatcherClass.getConstructor(target.getClass()).newInstance(target);
+            methodHandler = MethodHandler.createMethodHandler(dispatcher, interfaceName);
+        } else {
+            methodHandler = MethodHandler.createMethodHandler(target, method);
+        }
+
+        String json = "{\"handlerName\":\"" + interfaceName + "\",\"callbackId\":\"c_1\",\"params\":" + params + "}";
+        methodHandler.invoke(RequestResponseBuilder.create(json, 0, context));
+
+        Result result = new Result();
+        result.calls = target.calls;
+        result.scripts = transport.drain();
+        return result;
+    }
+
+    /**
+     * 分别用两种编解码器和两种调用方式执行，方法收到的参数值必须相同
+     *
+     * @param sameScripts 发送给js的数据是否也必须完全相同，json格式错误时不同的解析方式的错误信息不同
+     * @return 所有的结果
+     */
+    private static List<Result> invokeBothPaths(String params, boolean sameScripts) throws Exception {
+        List<Result> results = new ArrayList<>();
+        for (JsonCodec codec : new JsonCodec[]{new OrgJsonCodec(), new StreamingJsonCodec()}) {
+            Result reflective = invoke(codec, false, params);
+            Result generated = invoke(codec, true, params);
+            assertEquals(params, reflective.calls, generated.calls);
+            if (sameScripts) {
+                assertEquals(params, reflective.scripts, generated.scripts);
+            }
+            results.add(reflective);
+            results.add(generated);
+        }
+        for (Result result : results) {
+            assertEquals(params, results.get(0).calls, result.calls);
+        }
+        return results;
+    }
+
+    private static Result invokeBothPaths(String params) throws Exception {
+        return invokeBothPaths(params, true).get(0);
+    }
+
+    private static void assertConvertFailed(String params, boolean sameScripts) throws Exception {
+        for (Result result : invokeBothPaths(params, sameScripts)) {
+            assertTrue(params, result.calls.isEmpty());
+            assertEquals(params, 1, result.scripts.size());
+            String script = result.scripts.get(0);
+            assertTrue(script, script.contains("\"" + BridgeCore.RESPONSE_STATUS_NAME + "\":\"" + BridgeCore.RESPONSE_STATUS_FAILED + "\""));
+            assertTrue(script, script.contains("参数格式错误"));
+        }
+    }
+
+    @Test
+    public void missingValues_useDefaults() throws Exception {
+        Result result = invokeBothPaths("{}");
+        assertEquals(1, result.calls.size());
+        assertEquals("0,0.0,false,null,null,null", result.calls.get(0));
+        assertEquals(1, result.scripts.size());
+    }
+
+    @Test
+    public void nullValues_useDefaults() throws Exception {
+        Result result = invokeBothPaths("{\"count\":null,\"vip\":null,\"name\":null,\"extra\":null}");
+        assertEquals("0,0.0,false,null,null,null", result.calls.get(0));
+    }
+
+    @Test
+    public void convertibleValues_areConverted() throws Exception {
+        Result result = invokeBothPaths("{\"count\":\"12\",\"ratio\":3,\"vip\":\"true\",\"name\":7,\"extra\":{\"a\":1},\"tags\":[1]}");
+        assertEquals("12,3.0,true,7,{\"a\":1},[1]", result.calls.get(0));
+    }
+
+    @Test
+    public void mismatchedValues_failWithoutInvoking() throws Exception {
+        assertConvertFailed("{\"count\":\"abc\"}", true);
+        assertConvertFailed("{\"count\":{\"a\":1}}", true);
+        assertConvertFailed("{\"vip\":1}", true);
+        assertConvertFailed("{\"name\":{\"a\":1}}", true);
+        assertConvertFailed("{\"extra\":[1]}", true);
+        assertConvertFailed("{\"tags\":\"a\"}", true);
+    }
+
+    @Test
+    public void otherTypes_convertedTheSameWay() throws Exception {
+        String params = "{\"l\":\"12345678901\",\"f\":1.5,\"s\":7,\"b\":\"3\",\"c\":65,\"point\":{\"x\":2}}";
+        List<String> expected = null;
+        for (JsonCodec codec : new JsonCodec[]{new OrgJsonCodec(), new StreamingJsonCodec()}) {
+            for (boolean generated : new boolean[]{false, true}) {
+                Result result = invoke(codec, generated, new NumbersInterface(), "numbers", params);
+                if (expected == null) {
+                    expected = result.calls;
+                }
+                assertEquals(expected, result.calls);
+            }
+        }
+        assertEquals("12345678901,1.5,7,3,65,Point{2}", expected.get(0));
+
+        for (boolean generated : new boolean[]{false, true}) {
+            Result result = invoke(new OrgJsonCodec(), generated, new NumbersInterface(), "numbers", "{\"c\":true}");
+            assertTrue(result.calls.isEmpty());
+            assertTrue(result.scripts.get(0), result.scripts.get(0).contains("参数格式错误"));
+        }
+    }
+
+    @Test
+    public void generatedRegistration_matchesAnnotations() throws Exception {
+        Class<?> dispatcherClass = Class.forName(RegistrationInterface.class.getName() + JavaInterfaceDispatcher.CLASS_SUFFIX);
+        JavaInterfaceDispatcher dispatcher = (JavaInterfaceDispatcher) dispatcherClass.getConstructor(RegistrationInterface.class)
+                .newInstance(new RegistrationInterface());
+        JavaInterfaceInfo[] infos = dispatcher.getJavaInterfaces();
+        assertEquals(4, infos.length);
+        for (JavaInterfaceInfo info : infos) {
+            JavaInterfaceInfo expected = null;
+            for (Method method : RegistrationInterface.class.getDeclaredMethods()) {
+                if (method.getName().equals(info.getName())) {
+                    expected = JavaInterfaceInfo.create(method);
+                }
+            }
+            assertNotNull(info.getName(), expected);
+            String name = info.getName();
+            assertEquals(name, expected.getThread(), info.getThread());
+            assertEquals(name, expected.getExecutor(), info.getExecutor());
+            assertEquals(name, expected.isSync(), info.isSync());
+            assertEquals(name, expected.getPriority(), info.getPriority());
+            assertEquals(name, expected.getReturnKind(), info.getReturnKind());
+            assertEquals(name, expected.isCacheable(), info.isCacheable());
+            assertEquals(name, expected.getCacheTtl(), info.getCacheTtl());
+            assertEquals(name, expected.getCacheMaxSize(), info.getCacheMaxSize());
+            assertEquals(name, expected.isSingleFlight(), info.isSingleFlight());
+            assertEquals(name, expected.getSingleFlightTimeout(), info.getSingleFlightTimeout());
+        }
+        assertEquals(JavaInterfaceInfo.RETURN_FUTURE, infos[3].getReturnKind());
+        assertEquals(7, infos[1].getSingleFlightTimeout());
+        assertEquals(3, infos[0].getCacheMaxSize());
+    }
+
+    @Test
+    public void scalarReturnValue_isIgnored() throws Exception {
+        for (JsonCodec codec : new JsonCodec[]{new OrgJsonCodec(), new StreamingJsonCodec()}) {
+            for (boolean generated : new boolean[]{false, true}) {
+                Result name = invoke(codec, generated, new ScalarInterface(), "name", "{\"name\":\"bob\"}");
+                assertEquals(Collections.singletonList("bob"), name.calls);
+                assertTrue(name.scripts.isEmpty());
+                Result count = invoke(codec, generated, new ScalarInterface(), "count", "{\"count\":3}");
+                assertEquals(Collections.singletonList("3"), count.calls);
+                assertTrue(count.scripts.isEmpty());
+            }
+        }
+
+        Class<?> dispatcherClass = Class.forName(ScalarInterface.class.getName() + JavaInterfaceDispatcher.CLASS_SUFFIX);
+        JavaInterfaceDispatcher dispatcher = (JavaInterfaceDispatcher) dispatcherClass.getConstructor(ScalarInterface.class)
+                .newInstance(new ScalarInterface());
+        for (JavaInterfaceInfo info : dispatcher.getJavaInterfaces()) {
+            assertEquals(info.getName(), JavaInterfaceInfo.RETURN_IGNORED, info.getReturnKind());
+        }
+        for (Method method : ScalarInterface.class.getDeclaredMethods()) {
+            assertEquals(method.getName(), JavaInterfaceInfo.RETURN_IGNORED, JavaInterfaceInfo.create(method).getReturnKind());
+        }
+
+        /*注册时不抛出异常，只打印警告*/
+        final List<String> warnings = new ArrayList<>();
+        new BridgeCore.Builder()
+                .setTransport(new InMemoryTransport())
+                .setLogger(new BridgeLogger() {
+                    @Override
+                    public void log(int level, String tag, String message) {
+                        if (level == BridgeLogger.WARN) {
+                            warnings.add(message);
+                        }
+                    }
+
+                    @Override
+                    public void log(int level, String tag, String message, Throwable throwable) {
+                    }
+                })
+                .addJavaInterface4JS(new ScalarInterface())
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg")
+                .create();
+        assertEquals(warnings.toString(), 2, warnings.size());
+    }
+
+    @Test
+    public void malformedParams_failWithoutInvoking() throws Exception {
+        assertConvertFailed("{\"count\":1,}", false);
+    }
+}
@@ -0,0 +1,190 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamResponseStatus;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link OrgJsonCodec}和{@link StreamingJsonCodec}读取、绑定和写出的结果需要一致，写出的json读回来与原来的数据相同
+ */
+public class JsonCodecTest {
+
+    private static final JsonCodec[] CODECS = {new OrgJsonCodec(), new StreamingJsonCodec()};
+
+    private static final String PARAMS = "{\"u\":{\"name\":\"a\\\"b'%\\u4e2d\",\"age\":\"7\",\"score\":1.5,\"vip\":\"TRUE\",\"x\":[1,{\"y\":2}],"
+            + "\"inner\":{\"name\":\"in\",\"inner\":null},\"raw\":[1,\"2\",null]},\"n\":5,\"s\":\"str\",\"o\":{\"k\":[1]},\"missing\":3}";
+
+    public static class User {
+        @Param("name")
+        String name;
+        @Param("age")
+        int age;
+        @Param("score")
+        float score;
+        @Param("vip")
+        boolean vip;
+        @Param("inner")
+        User inner;
+        @Param("raw")
+        JSONArray raw;
+    }
+
+    public static class Result {
+        @ParamResponseStatus("status")
+        int status = 1;
+        @Param("u")
+        User u;
+    }
+
+    interface IInvokeJS {
+        @InvokeJSInterface("toJs")
+        void toJs(@Param("u") User u, @Param("n") int n);
+    }
+
+    public static class UserInterface {
+        final List<String> bound = new ArrayList<>();
+
+        @JavaInterface4JS("bind")
+        public Result bind(@Param("u") User u, @Param("n") int n, @Param("s") String s, @Param("o") JSONObject o, @Param("missing") User missing) {
+            bound.add(u.name + "/" + u.age + "/" + u.score + "/" + u.vip + "/" + u.inner.name + "/" + u.inner.inner + "/" + u.raw
+                    + "/" + n + "/" + s + "/" + o + "/" + missing);
+            Result result = new Result();
+            result.u = u;
+            return result;
+        }
+
+        @JavaInterface4JS(value = "sync", sync = true)
+        public Result sync(@Param("u") User u) {
+            Result result = new Result();
+            result.u = u;
+            return result;
+        }
+    }
+
+    private static String write(JsonCodec codec, Object value) throws Exception {
+        StringBuilder out = new StringBuilder();
+        codec.writeValue(value, out);
+        return out.toString();
+    }
+
+    /**
+     * key按字母排序，不受{@link JSONObject}中key的顺序影响
+     */
+    private static String canonical(String json) throws Exception {
+        return ResultCache.createKey(new JSONObject(json));
+    }
+
+    /**
+     * 从"J.h('...')"中取出json
+     */
+    private static String unwrap(String script) {
+        String json = script.substring(script.indexOf('\'') + 1, script.lastIndexOf('\''));
+        return json.replace("\\x25", "%").replace("\\'", "'").replace("\\\\", "\\");
+    }
+
+    @Test
+    public void writeValue_roundTrips() throws Exception {
+        JSONObject value = new JSONObject(PARAMS);
+        value.put("escapes", "\"\\/\b\f\n\r\t\u0001 ");
+        value.put("long", Long.MAX_VALUE);
+        value.put("double", -0.25D);
+        value.put("bool", false);
+        value.put("null", JSONObject.NULL);
+        for (Object primitive : new Object[]{"text", 1, 2L, 1.5D, true, null, JSONObject.NULL}) {
+            assertEquals(write(CODECS[0], primitive), write(CODECS[1], primitive));
+        }
+        String expected = canonical(value.toString());
+        for (JsonCodec codec : CODECS) {
+            String json = write(codec, value);
+            assertEquals(codec.getClass().getSimpleName(), expected, canonical(json));
+            /*读回来再写一次不变*/
+            assertEquals(json, write(codec, codec.readObject(json, 0)));
+        }
+    }
+
+    @Test
+    public void paramObject_writesSameJson() throws Exception {
+        User user = new User();
+        user.name = "q'\"";
+        user.age = 3;
+        user.inner = new User();
+        user.inner.name = "in";
+        user.raw = new JSONArray().put(1).put("2");
+        String[] json = new String[CODECS.length];
+        for (int i = 0; i < CODECS.length; i++) {
+            json[i] = write(CODECS[i], CODECS[i].toJsonValue(user));
+        }
+        assertEquals(canonical(json[0]), canonical(json[1]));
+        User read = (User) ObjectBinder.obtain(User.class).convertJson2Object(new JSONObject(json[1]));
+        assertEquals(user.name, read.name);
+        assertEquals(3, read.age);
+        assertEquals("in", read.inner.name);
+        assertEquals(user.raw.toString(), read.raw.toString());
+    }
+
+    @Test
+    public void readEnvelope_matches() throws Exception {
+        String source = "niu://m?{\"handlerName\":\"bind\",\"callbackId\":1,\"params\":" + PARAMS + ",\"other\":[{}]}";
+        int offset = "niu://m?".length();
+        String[] names = {"handlerName", "callbackId", "params", "missing"};
+        String[][] values = new String[CODECS.length][names.length];
+        int[][] offsets = new int[CODECS.length][names.length];
+        for (int i = 0; i < CODECS.length; i++) {
+            CODECS[i].readEnvelope(source, offset, names, values[i], offsets[i]);
+        }
+        assertArrayEquals(values[0], values[1]);
+        assertArrayEquals(offsets[0], offsets[1]);
+        assertEquals("bind", values[0][0]);
+        assertEquals("1", values[0][1]);
+        assertEquals(canonical(PARAMS), canonical(CODECS[1].readObject(source, offsets[1][2]).toString()));
+    }
+
+    @Test
+    public void bridge_producesSameOutput() throws Exception {
+        List<List<String>> outputs = new ArrayList<>();
+        List<String> bound = new ArrayList<>();
+        for (JsonCodec codec : CODECS) {
+            InMemoryTransport transport = new InMemoryTransport();
+            UserInterface userInterface = new UserInterface();
+            BridgeCore bridge = new BridgeCore.Builder()
+                    .setTransport(transport)
+                    .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                    .setDispatchExecutor(BridgeExecutors.DIRECT)
+                    .setJsonCodec(codec)
+                    .addJavaInterface4JS(userInterface)
+                    .setJSMethodName4Java("J.h")
+                    .setProtocol("niu", "m")
+                    .create();
+            List<String> output = new ArrayList<>();
+            bridge.parseJsonFromJs("niu://m?{\"handlerName\":\"bind\",\"callbackId\":\"c1\",\"params\":" + PARAMS + "}");
+            output.add(canonical(unwrap(transport.poll())));
+            output.add(canonical(bridge.parseSyncJsonFromJs("niu://m?{\"handlerName\":\"sync\",\"params\":" + PARAMS + "}")));
+
+            User user = new User();
+            user.name = "q";
+            user.age = 1;
+            user.inner = new User();
+            user.inner.name = "in";
+            bridge.createInvokJSCommand(IInvokeJS.class).toJs(user, 2);
+            output.add(canonical(unwrap(transport.poll()).replaceAll("\"callbackId\":\"[^\"]*\",?", "")));
+            assertNull(transport.poll());
+            outputs.add(output);
+            bound.addAll(userInterface.bound);
+        }
+        assertEquals(outputs.get(0), outputs.get(1));
+        assertEquals(2, bound.size());
+        assertEquals(bound.get(0), bound.get(1));
+        assertTrue(bound.get(0), bound.get(0).startsWith("a\"b'%中/7/1.5/true/in/null/[1,\"2\",null]/5/str/"));
+    }
+}
@@ -0,0 +1,160 @@
+package com.simplejsjavabridge.lib;
+
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link LongHashMap}的冲突、删除、扩容测试，以及与{@link PendingCallbacks}一样按分段加锁时的并发访问
+ */
+public class LongHashMapTest {
+
+    /**
+     * 初始容量是16
+     */
+    private static final int MASK = 15;
+
+    private static int index(long key) throws Exception {
+        Method hash = LongHashMap.class.getDeclaredMethod("hash", long.class);
+        hash.setAccessible(true);
+        return (Integer) hash.invoke(null, key) & MASK;
+    }
+
+    /**
+     * 找出count个在初始容量下落在index位置的key
+     */
+    private static List<Long> collidingKeys(int index, int count) throws Exception {
+        List<Long> keys = new ArrayList<>();
+        for (long key = 1; keys.size() < count; key++) {
+            if (index(key) == index) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    @Test
+    public void collisions_areProbedAndRemovedFromMiddleOfChain() throws Exception {
+        LongHashMap<String> map = new LongHashMap<>();
+        List<Long> keys = collidingKeys(3, 5);
+        for (long key : keys) {
+            assertNull(map.put(key, "v" + key));
+        }
+        assertEquals(5, map.size());
+
+        /*删除探测链中间的元素，后面的元素仍然能找到*/
+        assertEquals("v" + keys.get(1), map.remove(keys.get(1)));
+        assertNull(map.get(keys.get(1)));
+        assertNull(map.remove(keys.get(1)));
+        for (int i = 0; i < keys.size(); i++) {
+            if (i != 1) {
+                assertEquals("v" + keys.get(i), map.get(keys.get(i)));
+            }
+        }
+        assertEquals("v" + keys.get(0), map.put(keys.get(0), "new"));
+        assertEquals("new", map.get(keys.get(0)));
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void collisions_wrapAroundEndOfTable() throws Exception {
+        LongHashMap<Long> map = new LongHashMap<>();
+        List<Long> keys = collidingKeys(MASK, 4);
+        List<Long> atStart = collidingKeys(0, 2);
+        for (long key : keys) {
+            map.put(key, key);
+        }
+        for (long key : atStart) {
+            map.put(key, key);
+        }
+        assertEquals(keys.get(0), map.remove(keys.get(0)));
+        assertEquals(keys.get(2), map.remove(keys.get(2)));
+        for (long key : new long[]{keys.get(1), keys.get(3), atStart.get(0), atStart.get(1)}) {
+            assertEquals(Long.valueOf(key), map.get(key));
+        }
+        assertEquals(4, map.size());
+    }
+
+    @Test
+    public void resize_keepsAllEntries() {
+        LongHashMap<Long> map = new LongHashMap<>();
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 20000; i++) {
+            long key = 1 + (random.nextLong() & Long.MAX_VALUE) % 50000;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                assertEquals(expected.put(key, (long) i), map.put(key, (long) i));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (long key = 1; key <= 50000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+        }
+        for (Long key : new ArrayList<>(expected.keySet())) {
+            assertEquals(expected.remove(key), map.remove(key));
+        }
+        assertEquals(0, map.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void put_rejectsNonPositiveKey() {
+        new LongHashMap<String>().put(0, "zero");
+    }
+
+    @Test
+    public void stripedAccess_fromManyThreads() throws Exception {
+        final int stripeCount = 8;
+        final List<LongHashMap<Long>> stripes = new ArrayList<>(stripeCount);
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.add(new LongHashMap<Long>());
+        }
+        final AtomicInteger sequence = new AtomicInteger();
+        final AtomicInteger errors = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 20000; i++) {
+                        long key = sequence.incrementAndGet();
+                        LongHashMap<Long> stripe = stripes.get((int) (key & (stripeCount - 1)));
+                        synchronized (stripe) {
+                            stripe.put(key, key);
+                        }
+                        if (i % 4 != 0) {
+                            synchronized (stripe) {
+                                if (stripe.get(key) == null || stripe.remove(key) != key) {
+                                    errors.incrementAndGet();
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, errors.get());
+        int size = 0;
+        for (LongHashMap<Long> stripe : stripes) {
+            size += stripe.size();
+        }
+        assertEquals(threads.length * 20000 / 4, size);
+        for (long key = 1; key <= sequence.get(); key++) {
+            Long value = stripes.get((int) (key & (stripeCount - 1))).get(key);
+            assertTrue(value == null || value == key);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link MessageReader}的读取结果需要与org.json保持一致，格式错误的params不能用null作为参数值调用接口
+ */
+public class MessageReaderTest {
+
+    public static class EchoInterface {
+        final List<String> messages = new ArrayList<>();
+
+        @JavaInterface4JS("echo")
+        public JSONObject echo(@Param("msg") String msg) throws JSONException {
+            messages.add(msg);
+            return new JSONObject().put("msg", msg);
+        }
+    }
+
+    private static JSONObject read(String json) throws JSONException {
+        return MessageReader.readObject("prefix" + json, "prefix".length());
+    }
+
+    @Test
+    public void escapes_areDecoded() throws Exception {
+        JSONObject object = read("{\"s\":\"a\\\"b\\\\c\\/d\\n\\t\\r\\b\\f\",\"k\\\"ey\":1}");
+        assertEquals("a\"b\\c/d\n\t\r\b\f", object.getString("s"));
+        assertEquals(1, object.getInt("k\"ey"));
+    }
+
+    @Test
+    public void unicode_isDecoded() throws Exception {
+        JSONObject object = read("{\"s\":\"\\u4e2d\\u6587\",\"raw\":\"中文\",\"emoji\":\"\\ud83d\\ude00\"}");
+        assertEquals("中文", object.getString("s"));
+        assertEquals("中文", object.getString("raw"));
+        assertEquals("\ud83d\ude00", object.getString("emoji"));
+    }
+
+    @Test
+    public void numbers_matchOrgJson() throws Exception {
+        JSONObject object = read("{\"i\":2147483647,\"l\":2147483648,\"n\":-9223372036854775808,"
+                + "\"big\":9223372036854775808,\"huge\":-123456789012345678901234567890,\"d\":1.5,\"e\":1e3}");
+        assertEquals(Integer.MAX_VALUE, object.get("i"));
+        assertEquals(2147483648L, object.get("l"));
+        assertEquals(Long.MIN_VALUE, object.get("n"));
+        assertEquals(9223372036854775808D, object.get("big"));
+        assertEquals(-123456789012345678901234567890D, object.get("huge"));
+        assertEquals(1.5D, object.get("d"));
+        assertEquals(1000D, object.get("e"));
+    }
+
+    @Test
+    public void nesting_isRead() throws Exception {
+        JSONObject object = read(" { \"a\" : [ 1 , { \"b\" : [ [ ] , { } , null , true , false ] } ] , \"c\" : { \"d\" : { \"e\" : \"}]\" } } } ");
+        JSONArray a = object.getJSONArray("a");
+        assertEquals(1, a.getInt(0));
+        JSONArray b = a.getJSONObject(1).getJSONArray("b");
+        assertEquals(0, b.getJSONArray(0).length());
+        assertEquals(0, b.getJSONObject(1).length());
+        assertTrue(b.isNull(2));
+        assertTrue(b.getBoolean(3));
+        assertFalse(b.getBoolean(4));
+        assertEquals("}]", object.getJSONObject("c").getJSONObject("d").getString("e"));
+    }
+
+    @Test
+    public void malformedInput_throws() {
+        String[] inputs = {"", "{", "{\"a\"}", "{\"a\":}", "{\"a\" 1}", "{\"a\":1,}", "{\"a\":[1,}", "{\"a\":\"b}",
+                "{\"a\":\"\\u12\"}", "{\"a\":tru}", "{a:1}", "[1]"};
+        for (String input : inputs) {
+            try {
+                read(input);
+                fail("expected JSONException for " + input);
+            } catch (JSONException e) {
+                /*expected*/
+            }
+        }
+    }
+
+    @Test
+    public void malformedParams_failRequestWithoutInvoking() throws Exception {
+        for (JsonCodec codec : new JsonCodec[]{new OrgJsonCodec(), new StreamingJsonCodec()}) {
+            InMemoryTransport transport = new InMemoryTransport();
+            EchoInterface echoInterface = new EchoInterface();
+            BridgeCore bridge = new BridgeCore.Builder()
+                    .setTransport(transport)
+                    .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                    .setDispatchExecutor(BridgeExecutors.DIRECT)
+                    .setJsonCodec(codec)
+                    .addJavaInterface4JS(echoInterface)
+                    .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                    .setProtocol("niu", "receive_msg")
+                    .create();
+
+            bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"echo\",\"callbackId\":\"c_1\",\"params\":{\"msg\":}}");
+            assertTrue(echoInterface.messages.isEmpty());
+            String script = transport.poll();
+            assertNotNull(script);
+            assertTrue(script, script.contains("\"responseId\":\"c_1\""));
+            assertTrue(script, script.contains("\"status\":\"" + BridgeCore.RESPONSE_STATUS_FAILED + "\""));
+
+            bridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"echo\",\"callbackId\":\"c_2\",\"params\":{\"msg\":\"ok\"}}");
+            assertEquals(1, echoInterface.messages.size());
+            assertEquals("ok", echoInterface.messages.get(0));
+            script = transport.poll();
+            assertTrue(script, script.contains("\"responseId\":\"c_2\""));
+            assertFalse(script, script.contains(BridgeCore.RESPONSE_STATUS_FAILED));
+        }
+    }
+}
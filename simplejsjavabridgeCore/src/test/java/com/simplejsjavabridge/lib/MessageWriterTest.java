@@ -0,0 +1,108 @@
+package com.simplejsjavabridge.lib;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link MessageWriter}在每个线程中复用缓冲区，复用时不能残留上一次的数据和转义方式
+ */
+public class MessageWriterTest {
+
+    private static StringBuilder buffer(MessageWriter writer) throws Exception {
+        Field field = MessageWriter.class.getDeclaredField("mBuffer");
+        field.setAccessible(true);
+        return (StringBuilder) field.get(writer);
+    }
+
+    private static char[] repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return chars;
+    }
+
+    @Test
+    public void obtain_reusesWriterAndBufferOfThread() throws Exception {
+        MessageWriter writer = MessageWriter.obtain();
+        StringBuilder buffer = buffer(writer);
+        writer.beginObject().nameValue("a", 1).endObject();
+        assertEquals("{\"a\":1}", writer.toString());
+
+        MessageWriter reused = MessageWriter.obtain();
+        assertSame(writer, reused);
+        assertSame(buffer, buffer(reused));
+        assertEquals("", reused.toString());
+        reused.beginObject().nameValue("b", "c").endObject();
+        assertEquals("{\"b\":\"c\"}", reused.toString());
+    }
+
+    @Test
+    public void obtain_dropsOversizedBuffer() throws Exception {
+        MessageWriter writer = MessageWriter.obtain();
+        writer.beginObject().nameValue("big", new String(repeat('x', 32 * 1024))).endObject();
+        StringBuilder oversized = buffer(writer);
+        assertTrue(oversized.capacity() > 16 * 1024);
+
+        MessageWriter reused = MessageWriter.obtain();
+        assertSame(writer, reused);
+        assertNotSame(oversized, buffer(reused));
+        assertTrue(buffer(reused).capacity() <= 16 * 1024);
+        assertEquals("", reused.toString());
+    }
+
+    @Test
+    public void obtain_resetsEscapeMode() {
+        String json = MessageWriter.obtainJson().beginObject().nameValue("s", "it's 100%").endObject().toString();
+        assertEquals("{\"s\":\"it's 100%\"}", json);
+
+        /*obtainJson之后再obtain，需要恢复js字符串的转义*/
+        String script = MessageWriter.obtain().beginObject().nameValue("s", "it's 100%").endObject().toString();
+        assertEquals("{\"s\":\"it\\'s 100\\x25\"}", script);
+    }
+
+    @Test
+    public void threads_useTheirOwnWriter() throws Exception {
+        final MessageWriter writer = MessageWriter.obtain();
+        writer.appendScript("main");
+        final AtomicReference<MessageWriter> other = new AtomicReference<>();
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                MessageWriter threadWriter = MessageWriter.obtain();
+                threadWriter.appendScript("thread");
+                other.set(threadWriter);
+            }
+        });
+        thread.start();
+        thread.join();
+
+        assertNotSame(writer, other.get());
+        assertEquals("main", writer.toString());
+        assertEquals("thread", other.get().toString());
+    }
+
+    @Test
+    public void escapedScript_decodesToSameJson() throws Exception {
+        String text = "'\"\\/\n\r\t\b\f\u0001%\u2028\u2029中文";
+        JSONObject values = new JSONObject().put("text", text).put("list", new JSONArray().put(1).put(text).put(JSONObject.NULL));
+        String script = MessageWriter.obtain().beginObject().nameValue("values", values).nameValue("n", 1.5).endObject().toString();
+        assertFalse(script, script.replace("\\'", "").contains("'"));
+        assertFalse(script, script.contains("%"));
+        assertFalse(script, script.contains("\u2028") || script.contains("\u2029"));
+
+        /*按js单引号字符串的规则还原*/
+        String json = script.replace("\\x25", "%").replace("\\u2028", "\u2028").replace("\\u2029", "\u2029")
+                .replace("\\'", "'").replace("\\\\", "\\");
+        JSONObject decoded = new JSONObject(json);
+        assertEquals(text, decoded.getJSONObject("values").getString("text"));
+        assertEquals(text, decoded.getJSONObject("values").getJSONArray("list").getString(1));
+        assertTrue(decoded.getJSONObject("values").getJSONArray("list").isNull(2));
+        assertEquals(1.5D, decoded.getDouble("n"), 0D);
+    }
+}
@@ -0,0 +1,63 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.JavaCallback4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.exception.SimpleJSBridgeException;
+
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+
+import static org.junit.Assert.*;
+
+/**
+ * 回调类中{@link JavaCallback4JS}方法的解析测试
+ */
+public class MethodHandlerTest {
+
+    private static IJavaCallback2JS newCallback() {
+        return new IJavaCallback2JS() {
+            @JavaCallback4JS
+            public void callback(@Param("msg") String msg) {
+            }
+        };
+    }
+
+    private static Object read(MethodHandler methodHandler, String fieldName) throws Exception {
+        Field field = MethodHandler.class.getDeclaredField(fieldName);
+        field.setAccessible(true);
+        return field.get(methodHandler);
+    }
+
+    @Test
+    public void callbackMethod_isResolvedOncePerClass() throws Exception {
+        MethodHandler first = MethodHandler.createCallbackMethodHandler(newCallback());
+        for (int i = 0; i < 100; i++) {
+            MethodHandler methodHandler = MethodHandler.createCallbackMethodHandler(newCallback());
+            assertNotSame(first, methodHandler);
+            assertSame(read(first, "mMethod"), read(methodHandler, "mMethod"));
+            assertSame(read(first, "mParams"), read(methodHandler, "mParams"));
+        }
+    }
+
+    @Test(expected = SimpleJSBridgeException.class)
+    public void callbackWithoutMethod_failsFast() {
+        MethodHandler.createCallbackMethodHandler(new IJavaCallback2JS() {
+            public void callback(@Param("msg") String msg) {
+            }
+        });
+    }
+
+    @Test(expected = SimpleJSBridgeException.class)
+    public void callbackWithTwoMethods_failsFast() {
+        MethodHandler.createCallbackMethodHandler(new IJavaCallback2JS() {
+            @JavaCallback4JS
+            public void success(@Param("msg") String msg) {
+            }
+
+            @JavaCallback4JS
+            public void fail(@Param("msg") String msg) {
+            }
+        });
+    }
+}
@@ -0,0 +1,116 @@
+package com.simplejsjavabridge.lib;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link MetricsHistogram}的格子边界和分位数，64以下的值是精确的，更大的值相对误差不超过1/32
+ */
+public class MetricsHistogramTest {
+
+    private static MetricsHistogram record(long... values) {
+        MetricsHistogram histogram = new MetricsHistogram(1000000);
+        for (long value : values) {
+            histogram.recordValue(value);
+        }
+        return histogram;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void highestTrackableValue_mustCoverFirstBucket() {
+        new MetricsHistogram(63);
+    }
+
+    @Test
+    public void smallValues_areExact() {
+        for (long value = 0; value < 64; value++) {
+            MetricsHistogram histogram = record(value, 1000);
+            assertEquals(value, histogram.getValueAtPercentile(50));
+        }
+    }
+
+    @Test
+    public void bucketBoundaries() {
+        /*64开始每个格子宽度为2，128开始宽度为4*/
+        assertEquals(63, record(63, 1000).getValueAtPercentile(50));
+        assertEquals(65, record(64, 1000).getValueAtPercentile(50));
+        assertEquals(65, record(65, 1000).getValueAtPercentile(50));
+        assertEquals(67, record(66, 1000).getValueAtPercentile(50));
+        assertEquals(127, record(126, 1000).getValueAtPercentile(50));
+        assertEquals(131, record(128, 1000).getValueAtPercentile(50));
+        assertEquals(131, record(131, 1000).getValueAtPercentile(50));
+        assertEquals(135, record(132, 1000).getValueAtPercentile(50));
+        /*不超过记录过的最大值*/
+        assertEquals(64, record(64).getValueAtPercentile(100));
+    }
+
+    @Test
+    public void percentiles_withinRelativeError() {
+        Random random = new Random(1);
+        long[] values = new long[10000];
+        MetricsHistogram histogram = new MetricsHistogram(1L << 40);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (long) (Math.exp(random.nextDouble() * 25));
+            histogram.recordValue(values[i]);
+        }
+        Arrays.sort(values);
+        for (double percentile : new double[]{0, 1, 25, 50, 90, 99, 99.9, 100}) {
+            long expected = values[Math.max(0, (int) Math.ceil(percentile / 100 * values.length) - 1)];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + ": " + actual + " < " + expected, actual >= expected);
+            assertTrue(percentile + ": " + actual + " > " + expected, actual <= expected + expected / 32);
+        }
+        assertEquals(values[0], histogram.getMinValue());
+        assertEquals(values[values.length - 1], histogram.getMaxValue());
+        assertEquals(values.length, histogram.getTotalCount());
+    }
+
+    @Test
+    public void percentiles_ofSequence() {
+        MetricsHistogram histogram = new MetricsHistogram(1000);
+        for (long value = 1; value <= 100; value++) {
+            histogram.recordValue(value);
+        }
+        assertEquals(1, histogram.getValueAtPercentile(0));
+        assertEquals(50, histogram.getValueAtPercentile(50));
+        assertEquals(63, histogram.getValueAtPercentile(63));
+        assertEquals(99, histogram.getValueAtPercentile(99));
+        assertEquals(100, histogram.getValueAtPercentile(100));
+        assertEquals(100, histogram.getValueAtPercentile(200));
+        assertEquals(50.5D, histogram.getMean(), 0D);
+    }
+
+    @Test
+    public void outOfRangeValues_areClamped() {
+        MetricsHistogram histogram = new MetricsHistogram(1000);
+        histogram.recordValue(-5);
+        histogram.recordValue(5000);
+        assertEquals(0, histogram.getMinValue());
+        assertEquals(5000, histogram.getMaxValue());
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        /*超过最大值的按最大值所在的格子记录*/
+        long p100 = histogram.getValueAtPercentile(100);
+        assertTrue(String.valueOf(p100), p100 >= 1000 && p100 <= 1000 + 1000 / 32);
+    }
+
+    @Test
+    public void copyAndReset() {
+        MetricsHistogram histogram = record(1, 2, 3);
+        MetricsHistogram copy = histogram.copy();
+        histogram.reset();
+        histogram.recordValue(10);
+        assertEquals(3, copy.getTotalCount());
+        assertEquals(3, copy.getMaxValue());
+        assertEquals(1, histogram.getTotalCount());
+        assertEquals(10, histogram.getMinValue());
+
+        MetricsHistogram empty = new MetricsHistogram(1000);
+        assertEquals(0, empty.getMinValue());
+        assertEquals(0, empty.getValueAtPercentile(99));
+        assertEquals(0D, empty.getMean(), 0D);
+    }
+}
@@ -0,0 +1,179 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
+import com.simplejsjavabridge.lib.annotation.JavaCallback4JS;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * 同一个进程中同时运行多个{@link BridgeCore}，每个实例使用不同的协议，
+ * 检查request、response和回调不会串到其他实例。
+ * 实例数增加时的吞吐量依赖运行时间，不适合在单元测试中断言，由simplejsjavabridgeBenchmark模块的MultiBridgeBenchmark测量
+ */
+public class MultiBridgeStressTest {
+
+    private static final int ROUNDS = 2000;
+
+    private static final Executor DIRECT = new Executor() {
+        @Override
+        public void execute(Runnable command) {
+            command.run();
+        }
+    };
+
+    interface IEchoCallback {
+        void echo(@Param("bridge") int bridge, @Param("seq") int seq);
+    }
+
+    interface IInvokeJS {
+        @InvokeJSInterface(value = "ping", timeout = 0)
+        void ping(@Param("seq") int seq, @ParamCallback IJavaCallback2JS callback);
+    }
+
+    public static class EchoInterface {
+        private final int mBridgeIndex;
+
+        EchoInterface(int bridgeIndex) {
+            mBridgeIndex = bridgeIndex;
+        }
+
+        @JavaInterface4JS("echo")
+        public void echo(@Param("seq") int seq, @ParamCallback IEchoCallback callback) {
+            callback.echo(mBridgeIndex, seq);
+        }
+    }
+
+    /**
+     * 一个实例和它对应的"js"
+     */
+    private static class BridgeRunner implements Runnable {
+        final int index;
+        final InMemoryTransport transport = new InMemoryTransport();
+        final BridgeCore bridge;
+        final String protocol;
+        final String interfaceKey;
+        final String callbackIdKey;
+        final String responseIdKey;
+        final AtomicInteger callbacks = new AtomicInteger();
+        final AtomicReference<String> error = new AtomicReference<>();
+
+        BridgeRunner(int index) {
+            this.index = index;
+            protocol = "bridge" + index + "://receive?";
+            /*每个实例使用不同的key名字，协议串了就会解析失败*/
+            interfaceKey = "handler" + index;
+            callbackIdKey = "callback" + index;
+            responseIdKey = "response" + index;
+            bridge = new BridgeCore.Builder()
+                    .setTransport(transport)
+                    .setMainThreadExecutor(DIRECT)
+                    .setDispatchExecutor(DIRECT)
+                    .setRequestInterfaceName(interfaceKey)
+                    .setRequestCallbackIdName(callbackIdKey)
+                    .setResponseIdName(responseIdKey)
+                    .addJavaInterface4JS(new EchoInterface(index))
+                    .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                    .setProtocol("bridge" + index, "receive")
+                    .create();
+        }
+
+        @Override
+        public void run() {
+            try {
+                IInvokeJS invokeJS = bridge.createInvokJSCommand(IInvokeJS.class);
+                for (int seq = 0; seq < ROUNDS; seq++) {
+                    /*js调用java*/
+                    bridge.parseJsonFromJs(protocol + "{\"" + interfaceKey + "\":\"echo\",\"" + callbackIdKey + "\":\"js" + seq + "\",\"params\":{\"seq\":" + seq + "}}");
+                    JSONObject response = readMessage();
+                    assertEquals("js" + seq, response.getString(responseIdKey));
+                    JSONObject values = response.getJSONObject("data").getJSONObject("values");
+                    assertEquals(index, values.getInt("bridge"));
+                    assertEquals(seq, values.getInt("seq"));
+
+                    /*java调用js，js进行响应*/
+                    final int expectedSeq = seq;
+                    invokeJS.ping(seq, new IJavaCallback2JS() {
+                        @JavaCallback4JS
+                        public void callback(@Param("seq") int seq, @Param("bridge") int bridgeIndex) {
+                            if (seq != expectedSeq || bridgeIndex != index) {
+                                error.compareAndSet(null, "bridge " + index + " got callback " + bridgeIndex + "/" + seq);
+                            }
+                            callbacks.incrementAndGet();
+                        }
+                    });
+                    JSONObject request = readMessage();
+                    assertEquals("ping", request.getString(interfaceKey));
+                    String callbackId = request.getString(callbackIdKey);
+                    bridge.parseJsonFromJs(protocol + "{\"" + responseIdKey + "\":\"" + callbackId + "\",\"data\":{\"values\":{\"seq\":" + seq + ",\"bridge\":" + index + "}}}");
+                }
+            } catch (Throwable e) {
+                error.compareAndSet(null, "bridge " + index + ": " + e);
+            }
+        }
+
+        /**
+         * 从"_JSNativeBridge._handleMessageFromNative('...')"中取出json
+         */
+        private JSONObject readMessage() throws Exception {
+            String script = transport.poll();
+            assertNotNull(script);
+            String json = script.substring(script.indexOf('\'') + 1, script.lastIndexOf('\''));
+            return new JSONObject(json.replace("\\'", "'").replace("\\\\", "\\"));
+        }
+    }
+
+    private void runBridges(int bridgeCount) throws Exception {
+        final List<BridgeRunner> runners = new ArrayList<>();
+        for (int i = 0; i < bridgeCount; i++) {
+            runners.add(new BridgeRunner(i));
+        }
+        final CountDownLatch start = new CountDownLatch(1);
+        final CountDownLatch done = new CountDownLatch(bridgeCount);
+        for (final BridgeRunner runner : runners) {
+            new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        runner.run();
+                    } catch (InterruptedException e) {
+                        runner.error.compareAndSet(null, e.toString());
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }).start();
+        }
+        start.countDown();
+        done.await();
+
+        for (BridgeRunner runner : runners) {
+            String error = runner.error.get();
+            assertNull("实例" + runner.index + "出错: " + error, error);
+            assertEquals(ROUNDS, runner.callbacks.get());
+            assertEquals(0, runner.transport.size());
+        }
+    }
+
+    @Test
+    public void multipleBridges_noCrossTalk() throws Exception {
+        runBridges(1);
+        runBridges(2);
+        runBridges(4);
+        runBridges(8);
+    }
+}
@@ -0,0 +1,226 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.OverflowPolicy;
+import com.simplejsjavabridge.lib.annotation.Priority;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link OutboundQueue}的上限、每种{@link OverflowPolicy}、优先级以及暂停和恢复
+ */
+public class OutboundQueueTest {
+
+    private final List<Long> mDropped = new ArrayList<>();
+
+    private OutboundQueue newQueue(int capacity, long blockTimeoutMillis) {
+        return new OutboundQueue(capacity, blockTimeoutMillis, new OutboundQueue.OnDropListener() {
+            @Override
+            public void onDrop(long callbackId) {
+                synchronized (mDropped) {
+                    mDropped.add(callbackId);
+                }
+            }
+        });
+    }
+
+    private static int offer(OutboundQueue queue, String message, OverflowPolicy policy, long callbackId) {
+        return queue.offer(message, Priority.NORMAL, policy, "exam", callbackId, false, null);
+    }
+
+    private static String messages(List<OutboundQueue.Entry> entries) {
+        StringBuilder builder = new StringBuilder();
+        for (OutboundQueue.Entry entry : entries) {
+            builder.append(entry.message);
+        }
+        return builder.toString();
+    }
+
+    @Test
+    public void defaultPolicy_doesNotBlock() {
+        assertEquals(OverflowPolicy.DROP_OLDEST, new RequestResponseBuilder(true).getOverflowPolicy());
+        RequestResponseBuilder request = new RequestResponseBuilder(true);
+        request.setOverflowPolicy(null);
+        assertEquals(OverflowPolicy.DROP_OLDEST, request.getOverflowPolicy());
+    }
+
+    @Test
+    public void offer_schedulesEachLaneOnce() {
+        OutboundQueue queue = newQueue(10, 0);
+        assertEquals(OutboundQueue.LANE_NORMAL, offer(queue, "a", OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(0, offer(queue, "b", OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(OutboundQueue.LANE_IMMEDIATE, queue.offer("c", Priority.IMMEDIATE, OverflowPolicy.DROP_OLDEST, null, 0, false, null));
+        assertEquals(OutboundQueue.LANE_IDLE, queue.offer("d", Priority.IDLE, OverflowPolicy.DROP_OLDEST, null, 0, false, null));
+
+        /*普通的发送不取出IDLE的数据*/
+        assertEquals("cab", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+        assertEquals("d", messages(queue.drain(OutboundQueue.LANE_IDLE)));
+        assertEquals(OutboundQueue.LANE_NORMAL, offer(queue, "e", OverflowPolicy.DROP_OLDEST, 0));
+    }
+
+    @Test
+    public void dropOldest_dropsLowestPriorityFirst() {
+        OutboundQueue queue = newQueue(3, 0);
+        queue.offer("i", Priority.IMMEDIATE, OverflowPolicy.DROP_OLDEST, null, 1, false, null);
+        offer(queue, "a", OverflowPolicy.DROP_OLDEST, 2);
+        offer(queue, "b", OverflowPolicy.DROP_OLDEST, 3);
+        offer(queue, "c", OverflowPolicy.DROP_OLDEST, 4);
+        assertEquals("[2]", mDropped.toString());
+
+        /*队列中没有优先级不高于新数据的数据时丢弃新的数据*/
+        OutboundQueue immediate = newQueue(1, 0);
+        immediate.offer("i", Priority.IMMEDIATE, OverflowPolicy.DROP_OLDEST, null, 5, false, null);
+        offer(immediate, "a", OverflowPolicy.DROP_OLDEST, 6);
+        assertEquals("[2, 6]", mDropped.toString());
+
+        assertEquals("ibc", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+        assertEquals(1, queue.getStats().getDroppedOldestCount());
+    }
+
+    @Test
+    public void dropNewest_keepsQueuedData() {
+        OutboundQueue queue = newQueue(2, 0);
+        offer(queue, "a", OverflowPolicy.DROP_NEWEST, 1);
+        offer(queue, "b", OverflowPolicy.DROP_NEWEST, 2);
+        offer(queue, "c", OverflowPolicy.DROP_NEWEST, 3);
+        assertEquals("[3]", mDropped.toString());
+        assertEquals("ab", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+        assertEquals(1, queue.getStats().getDroppedNewestCount());
+    }
+
+    @Test
+    public void latestWins_replacesInPlace() {
+        OutboundQueue queue = newQueue(2, 0);
+        queue.offer("a", Priority.NORMAL, OverflowPolicy.DROP_OLDEST, "other", 1, false, null);
+        queue.offer("b1", Priority.NORMAL, OverflowPolicy.LATEST_WINS, "location", 2, false, null);
+        queue.offer("b2", Priority.NORMAL, OverflowPolicy.LATEST_WINS, "location", 3, false, null);
+        assertEquals("[2]", mDropped.toString());
+        assertEquals(2, queue.getStats().getDepth());
+        assertEquals(1, queue.getStats().getCoalescedCount());
+
+        /*没有可以替换的数据时丢弃最早的数据*/
+        queue.offer("c", Priority.NORMAL, OverflowPolicy.LATEST_WINS, "progress", 4, false, null);
+        assertEquals("[2, 1]", mDropped.toString());
+        assertEquals("b2c", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+
+        /*发送之后不再替换*/
+        queue.offer("b3", Priority.NORMAL, OverflowPolicy.LATEST_WINS, "location", 5, false, null);
+        assertEquals("b3", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+    }
+
+    @Test
+    public void block_rejectsWhenCannotBlock() {
+        OutboundQueue queue = newQueue(1, 10000);
+        offer(queue, "a", OverflowPolicy.BLOCK, 1);
+        long start = System.currentTimeMillis();
+        offer(queue, "b", OverflowPolicy.BLOCK, 2);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals("[2]", mDropped.toString());
+        assertEquals(0, queue.getStats().getBlockedCount());
+        assertEquals("a", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+    }
+
+    @Test
+    public void block_neverWaitsWhilePaused() {
+        OutboundQueue queue = newQueue(1, 10000);
+        queue.pause(OutboundQueue.PAUSE_BY_USER);
+        offer(queue, "a", OverflowPolicy.BLOCK, 1);
+        long start = System.currentTimeMillis();
+        queue.offer("b", Priority.NORMAL, OverflowPolicy.BLOCK, null, 2, true, null);
+        assertTrue(System.currentTimeMillis() - start < 5000);
+        assertEquals("[2]", mDropped.toString());
+    }
+
+    @Test
+    public void block_rejectsAfterTimeout() {
+        OutboundQueue queue = newQueue(1, 50);
+        offer(queue, "a", OverflowPolicy.BLOCK, 1);
+        queue.offer("b", Priority.NORMAL, OverflowPolicy.BLOCK, null, 2, true, null);
+        assertEquals("[2]", mDropped.toString());
+        assertEquals(1, queue.getStats().getBlockedCount());
+        assertEquals(1, queue.getStats().getDepth());
+    }
+
+    @Test
+    public void block_waitsForDrain() throws Exception {
+        final OutboundQueue queue = newQueue(1, 10000);
+        offer(queue, "a", OverflowPolicy.BLOCK, 1);
+        final AtomicInteger lanes = new AtomicInteger(-1);
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                lanes.set(queue.offer("b", Priority.NORMAL, OverflowPolicy.BLOCK, null, 2, true, null));
+            }
+        });
+        sender.start();
+        while (queue.getStats().getBlockedCount() == 0) {
+            Thread.sleep(1);
+        }
+        assertEquals("a", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+        sender.join(5000);
+        assertFalse(sender.isAlive());
+        assertEquals(OutboundQueue.LANE_NORMAL, lanes.get());
+        assertTrue(mDropped.isEmpty());
+        assertEquals("b", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+    }
+
+    @Test
+    public void block_pauseWakesWaiter() throws Exception {
+        final OutboundQueue queue = newQueue(1, 10000);
+        offer(queue, "a", OverflowPolicy.BLOCK, 1);
+        Thread sender = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                queue.offer("b", Priority.NORMAL, OverflowPolicy.BLOCK, null, 2, true, null);
+            }
+        });
+        sender.start();
+        while (queue.getStats().getBlockedCount() == 0) {
+            Thread.sleep(1);
+        }
+        queue.pause(OutboundQueue.PAUSE_BY_DETACHED);
+        sender.join(5000);
+        assertFalse(sender.isAlive());
+        assertEquals("[2]", mDropped.toString());
+    }
+
+    @Test
+    public void pauseAndResume_holdDataUntilAllReasonsRemoved() {
+        OutboundQueue queue = newQueue(10, 0);
+        queue.pause(OutboundQueue.PAUSE_BY_USER);
+        queue.pause(OutboundQueue.PAUSE_BY_DETACHED);
+        assertTrue(queue.isPaused());
+        assertEquals(0, offer(queue, "a", OverflowPolicy.DROP_OLDEST, 0));
+        assertEquals(0, queue.offer("b", Priority.IDLE, OverflowPolicy.DROP_OLDEST, null, 0, false, null));
+        assertTrue(queue.drain(OutboundQueue.LANE_IDLE).isEmpty());
+
+        assertEquals(0, queue.resume(OutboundQueue.PAUSE_BY_USER));
+        assertTrue(queue.isPaused());
+        assertEquals(OutboundQueue.LANE_NORMAL | OutboundQueue.LANE_IDLE, queue.resume(OutboundQueue.PAUSE_BY_DETACHED));
+        assertFalse(queue.isPaused());
+        assertEquals("ab", messages(queue.drain(OutboundQueue.LANE_IDLE)));
+        assertEquals(2, queue.getStats().getSentCount());
+    }
+
+    @Test
+    public void capacity_countsQueuedData() {
+        OutboundQueue queue = newQueue(3, 0);
+        for (int i = 0; i < 5; i++) {
+            offer(queue, String.valueOf(i), OverflowPolicy.DROP_OLDEST, 0);
+        }
+        OutboundQueueStats stats = queue.getStats();
+        assertEquals(3, stats.getDepth());
+        assertEquals(3, stats.getMaxDepth());
+        assertEquals(3, stats.getCapacity());
+        assertEquals(5, stats.getEnqueuedCount());
+        /*不需要响应的数据被丢弃时不通知*/
+        assertTrue(mDropped.isEmpty());
+        assertEquals("234", messages(queue.drain(OutboundQueue.LANE_NORMAL)));
+        assertEquals(0, queue.getStats().getDepth());
+    }
+}
@@ -0,0 +1,198 @@
+package com.simplejsjavabridge.lib;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link PendingCallbacks}的时间轮超时和数量上限测试，超时通过直接调用{@link PendingCallbacks#tick(long)}触发，不依赖真实的时间
+ */
+public class PendingCallbacksTest {
+
+    private ScheduledExecutorService mTimer;
+    private final List<PendingCallbacks.Entry> mEvicted = new ArrayList<>();
+    private final List<Integer> mReasons = new ArrayList<>();
+
+    private final PendingCallbacks.OnEvictListener mOnEvictListener = new PendingCallbacks.OnEvictListener() {
+        @Override
+        public void onEvict(PendingCallbacks.Entry entry, int reason) {
+            synchronized (mEvicted) {
+                mEvicted.add(entry);
+                mReasons.add(reason);
+            }
+        }
+    };
+
+    @Before
+    public void setUp() {
+        mTimer = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        mTimer.shutdownNow();
+    }
+
+    private PendingCallbacks newCallbacks(int maxSize, PendingCallbackOverflowPolicy overflowPolicy) {
+        return new PendingCallbacks(maxSize, overflowPolicy, mTimer, mOnEvictListener);
+    }
+
+    private static Object tickFuture(PendingCallbacks callbacks) throws Exception {
+        Field field = PendingCallbacks.class.getDeclaredField("mTickFuture");
+        field.setAccessible(true);
+        synchronized (callbacks) {
+            return field.get(callbacks);
+        }
+    }
+
+    @Test
+    public void id_roundTrips() {
+        PendingCallbacks callbacks = newCallbacks(10, PendingCallbackOverflowPolicy.EVICT_OLDEST);
+        long previous = 0;
+        for (int i = 0; i < 100; i++) {
+            long id = callbacks.nextId();
+            assertTrue(id > previous);
+            previous = id;
+            assertEquals(id, PendingCallbacks.decodeId(PendingCallbacks.encodeId(id)));
+        }
+        assertEquals(-1, PendingCallbacks.decodeId(null));
+        assertEquals(-1, PendingCallbacks.decodeId(""));
+        assertEquals(-1, PendingCallbacks.decodeId("c_1"));
+        assertEquals(-1, PendingCallbacks.decodeId("1234567890abc"));
+        assertNull(callbacks.remove(-1));
+    }
+
+    @Test
+    public void timeout_expiresOnlyDueEntries() throws Exception {
+        PendingCallbacks callbacks = newCallbacks(10, PendingCallbackOverflowPolicy.EVICT_OLDEST);
+        long now = callbacks.nowMillis();
+        long short1 = callbacks.nextId();
+        long long1 = callbacks.nextId();
+        long forever = callbacks.nextId();
+        assertTrue(callbacks.add(short1, null, "short", null, 1000));
+        assertTrue(callbacks.add(long1, null, "long", null, 5000));
+        assertTrue(callbacks.add(forever, null, "forever", null, 0));
+        assertNotNull(tickFuture(callbacks));
+
+        callbacks.tick(now + 500);
+        assertTrue(mEvicted.isEmpty());
+
+        callbacks.tick(now + 1000 + 2 * PendingCallbacks.TICK_MILLIS);
+        assertEquals(1, mEvicted.size());
+        assertEquals(short1, mEvicted.get(0).callbackId);
+        assertEquals("short", mEvicted.get(0).interfaceName);
+        assertEquals(PendingCallbacks.REASON_TIMEOUT, (int) mReasons.get(0));
+        assertEquals(2, callbacks.size());
+        assertNull(callbacks.remove(short1));
+
+        callbacks.tick(now + 5000 + 2 * PendingCallbacks.TICK_MILLIS);
+        assertEquals(2, mEvicted.size());
+        assertEquals(long1, mEvicted.get(1).callbackId);
+        assertEquals(1, callbacks.size());
+        /*没有等待超时的回调方法时停止定时任务*/
+        assertNull(tickFuture(callbacks));
+
+        assertEquals("forever", callbacks.remove(forever).interfaceName);
+        assertEquals(0, callbacks.size());
+    }
+
+    @Test
+    public void removedEntry_doesNotExpire() throws Exception {
+        PendingCallbacks callbacks = newCallbacks(10, PendingCallbackOverflowPolicy.EVICT_OLDEST);
+        long now = callbacks.nowMillis();
+        long id = callbacks.nextId();
+        callbacks.add(id, null, "exam", null, 1000);
+
+        assertEquals(id, callbacks.remove(id).callbackId);
+        assertNull(callbacks.remove(id));
+        callbacks.tick(now + 10000);
+        assertTrue(mEvicted.isEmpty());
+        assertEquals(0, callbacks.size());
+        assertNull(tickFuture(callbacks));
+    }
+
+    @Test
+    public void tickFarBehind_expiresEachEntryOnce() {
+        PendingCallbacks callbacks = newCallbacks(1000, PendingCallbackOverflowPolicy.EVICT_OLDEST);
+        long now = callbacks.nowMillis();
+        for (int i = 0; i < 100; i++) {
+            /*超时时间分布在时间轮的不同的桶中，也包括超过一圈的*/
+            callbacks.add(callbacks.nextId(), null, "exam", null, 1000 + i * 1000);
+        }
+        callbacks.tick(now + 200 * 1000);
+        assertEquals(100, mEvicted.size());
+        assertEquals(0, callbacks.size());
+        callbacks.tick(now + 400 * 1000);
+        assertEquals(100, mEvicted.size());
+    }
+
+    @Test
+    public void overflow_evictsOldest() {
+        PendingCallbacks callbacks = newCallbacks(3, PendingCallbackOverflowPolicy.EVICT_OLDEST);
+        long[] ids = new long[5];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = callbacks.nextId();
+            assertTrue(callbacks.add(ids[i], null, "exam" + i, null, 0));
+        }
+        assertEquals(3, callbacks.size());
+        assertEquals(2, mEvicted.size());
+        assertEquals(ids[0], mEvicted.get(0).callbackId);
+        assertEquals(ids[1], mEvicted.get(1).callbackId);
+        assertEquals(PendingCallbacks.REASON_OVERFLOW, (int) mReasons.get(0));
+        assertNull(callbacks.remove(ids[0]));
+        assertNotNull(callbacks.remove(ids[4]));
+    }
+
+    @Test
+    public void overflow_rejectsNew() {
+        PendingCallbacks callbacks = newCallbacks(2, PendingCallbackOverflowPolicy.REJECT_NEW);
+        long first = callbacks.nextId();
+        long second = callbacks.nextId();
+        assertTrue(callbacks.add(first, null, "exam", null, 0));
+        assertTrue(callbacks.add(second, null, "exam", null, 0));
+        assertFalse(callbacks.add(callbacks.nextId(), null, "exam", null, 0));
+        assertEquals(2, callbacks.size());
+        assertTrue(mEvicted.isEmpty());
+
+        callbacks.remove(first);
+        assertTrue(callbacks.add(callbacks.nextId(), null, "exam", null, 0));
+        assertEquals(2, callbacks.size());
+    }
+
+    @Test
+    public void concurrentAddAndRemove_keepsSizeConsistent() throws Exception {
+        final PendingCallbacks callbacks = newCallbacks(Integer.MAX_VALUE, PendingCallbackOverflowPolicy.EVICT_OLDEST);
+        final AtomicInteger missing = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        long id = callbacks.nextId();
+                        callbacks.add(id, null, "exam", null, i % 2 == 0 ? 60000 : 0);
+                        if (callbacks.remove(id) == null) {
+                            missing.incrementAndGet();
+                        }
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(0, missing.get());
+        assertEquals(0, callbacks.size());
+        assertTrue(mEvicted.isEmpty());
+    }
+}
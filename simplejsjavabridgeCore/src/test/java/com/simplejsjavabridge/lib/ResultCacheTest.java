@@ -0,0 +1,135 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.Cacheable;
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link ResultCache}的有效时间、执行期间被清除、按最近使用移除，以及同步接口的缓存
+ */
+public class ResultCacheTest {
+
+    public static class UserInterface {
+        BridgeCore bridge;
+        int invokeCount;
+        boolean invalidate;
+
+        @Cacheable
+        @JavaInterface4JS(value = "getUser", sync = true)
+        public JSONObject getUser(@Param("uid") String uid) throws Exception {
+            invokeCount++;
+            if (invalidate) {
+                /*执行期间用户信息被修改了*/
+                bridge.invalidateResultCache("getUser");
+            }
+            return new JSONObject().put("name", uid + invokeCount);
+        }
+    }
+
+    private static RequestResponseBuilder response(String msg) {
+        RequestResponseBuilder response = new RequestResponseBuilder(false);
+        response.putResponseStatus(BridgeCore.RESPONSE_MSG_NAME, msg);
+        return response;
+    }
+
+    private static void put(ResultCache cache, String key, String msg) {
+        cache.newFill(key).complete(response(msg));
+    }
+
+    @Test
+    public void ttl_expiresEntries() throws Exception {
+        ResultCache cache = new ResultCache(50, 10);
+        put(cache, "k", "v");
+        assertNotNull(cache.get("k"));
+        Thread.sleep(100);
+        assertNull(cache.get("k"));
+        ResultCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getExpiredCount());
+        assertEquals(0, stats.getSize());
+
+        /*ttl小于等于0时一直有效*/
+        ResultCache forever = new ResultCache(0, 10);
+        put(forever, "k", "v");
+        Thread.sleep(10);
+        assertNotNull(forever.get("k"));
+    }
+
+    @Test
+    public void clearDuringExecution_dropsResponse() {
+        ResultCache cache = new ResultCache(0, 10);
+        ResultCache.Fill running = cache.newFill("k");
+        cache.clear();
+        running.complete(response("stale"));
+        assertNull(cache.get("k"));
+
+        /*清除之后开始执行的response可以缓存*/
+        put(cache, "k", "fresh");
+        assertTrue(cache.get("k").contains("fresh"));
+    }
+
+    @Test
+    public void maxSize_evictsLeastRecentlyUsed() {
+        ResultCache cache = new ResultCache(0, 2);
+        put(cache, "a", "1");
+        put(cache, "b", "2");
+        assertNotNull(cache.get("a"));
+        put(cache, "c", "3");
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("a"));
+        assertNotNull(cache.get("c"));
+        assertEquals(1, cache.getStats().getEvictionCount());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    public void failedResponse_isNotCached() {
+        ResultCache cache = new ResultCache(0, 10);
+        for (String status : new String[]{BridgeCore.RESPONSE_STATUS_FAILED, BridgeCore.RESPONSE_STATUS_TIMEOUT, BridgeCore.RESPONSE_STATUS_OVERFLOW}) {
+            RequestResponseBuilder response = response("failed");
+            response.putResponseStatus(BridgeCore.RESPONSE_STATUS_NAME, status);
+            cache.newFill("k").complete(response);
+            assertNull(cache.get("k"));
+        }
+        cache.newFill("k").complete(null);
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    public void createKey_ignoresKeyOrder() throws Exception {
+        assertEquals(ResultCache.createKey(new JSONObject("{\"a\":1,\"b\":{\"d\":[1,\"x\"],\"c\":null}}")),
+                ResultCache.createKey(new JSONObject("{\"b\":{\"c\":null,\"d\":[1,\"x\"]},\"a\":1}")));
+        assertNotEquals(ResultCache.createKey(new JSONObject("{\"a\":1}")), ResultCache.createKey(new JSONObject("{\"a\":\"1\"}")));
+    }
+
+    @Test
+    public void syncInvoke_skipsCacheInvalidatedDuringExecution() throws Exception {
+        UserInterface userInterface = new UserInterface();
+        BridgeCore bridge = new BridgeCore.Builder()
+                .setTransport(new InMemoryTransport())
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .addJavaInterface4JS(userInterface)
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg")
+                .create();
+        userInterface.bridge = bridge;
+        String request = "niu://receive_msg?{\"handlerName\":\"getUser\",\"params\":{\"uid\":\"u\"}}";
+
+        userInterface.invalidate = true;
+        assertTrue(bridge.parseSyncJsonFromJs(request).contains("u1"));
+        userInterface.invalidate = false;
+        assertTrue(bridge.parseSyncJsonFromJs(request).contains("u2"));
+        /*第二次执行之前没有清除缓存，第三次使用缓存*/
+        assertTrue(bridge.parseSyncJsonFromJs(request).contains("u2"));
+        assertEquals(2, userInterface.invokeCount);
+        assertEquals(1, bridge.getResultCacheStats("getUser").getHitCount());
+    }
+}
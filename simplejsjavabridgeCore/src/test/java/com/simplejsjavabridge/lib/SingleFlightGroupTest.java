@@ -0,0 +1,209 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.annotation.ParamCallback;
+import com.simplejsjavabridge.lib.annotation.SingleFlight;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+/**
+ * {@link SingleFlightGroup}合并参数相同的request，执行接口的request失败或者超时时等待的request也要收到响应
+ */
+public class SingleFlightGroupTest {
+
+    interface IResultCallback {
+        void result(@Param("name") String name);
+    }
+
+    public static class TokenInterface {
+        int invokeCount;
+        boolean fail;
+
+        @SingleFlight
+        @JavaInterface4JS(value = "token", executor = "manual")
+        public JSONObject token(@Param("uid") String uid) throws Exception {
+            invokeCount++;
+            if (fail) {
+                throw new IllegalStateException("token");
+            }
+            return new JSONObject().put("token", uid + invokeCount);
+        }
+
+        @SingleFlight(timeout = 100)
+        @JavaInterface4JS(value = "slow", executor = "manual")
+        public JSONObject slow() throws Exception {
+            invokeCount++;
+            return new JSONObject().put("slow", invokeCount);
+        }
+
+        @SingleFlight(timeout = 100)
+        @JavaInterface4JS("silent")
+        public void silent() {
+            invokeCount++;
+        }
+
+        @SingleFlight
+        @JavaInterface4JS("respondThenFail")
+        public void respondThenFail(@ParamCallback IResultCallback callback) {
+            callback.result("ok");
+            throw new IllegalStateException("after response");
+        }
+    }
+
+    /**
+     * 接口先放在这里，由测试决定什么时候执行
+     */
+    private final List<Runnable> mPending = new ArrayList<>();
+    private final InMemoryTransport mTransport = new InMemoryTransport();
+    private final TokenInterface mTokenInterface = new TokenInterface();
+    private final BridgeCore mBridge = new BridgeCore.Builder()
+            .setTransport(mTransport)
+            .setMainThreadExecutor(BridgeExecutors.DIRECT)
+            .setDispatchExecutor(BridgeExecutors.DIRECT)
+            .addExecutor("manual", new Executor() {
+                @Override
+                public void execute(Runnable command) {
+                    mPending.add(command);
+                }
+            })
+            .addJavaInterface4JS(mTokenInterface)
+            .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+            .setProtocol("niu", "receive_msg")
+            .create();
+
+    private void request(String handlerName, String callbackId, String uid) {
+        mBridge.parseJsonFromJs("niu://receive_msg?{\"handlerName\":\"" + handlerName + "\",\"callbackId\":\"" + callbackId
+                + "\",\"params\":{\"uid\":\"" + uid + "\"}}");
+    }
+
+    private void runPending() {
+        List<Runnable> pending = new ArrayList<>(mPending);
+        mPending.clear();
+        for (Runnable runnable : pending) {
+            runnable.run();
+        }
+    }
+
+    /**
+     * 取出发送给js的response，按responseId索引data
+     */
+    private Map<String, JSONObject> pollResponses() throws Exception {
+        Map<String, JSONObject> responses = new HashMap<>();
+        String script;
+        while ((script = mTransport.poll()) != null) {
+            String json = script.substring(script.indexOf('\'') + 1, script.lastIndexOf('\''));
+            JSONObject response = new JSONObject(json.replace("\\'", "'").replace("\\\\", "\\"));
+            assertNull("重复的response", responses.put(response.getString("responseId"), response.getJSONObject("data")));
+        }
+        return responses;
+    }
+
+    private SingleFlightStats stats(String interfaceName) {
+        return mBridge.getSingleFlightStats(interfaceName);
+    }
+
+    @Test
+    public void sameParams_shareOneExecution() throws Exception {
+        request("token", "c_1", "a");
+        request("token", "c_2", "a");
+        request("token", "c_3", "a");
+        request("token", "c_4", "b");
+        assertEquals(2, mPending.size());
+        assertEquals(2, stats("token").getInFlightCount());
+
+        runPending();
+        Map<String, JSONObject> responses = pollResponses();
+        assertEquals(4, responses.size());
+        for (String id : new String[]{"c_1", "c_2", "c_3"}) {
+            assertEquals("a1", responses.get(id).getJSONObject("values").getString("token"));
+        }
+        assertEquals("b2", responses.get("c_4").getJSONObject("values").getString("token"));
+        assertEquals(2, stats("token").getExecutionCount());
+        assertEquals(2, stats("token").getSharedCount());
+        assertEquals(0, stats("token").getInFlightCount());
+    }
+
+    @Test
+    public void leaderFailure_failsFollowers() throws Exception {
+        mTokenInterface.fail = true;
+        request("token", "c_1", "a");
+        request("token", "c_2", "a");
+        request("token", "c_3", "a");
+        runPending();
+
+        Map<String, JSONObject> responses = pollResponses();
+        assertEquals(3, responses.size());
+        for (JSONObject data : responses.values()) {
+            assertEquals(BridgeCore.RESPONSE_STATUS_FAILED, data.getString(BridgeCore.RESPONSE_STATUS_NAME));
+            assertTrue(data.getString(BridgeCore.RESPONSE_MSG_NAME).startsWith("接口执行失败:"));
+        }
+        assertEquals(0, stats("token").getInFlightCount());
+
+        /*失败之后重新执行*/
+        mTokenInterface.fail = false;
+        request("token", "c_4", "a");
+        runPending();
+        assertEquals("a2", pollResponses().get("c_4").getJSONObject("values").getString("token"));
+    }
+
+    @Test
+    public void timeout_failsFollowersAndStartsNewFlight() throws Exception {
+        request("slow", "c_1", "");
+        request("slow", "c_2", "");
+        assertEquals(1, mPending.size());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (mTransport.size() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Map<String, JSONObject> responses = pollResponses();
+        assertEquals(1, responses.size());
+        assertEquals(BridgeCore.RESPONSE_STATUS_TIMEOUT, responses.get("c_2").getString(BridgeCore.RESPONSE_STATUS_NAME));
+        assertEquals(0, stats("slow").getInFlightCount());
+
+        /*超时之后的request重新执行，超时的仍然响应它自己的request*/
+        request("slow", "c_3", "");
+        assertEquals(2, mPending.size());
+        runPending();
+        responses = pollResponses();
+        assertEquals(2, responses.size());
+        assertEquals(1, responses.get("c_1").getJSONObject("values").getInt("slow"));
+        assertEquals(2, responses.get("c_3").getJSONObject("values").getInt("slow"));
+        assertEquals(2, stats("slow").getExecutionCount());
+    }
+
+    @Test
+    public void noResponse_expiresWithoutFollowers() throws Exception {
+        request("silent", "c_1", "");
+        assertEquals(1, stats("silent").getInFlightCount());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (stats("silent").getInFlightCount() != 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, stats("silent").getInFlightCount());
+
+        request("silent", "c_2", "");
+        assertEquals(2, mTokenInterface.invokeCount);
+        assertEquals(2, stats("silent").getExecutionCount());
+        assertEquals(0, mTransport.size());
+    }
+
+    @Test
+    public void failureAfterResponse_doesNotRespondAgain() throws Exception {
+        request("respondThenFail", "c_1", "");
+        Map<String, JSONObject> responses = pollResponses();
+        assertEquals(1, responses.size());
+        assertEquals("ok", responses.get("c_1").getJSONObject("values").getString("name"));
+        assertEquals(0, stats("respondThenFail").getInFlightCount());
+    }
+}
@@ -0,0 +1,71 @@
+package com.simplejsjavabridge.lib;
+
+import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
+import com.simplejsjavabridge.lib.annotation.Param;
+import com.simplejsjavabridge.lib.transport.InMemoryTransport;
+
+import org.json.JSONObject;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * js通过{@link BridgeCore#parseSyncJsonFromJs(String)}同步调用java接口，接口不存在和接口抛出异常的响应需要区分开
+ */
+public class SyncInvokeTest {
+
+    public static class SyncInterface {
+        @JavaInterface4JS(value = "version", sync = true)
+        public JSONObject version() throws Exception {
+            return new JSONObject().put("version", "1.0");
+        }
+
+        @JavaInterface4JS(value = "crash", sync = true)
+        public JSONObject crash(@Param("msg") String msg) {
+            throw new IllegalStateException(msg);
+        }
+    }
+
+    private static BridgeCore newBridge() {
+        return new BridgeCore.Builder()
+                .setTransport(new InMemoryTransport())
+                .setMainThreadExecutor(BridgeExecutors.DIRECT)
+                .setDispatchExecutor(BridgeExecutors.DIRECT)
+                .addJavaInterface4JS(new SyncInterface())
+                .setJSMethodName4Java("_JSNativeBridge._handleMessageFromNative")
+                .setProtocol("niu", "receive_msg")
+                .create();
+    }
+
+    private static JSONObject invoke(BridgeCore bridge, String handlerName) throws Exception {
+        String json = bridge.parseSyncJsonFromJs("niu://receive_msg?{\"handlerName\":\"" + handlerName + "\",\"params\":{\"msg\":\"boom\"}}");
+        assertNotNull(json);
+        return new JSONObject(json).getJSONObject("data");
+    }
+
+    @Test
+    public void success_returnsValues() throws Exception {
+        JSONObject data = invoke(newBridge(), "version");
+        assertEquals("1.0", data.getJSONObject("values").getString("version"));
+    }
+
+    @Test
+    public void missingInterface_failsAsNotFound() throws Exception {
+        JSONObject data = invoke(newBridge(), "missing");
+        assertEquals(BridgeCore.RESPONSE_STATUS_FAILED, data.getString(BridgeCore.RESPONSE_STATUS_NAME));
+        assertEquals("所调用的同步接口不存在", data.getString(BridgeCore.RESPONSE_MSG_NAME));
+    }
+
+    @Test
+    public void handlerException_failsWithCause() throws Exception {
+        BridgeCore bridge = newBridge();
+        JSONObject data = invoke(bridge, "crash");
+        assertEquals(BridgeCore.RESPONSE_STATUS_FAILED, data.getString(BridgeCore.RESPONSE_STATUS_NAME));
+        String msg = data.getString(BridgeCore.RESPONSE_MSG_NAME);
+        assertTrue(msg, msg.startsWith("接口执行失败:"));
+        assertTrue(msg, msg.contains("IllegalStateException: boom"));
+
+        /*失败之后仍然可以正常调用*/
+        assertEquals("1.0", invoke(bridge, "version").getJSONObject("values").getString("version"));
+    }
+}
@@ -15,3 +15,16 @@
 #-keepclassmembers class fqcn.of.javascript.interface.for.webview {
 #   public *;
 #}
+
+# 编译期生成的分发器是通过类名查找的，接口的注册信息也是生成的，不需要保留方法和注解
+-keep class * implements com.simplejsjavabridge.lib.JavaInterfaceDispatcher {
+    public <init>(...);
+}
+-if class **_JavaInterfaceDispatcher
+-keepnames class <1>
+
+# 没有使用simplejsjavabridgeCompiler生成分发器时，接口通过反射扫描注解，需要在app的规则中加上：
+#-keepattributes RuntimeVisibleAnnotations,RuntimeVisibleParameterAnnotations
+#-keepclassmembers class * {
+#    @com.simplejsjavabridge.lib.annotation.JavaInterface4JS <methods>;
+#}
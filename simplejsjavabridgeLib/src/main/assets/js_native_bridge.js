@@ -11,6 +11,24 @@
 	var responseCallbacks = {};
 	var uniqueId = 1;
 
+	/*native通过WebMessagePortChannel发送过来的port，存在时优先使用*/
+	var messagePort = null;
+	window.addEventListener('message', function(event) {
+		if (event.data === '_JSNativeBridgePort' && event.ports && event.ports.length > 0 && _isMessageFromNative(event)) {
+			messagePort = event.ports[0];
+		}
+	});
+
+	/*native只把port发送给当前页面的origin，其他frame或者其他origin发送的message不能冒充*/
+	function _isMessageFromNative(event) {
+		/*其他frame发送的message的source是它们自己的window，native通过postWebMessage发送的source为null*/
+		if (event.source !== window && event.source !== null) {
+			return false;
+		}
+		/*native发送的message的origin为空*/
+		return event.origin === '' || event.origin === window.location.origin;
+	}
+
 
 	function registerHandler(handlerName, handler) {
 		messageHandlers[handlerName] = handler;
@@ -30,11 +48,37 @@
 		_doSend(request);
 	}
 
-	/*向native发送response（响应信息）*/
-	function _doSendResponse(responseId, responseData){
+	/*同步调用native的接口，直接返回响应的数据({status:..., values:{...}})，只能调用sync为true的接口*/
+	function _doSendRequestSync(handlerName, params) {
+	    if(_isEmpty(_JSNativeBridge.protocol.scheme) || _isEmpty(_JSNativeBridge.protocol.host)){
+	        throw "_JSNativeBridge.protocol.scheme 或 _JSNativeBridge.protocol.host不能为空";
+	    }
+		var request = {};
+		request[_JSNativeBridge.request.interfaceName]=handlerName;
+		request[_JSNativeBridge.request.valuesName] = params;
+		var messageJSON = JSON.stringify(request);
+		var result;
+		/*messagePort不能同步返回，优先使用不经过主线程的@JavascriptInterface通道*/
+		if (window._JSNativeBridgeChannel && window._JSNativeBridgeChannel.postMessageSync) {
+			result = window._JSNativeBridgeChannel.postMessageSync(messageJSON);
+		} else {
+			result = prompt(  _JSNativeBridge.protocol.scheme+'://'+ _JSNativeBridge.protocol.host+'?'+ messageJSON, '_JSNativeBridgeSync');
+		}
+		if (!result) {
+			return null;
+		}
+		var response = JSON.parse(result);
+		return response[_JSNativeBridge.response.responseName] || {};
+	}
+
+	/*向native发送response（响应信息），trace存在时带上收到request和发送response的时间*/
+	function _doSendResponse(responseId, responseData, trace){
 		var response = {};
 		response[_JSNativeBridge.response.responseIdName] = responseId;
 		response[_JSNativeBridge.response.responseName] = responseData;
+		if (trace) {
+			response.trace = {received: trace.received, responded: new Date().getTime()};
+		}
 		_doSend(response);
 	}
 
@@ -43,7 +87,15 @@
 	    if(_isEmpty(_JSNativeBridge.protocol.scheme) || _isEmpty(_JSNativeBridge.protocol.host)){
 	        throw "_JSNativeBridge.protocol.scheme 或 _JSNativeBridge.protocol.host不能为空";
 	    }
-		prompt(  _JSNativeBridge.protocol.scheme+'://'+ _JSNativeBridge.protocol.host+'?'+ JSON.stringify(message));
+		var messageJSON = JSON.stringify(message);
+		/*优先使用不阻塞js线程的通道，都不存在时使用prompt*/
+		if (messagePort) {
+			messagePort.postMessage(messageJSON);
+		} else if (window._JSNativeBridgeChannel) {
+			window._JSNativeBridgeChannel.postMessage(messageJSON);
+		} else {
+			prompt(  _JSNativeBridge.protocol.scheme+'://'+ _JSNativeBridge.protocol.host+'?'+ messageJSON);
+		}
 	}
 
 	function _isEmpty(str){
@@ -82,11 +134,14 @@
 	function _doNativeRequest(request){
 		var responseCallback;
 		var callbackId = request[_JSNativeBridge.request.callbackIdName];
+		/*native的request携带trace时，记录收到request的时间*/
+		var trace = request.trace ? {received: new Date().getTime()} : null;
 		/*native的request携带callback id*/
 		if (callbackId) {
 			responseCallback = function(responseData) {
 				_doSendResponse(callbackId,
-					responseData || {}
+					responseData || {},
+					trace
 					);
 			};
 		}
@@ -103,7 +158,8 @@
 				{
 					status: "-1",
 					msg: "Js can't find correspond method."
-				}
+				},
+				trace
 				);
 			}
 		}
@@ -121,13 +177,24 @@
 	function _dispatchMessageFromNative(messageJSON) {
 		setTimeout(function() {
 			var message = JSON.parse(messageJSON);
-			if(!_doNativeResponse(message)){
-				_doNativeRequest(message);
+			/*native批量发送的信息是一个数组，按顺序依次分发*/
+			if (Array.isArray(message)) {
+				for (var i = 0; i < message.length; i++) {
+					_dispatchMessage(message[i]);
+				}
+			} else {
+				_dispatchMessage(message);
 			}
 		
 		});
 	}
 
+	function _dispatchMessage(message) {
+		if(!_doNativeResponse(message)){
+			_doNativeRequest(message);
+		}
+	}
+
 	//暴漏给native的唯一一个通信方法
 	function _handleMessageFromNative(messageJSON) {
 		_dispatchMessageFromNative(messageJSON);
@@ -136,6 +203,7 @@
 	var _JSNativeBridge = window._JSNativeBridge = {
 		registerHandler: registerHandler,
 		_doSendRequest: _doSendRequest,
+		_doSendRequestSync: _doSendRequestSync,
 		_handleMessageFromNative: _handleMessageFromNative,
 		request:{
 			interfaceName:"handlerName",
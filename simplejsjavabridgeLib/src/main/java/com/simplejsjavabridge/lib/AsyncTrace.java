@@ -0,0 +1,99 @@
+package com.simplejsjavabridge.lib;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.lang.reflect.Method;
+
+/**
+ * 调用{@link Trace}的异步section，它们在api 29中才公开，而编译使用的sdk版本更低，因此通过反射调用，
+ * 低版本或者反射失败时不记录。section会显示在systrace和Perfetto中
+ */
+final class AsyncTrace {
+
+    private static final int VERSION_Q = 29;
+    /**
+     * section名字的最大长度
+     */
+    private static final int MAX_SECTION_NAME_LENGTH = 127;
+    /**
+     * 重新检查是否在记录trace的间隔(纳秒)，开始记录后最多这么久才生成section
+     */
+    private static final long ENABLED_REFRESH_NANOS = 1000L * 1000 * 1000;
+
+    private static final Method IS_ENABLED;
+    private static final Method BEGIN_ASYNC_SECTION;
+    private static final Method END_ASYNC_SECTION;
+
+    /*检查的结果和下次检查的时间，多个线程同时检查时重复检查一次没有关系*/
+    private static volatile boolean sEnabled;
+    private static volatile long sNextCheckNanos = System.nanoTime();
+
+    static {
+        Method isEnabled = null;
+        Method beginAsyncSection = null;
+        Method endAsyncSection = null;
+        try {
+            if (Build.VERSION.SDK_INT >= VERSION_Q) {
+                isEnabled = Trace.class.getMethod("isEnabled");
+                beginAsyncSection = Trace.class.getMethod("beginAsyncSection", String.class, int.class);
+                endAsyncSection = Trace.class.getMethod("endAsyncSection", String.class, int.class);
+            }
+        } catch (Throwable e) {
+            /*找不到方法或者不在android中运行(比如单元测试)时不记录*/
+            isEnabled = null;
+        }
+        IS_ENABLED = isEnabled;
+        BEGIN_ASYNC_SECTION = beginAsyncSection;
+        END_ASYNC_SECTION = endAsyncSection;
+    }
+
+    private AsyncTrace() {
+    }
+
+    /**
+     * 每个request都会调用，因此缓存{@link Trace}的结果，间隔{@link #ENABLED_REFRESH_NANOS}才通过反射重新检查
+     *
+     * @return
+     */
+    static boolean isEnabled() {
+        if (IS_ENABLED == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (now - sNextCheckNanos < 0) {
+            return sEnabled;
+        }
+        boolean enabled;
+        try {
+            enabled = (Boolean) IS_ENABLED.invoke(null);
+        } catch (Exception e) {
+            enabled = false;
+        }
+        sEnabled = enabled;
+        sNextCheckNanos = now + ENABLED_REFRESH_NANOS;
+        return enabled;
+    }
+
+    static void beginSection(String sectionName, int cookie) {
+        invoke(BEGIN_ASYNC_SECTION, sectionName, cookie);
+    }
+
+    static void endSection(String sectionName, int cookie) {
+        invoke(END_ASYNC_SECTION, sectionName, cookie);
+    }
+
+    private static void invoke(Method method, String sectionName, int cookie) {
+        if (IS_ENABLED == null) {
+            return;
+        }
+        if (sectionName.length() > MAX_SECTION_NAME_LENGTH) {
+            sectionName = sectionName.substring(0, MAX_SECTION_NAME_LENGTH);
+        }
+        try {
+            method.invoke(null, sectionName, cookie);
+        } catch (Exception e) {
+            /*记录trace失败不影响通信*/
+        }
+    }
+}
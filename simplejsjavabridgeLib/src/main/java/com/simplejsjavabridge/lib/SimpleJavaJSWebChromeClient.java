@@ -28,10 +28,20 @@ import java.io.InputStreamReader;
 public class SimpleJavaJSWebChromeClient extends WebChromeClient {
 
 
+    /**
+     * js同步调用java接口时{@code prompt()}的默认值，与js_native_bridge.js中的保持一致
+     */
+    static final String SYNC_PROMPT_VALUE = "_JSNativeBridgeSync";
+
     private WebChromeClient mWebChromeClient;
 
     public boolean mIsInjectedJS;
 
+    /**
+     * 页面的进度到100时可能会回调多次，只通知一次页面加载完毕
+     */
+    private boolean mIsPageFinished;
+
     private SimpleJavaJsBridge mSimpleJavaJsBridge;
 
     SimpleJavaJSWebChromeClient(WebChromeClient webChromeClient, SimpleJavaJsBridge simpleJavaJsBridge) {
@@ -90,6 +100,12 @@ public class SimpleJavaJSWebChromeClient extends WebChromeClient {
 //            webViewLoadLocalJs(view, "js_native_bridge.js");
 //        }
 //
+        if (newProgress < 100) {
+            mIsPageFinished = false;
+        } else if (!mIsPageFinished) {
+            mIsPageFinished = true;
+            mSimpleJavaJsBridge.onPageFinished(view);
+        }
         if (checkObjectNotNull(mWebChromeClient)) {
             mWebChromeClient.onProgressChanged(view, newProgress);
         }
@@ -114,6 +130,14 @@ public class SimpleJavaJSWebChromeClient extends WebChromeClient {
 
     @Override
     public boolean onJsPrompt(WebView view, String url, String message, String defaultValue, JsPromptResult result) {
+        if (SYNC_PROMPT_VALUE.equals(defaultValue)) {
+            String response = mSimpleJavaJsBridge.parseSyncJsonFromJs(message);
+            if (response != null) {
+                /*同步调用的返回值直接作为prompt()的返回值*/
+                result.confirm(response);
+                return true;
+            }
+        }
         if (mSimpleJavaJsBridge.parseJsonFromJs(message)) {
             /*必须得有这行代码，否则会阻塞当前h5页面*/
             result.cancel();
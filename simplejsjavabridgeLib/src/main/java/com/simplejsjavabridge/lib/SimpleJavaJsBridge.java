@@ -1,26 +1,26 @@
 package com.simplejsjavabridge.lib;
 
-import android.net.Uri;
+import android.annotation.TargetApi;
+import android.os.Build;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.MessageQueue;
 import android.text.TextUtils;
 import android.util.Log;
+import android.view.Choreographer;
+import android.view.View;
 import android.webkit.WebChromeClient;
 import android.webkit.WebView;
 
 
-import com.simplejsjavabridge.lib.annotation.InvokeJSInterface;
-import com.simplejsjavabridge.lib.annotation.JavaCallback4JS;
-import com.simplejsjavabridge.lib.annotation.JavaInterface4JS;
-import com.simplejsjavabridge.lib.exception.SimpleJSBridgeException;
+import com.simplejsjavabridge.lib.annotation.Priority;
+import com.simplejsjavabridge.lib.channel.InboundChannel;
+import com.simplejsjavabridge.lib.transport.EvaluateJavascriptTransport;
+import com.simplejsjavabridge.lib.transport.JSTransport;
+import com.simplejsjavabridge.lib.transport.LoadUrlTransport;
 
-import org.json.JSONObject;
-
-import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.Method;
-import java.lang.reflect.Proxy;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.concurrent.Executor;
 
 /**
  * 该类是本库的核心类，看例子
@@ -63,6 +63,9 @@ import java.util.HashMap;
  *       同理response里面的"responseId","data","values"这三个关键的key值的名字也是可以调用SimpleJavaJsBridge.Builder进行自定义的
  * </pre>
  *
+ * <p>协议的解析，接口的分发，回调方法的管理都在不依赖android的{@link BridgeCore}中，
+ * 该类只负责提供{@link WebView}的通道，主线程，以及接收js数据的其他通道</p>
+ *
  * <p>调用js接口的例子:</p>
  * <pre>
  *     //声明一个调用js的interface
@@ -88,243 +91,155 @@ import java.util.HashMap;
  *
  * Created by niuxiaowei on 16/6/15.
  */
-public class SimpleJavaJsBridge {
+public class SimpleJavaJsBridge extends BridgeCore {
 
     private static final String TAG = SimpleJavaJsBridge.class.getSimpleName();
 
-    private static final String JAVASCRIPT = "javascript:";
-    /**
-     * java调用js的功能时，java会为js提供回调函数，但是不可能把回调函数传递给js，
-     * 所以为回调函数提供一个唯一的id，
-     */
-    private static int sUniqueCallbackId = 1;
-
-
     /**
-     * 保证发送给js数据时在ui线程中执行
+     * {@link Priority#IDLE}的数据最多等待主线程空闲的时间(毫秒)，超过后不再等待，保证不会一直得不到发送
      */
-    private Handler mMainHandler = new Handler(Looper.getMainLooper());
+    public static final long IDLE_MAX_DELAY = 500;
 
     /**
-     * 缓存java为js提供的接口
+     * 使用默认的主线程时不为null，这时可以使用{@link Handler#postAtFrontOfQueue(Runnable)}和{@link MessageQueue.IdleHandler}，
+     * 设置了{@link Builder#setMainThreadExecutor(Executor)}时为null，这样在jvm中不需要{@link Looper}
      */
-    private HashMap<String, MethodHandler> mJavaInterfaces4JSCache = new HashMap<>();
+    private final Handler mMainHandler;
 
-    /**
-     * 缓存java为js提供搞的回调方法
-     */
-    private HashMap<String, MethodHandler> mJavaCallbackMethods4JSCache = new HashMap<>();
-
-
-    /*js为java敞开的唯一的一个可调用的方法，该方法接收一个字符串，字符串是json格式*/
-    private String mJSMethod4SendData2JS;
-    /**
-     * 协议的格式是:scheme+"://"+host+"?"
-     */
-    private String mProtocol;
     private WebView mWebView;
     private SimpleJavaJSWebChromeClient mSimpleJavaJSWebChromeClient;
 
     /**
-     * 是否是debug模式，debug模式可以把交互信息打出来
+     * 接收js数据的其他通道，{@code prompt()}通道始终存在
      */
-    private boolean mIsDebug;
+    private ArrayList<InboundChannel> mInboundChannels = new ArrayList<>();
 
 
     SimpleJavaJsBridge(Builder builder) {
-        if (builder == null) {
-            return;
-        }
-        Params.init(this);
+        this(builder, builder.mMainThreadExecutor == null ? new Handler(Looper.getMainLooper()) : null);
+    }
+
+    private SimpleJavaJsBridge(Builder builder, Handler mainHandler) {
+        super(builder, builder.mTransport != null ? builder.mTransport : createDefaultTransport(builder.mWebView),
+                mainHandler == null ? builder.mMainThreadExecutor : createMainThreadExecutor(mainHandler));
+        mMainHandler = mainHandler;
         mWebView = builder.mWebView;
-        mWebView.getSettings().setJavaScriptEnabled(true);
-        mSimpleJavaJSWebChromeClient = new SimpleJavaJSWebChromeClient(builder.mWebChromeClient, this);
-        mWebView.setWebChromeClient(mSimpleJavaJSWebChromeClient);
-        saveJavaMethods4JS(builder.mJavaMethod4JS);
-        RequestResponseBuilder.init(builder.mResponseIdName, builder.mResponseName, builder.mResponseValuesName, builder.mRequestInterfaceName, builder.mRequestCallbackIdName, builder.mRequestValuesName);
-        mJSMethod4SendData2JS = builder.mJSMethodName4Java;
-        mProtocol = builder.mProtocol;
+        if (mWebView != null) {
+            mWebView.getSettings().setJavaScriptEnabled(true);
+            mSimpleJavaJSWebChromeClient = new SimpleJavaJSWebChromeClient(builder.mWebChromeClient, this);
+            mWebView.setWebChromeClient(mSimpleJavaJSWebChromeClient);
+            /*WebView不在窗口中时暂停发送*/
+            mWebView.addOnAttachStateChangeListener(new View.OnAttachStateChangeListener() {
+                @Override
+                public void onViewAttachedToWindow(View v) {
+                    resumeOutbound(OutboundQueue.PAUSE_BY_DETACHED);
+                }
+
+                @Override
+                public void onViewDetachedFromWindow(View v) {
+                    pauseOutbound(OutboundQueue.PAUSE_BY_DETACHED);
+                }
+            });
+        }
+        if (builder.mInboundChannels != null) {
+            for (InboundChannel inboundChannel : builder.mInboundChannels) {
+                InboundChannelStats stats = addInboundChannelStats(inboundChannel.getName());
+                mInboundChannels.add(inboundChannel);
+                inboundChannel.attach(mWebView, new ChannelReceiver(stats));
+            }
+        }
     }
 
     /**
-     * 生成SimpleJavaJsBridge的实例
+     * 把通道收到的数据交给{@link #parseMessageFromJs(String, int, InboundChannelStats)}，并进行统计
      */
-    public static class Builder {
-
-        private String mResponseName;
-        private String mResponseValuesName;
-        private String mResponseIdName;
-
-
-        private String mRequestInterfaceName;
-        private String mRequestCallbackIdName;
-        private String mRequestValuesName;
-
-        /*js为java敞开的唯一的一个可调用的方法，该方法接收一个字符串，字符串是json格式*/
-        private String mJSMethodName4Java;
-        private String mProtocol;
-
-
-        private WebChromeClient mWebChromeClient;
-        private ArrayList mJavaMethod4JS;
-        private WebView mWebView;
-
-        /**
-         * 是否是debug模式
-         */
-        private boolean mIsDebug = true;
-
-        public Builder() {
+    private class ChannelReceiver implements InboundChannel.Receiver {
+        private final InboundChannelStats mStats;
 
+        ChannelReceiver(InboundChannelStats stats) {
+            mStats = stats;
         }
 
-        /**
-         * debug模式下，可以把交互信息打印出来
-         * @param debug
-         * @return
-         */
-        public Builder setDebug(boolean debug) {
-            mIsDebug = debug;
-            return this;
+        @Override
+        public void onReceive(String json) {
+            if (TextUtils.isEmpty(json)) {
+                return;
+            }
+            parseMessageFromJs(json, 0, mStats);
         }
 
-        /**
-         *
-         * <pre>
-         *  response格式：
-         *  {
-         *      "responseId":"iii",
-         *      "data":{
-         *          "status":"1",
-         *          "msg":"ok",
-         *          "values":{
-         *              ......
-         *          }
-         *      }
-         *  }
-         *  responseId 代表request中的callbackId
-         *  data       代表响应的数据
-         *  status     代表响应状态
-         *  msg        代表响应状态对应的消息
-         *  values     代表响应数据包含的值
-         *  </pre>
-         *
-         *  <pre>
-         *      responseName的默认名字是"data"，可以对这个名字进行设置
-         *  </pre>
-         *
-         * @param responseName
-         * @return
-         */
-        public Builder setResponseName(String responseName) {
-            mResponseName = responseName;
-            return this;
+        @Override
+        public String onReceiveSync(String json) {
+            if (TextUtils.isEmpty(json)) {
+                return null;
+            }
+            return invokeSyncFromJs(json, 0, mStats);
         }
+    }
 
-        /**
-         *   responseValuesName的默认名字是"values"，可以对这个名字进行设置
-         *
-         * @param responseValuesName
-         * @return
-         * @see #setResponseName(String)
-         */
-        public Builder setResponseValuesName(String responseValuesName) {
-            mResponseValuesName = responseValuesName;
-            return this;
+    /**
+     * 根据当前系统选择最快的通道，android4.4及以上使用{@link EvaluateJavascriptTransport}，否则使用{@link LoadUrlTransport}
+     *
+     * @param webView
+     * @return
+     */
+    private static JSTransport createDefaultTransport(WebView webView) {
+        if (EvaluateJavascriptTransport.isSupported()) {
+            return new EvaluateJavascriptTransport(webView);
         }
+        return new LoadUrlTransport(webView);
+    }
 
-        /**
-         * response中responseIdName的默认名字是"responseId"，可以对起进行设置
-         * @param responseIdName
-         * @return
-         * @see #setResponseName(String)
-         */
-        public Builder setResponseIdName(String responseIdName) {
-            mResponseIdName = responseIdName;
-            return this;
-        }
+    private static Executor createMainThreadExecutor(final Handler mainHandler) {
+        return new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                mainHandler.post(command);
+            }
+        };
+    }
 
-        /**
-         * <pre>
-         *    {
-         *      "handlerName":"test",
-         *      "callbackId":"c_111111",
-         *      "params":{
-         *          ....
-         *      }
-         *    }
-         *
-         *    hanlerName 代表java与js之间给对方暴漏的接口的名称，
-         *    callbackId 代表对方在发起请求时，会为回调方法生产一个唯一的id值，它就代表这个唯一的id值
-         *    params     代表传递的数据
-         *  </pre>
-         *  <pre>
-         *      requestInterfaceName的默认值是"handlerName",可以进行设置它
-         *  </pre>
-         *
-         * @param requestInterfaceName
-         * @return
-         */
-        public Builder setRequestInterfaceName(String requestInterfaceName) {
-            mRequestInterfaceName = requestInterfaceName;
-            return this;
-        }
+    /**
+     * 生成SimpleJavaJsBridge的实例，与{@link BridgeCore.Builder}相比多了{@link WebView}相关的设置
+     */
+    public static class Builder extends BridgeCore.AbstractBuilder<Builder> {
 
-        /**
-         *
-         * 同理requestCallbackIdName的默认值是"callbackId",可以对它进行设置
-         *
-         * @param requestCallbackIdName
-         * @return
-         * @see #setRequestInterfaceName(String)
-         */
-        public Builder setRequestCallbackIdName(String requestCallbackIdName) {
-            mRequestCallbackIdName = requestCallbackIdName;
-            return this;
-        }
+        private WebChromeClient mWebChromeClient;
+        private WebView mWebView;
+        private ArrayList<InboundChannel> mInboundChannels;
 
-        /**
-         * 同理requestValuesName的默认值是"params",可以对它进行设置
-         *
-         * @param requestValuesName
-         * @return
-         * @see #setRequestInterfaceName(String)
+        public Builder() {
 
-         */
-        public Builder setRequestValuesName(String requestValuesName) {
-            mRequestValuesName = requestValuesName;
-            return this;
         }
 
         /**
-         * 设置js为java暴漏的方法的名字，只需要提供方法名字即可，具体的关于"()"和参数不需要提供，因为该方法接收的是一个json字符串
+         * 设置给js发送数据的通道，默认根据系统版本自动选择{@link EvaluateJavascriptTransport}或{@link LoadUrlTransport}，
+         * 设置了通道后可以不设置{@link WebView}，比如在jvm中使用{@link com.simplejsjavabridge.lib.transport.InMemoryTransport}进行测试
          *
-         * @param JSMethodName 方法名字 比如：handleMsgFromJava
+         * @param transport
          * @return
          */
-        public Builder setJSMethodName4Java(String JSMethodName) {
-            mJSMethodName4Java = JSMethodName;
-            if (!TextUtils.isEmpty(mJSMethodName4Java) && !mJSMethodName4Java.startsWith(JAVASCRIPT)) {
-                mJSMethodName4Java = JAVASCRIPT + mJSMethodName4Java ;
-                if(!mJSMethodName4Java.contains("%s")){
-                    mJSMethodName4Java = mJSMethodName4Java + "(%s)";
-                }
-            }
-            return this;
+        @Override
+        public Builder setTransport(JSTransport transport) {
+            return super.setTransport(transport);
         }
 
         /**
-         * 设置协议，协议格式：scheme://host?，协议是必须进行设置的，否则报错
+         * 添加接收js数据的通道，比如{@link com.simplejsjavabridge.lib.channel.JavascriptInterfaceChannel}，
+         * {@link com.simplejsjavabridge.lib.channel.WebMessagePortChannel}，它们不会像{@code prompt()}那样阻塞js线程，
+         * js在通道可用时会优先使用它们，否则使用{@code prompt()}。各个通道的吞吐量可以通过{@link SimpleJavaJsBridge#getInboundChannelStats()}查看
          *
-         * @param scheme 比如 file或http等
-         * @param host
+         * @param inboundChannel
          * @return
          */
-        public Builder setProtocol(String scheme,String host) {
-            if(TextUtils.isEmpty(scheme) || TextUtils.isEmpty(host)){
+        public Builder addInboundChannel(InboundChannel inboundChannel) {
+            if (inboundChannel == null) {
                 return this;
             }
-            mProtocol = scheme+"://"+host+"?";
+            if (mInboundChannels == null) {
+                mInboundChannels = new ArrayList<>();
+            }
+            mInboundChannels.add(inboundChannel);
             return this;
         }
 
@@ -333,22 +248,6 @@ public class SimpleJavaJsBridge {
             return this;
         }
 
-        /**
-         * 添加java提供给js的接口
-         * @param javaMethod4JS
-         * @return
-         */
-        public Builder addJavaInterface4JS(Object javaMethod4JS) {
-            if (javaMethod4JS == null) {
-                return this;
-            }
-            if (mJavaMethod4JS == null) {
-                mJavaMethod4JS = new ArrayList();
-            }
-            mJavaMethod4JS.add(javaMethod4JS);
-            return this;
-        }
-
         /**
          * 必须进行设置
          *
@@ -360,245 +259,157 @@ public class SimpleJavaJsBridge {
             return this;
         }
 
-        /**
-         * 检测协议是否符合要求
-         *
-         * @return
-         * @throws SimpleJSBridgeException
-         */
-        private void checkProtocol()  {
-            if (TextUtils.isEmpty(mProtocol)) {
-                throw new SimpleJSBridgeException("必须调用setProtocol(String)设置协议");
-            }
-            Uri uri = Uri.parse(mProtocol);
-            if (TextUtils.isEmpty(uri.getScheme()) || TextUtils.isEmpty(uri.getHost()) || !mProtocol.endsWith("?")) {
-                throw new IllegalArgumentException("协议的格式必须是 scheme://host? 这种格式");
-            }
-        }
-
-        private void checkJSMethod()  {
-            if (TextUtils.isEmpty(mJSMethodName4Java)) {
-                throw new IllegalArgumentException("必须调用 setJSMethodName4Java(String) 方法对给js发送消息的方法进行设置");
-            }
-
-        }
-
         public SimpleJavaJsBridge create()  {
             /*检查协议是否设置，并设置正确了*/
             checkProtocol();
             checkJSMethod();
-            if (mWebView == null) {
+            if (mWebView == null && mTransport == null) {
                 throw new IllegalArgumentException("必须调用 setWebView(WebView) 方法设置Webview");
             }
             return new SimpleJavaJsBridge(this);
         }
     }
 
+    @Override
+    void postAtFrontOfMainThread(Runnable runnable) {
+        if (mMainHandler == null) {
+            super.postAtFrontOfMainThread(runnable);
+            return;
+        }
+        /*放在主线程消息队列的最前面*/
+        mMainHandler.postAtFrontOfQueue(runnable);
+    }
 
-    /**
-     * 生成调用js的命令，在调用js之前必须得调用该方法，该模式是模仿retrofit的
-     * @param tClass 必须是一个interface
-     * @param <T>
-     * @return
-     */
-    public <T> T createInvokJSCommand(Class<T> tClass) {
-        return (T) Proxy.newProxyInstance(tClass.getClassLoader(), new Class<?>[]{tClass}, new InvocationHandler() {
-            @Override
-            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-                String jsMethodName = null;
-                if (method.getAnnotation(InvokeJSInterface.class) != null) {
-                    InvokeJSInterface invokeJSInterface = method.getAnnotation(InvokeJSInterface.class);
-                    jsMethodName = invokeJSInterface.value();
-                }
+    @Override
+    void postOnMainThreadIdle(Runnable runnable) {
+        if (mMainHandler == null) {
+            /*自定义的主线程不能判断是否空闲*/
+            super.postOnMainThreadIdle(runnable);
+            return;
+        }
+        mMainHandler.post(new IdleDrainer(runnable));
+    }
 
-                RequestResponseBuilder requstBuild = new RequestResponseBuilder(true);
-                requstBuild.setInterfaceName(jsMethodName);
-                Params params = Params.createParams(method);
-                params.convertParamValues2Json(requstBuild, args);
+    @Override
+    void postDelayedOnMainThread(Runnable runnable, long delayMillis) {
+        if (mMainHandler == null) {
+            super.postDelayedOnMainThread(runnable, delayMillis);
+            return;
+        }
+        mMainHandler.postDelayed(runnable, delayMillis);
+    }
 
-                sendData2JS(requstBuild);
-                return new Object();
+    @Override
+    void postOnNextFrame(final Runnable runnable) {
+        if (mMainHandler == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN) {
+            super.postOnNextFrame(runnable);
+            return;
+        }
+        /*Choreographer只能在主线程中使用*/
+        mMainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                postFrameCallback(runnable);
             }
         });
     }
 
-    /**
-     * 存储java为js提供的接口们
-     *
-     * @param javaMethods4JSes
-     */
-    private void saveJavaMethods4JS(ArrayList javaMethods4JSes) {
-        if (javaMethods4JSes != null) {
-
-            for (int i = 0; i < javaMethods4JSes.size(); i++) {
-                Object instance = javaMethods4JSes.get(i);
-                if (instance != null) {
-
-                    //把java提供给js调用的接口放到json中
-                    Class bridgeClass = instance.getClass();
-                    Method[] allMethod = bridgeClass.getDeclaredMethods();
-                    for (Method method : allMethod) {
-
-                        //说明这是提供给js的接口
-                        if (method.getAnnotation(JavaInterface4JS.class) != null) {
-                            /*既然是提供给js的接口就得用JavascriptInterfaceKey标注，否则报错*/
-                            JavaInterface4JS jsKey = method.getAnnotation(JavaInterface4JS.class);
-                            MethodHandler methodHandler = MethodHandler.createMethodHandler(instance, method);
-                            mJavaInterfaces4JSCache.put(jsKey.value(), methodHandler);
-                        }
-                    }
-
-                }
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static void postFrameCallback(final Runnable runnable) {
+        Choreographer.getInstance().postFrameCallback(new Choreographer.FrameCallback() {
+            @Override
+            public void doFrame(long frameTimeNanos) {
+                runnable.run();
             }
-        }
+        });
     }
 
-    /**
-     * 生成唯一的回调id
-     *
-     * @return
-     */
-    private static String generaUniqueCallbackId() {
-        return ++sUniqueCallbackId + "_" + System.currentTimeMillis();
+    @Override
+    boolean isMainThread() {
+        return Looper.myLooper() == Looper.getMainLooper() || super.isMainThread();
     }
 
-    private void sendRequest2JS(RequestResponseBuilder requst) {
-        if (requst != null) {
-            String callbackId = generaUniqueCallbackId();
-            requst.setCallbackId(callbackId);
-
-        /*处理提供给js的回调方法*/
-            if (requst.getCallback() != null) {
-                Class bridgeClass = requst.getCallback().getClass();
-                Method[] allMethod = bridgeClass.getDeclaredMethods();
-                JavaCallback4JS javaCallback4JS = null;
-                for (Method method : allMethod) {
-                    javaCallback4JS = method.getAnnotation(JavaCallback4JS.class);
-                    if (javaCallback4JS != null) {
-                        mJavaCallbackMethods4JSCache.put(callbackId, MethodHandler.createMethodHandler(requst.getCallback(), method));
-                        break;
-                    }
-
-                }
-            }
-
-            startSendData2JS(requst.toString());
+    @Override
+    boolean canBlockCurrentThread() {
+        /*主线程负责发送，不能在主线程中等待队列的空间，设置了主线程executor时也不能在它的线程中等待*/
+        return !isMainThread();
+    }
 
+    @Override
+    void log(int level, String message) {
+        if (hasLogger()) {
+            super.log(level, message);
+        } else {
+            Log.println(level, TAG, message);
         }
     }
 
-    private void sendResponse2JS(RequestResponseBuilder response) {
-        if (response != null) {
-            startSendData2JS(response.toString());
+    @Override
+    void log(int level, String message, Throwable throwable) {
+        if (hasLogger()) {
+            super.log(level, message, throwable);
+        } else {
+            Log.println(level, TAG, isDebug() ? message + "\n" + Log.getStackTraceString(throwable) : message + ":" + throwable);
         }
     }
 
-    /**
-     * 发送数据给js
-     */
-    public void sendData2JS(final RequestResponseBuilder requestResponseBuilder) {
-        if (requestResponseBuilder == null) {
-            return;
-        }
+    @Override
+    boolean isTraceEnabled() {
+        return AsyncTrace.isEnabled();
+    }
 
-        if (requestResponseBuilder.isBuildRequest()) {
-            sendRequest2JS(requestResponseBuilder);
-        } else {
-            sendResponse2JS(requestResponseBuilder);
-        }
+    @Override
+    void beginAsyncTraceSection(String sectionName, int cookie) {
+        AsyncTrace.beginSection(sectionName, cookie);
     }
 
+    @Override
+    void endAsyncTraceSection(String sectionName, int cookie) {
+        AsyncTrace.endSection(sectionName, cookie);
+    }
 
     /**
-     * 开始发送数据给js
-     *
-     * @param data
+     * 在主线程空闲时执行，主线程一直不空闲时最多等待{@link #IDLE_MAX_DELAY}毫秒。
+     * 作为{@link Runnable}时在主线程中注册{@link MessageQueue.IdleHandler}
      */
-    private void startSendData2JS(String data) {
-        if (TextUtils.isEmpty(data)) {
-            return;
-        }
+    private class IdleDrainer implements Runnable, MessageQueue.IdleHandler {
+        private final Runnable mRunnable;
 
-        data = String.format(mJSMethod4SendData2JS, data);
-
-        final String finalData = data;
-        if(mIsDebug){
-
-            Log.i(TAG, "发送给js的数据:" + data );
-        }
-        mMainHandler.post(new Runnable() {
+        private final Runnable mTimeoutRunnable = new Runnable() {
             @Override
             public void run() {
-                mWebView.loadUrl(finalData);
+                Looper.myQueue().removeIdleHandler(IdleDrainer.this);
+                mRunnable.run();
             }
-        });
+        };
 
-    }
+        IdleDrainer(Runnable runnable) {
+            mRunnable = runnable;
+        }
 
-    /**
-     * 解析从js传递过来的json数据
-     *
-     * @param json
-     * @return true 代表可以解析当前数据，否则不可以解析
-     */
-    boolean parseJsonFromJs(String json) {
-        boolean result = false;
-        if (!TextUtils.isEmpty(json)) {
-            if (json.startsWith(mProtocol)) {
-                result = true;
-                json = json.substring(json.indexOf(mProtocol, 0) + mProtocol.length());
-                if(mIsDebug){
-
-                    Log.i(TAG, "收到js发送过来的数据:" + json );
-                }
-                try {
-                    JSONObject data = new JSONObject(json);
-                    if (data == null) {
-                        return false;
-                    }
-                /*开始调用java的方法*/
-                    invokeJavaMethod(RequestResponseBuilder.create(data));
-                } catch (Exception e) {
-                    e.printStackTrace();
-                }
-            }
+        @Override
+        public void run() {
+            Looper.myQueue().addIdleHandler(this);
+            mMainHandler.postDelayed(mTimeoutRunnable, IDLE_MAX_DELAY);
+        }
+
+        @Override
+        public boolean queueIdle() {
+            mMainHandler.removeCallbacks(mTimeoutRunnable);
+            mRunnable.run();
+            return false;
         }
-        return result;
     }
 
     /**
-     * 开始调用java的方法，
+     * 页面加载完毕，通知各个通道，比如{@link com.simplejsjavabridge.lib.channel.WebMessagePortChannel}需要把port发送给页面
      *
-     * @param requestResponseBuilder
+     * @param webView
      */
-    private void invokeJavaMethod(RequestResponseBuilder requestResponseBuilder) {
-        if (requestResponseBuilder == null) {
-            return;
+    void onPageFinished(WebView webView) {
+        for (InboundChannel inboundChannel : mInboundChannels) {
+            inboundChannel.onPageFinished(webView);
         }
-        /*说明这是响应数据*/
-        if (!requestResponseBuilder.isBuildRequest()) {
-            MethodHandler methodHandler = mJavaCallbackMethods4JSCache.remove(requestResponseBuilder.getResponseId());
-            if (methodHandler == null) {
-                Log.e(TAG, "回调方法不存在");
-                return;
-            }
-            methodHandler.invoke(requestResponseBuilder);
-        } else {
-            /*说明是js请求java的请求数据*/
-            MethodHandler methodHandler = mJavaInterfaces4JSCache.get(requestResponseBuilder.getInterfaceName());
-            if (methodHandler != null) {
-                methodHandler.invoke(requestResponseBuilder);
-            } else {
-                Log.e(TAG, "所调用的接口不存在");
-
-                RequestResponseBuilder errorResponse = new RequestResponseBuilder(false);
-                errorResponse.setResponseId(requestResponseBuilder.getCallbackId());
-                errorResponse.putResponseStatus("errmsg","所调用的接口不存在");
-                sendResponse2JS(errorResponse);
-            }
-
-        }
-
     }
 
 
@@ -0,0 +1,57 @@
+package com.simplejsjavabridge.lib.channel;
+
+import android.webkit.WebView;
+
+/**
+ * js给java发送数据的通道。默认js通过{@code prompt()}发送数据，{@link com.simplejsjavabridge.lib.SimpleJavaJSWebChromeClient#onJsPrompt}
+ * 会阻塞js线程直到处理完毕，还会与页面中真正的prompt混在一起，因此可以通过
+ * {@link com.simplejsjavabridge.lib.SimpleJavaJsBridge.Builder#addInboundChannel(InboundChannel)}添加其他通道，
+ * js在通道可用时会优先使用它们，所有通道收到的数据都交给同一个{@link Receiver}处理。
+ *
+ * @see JavascriptInterfaceChannel
+ * @see WebMessagePortChannel
+ */
+public interface InboundChannel {
+
+    /**
+     * 接收通道中的数据
+     */
+    interface Receiver {
+        /**
+         * 可以在任意线程中调用，数据会交给分发线程解析
+         *
+         * @param json js发送的request或response，不包含协议
+         */
+        void onReceive(String json);
+
+        /**
+         * 同步调用java的接口，在调用线程中执行，见{@link com.simplejsjavabridge.lib.annotation.JavaInterface4JS#sync()}
+         *
+         * @param json js发送的request，不包含协议
+         * @return 响应的json
+         */
+        String onReceiveSync(String json);
+    }
+
+    /**
+     * 通道的名字，用于统计
+     *
+     * @return
+     */
+    String getName();
+
+    /**
+     * 把通道与webView关联起来
+     *
+     * @param webView
+     * @param receiver
+     */
+    void attach(WebView webView, Receiver receiver);
+
+    /**
+     * 页面加载完毕
+     *
+     * @param webView
+     */
+    void onPageFinished(WebView webView);
+}
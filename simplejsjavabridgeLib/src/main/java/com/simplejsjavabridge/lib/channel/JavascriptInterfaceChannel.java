@@ -0,0 +1,67 @@
+package com.simplejsjavabridge.lib.channel;
+
+import android.annotation.SuppressLint;
+import android.os.Build;
+import android.webkit.JavascriptInterface;
+import android.webkit.WebView;
+
+/**
+ * 通过{@link WebView#addJavascriptInterface(Object, String)}接收js的数据，js调用
+ * {@code window._JSNativeBridgeChannel.postMessage(json)}发送数据，不会阻塞js线程。
+ * <p>android4.2以下的版本存在安全漏洞，因此只在android4.2及以上的版本中开启</p>
+ */
+public class JavascriptInterfaceChannel implements InboundChannel {
+
+    /**
+     * 注入到js中的对象的名字，js_native_bridge.js会检查该对象是否存在
+     */
+    public static final String JS_OBJECT_NAME = "_JSNativeBridgeChannel";
+
+    private Receiver mReceiver;
+
+    @Override
+    public String getName() {
+        return "javascriptInterface";
+    }
+
+    @SuppressLint({"JavascriptInterface", "AddJavascriptInterface"})
+    @Override
+    public void attach(WebView webView, Receiver receiver) {
+        if (webView == null || Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR1) {
+            return;
+        }
+        mReceiver = receiver;
+        webView.addJavascriptInterface(this, JS_OBJECT_NAME);
+    }
+
+    @Override
+    public void onPageFinished(WebView webView) {
+    }
+
+    /**
+     * 在js的JavaBridge线程中被调用，数据会交给分发线程处理，不会切换到主线程
+     *
+     * @param json
+     */
+    @JavascriptInterface
+    public void postMessage(String json) {
+        if (json == null || mReceiver == null) {
+            return;
+        }
+        mReceiver.onReceive(json);
+    }
+
+    /**
+     * 在js的JavaBridge线程中被调用，同步执行接口并返回响应，js调用{@code window._JSNativeBridgeChannel.postMessageSync(json)}
+     *
+     * @param json
+     * @return 响应的json
+     */
+    @JavascriptInterface
+    public String postMessageSync(String json) {
+        if (json == null || mReceiver == null) {
+            return null;
+        }
+        return mReceiver.onReceiveSync(json);
+    }
+}
@@ -0,0 +1,91 @@
+package com.simplejsjavabridge.lib.channel;
+
+import android.annotation.TargetApi;
+import android.net.Uri;
+import android.os.Build;
+import android.webkit.WebMessage;
+import android.webkit.WebMessagePort;
+import android.webkit.WebView;
+
+import java.util.Locale;
+
+/**
+ * 通过{@link WebMessagePort}接收js的数据，需要android6.0及以上的版本。
+ * <p>每次页面加载完毕都会创建一个新的{@link android.webkit.WebMessagePort}对，通过
+ * {@link WebView#postWebMessage(WebMessage, Uri)}把其中一个发送给页面，页面收到的message的data是{@link #PORT_MESSAGE}，
+ * js_native_bridge.js收到后会通过该port发送数据，收到数据的回调在主线程中执行</p>
+ * <p>port只发送给当前页面的origin，页面跳转到其他origin时不会收到；没有origin的页面(比如file://，about:blank)不发送port，
+ * js继续使用其他通道。js也只接受主frame收到的port，其他frame不能冒充</p>
+ */
+@TargetApi(Build.VERSION_CODES.M)
+public class WebMessagePortChannel implements InboundChannel {
+
+    /**
+     * 发送port给页面时的message
+     */
+    public static final String PORT_MESSAGE = "_JSNativeBridgePort";
+
+    private Receiver mReceiver;
+    private WebMessagePort[] mPorts;
+
+    @Override
+    public String getName() {
+        return "webMessagePort";
+    }
+
+    @Override
+    public void attach(WebView webView, Receiver receiver) {
+        mReceiver = receiver;
+    }
+
+    @Override
+    public void onPageFinished(WebView webView) {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.M || mReceiver == null) {
+            return;
+        }
+        closePorts();
+        Uri targetOrigin = getOrigin(webView.getUrl());
+        if (targetOrigin == null) {
+            return;
+        }
+        mPorts = webView.createWebMessageChannel();
+        mPorts[0].setWebMessageCallback(new WebMessagePort.WebMessageCallback() {
+            @Override
+            public void onMessage(WebMessagePort port, WebMessage message) {
+                String json = message.getData();
+                if (json != null) {
+                    mReceiver.onReceive(json);
+                }
+            }
+        });
+        webView.postWebMessage(new WebMessage(PORT_MESSAGE, new WebMessagePort[]{mPorts[1]}), targetOrigin);
+    }
+
+    /**
+     * 页面的origin，也就是scheme://host[:port]
+     *
+     * @param url 页面的url
+     * @return 不是http或https的页面返回null
+     */
+    static Uri getOrigin(String url) {
+        if (url == null) {
+            return null;
+        }
+        Uri uri = Uri.parse(url);
+        String scheme = uri.getScheme();
+        String host = uri.getHost();
+        if (host == null || host.isEmpty() || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+            return null;
+        }
+        host = host.toLowerCase(Locale.US);
+        String authority = uri.getPort() == -1 ? host : host + ":" + uri.getPort();
+        return new Uri.Builder().scheme(scheme.toLowerCase(Locale.US)).encodedAuthority(authority).build();
+    }
+
+    private void closePorts() {
+        if (mPorts != null) {
+            mPorts[0].close();
+            mPorts = null;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.simplejsjavabridge.lib.transport;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.webkit.WebView;
+
+/**
+ * 通过{@link WebView#evaluateJavascript(String, android.webkit.ValueCallback)}执行js代码，
+ * 需要android4.4及以上的版本，不受url长度的限制，也不需要url解码
+ */
+@TargetApi(Build.VERSION_CODES.KITKAT)
+public class EvaluateJavascriptTransport implements JSTransport {
+
+    private WebView mWebView;
+
+    public EvaluateJavascriptTransport(WebView webView) {
+        mWebView = webView;
+    }
+
+    /**
+     * 当前系统是否支持该通道
+     *
+     * @return
+     */
+    public static boolean isSupported() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.KITKAT;
+    }
+
+    @Override
+    public void evaluate(String script) {
+        mWebView.evaluateJavascript(script, null);
+    }
+}
@@ -0,0 +1,23 @@
+package com.simplejsjavabridge.lib.transport;
+
+import android.webkit.WebView;
+
+/**
+ * 通过{@link WebView#loadUrl(String)}执行js代码，所有的android版本都支持，
+ * 但是比{@link EvaluateJavascriptTransport}慢，并且受url长度的限制
+ */
+public class LoadUrlTransport implements JSTransport {
+
+    private static final String JAVASCRIPT = "javascript:";
+
+    private WebView mWebView;
+
+    public LoadUrlTransport(WebView webView) {
+        mWebView = webView;
+    }
+
+    @Override
+    public void evaluate(String script) {
+        mWebView.loadUrl(JAVASCRIPT + script);
+    }
+}